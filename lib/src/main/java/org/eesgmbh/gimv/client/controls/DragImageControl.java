@@ -16,10 +16,20 @@
 
 package org.eesgmbh.gimv.client.controls;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
 import com.google.gwt.event.shared.HandlerManager;
 import org.eesgmbh.gimv.client.event.*;
 import org.eesgmbh.gimv.client.presenter.ZoomBoxPresenter;
+import org.eesgmbh.gimv.client.util.Disposable;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
+import org.eesgmbh.gimv.client.util.PreviewCompensation;
 import org.eesgmbh.gimv.shared.util.Bounds;
+import org.eesgmbh.gimv.shared.util.BoundsQuantizer;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This control will change the image position within the viewport when the user
@@ -31,6 +41,14 @@ import org.eesgmbh.gimv.shared.util.Bounds;
  * the mandatory activation is, that dragging can both mean zooming or moving the image. Only
  * this control or the {@link ZoomBoxPresenter} can be active at the same time.
  *
+ * <p>The new domain bounds can be snapped to discrete values with {@link #setBoundsQuantizer(BoundsQuantizer)}.
+ *
+ * <p>Optionally, the image keeps moving after a fast drag and slowly comes to rest ({@link #setKineticPanning(boolean)}).
+ * The velocity is measured from the last drag movements. The domain bounds of the resting position are computed and
+ * requested as soon as the user releases the mouse button, so a long fling requires only one rendered image. The motion
+ * itself is previewed by moving the image until the new image arrives. Grabbing the image during the motion stops it
+ * and sets the domain bounds of the position reached.
+ *
  * <p>Registers with the {@link HandlerManager} to receive the following events
  * <ul>
  * 	<li> {@link ViewportDragInProgressEvent} (the control changes the image position accordingly)
@@ -38,20 +56,29 @@ import org.eesgmbh.gimv.shared.util.Bounds;
  * 	<li> {@link SetDomainBoundsEvent} (mandatory, won't work otherwise)
  * 	<li> {@link StateChangeEvent} (must be set to move for the control to do something)
  * 	<li> {@link SetMaxDomainBoundsEvent} (optional, if not received, there will be no restriction)
+ * 	<li> {@link SetViewportPixelBoundsEvent} (optional, needed for adjusting the image to snapped domain bounds)
+ * 	<li> {@link SetDataAreaPixelBoundsEvent} (optional, if the vieport contains an image which contains a data area related to {@link SetDomainBoundsEvent}, e.g. axis areas)
+ * 	<li> {@link SetImageUrlEvent} (optional, stops the kinetic motion, as the new image is shown at its final position)
  * </ul>
  *
  * <p>Fires the following events
  * <ul>
- * 	<li> {@link ChangeImagePixelBoundsEvent} fired on each {@link ViewportDragInProgressEvent}
+ * 	<li> {@link ChangeImagePixelBoundsEvent} fired on each {@link ViewportDragInProgressEvent} and after recieving {@link ViewportDragFinishedEvent}, if the domain bounds were snapped.
+ * 	Fired on each animation frame during a kinetic motion.
  * 	<li> {@link SetDomainBoundsEvent} fired after recieving {@link ViewportDragFinishedEvent} with the new domain bounds
+ * 	and on a {@link ViewportDragInProgressEvent}, which interrupts a kinetic motion
  * 	<li> {@link LoadImageDataEvent} fired after recieving {@link ViewportDragFinishedEvent}
  * </ul>
  *
  * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
  */
-public class DragImageControl {
+public class DragImageControl implements Disposable {
+
+	/** the period in milliseconds, in which drag movements are considered for the release velocity */
+	private static final long VELOCITY_SAMPLING_PERIOD = 100;
 
 	private final HandlerManager handlerManager;
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
 
 	private boolean fireLoadImageDataEvent;
 
@@ -59,6 +86,17 @@ public class DragImageControl {
 
 	private Bounds currentDomainBounds;
 	private SetMaxDomainBoundsEvent currentMaxDomainBounds;
+	private Bounds currentViewportBounds;
+	private Bounds currentDataAreaBounds;
+
+	private BoundsQuantizer boundsQuantizer;
+
+	private boolean kineticPanning;
+	private double kineticTimeConstant;
+	private double minimalKineticVelocity;
+
+	private final List<DragSample> dragSamples = new ArrayList<DragSample>();
+	private Fling currentFling;
 
 	/**
 	 * Registers with the handlerManager to receive all
@@ -70,13 +108,24 @@ public class DragImageControl {
 		this.handlerManager = handlerManager;
 
 		DragImageControlEventHandler eventHandler = new DragImageControlEventHandler();
-		handlerManager.addHandler(ViewportDragInProgressEvent.TYPE, eventHandler);
-		handlerManager.addHandler(ViewportDragFinishedEvent.TYPE, eventHandler);
-		handlerManager.addHandler(SetDomainBoundsEvent.TYPE, eventHandler);
-		handlerManager.addHandler(SetMaxDomainBoundsEvent.TYPE, eventHandler);
-		handlerManager.addHandler(StateChangeEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportDragInProgressEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportDragFinishedEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetMaxDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, StateChangeEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetViewportPixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetDataAreaPixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetImageUrlEvent.TYPE, eventHandler);
 
 		setFireLoadImageDataEvent(true);
+		setKineticPanning(false);
+		setKineticTimeConstant(325);
+		setMinimalKineticVelocity(0.3);
+	}
+
+	public void dispose() {
+		handlerRegistrations.removeHandler();
+		stopFling();
 	}
 
 	/**
@@ -91,12 +140,66 @@ public class DragImageControl {
 		this.fireLoadImageDataEvent = fireLoadImageDataEvent;
 	}
 
+	/**
+	 * <p>Snaps the new domain bounds to discrete values, so that caches for rendered images
+	 * become effective. The dragged image is adjusted to the snapped domain bounds.
+	 *
+	 * <p>Default is null (no snapping).
+	 *
+	 * @param boundsQuantizer the quantizer or null
+	 */
+	public void setBoundsQuantizer(BoundsQuantizer boundsQuantizer) {
+		this.boundsQuantizer = boundsQuantizer;
+	}
+
+	/**
+	 * <p>Specify whether the image keeps moving after a fast drag.
+	 *
+	 * <p>Requires {@link SetViewportPixelBoundsEvent} to translate the motion into domain bounds.
+	 *
+	 * <p>Default is false.
+	 *
+	 * @param kineticPanning enable it, or not
+	 */
+	public void setKineticPanning(boolean kineticPanning) {
+		this.kineticPanning = kineticPanning;
+	}
+
+	/**
+	 * <p>Sets the time constant of the exponential deceleration in milliseconds. After that time, about 63% of the total
+	 * distance are covered. The total distance is the release velocity multiplied with the time constant.
+	 *
+	 * <p>Default is 325 ms.
+	 *
+	 * @param kineticTimeConstant the time constant in milliseconds, must be positive
+	 */
+	public void setKineticTimeConstant(double kineticTimeConstant) {
+		this.kineticTimeConstant = Validate.isPositive(kineticTimeConstant);
+	}
+
+	/**
+	 * <p>Sets the release velocity in pixels per millisecond, below which the image does not keep moving.
+	 *
+	 * <p>Default is 0.3 pixels per millisecond.
+	 *
+	 * @param minimalKineticVelocity the velocity, must be positive
+	 */
+	public void setMinimalKineticVelocity(double minimalKineticVelocity) {
+		this.minimalKineticVelocity = Validate.isPositive(minimalKineticVelocity);
+	}
+
 	private void onStateChange(StateChangeEvent event) {
 		this.active = event.isMove();
 	}
 
 	private void onDragInProgress(ViewportDragInProgressEvent event) {
 		if (active) {
+			interruptFling();
+
+			if (kineticPanning) {
+				addDragSample(event.getHorizontalDragOffset(), event.getVerticalDragOffset());
+			}
+
 			this.handlerManager.fireEvent(new ChangeImagePixelBoundsEvent(event.getHorizontalDragOffset(), event.getVerticalDragOffset()));
 		}
 	}
@@ -107,30 +210,225 @@ public class DragImageControl {
 				double xOffsetProp = -event.getProportionalBounds().getWidth();
 				double yOffsetProp = -event.getProportionalBounds().getHeight();
 
-				//constraining to max bounds
-				Bounds newBounds = currentDomainBounds;
+				double[] velocity = kineticPanning ? computeVelocity() : null;
+				dragSamples.clear();
 
-				if (currentMaxDomainBounds == null || currentMaxDomainBounds.containsHorizontally(
-						currentDomainBounds.shiftProportional(xOffsetProp, 0).getLeft(),
-						currentDomainBounds.shiftProportional(xOffsetProp, 0).getRight()) ) {
-					newBounds = newBounds.shiftProportional(xOffsetProp, 0);
-				}
+				if (velocity != null && currentViewportBounds != null) {
+					startFling(xOffsetProp, yOffsetProp, velocity);
+				} else {
+					Bounds newBounds = shiftWithinMaxBounds(xOffsetProp, yOffsetProp);
 
-				if (currentMaxDomainBounds == null || currentMaxDomainBounds.containsVertically(
-						currentDomainBounds.shiftProportional(0, yOffsetProp).getTop(),
-						currentDomainBounds.shiftProportional(0, yOffsetProp).getBottom()) ) {
-					newBounds = newBounds.shiftProportional(0, yOffsetProp);
-				}
+					if (boundsQuantizer != null) {
+						newBounds = quantize(newBounds);
+					}
 
-				handlerManager.fireEvent(new SetDomainBoundsEvent(newBounds));
+					handlerManager.fireEvent(new SetDomainBoundsEvent(newBounds));
 
-				if (fireLoadImageDataEvent) {
-					handlerManager.fireEvent(new LoadImageDataEvent());
+					if (fireLoadImageDataEvent) {
+						handlerManager.fireEvent(new LoadImageDataEvent());
+					}
 				}
 			}
 		}
 	}
 
+	/**
+	 * Shifts the current domain bounds for each axis separately, as long as the max bounds are not exceeded.
+	 */
+	private Bounds shiftWithinMaxBounds(double xOffsetProp, double yOffsetProp) {
+		//constraining to max bounds
+		Bounds newBounds = currentDomainBounds;
+
+		if (currentMaxDomainBounds == null || currentMaxDomainBounds.containsHorizontally(
+				currentDomainBounds.shiftProportional(xOffsetProp, 0).getLeft(),
+				currentDomainBounds.shiftProportional(xOffsetProp, 0).getRight()) ) {
+			newBounds = newBounds.shiftProportional(xOffsetProp, 0);
+		}
+
+		if (currentMaxDomainBounds == null || currentMaxDomainBounds.containsVertically(
+				currentDomainBounds.shiftProportional(0, yOffsetProp).getTop(),
+				currentDomainBounds.shiftProportional(0, yOffsetProp).getBottom()) ) {
+			newBounds = newBounds.shiftProportional(0, yOffsetProp);
+		}
+
+		return newBounds;
+	}
+
+	/*
+	 * Kinetic panning
+	 */
+
+	private void addDragSample(int horizontalDragOffset, int verticalDragOffset) {
+		long now = currentTimeMillis();
+
+		dragSamples.add(new DragSample(now, horizontalDragOffset, verticalDragOffset));
+
+		//only the most recent movements determine the velocity
+		while (dragSamples.size() > 2 && now - dragSamples.get(0).time > VELOCITY_SAMPLING_PERIOD) {
+			dragSamples.remove(0);
+		}
+	}
+
+	/**
+	 * The release velocity in pixel per millisecond or null, if it is too slow or
+	 * the user stopped moving before releasing the mouse button.
+	 */
+	private double[] computeVelocity() {
+		if (dragSamples.size() < 2) {
+			return null;
+		}
+
+		DragSample first = dragSamples.get(0);
+		DragSample last = dragSamples.get(dragSamples.size() - 1);
+
+		long elapsed = last.time - first.time;
+
+		if (elapsed <= 0 || currentTimeMillis() - last.time > VELOCITY_SAMPLING_PERIOD / 2) {
+			return null;
+		}
+
+		//the offset of the first sample was moved before the sampling period
+		double dx = 0, dy = 0;
+		for (DragSample dragSample : dragSamples.subList(1, dragSamples.size())) {
+			dx += dragSample.horizontalDragOffset;
+			dy += dragSample.verticalDragOffset;
+		}
+
+		double[] velocity = new double[] {dx / elapsed, dy / elapsed};
+
+		if (Math.sqrt(velocity[0] * velocity[0] + velocity[1] * velocity[1]) < minimalKineticVelocity) {
+			return null;
+		}
+
+		return velocity;
+	}
+
+	private void startFling(double xOffsetProp, double yOffsetProp, double[] velocity) {
+		Bounds dataAreaBounds = currentDataAreaBounds != null ? currentDataAreaBounds : currentViewportBounds;
+
+		//the total distance of an exponentially decaying motion
+		double travelX = velocity[0] * kineticTimeConstant;
+		double travelY = velocity[1] * kineticTimeConstant;
+
+		Bounds draggedBounds = shiftWithinMaxBounds(xOffsetProp, yOffsetProp);
+		Bounds restingBounds = shiftWithinMaxBounds(xOffsetProp - travelX / dataAreaBounds.getAbsWidth(), yOffsetProp - travelY / dataAreaBounds.getAbsHeight());
+
+		if (boundsQuantizer != null) {
+			Bounds quantizedBounds = boundsQuantizer.quantize(currentDomainBounds, restingBounds);
+
+			if (currentMaxDomainBounds == null || currentMaxDomainBounds.containsHorizontally(quantizedBounds.getLeft(), quantizedBounds.getRight())) {
+				restingBounds = quantizedBounds;
+			}
+		}
+
+		//the pixel distance from the dragged position to the resting position, considering max bounds and snapping
+		Bounds restingPixelBounds = restingBounds.transform(draggedBounds, dataAreaBounds);
+
+		handlerManager.fireEvent(new SetDomainBoundsEvent(restingBounds));
+
+		currentFling = new Fling(dataAreaBounds.getLeft() - restingPixelBounds.getLeft(), dataAreaBounds.getTop() - restingPixelBounds.getTop(),
+				draggedBounds, dataAreaBounds);
+
+		//the new image might be served right away, which stops the motion
+		if (fireLoadImageDataEvent) {
+			handlerManager.fireEvent(new LoadImageDataEvent());
+		}
+
+		if (currentFling != null) {
+			requestAnimationFrame(new FlingAnimationCallback(currentFling));
+		}
+	}
+
+	private void onAnimationFrame(Fling fling) {
+		if (fling != currentFling) {
+			return;
+		}
+
+		double elapsed = currentTimeMillis() - fling.startTime;
+		double progress = 1 - Math.exp(-elapsed / kineticTimeConstant);
+
+		//the last pixel is moved at once
+		double travel = Math.max(Math.abs(fling.travelX), Math.abs(fling.travelY));
+		if (travel * (1 - progress) < 0.5) {
+			progress = 1;
+		}
+
+		int movedX = (int) Math.round(fling.travelX * progress);
+		int movedY = (int) Math.round(fling.travelY * progress);
+
+		if (movedX != fling.movedX || movedY != fling.movedY) {
+			handlerManager.fireEvent(new ChangeImagePixelBoundsEvent(movedX - fling.movedX, movedY - fling.movedY));
+
+			fling.movedX = movedX;
+			fling.movedY = movedY;
+		}
+
+		if (progress < 1) {
+			requestAnimationFrame(new FlingAnimationCallback(fling));
+		} else {
+			currentFling = null;
+		}
+	}
+
+	private void stopFling() {
+		currentFling = null;
+	}
+
+	/*
+	 * The domain bounds of the resting position have already been fired. If the user grabs the image during the motion,
+	 * the domain bounds are set back to the position the image has actually reached, so the new drag starts from there.
+	 */
+	private void interruptFling() {
+		Fling fling = currentFling;
+		stopFling();
+
+		if (fling != null) {
+			handlerManager.fireEvent(new SetDomainBoundsEvent(fling.draggedBounds.shiftProportional(
+					-fling.movedX / fling.dataAreaBounds.getAbsWidth(), -fling.movedY / fling.dataAreaBounds.getAbsHeight())));
+		}
+	}
+
+	/**
+	 * Just for testing
+	 */
+	boolean isFlinging() {
+		return currentFling != null;
+	}
+
+	long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	void requestAnimationFrame(AnimationCallback animationCallback) {
+		AnimationScheduler.get().requestAnimationFrame(animationCallback);
+	}
+
+	/**
+	 * Snaps the bounds and moves the dragged image accordingly. The snapped bounds are discarded,
+	 * if they exceed the max domain bounds.
+	 */
+	private Bounds quantize(Bounds newBounds) {
+		Bounds quantizedBounds = boundsQuantizer.quantize(currentDomainBounds, newBounds);
+
+		if (currentMaxDomainBounds != null && !currentMaxDomainBounds.containsHorizontally(quantizedBounds.getLeft(), quantizedBounds.getRight())) {
+			return newBounds;
+		}
+
+		if (currentViewportBounds != null) {
+			Bounds dataAreaBounds = currentDataAreaBounds != null ? currentDataAreaBounds : currentViewportBounds;
+
+			//the image was only moved, so the viewport bounds are good enough for rescaling
+			ChangeImagePixelBoundsEvent changeImagePixelBoundsEvent = PreviewCompensation.createChangeImagePixelBoundsEvent(
+					currentViewportBounds, dataAreaBounds, newBounds, quantizedBounds);
+
+			if (changeImagePixelBoundsEvent != null) {
+				handlerManager.fireEvent(changeImagePixelBoundsEvent);
+			}
+		}
+
+		return quantizedBounds;
+	}
+
 	private void onSetDomainBounds(SetDomainBoundsEvent event) {
 		this.currentDomainBounds = event.getBounds();
 	}
@@ -139,7 +437,8 @@ public class DragImageControl {
 		this.currentMaxDomainBounds = event;
 	}
 
-	private class DragImageControlEventHandler implements ViewportDragInProgressEventHandler, ViewportDragFinishedEventHandler, SetDomainBoundsEventHandler, SetMaxDomainBoundsEventHandler, StateChangeEventHandler {
+	private class DragImageControlEventHandler implements ViewportDragInProgressEventHandler, ViewportDragFinishedEventHandler, SetDomainBoundsEventHandler, SetMaxDomainBoundsEventHandler, StateChangeEventHandler,
+			SetViewportPixelBoundsEventHandler, SetDataAreaPixelBoundsEventHandler, SetImageUrlEventHandler {
 		public void onDragInProgress(ViewportDragInProgressEvent event) {
 			DragImageControl.this.onDragInProgress(event);
 		}
@@ -155,5 +454,56 @@ public class DragImageControl {
 		public void onStateChange(StateChangeEvent event) {
 			DragImageControl.this.onStateChange(event);
 		}
+		public void onSetViewportBounds(SetViewportPixelBoundsEvent event) {
+			currentViewportBounds = event.getBounds();
+		}
+		public void onSetDataAreaPixelBounds(SetDataAreaPixelBoundsEvent event) {
+			currentDataAreaBounds = event.getBounds();
+		}
+		public void onSetImageUrl(SetImageUrlEvent event) {
+			stopFling();
+		}
+	}
+
+	private class FlingAnimationCallback implements AnimationCallback {
+		private final Fling fling;
+
+		private FlingAnimationCallback(Fling fling) {
+			this.fling = fling;
+		}
+
+		public void execute(double timestamp) {
+			onAnimationFrame(fling);
+		}
+	}
+
+	private static class DragSample {
+		private final long time;
+		private final int horizontalDragOffset;
+		private final int verticalDragOffset;
+
+		private DragSample(long time, int horizontalDragOffset, int verticalDragOffset) {
+			this.time = time;
+			this.horizontalDragOffset = horizontalDragOffset;
+			this.verticalDragOffset = verticalDragOffset;
+		}
+	}
+
+	private class Fling {
+		private final long startTime = currentTimeMillis();
+		private final double travelX;
+		private final double travelY;
+		private final Bounds draggedBounds;
+		private final Bounds dataAreaBounds;
+
+		private int movedX;
+		private int movedY;
+
+		private Fling(double travelX, double travelY, Bounds draggedBounds, Bounds dataAreaBounds) {
+			this.travelX = travelX;
+			this.travelY = travelY;
+			this.draggedBounds = draggedBounds;
+			this.dataAreaBounds = dataAreaBounds;
+		}
 	}
 }
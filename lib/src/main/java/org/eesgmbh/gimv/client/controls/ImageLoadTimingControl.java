@@ -0,0 +1,389 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.controls;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.event.shared.HandlerManager;
+import org.eesgmbh.gimv.client.event.*;
+import org.eesgmbh.gimv.client.event.ImageLoadTimingEvent.InputType;
+import org.eesgmbh.gimv.client.imagedata.ImageDataSourceControl;
+import org.eesgmbh.gimv.client.presenter.ImagePresenter;
+import org.eesgmbh.gimv.client.util.Disposable;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+/**
+ * <p>Measures the latency perceived by the user, from an input like a mouse wheel, a pinch or a drag until
+ * the new image is displayed.
+ *
+ * <p>A measurement starts with the first input. Further inputs before the new image is displayed are considered as
+ * coalesced into the same measurement. An input, that neither changes the domain bounds nor requests an image (e.g. a wheel
+ * delta below the minimal zoom step), is discarded at the end of the browser event loop. A measurement is discarded as well, if
+ * the image data could not be loaded ({@link LoadImageDataFailedEvent}) or the browser could not load the image
+ * ({@link ImageLoadFailedEvent}). The stages are
+ * <ul>
+ * 	<li> input: a {@link ViewportMouseWheelEvent}, {@link ViewportPinchZoomEvent}, {@link ViewportDragFinishedEvent}, or
+ * 		 any other {@link SetDomainBoundsEvent} (e.g. fired on a keystroke)
+ * 	<li> load: the last {@link LoadImageDataEvent}, i.e. the request of the image data
+ * 	<li> response: the beginning {@link TransactionEvent} in which the {@link ImageDataSourceControl} publishes the image data,
+ * 		 or the {@link SetImageUrlEvent}, if there is no transaction
+ * 	<li> url: the {@link SetImageUrlEvent}
+ * 	<li> pixels: the {@link ImageLoadedEvent} fired by the {@link ImagePresenter}
+ * </ul>
+ *
+ * <p>Each stage is marked with the Performance API of the browser (<code>performance.mark()</code>), the marks are named
+ * with a prefix ({@link #setMarkPrefix(String)}) followed by the stage, e.g. <code>gimv-input</code>. After the image was
+ * displayed, the complete duration is measured as <code>gimv-input-to-pixels</code> (<code>performance.measure()</code>) and
+ * can be collected e.g. with a <code>PerformanceObserver</code>. Marking can be turned off with {@link #setPerformanceMarks(boolean)}.
+ *
+ * <p>Optionally, an {@link ImageLoadTimingEvent} is fired with the duration of each stage and the number of
+ * coalesced loads.
+ *
+ * <p>Registers with the {@link HandlerManager} to receive the following events
+ * <ul>
+ * 	<li> {@link ViewportMouseWheelEvent}, {@link ViewportPinchZoomEvent}, {@link ViewportDragFinishedEvent}, {@link SetDomainBoundsEvent}
+ * 		 (the input)
+ * 	<li> {@link LoadImageDataEvent} (mandatory, won't work otherwise)
+ * 	<li> {@link TransactionEvent} (optional, marks the response)
+ * 	<li> {@link SetImageUrlEvent} (mandatory, won't work otherwise)
+ * 	<li> {@link ImageLoadedEvent} (mandatory, won't work otherwise)
+ * 	<li> {@link LoadImageDataFailedEvent}, {@link ImageLoadFailedEvent} (optional, discard the measurement)
+ * </ul>
+ *
+ * <p>Fires the following events
+ * <ul>
+ * 	<li> {@link ImageLoadTimingEvent} after the image was displayed, if turned on
+ * </ul>
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class ImageLoadTimingControl implements Disposable {
+
+	private final HandlerManager handlerManager;
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
+
+	private String markPrefix;
+	private boolean performanceMarks;
+	private boolean fireImageLoadTimingEvent;
+
+	private InputType inputType;
+	private double inputTime = Double.NaN;
+	private double loadTime = Double.NaN;
+	private double responseTime = Double.NaN;
+	private double urlTime = Double.NaN;
+	private String url;
+	private int loadCount;
+
+	//the input has not changed the domain bounds or requested an image yet
+	private boolean inputPending;
+	private boolean inputCheckScheduled;
+
+	private String displayedUrl;
+
+	/**
+	 * Instantiates the control.
+	 *
+	 * @param handlerManager A {@link HandlerManager}
+	 */
+	public ImageLoadTimingControl(HandlerManager handlerManager) {
+		this.handlerManager = Validate.notNull(handlerManager);
+
+		ImageLoadTimingControlEventHandler eventHandler = new ImageLoadTimingControlEventHandler();
+		handlerRegistrations.add(handlerManager, ViewportMouseWheelEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportPinchZoomEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportDragFinishedEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, LoadImageDataEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, TransactionEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetImageUrlEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ImageLoadedEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, LoadImageDataFailedEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ImageLoadFailedEvent.TYPE, eventHandler);
+
+		setMarkPrefix("gimv-");
+		setPerformanceMarks(true);
+		setFireImageLoadTimingEvent(true);
+	}
+
+	public void dispose() {
+		handlerRegistrations.removeHandler();
+		reset();
+		displayedUrl = null;
+	}
+
+	/**
+	 * Sets the prefix of the performance marks and measures. Should be set, if several charts
+	 * are measured on the same page.
+	 *
+	 * <p>Default is "gimv-".
+	 *
+	 * @param markPrefix the prefix
+	 */
+	public void setMarkPrefix(String markPrefix) {
+		this.markPrefix = Validate.notNull(markPrefix);
+	}
+
+	/**
+	 * Specify whether the stages are marked with the Performance API of the browser.
+	 *
+	 * <p>Default is true.
+	 *
+	 * @param performanceMarks mark them, or not
+	 */
+	public void setPerformanceMarks(boolean performanceMarks) {
+		this.performanceMarks = performanceMarks;
+	}
+
+	/**
+	 * Specify whether an {@link ImageLoadTimingEvent} is fired after the image was displayed.
+	 *
+	 * <p>Default is true.
+	 *
+	 * @param fireImageLoadTimingEvent fire it, or not
+	 */
+	public void setFireImageLoadTimingEvent(boolean fireImageLoadTimingEvent) {
+		this.fireImageLoadTimingEvent = fireImageLoadTimingEvent;
+	}
+
+	private void onViewportInput(InputType inputType) {
+		//further inputs are coalesced into the running measurement
+		if (Double.isNaN(inputTime)) {
+			onInput(inputType);
+
+			inputPending = true;
+
+			if (!inputCheckScheduled) {
+				inputCheckScheduled = true;
+				scheduleInputCheck();
+			}
+		}
+	}
+
+	private void onInput(InputType inputType) {
+		//further inputs are coalesced into the running measurement
+		if (Double.isNaN(inputTime)) {
+			this.inputType = inputType;
+			inputTime = now();
+
+			markStage("input");
+		}
+	}
+
+	private void onSetDomainBounds() {
+		onInput(InputType.OTHER);
+
+		inputPending = false;
+	}
+
+	/**
+	 * Discards the measurement, if the input neither changed the domain bounds
+	 * nor requested an image
+	 */
+	void checkInput() {
+		inputCheckScheduled = false;
+
+		if (inputPending) {
+			reset();
+		}
+	}
+
+	private void onLoadImageData() {
+		//e.g. after a resize of the viewport
+		onSetDomainBounds();
+
+		//the last request is the one, whose image will be displayed
+		loadTime = now();
+		responseTime = Double.NaN;
+		urlTime = Double.NaN;
+		loadCount++;
+
+		markStage("load");
+	}
+
+	private void onTransaction(TransactionEvent event) {
+		if (event.isBegin() && !Double.isNaN(loadTime) && Double.isNaN(responseTime)) {
+			responseTime = now();
+
+			markStage("response");
+		}
+	}
+
+	private void onSetImageUrl(SetImageUrlEvent event) {
+		if (!Double.isNaN(loadTime) && Double.isNaN(urlTime)) {
+			urlTime = now();
+			url = event.getUrl();
+
+			if (Double.isNaN(responseTime)) {
+				responseTime = urlTime;
+				markStage("response");
+			}
+
+			markStage("url");
+
+			//the browser does not load the image again, if the url did not change
+			if (url != null && url.equals(displayedUrl)) {
+				onImageLoaded(new ImageLoadedEvent(url));
+			}
+		}
+	}
+
+	private void onImageLoaded(ImageLoadedEvent event) {
+		displayedUrl = event.getUrl();
+
+		if (Double.isNaN(urlTime) || (url != null && event.getUrl() != null && !url.equals(event.getUrl()))) {
+			return;
+		}
+
+		double pixelsTime = now();
+
+		markStage("pixels");
+
+		if (performanceMarks) {
+			measure(markPrefix + "input-to-pixels", markPrefix + "input", markPrefix + "pixels");
+		}
+
+		ImageLoadTimingEvent timingEvent = new ImageLoadTimingEvent(inputType, url,
+				loadTime - inputTime, responseTime - loadTime, urlTime - responseTime, pixelsTime - urlTime, loadCount);
+
+		reset();
+
+		if (fireImageLoadTimingEvent) {
+			handlerManager.fireEvent(timingEvent);
+		}
+	}
+
+	private void onLoadImageDataFailed() {
+		if (!Double.isNaN(loadTime)) {
+			reset();
+		}
+	}
+
+	private void onImageLoadFailed(ImageLoadFailedEvent event) {
+		//e.g. the previous image failed
+		if (Double.isNaN(urlTime) || (url != null && event.getUrl() != null && !url.equals(event.getUrl()))) {
+			return;
+		}
+
+		reset();
+	}
+
+	private void reset() {
+		inputType = null;
+		inputTime = Double.NaN;
+		loadTime = Double.NaN;
+		responseTime = Double.NaN;
+		urlTime = Double.NaN;
+		url = null;
+		loadCount = 0;
+		inputPending = false;
+	}
+
+	private void markStage(String stage) {
+		if (performanceMarks) {
+			mark(markPrefix + stage);
+		}
+	}
+
+	/*
+	 * package private, so it can be replaced for testing
+	 */
+	void scheduleInputCheck() {
+		Scheduler.get().scheduleFinally(new ScheduledCommand() {
+			public void execute() {
+				checkInput();
+			}
+		});
+	}
+
+	double now() {
+		return nativeNow();
+	}
+
+	void mark(String name) {
+		nativeMark(name);
+	}
+
+	void measure(String name, String startMark, String endMark) {
+		nativeMeasure(name, startMark, endMark);
+	}
+
+	private static native double nativeNow() /*-{
+		return $wnd.performance && $wnd.performance.now ? $wnd.performance.now() : new Date().getTime();
+	}-*/;
+
+	private static native void nativeMark(String name) /*-{
+		if ($wnd.performance && $wnd.performance.mark) {
+			$wnd.performance.mark(name);
+		}
+	}-*/;
+
+	private static native void nativeMeasure(String name, String startMark, String endMark) /*-{
+		if ($wnd.performance && $wnd.performance.measure) {
+			try {
+				$wnd.performance.measure(name, startMark, endMark);
+			} catch (e) {
+				//a mark was cleared by the application
+			}
+		}
+	}-*/;
+
+	private class ImageLoadTimingControlEventHandler implements ViewportMouseWheelEventHandler, ViewportPinchZoomEventHandler, ViewportDragFinishedEventHandler,
+			SetDomainBoundsEventHandler, LoadImageDataEventHandler, TransactionEventHandler, SetImageUrlEventHandler, ImageLoadedEventHandler,
+			LoadImageDataFailedEventHandler, ImageLoadFailedEventHandler {
+
+		public void onMouseWheel(ViewportMouseWheelEvent event) {
+			onViewportInput(InputType.WHEEL);
+		}
+
+		public void onPinchZoom(ViewportPinchZoomEvent event) {
+			onViewportInput(InputType.PINCH);
+		}
+
+		public void onDragFinished(ViewportDragFinishedEvent event) {
+			onViewportInput(InputType.DRAG);
+		}
+
+		public void onSetDomainBounds(SetDomainBoundsEvent event) {
+			ImageLoadTimingControl.this.onSetDomainBounds();
+		}
+
+		public void onLoadImageData(LoadImageDataEvent event) {
+			ImageLoadTimingControl.this.onLoadImageData();
+		}
+
+		public void onTransaction(TransactionEvent event) {
+			ImageLoadTimingControl.this.onTransaction(event);
+		}
+
+		public void onSetImageUrl(SetImageUrlEvent event) {
+			ImageLoadTimingControl.this.onSetImageUrl(event);
+		}
+
+		public void onImageLoaded(ImageLoadedEvent event) {
+			ImageLoadTimingControl.this.onImageLoaded(event);
+		}
+
+		public void onLoadImageDataFailed(LoadImageDataFailedEvent event) {
+			ImageLoadTimingControl.this.onLoadImageDataFailed();
+		}
+
+		public void onImageLoadFailed(ImageLoadFailedEvent event) {
+			ImageLoadTimingControl.this.onImageLoadFailed(event);
+		}
+	}
+}
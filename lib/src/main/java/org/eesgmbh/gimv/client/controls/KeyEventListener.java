@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.controls;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.dom.client.NativeEvent;
+
+/**
+ * Listens to key events on a single element (or the whole document) and passes
+ * them to a {@link Callback}.
+ *
+ * <p>If listening on an element, only key events targeted at the element itself are passed on, events
+ * bubbling up from its descendants are ignored. When the element (or the window) looses the focus,
+ * {@link Callback#onBlur()} is invoked, as the corresponding key up events will not be received anymore.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+class KeyEventListener {
+
+	/**
+	 * Receives the key events.
+	 */
+	interface Callback {
+		void onKeyDown(NativeEvent event);
+
+		void onKeyUp(NativeEvent event);
+
+		void onBlur();
+	}
+
+	private final JavaScriptObject target;
+	private final Callback callback;
+
+	private JavaScriptObject listeners;
+
+	/**
+	 * @param element the element or null, for listening on the whole document
+	 * @param callback the callback
+	 */
+	KeyEventListener(com.google.gwt.dom.client.Element element, Callback callback) {
+		this.target = element;
+		this.callback = callback;
+	}
+
+	void attach() {
+		if (listeners == null) {
+			listeners = addListeners(target, callback);
+		}
+	}
+
+	void detach() {
+		if (listeners != null) {
+			removeListeners(target, listeners);
+			listeners = null;
+		}
+	}
+
+	private static native JavaScriptObject addListeners(JavaScriptObject element, Callback callback) /*-{
+		var target = element ? element : $doc;
+		var blurTarget = element ? element : $wnd;
+
+		var down = $entry(function(e) {
+			if (!element || e.target == element) {
+				callback.@org.eesgmbh.gimv.client.controls.KeyEventListener.Callback::onKeyDown(Lcom/google/gwt/dom/client/NativeEvent;)(e);
+			}
+		});
+
+		var up = $entry(function(e) {
+			if (!element || e.target == element) {
+				callback.@org.eesgmbh.gimv.client.controls.KeyEventListener.Callback::onKeyUp(Lcom/google/gwt/dom/client/NativeEvent;)(e);
+			}
+		});
+
+		var blur = $entry(function(e) {
+			callback.@org.eesgmbh.gimv.client.controls.KeyEventListener.Callback::onBlur()();
+		});
+
+		target.addEventListener('keydown', down, false);
+		target.addEventListener('keyup', up, false);
+		blurTarget.addEventListener('blur', blur, false);
+
+		return {target: target, blurTarget: blurTarget, down: down, up: up, blur: blur};
+	}-*/;
+
+	private static native void removeListeners(JavaScriptObject element, JavaScriptObject listeners) /*-{
+		listeners.target.removeEventListener('keydown', listeners.down, false);
+		listeners.target.removeEventListener('keyup', listeners.up, false);
+		listeners.blurTarget.removeEventListener('blur', listeners.blur, false);
+	}-*/;
+}
@@ -16,43 +16,44 @@
 
 package org.eesgmbh.gimv.client.controls;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
 import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.NativeEvent;
-import com.google.gwt.event.dom.client.KeyCodeEvent;
 import com.google.gwt.event.dom.client.KeyCodes;
 import com.google.gwt.event.shared.EventHandler;
 import com.google.gwt.event.shared.GwtEvent;
 import com.google.gwt.event.shared.HandlerManager;
-import com.google.gwt.user.client.Element;
-import com.google.gwt.user.client.Event;
-import com.google.gwt.user.client.Event.NativePreviewEvent;
-import com.google.gwt.user.client.Event.NativePreviewHandler;
 import com.google.gwt.user.client.ui.Widget;
 import org.eesgmbh.gimv.client.event.*;
+import org.eesgmbh.gimv.client.util.Disposable;
 import org.eesgmbh.gimv.client.util.EventAccumulator;
 import org.eesgmbh.gimv.client.util.EventAccumulator.Callback;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
+import org.eesgmbh.gimv.client.util.PreviewCompensation;
 import org.eesgmbh.gimv.client.widgets.Viewport;
 import org.eesgmbh.gimv.shared.util.Bounds;
+import org.eesgmbh.gimv.shared.util.BoundsQuantizer;
 import org.eesgmbh.gimv.shared.util.Direction;
 import org.eesgmbh.gimv.shared.util.Validate;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 
 /**
  * <p>This control can be used to move the image with keystrokes, eg. with the arrow keys.
  *
- * <p>It is implemented as a {@link NativePreviewHandler}, which will do something if the target {@link Element}
- * of the keystroke (the receiver of the key event) is one of the elements registered here. To register an {@link Element} invoke {@link #addTargetElement(Element)}.
+ * <p>Key listeners are attached to the elements registered here, the control will do something if the target {@link Element}
+ * of the keystroke (the receiver of the key event) is one of these elements. To register an {@link Element} invoke {@link #addTargetElement(Element)}.
  * The target element of the browser's key events is the one which is currently focused, e.g. because the user clicked on the element.
  * Not all elements are focusable (e.g. an image is not, wheras a drop down menu is). If the user clicked on a non-focusable element,
  * the target element is the document's HTML section (in FF) or the BODY section (in Chrome), IE seems to be able to focus on any element but
  * its behavior is generally quirky.
  *
- * <p>If you register no element at all, the control will take action on the registered key strokes ignoring the target element. You may encounter
+ * <p>If you register no element at all, the control listens on the whole document and will take action on the registered key strokes ignoring the target element. You may encounter
  * problems with that approach. E.g. if the user scrolls through a drop down menu using the arrow keys the GIMV-image will react as well.
  *
  * <p>For optimal user experience register focusable elements like {@link Viewport} and also invoke {@link #addDocumentAndBodyAsTarget()}. Test your setup
@@ -66,6 +67,12 @@ import java.util.Map;
  * only triggered after the user did not hit a key for 500ms. The value can be change with {@link #setLoadImageDataEventFiringDelay(int)}.
  * Thus, when the user presses a key, only the last of the resulting successive key events will lead to a {@link LoadImageDataEvent}.
  *
+ * <p>Alternatively, the image can be moved continuously while a key is held down ({@link #setHoldToPan(boolean)}). The image
+ * then moves at a constant rate on each animation frame, ignoring the keyboard's auto-repeat, and a single {@link LoadImageDataEvent}
+ * is fired after the key was released.
+ *
+ * <p>The new domain bounds can be snapped to discrete values with {@link #setBoundsQuantizer(BoundsQuantizer)}.
+ *
  * <p>Registers with the {@link HandlerManager} to receive the following events
  * <ul>
  * 	<li> {@link SetDomainBoundsEvent} (mandatory, won't work otherwise)
@@ -83,14 +90,28 @@ import java.util.Map;
  *
  * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
  */
-public class KeystrokeControl {
+public class KeystrokeControl implements Disposable {
 
 	private boolean fireLoadImageDataEvent;
 	private boolean fireChangeImagePixelBoundsEvent;
 	private boolean cancelEvent;
 
-	private final List<com.google.gwt.dom.client.Element> registeredTargetElements = new ArrayList<com.google.gwt.dom.client.Element>();
-	private final Map<KeyCodeMapKey, KeyCodeMapValue> registeredKeycodes = new HashMap<KeyCodeMapKey, KeyCodeMapValue>();
+	private final List<KeyEventListener> keyEventListeners = new ArrayList<KeyEventListener>();
+	private final KeyEventListener documentKeyEventListener;
+	private final IntKeyMap<KeyCodeMapValue> registeredKeycodes = new IntKeyMap<KeyCodeMapValue>();
+
+	private boolean holdToPan;
+	private int holdToPanInterval;
+
+	/**
+	 * The keys currently held down with hold to pan, by keycode
+	 */
+	private final IntKeyMap<KeyCodeMapValue> heldKeys = new IntKeyMap<KeyCodeMapValue>();
+	private Bounds holdStartDomainBounds;
+	private double lastFrameTimestamp;
+	private double pendingHorShift;
+	private double pendingVerShift;
+	private boolean animationFrameRequested;
 
 	private SetDomainBoundsEvent currentSetDomainBoundsEvent;
 	private SetMaxDomainBoundsEvent currentMaxDomainBoundsEvent;
@@ -98,7 +119,10 @@ public class KeystrokeControl {
 	private SetViewportPixelBoundsEvent currentViewportBoundsEvent;
 
 	private EventAccumulator eventAccumulator;
+	private BoundsQuantizer boundsQuantizer;
 	private final HandlerManager handlerManager;
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
+	private final KeystrokeControlEventHandler eventHandler;
 
 	/**
 	 * Instantiates the control with default configuration.
@@ -108,18 +132,37 @@ public class KeystrokeControl {
 	public KeystrokeControl(HandlerManager handlerManager) {
 		this.handlerManager = Validate.notNull(handlerManager);
 
-		KeystrokeControlEventHandler eventHandler = new KeystrokeControlEventHandler();
-		this.handlerManager.addHandler(SetDomainBoundsEvent.TYPE, eventHandler);
-		this.handlerManager.addHandler(SetMaxDomainBoundsEvent.TYPE, eventHandler);
-		this.handlerManager.addHandler(SetDataAreaPixelBoundsEvent.TYPE, eventHandler);
-		this.handlerManager.addHandler(SetViewportPixelBoundsEvent.TYPE, eventHandler);
+		eventHandler = new KeystrokeControlEventHandler();
+		handlerRegistrations.add(handlerManager, SetDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetMaxDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetDataAreaPixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetViewportPixelBoundsEvent.TYPE, eventHandler);
 
-		Event.addNativePreviewHandler(new KeystrokeNativePreviewHandler());
+		//listening on the whole document until a target element is added
+		documentKeyEventListener = createKeyEventListener(null, eventHandler);
+		documentKeyEventListener.attach();
 
 		setFireLoadImageDataEvent(true);
 		setFireChangeImagePixelBoundsEvent(true);
 		setCancelEvent(false);
 		setLoadImageDataEventFiringDelay(500);
+		setHoldToPan(false);
+		setHoldToPanInterval(100);
+	}
+
+	public void dispose() {
+		handlerRegistrations.removeHandler();
+
+		documentKeyEventListener.detach();
+		for (KeyEventListener keyEventListener : keyEventListeners) {
+			keyEventListener.detach();
+		}
+		keyEventListeners.clear();
+
+		//the hold to pan loop stops with the next animation frame
+		heldKeys.clear();
+
+		eventAccumulator.cancel();
 	}
 
 	/**
@@ -127,8 +170,17 @@ public class KeystrokeControl {
 	 *
 	 * @param element Target element. Can be obtained from a widget by calling {@link Widget#getElement()}
 	 */
-	public void addTargetElement(com.google.gwt.dom.client.Element element) {
-		this.registeredTargetElements.add(element);
+	public void addTargetElement(Element element) {
+		Validate.notNull(element);
+
+		if (keyEventListeners.isEmpty()) {
+			documentKeyEventListener.detach();
+		}
+
+		KeyEventListener keyEventListener = createKeyEventListener(element, eventHandler);
+		keyEventListener.attach();
+
+		keyEventListeners.add(keyEventListener);
 	}
 
 	/**
@@ -168,7 +220,31 @@ public class KeystrokeControl {
 	 * @param offsetInPixel How much to move the image in pixels
 	 */
 	public void registerKey(int keycode, boolean ctrl, boolean alt, boolean shift, boolean meta, Direction direction, int offsetInPixel) {
-		this.registeredKeycodes.put(new KeyCodeMapKey(keycode, ctrl, alt, shift, meta), new KeyCodeMapValue(direction, offsetInPixel));
+		this.registeredKeycodes.put(createKey(keycode, ctrl, alt, shift, meta), new KeyCodeMapValue(direction, offsetInPixel));
+	}
+
+	/**
+	 * <p>Specify whether the image moves continuously while a registered key is held down. The keyboard's
+	 * auto-repeat is ignored and a single {@link LoadImageDataEvent} is fired after the key was released.
+	 *
+	 * <p>Default is false.
+	 *
+	 * @param holdToPan enable it, or not
+	 */
+	public void setHoldToPan(boolean holdToPan) {
+		this.holdToPan = holdToPan;
+	}
+
+	/**
+	 * <p>Sets the speed of hold to pan. While a key is held down, the image moves by the key's registered offset
+	 * every <code>intervalInMillis</code>, interpolated on each animation frame.
+	 *
+	 * <p>Default is 100 ms.
+	 *
+	 * @param intervalInMillis the interval in milliseconds, must be positive
+	 */
+	public void setHoldToPanInterval(int intervalInMillis) {
+		this.holdToPanInterval = (int) Validate.isPositive(intervalInMillis);
 	}
 
 	/**
@@ -228,79 +304,215 @@ public class KeystrokeControl {
 		}
 	}
 
-	private void onPreviewNativeEvent(NativePreviewEvent preview) {
-		NativeEvent event = preview.getNativeEvent();
-
-		if (isKeystroke(event)) { //quickly return, if there is no key stroke
-			if (currentSetDomainBoundsEvent != null && currentViewportBoundsEvent != null && isKeyDown(event) && isTargetElementMatch(event) && isKeycodeMatch(event)) {
-				KeyCodeMapValue keyCodeMapValue = registeredKeycodes.get(createKey(event));
-
-				int horShiftInPixels;
-				int verShiftInPixels;
-
-				switch (keyCodeMapValue.direction) {
-				case WEST:
-					horShiftInPixels = -keyCodeMapValue.offsetInPixel;
-					verShiftInPixels = 0;
-					break;
-				case EAST:
-					horShiftInPixels = keyCodeMapValue.offsetInPixel;
-					verShiftInPixels = 0;
-					break;
-				case NORTH:
-					horShiftInPixels = 0;
-					verShiftInPixels = -keyCodeMapValue.offsetInPixel;
-					break;
-				case SOUTH:
-					horShiftInPixels = 0;
-					verShiftInPixels = keyCodeMapValue.offsetInPixel;
-					break;
-				default:
-					throw new IllegalArgumentException();
-				}
+	/**
+	 * <p>Snaps the new domain bounds to discrete values, so that caches for rendered images
+	 * become effective. The preview is adjusted to the snapped domain bounds.
+	 *
+	 * <p>Default is null (no snapping).
+	 *
+	 * @param boundsQuantizer the quantizer or null
+	 */
+	public void setBoundsQuantizer(BoundsQuantizer boundsQuantizer) {
+		this.boundsQuantizer = boundsQuantizer;
+	}
 
-				//the exact opposite, if the image moved to the right (+pixel), the new image must be rendered starting at -10 pixels
-				Bounds shiftedTo = getViewportDataAreaBounds().shiftAbsolute(-horShiftInPixels, -verShiftInPixels);
-				Bounds newBounds = shiftedTo.transform(getViewportDataAreaBounds(), currentSetDomainBoundsEvent.getBounds());
+	private void onKeyDown(NativeEvent event) {
+		if (onKeyDown(event.getKeyCode(), event.getCtrlKey(), event.getAltKey(), event.getShiftKey(), event.getMetaKey()) && cancelEvent) {
+			event.preventDefault();
+		}
+	}
 
-				if (currentMaxDomainBoundsEvent == null ||
-						(currentMaxDomainBoundsEvent.containsHorizontally(newBounds.getLeft(), newBounds.getRight()) &&
-								currentMaxDomainBoundsEvent.containsVertically(newBounds.getTop(), newBounds.getBottom()))) {
+	/**
+	 * @return true, if the keystroke is registered and was handled
+	 */
+	boolean onKeyDown(int keycode, boolean ctrl, boolean alt, boolean shift, boolean meta) {
+		KeyCodeMapValue keyCodeMapValue = registeredKeycodes.get(createKey(keycode, ctrl, alt, shift, meta));
+
+		if (keyCodeMapValue != null && currentSetDomainBoundsEvent != null && currentViewportBoundsEvent != null) {
+			if (holdToPan) {
+				startHold(keycode, keyCodeMapValue);
+			} else {
+				shift(keyCodeMapValue.getHorizontalShift(), keyCodeMapValue.getVerticalShift(), true);
+			}
 
-					if (fireChangeImagePixelBoundsEvent) {
-						handlerManager.fireEvent(new ChangeImagePixelBoundsEvent(horShiftInPixels, verShiftInPixels));
-					}
+			return true;
+		}
 
-					handlerManager.fireEvent(new SetDomainBoundsEvent(newBounds));
+		return false;
+	}
 
-					eventAccumulator.addEvent(new LoadImageDataEvent());
-				}
+	void onKeyUp(int keycode) {
+		if (heldKeys.remove(keycode) != null && heldKeys.isEmpty()) {
+			finishHold();
+		}
+	}
 
-				if (cancelEvent) {
-					preview.cancel();
-				}
+	void onBlur() {
+		if (!heldKeys.isEmpty()) {
+			heldKeys.clear();
+			finishHold();
+		}
+	}
+
+	/**
+	 * Shifts the image and the domain bounds by pixels, returns false if the max domain bounds would be exceeded.
+	 */
+	private boolean shift(int horShiftInPixels, int verShiftInPixels, boolean load) {
+		//the exact opposite, if the image moved to the right (+pixel), the new image must be rendered starting at -10 pixels
+		Bounds shiftedTo = getViewportDataAreaBounds().shiftAbsolute(-horShiftInPixels, -verShiftInPixels);
+		Bounds newBounds = shiftedTo.transform(getViewportDataAreaBounds(), currentSetDomainBoundsEvent.getBounds());
+
+		if (currentMaxDomainBoundsEvent == null ||
+				(currentMaxDomainBoundsEvent.containsHorizontally(newBounds.getLeft(), newBounds.getRight()) &&
+						currentMaxDomainBoundsEvent.containsVertically(newBounds.getTop(), newBounds.getBottom()))) {
+
+			//snapping is deferred until a held key is released
+			Bounds quantizedBounds = load ? quantize(currentSetDomainBoundsEvent.getBounds(), newBounds) : newBounds;
+
+			if (fireChangeImagePixelBoundsEvent) {
+				handlerManager.fireEvent(new ChangeImagePixelBoundsEvent(horShiftInPixels, verShiftInPixels));
+
+				fireCompensationEvent(newBounds, quantizedBounds);
+			}
+
+			handlerManager.fireEvent(new SetDomainBoundsEvent(quantizedBounds));
+
+			if (load) {
+				eventAccumulator.addEvent(new LoadImageDataEvent());
 			}
+
+			return true;
 		}
+
+		return false;
 	}
 
-	private boolean isKeystroke(NativeEvent event) {
-		return event.getKeyCode() > 1;
+	/*
+	 * Hold to pan
+	 */
+
+	private void startHold(int keycode, KeyCodeMapValue keyCodeMapValue) {
+		//the auto-repeat of a held key is ignored
+		if (heldKeys.containsKey(keycode)) {
+			return;
+		}
+
+		if (heldKeys.isEmpty()) {
+			holdStartDomainBounds = currentSetDomainBoundsEvent.getBounds();
+
+			//the first step is immediate, so a short key press behaves like a single keystroke
+			shift(keyCodeMapValue.getHorizontalShift(), keyCodeMapValue.getVerticalShift(), false);
+		}
+
+		heldKeys.put(keycode, keyCodeMapValue);
+
+		if (!animationFrameRequested) {
+			lastFrameTimestamp = -1;
+			scheduleAnimationFrame();
+		}
 	}
 
-	private boolean isKeyDown(NativeEvent event) {
-		return event.getType().equalsIgnoreCase("keydown");
+	private void onAnimationFrame(double timestamp) {
+		animationFrameRequested = false;
+
+		if (heldKeys.isEmpty()) {
+			return;
+		}
+
+		if (lastFrameTimestamp >= 0) {
+			double elapsedIntervals = (timestamp - lastFrameTimestamp) / holdToPanInterval;
+
+			for (int i = 0; i < heldKeys.size(); i++) {
+				KeyCodeMapValue keyCodeMapValue = heldKeys.valueAt(i);
+
+				pendingHorShift += keyCodeMapValue.getHorizontalShift() * elapsedIntervals;
+				pendingVerShift += keyCodeMapValue.getVerticalShift() * elapsedIntervals;
+			}
+
+			//only whole pixels are moved, the remainder is carried over to the next frame
+			int horShift = (int) pendingHorShift;
+			int verShift = (int) pendingVerShift;
+
+			if (horShift != 0 || verShift != 0) {
+				pendingHorShift -= horShift;
+				pendingVerShift -= verShift;
+
+				shift(horShift, verShift, false);
+			}
+		}
+
+		lastFrameTimestamp = timestamp;
+
+		scheduleAnimationFrame();
+	}
+
+	private void scheduleAnimationFrame() {
+		animationFrameRequested = true;
+		requestAnimationFrame(eventHandler);
+	}
+
+	void requestAnimationFrame(AnimationCallback animationCallback) {
+		AnimationScheduler.get().requestAnimationFrame(animationCallback);
+	}
+
+	KeyEventListener createKeyEventListener(Element element, KeyEventListener.Callback callback) {
+		return new KeyEventListener(element, callback);
+	}
+
+	private void finishHold() {
+		pendingHorShift = 0;
+		pendingVerShift = 0;
+
+		if (holdStartDomainBounds != null) {
+			Bounds newBounds = currentSetDomainBoundsEvent.getBounds();
+			Bounds quantizedBounds = quantize(holdStartDomainBounds, newBounds);
+
+			if (!quantizedBounds.equals(newBounds)) {
+				if (fireChangeImagePixelBoundsEvent) {
+					fireCompensationEvent(newBounds, quantizedBounds);
+				}
+
+				handlerManager.fireEvent(new SetDomainBoundsEvent(quantizedBounds));
+			}
+
+			holdStartDomainBounds = null;
+
+			eventAccumulator.addEvent(new LoadImageDataEvent());
+		}
 	}
 
-	private boolean isTargetElementMatch(NativeEvent event) {
-		return registeredTargetElements.isEmpty() || registeredTargetElements.contains(event.getEventTarget().cast());
+	/**
+	 * Moves the image on to the snapped domain bounds
+	 */
+	private void fireCompensationEvent(Bounds newBounds, Bounds quantizedBounds) {
+		ChangeImagePixelBoundsEvent compensationEvent = PreviewCompensation.createChangeImagePixelBoundsEvent(
+				currentViewportBoundsEvent.getBounds(), getViewportDataAreaBounds(), newBounds, quantizedBounds);
+
+		if (compensationEvent != null) {
+			handlerManager.fireEvent(compensationEvent);
+		}
 	}
 
-	private boolean isKeycodeMatch(NativeEvent event) {
-		return registeredKeycodes.containsKey(createKey(event));
+	/**
+	 * Snaps the bounds, unless there is no quantizer or the snapped bounds exceed the max domain bounds.
+	 */
+	private Bounds quantize(Bounds previousBounds, Bounds newBounds) {
+		if (boundsQuantizer != null) {
+			Bounds quantizedBounds = boundsQuantizer.quantize(previousBounds, newBounds);
+
+			if (currentMaxDomainBoundsEvent == null || currentMaxDomainBoundsEvent.containsHorizontally(quantizedBounds.getLeft(), quantizedBounds.getRight())) {
+				return quantizedBounds;
+			}
+		}
+
+		return newBounds;
 	}
 
-	private KeyCodeMapKey createKey(NativeEvent event) {
-		return new KeyCodeMapKey(event.getKeyCode(), event.getCtrlKey(), event.getAltKey(), event.getShiftKey(), event.getMetaKey());
+	/**
+	 * The keycode and the state of the modifier keys packed into a single int
+	 */
+	private static int createKey(int keycode, boolean ctrl, boolean alt, boolean shift, boolean meta) {
+		return (keycode << 4) | (ctrl ? 1 : 0) | (alt ? 2 : 0) | (shift ? 4 : 0) | (meta ? 8 : 0);
 	}
 
 	private Bounds getViewportDataAreaBounds() {
@@ -327,12 +539,6 @@ public class KeystrokeControl {
 		currentViewportBoundsEvent = event;
 	}
 
-	private class KeystrokeNativePreviewHandler implements NativePreviewHandler {
-		public void onPreviewNativeEvent(NativePreviewEvent preview) {
-			KeystrokeControl.this.onPreviewNativeEvent(preview);
-		}
-	}
-
 	/*
 	 * Gets invoked after a configurable delay and causes the
 	 * image to be actually rendered.
@@ -345,7 +551,8 @@ public class KeystrokeControl {
 		}
 	}
 
-	private class KeystrokeControlEventHandler implements SetDomainBoundsEventHandler, SetMaxDomainBoundsEventHandler, SetDataAreaPixelBoundsEventHandler, SetViewportPixelBoundsEventHandler {
+	private class KeystrokeControlEventHandler implements SetDomainBoundsEventHandler, SetMaxDomainBoundsEventHandler, SetDataAreaPixelBoundsEventHandler, SetViewportPixelBoundsEventHandler,
+			KeyEventListener.Callback, AnimationCallback {
 		public void onSetDomainBounds(SetDomainBoundsEvent event) {
 			KeystrokeControl.this.onSetDomainBounds(event);
 		}
@@ -361,60 +568,92 @@ public class KeystrokeControl {
 		public void onSetViewportBounds(SetViewportPixelBoundsEvent event) {
 			KeystrokeControl.this.onSetViewportBounds(event);
 		}
+
+		public void onKeyDown(NativeEvent event) {
+			KeystrokeControl.this.onKeyDown(event);
+		}
+
+		public void onKeyUp(NativeEvent event) {
+			KeystrokeControl.this.onKeyUp(event.getKeyCode());
+		}
+
+		public void onBlur() {
+			KeystrokeControl.this.onBlur();
+		}
+
+		public void execute(double timestamp) {
+			KeystrokeControl.this.onAnimationFrame(timestamp);
+		}
 	}
 
-	private class KeyCodeMapKey {
-		private int keycode;
-		private boolean ctrl;
-		private boolean alt;
-		private boolean shift;
-		private boolean meta;
-
-		private KeyCodeMapKey(int keycode, boolean ctrl, boolean alt, boolean shift, boolean meta) {
-			this.keycode = keycode;
-			this.ctrl = ctrl;
-			this.alt = alt;
-			this.shift = shift;
-			this.meta = meta;
-		}
-
-		private KeyCodeMapKey(KeyCodeEvent gwtKeyCodeEvent) {
-			this(gwtKeyCodeEvent.getNativeKeyCode(), gwtKeyCodeEvent.isControlKeyDown(), gwtKeyCodeEvent.isAltKeyDown(),
-					gwtKeyCodeEvent.isShiftKeyDown(), gwtKeyCodeEvent.isMetaKeyDown());
-		}
-
-		@Override
-		public int hashCode() {
-			final int prime = 31;
-			int result = 1;
-			result = prime * result + (this.alt ? 1231 : 1237);
-			result = prime * result + (this.ctrl ? 1231 : 1237);
-			result = prime * result + this.keycode;
-			result = prime * result + (this.meta ? 1231 : 1237);
-			result = prime * result + (this.shift ? 1231 : 1237);
-			return result;
-		}
-
-		@Override
-		public boolean equals(Object obj) {
-			if (this == obj)
-				return true;
-			if (obj == null)
-				return false;
-			if (getClass() != obj.getClass())
-				return false;
-			KeyCodeMapKey other = (KeyCodeMapKey) obj;
-			if (this.alt != other.alt)
-				return false;
-			if (this.ctrl != other.ctrl)
-				return false;
-			if (this.keycode != other.keycode)
-				return false;
-			if (this.meta != other.meta)
-				return false;
-			if (this.shift != other.shift)
-				return false;
-			return true;
+	/**
+	 * A small map with int keys, looked up without boxing the key on every key event
+	 */
+	private static final class IntKeyMap<V> {
+		private int[] keys = new int[8];
+		private final List<V> values = new ArrayList<V>();
+
+		private V get(int key) {
+			int index = indexOf(key);
+
+			return index >= 0 ? values.get(index) : null;
+		}
+
+		private boolean containsKey(int key) {
+			return indexOf(key) >= 0;
+		}
+
+		private void put(int key, V value) {
+			int index = indexOf(key);
+
+			if (index >= 0) {
+				values.set(index, value);
+			} else {
+				if (values.size() == keys.length) {
+					keys = Arrays.copyOf(keys, keys.length * 2);
+				}
+
+				keys[values.size()] = key;
+				values.add(value);
+			}
+		}
+
+		private V remove(int key) {
+			int index = indexOf(key);
+
+			if (index < 0) {
+				return null;
+			}
+
+			System.arraycopy(keys, index + 1, keys, index, values.size() - index - 1);
+
+			return values.remove(index);
+		}
+
+		private V valueAt(int index) {
+			return values.get(index);
+		}
+
+		private int size() {
+			return values.size();
+		}
+
+		private boolean isEmpty() {
+			return values.isEmpty();
+		}
+
+		private void clear() {
+			values.clear();
+		}
+
+		private int indexOf(int key) {
+			for (int i = 0; i < values.size(); i++) {
+				if (keys[i] == key) {
+					return i;
+				}
+			}
+
+			return -1;
 		}
 	}
 
@@ -426,5 +665,27 @@ public class KeystrokeControl {
 			this.direction = direction;
 			this.offsetInPixel = offsetInPixel;
 		}
+
+		private int getHorizontalShift() {
+			switch (direction) {
+			case WEST:
+				return -offsetInPixel;
+			case EAST:
+				return offsetInPixel;
+			default:
+				return 0;
+			}
+		}
+
+		private int getVerticalShift() {
+			switch (direction) {
+			case NORTH:
+				return -offsetInPixel;
+			case SOUTH:
+				return offsetInPixel;
+			default:
+				return 0;
+			}
+		}
 	}
 }
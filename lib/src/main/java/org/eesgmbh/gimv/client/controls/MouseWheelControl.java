@@ -16,14 +16,20 @@
 
 package org.eesgmbh.gimv.client.controls;
 
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.dom.client.NativeEvent;
 import com.google.gwt.event.dom.client.MouseWheelEvent;
 import com.google.gwt.event.shared.EventHandler;
 import com.google.gwt.event.shared.GwtEvent;
 import com.google.gwt.event.shared.HandlerManager;
 import org.eesgmbh.gimv.client.event.*;
+import org.eesgmbh.gimv.client.util.Disposable;
 import org.eesgmbh.gimv.client.util.EventAccumulator;
 import org.eesgmbh.gimv.client.util.EventAccumulator.Callback;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
+import org.eesgmbh.gimv.client.util.PreviewCompensation;
 import org.eesgmbh.gimv.shared.util.Bounds;
+import org.eesgmbh.gimv.shared.util.BoundsQuantizer;
 import org.eesgmbh.gimv.shared.util.Point;
 import org.eesgmbh.gimv.shared.util.Validate;
 
@@ -45,9 +51,20 @@ import java.util.List;
  * restricts the number of {@link LoadImageDataEvent}, potentially causing expensive rendering on the server side.
  * The value can be changed with {@link #setLoadImageDataEventFiringDelay(int)}.
  *
+ * <p>Wheel deltas are measured in fractions of a wheel notch, so that high resolution wheels and trackpads
+ * zoom smoothly. Small deltas are accumulated until they exceed {@link #setMinimalZoomStep(double)}, deltas without a
+ * net change are dropped without firing any events. The accumulated delta is dropped, when the direction changes or
+ * no delta was received for 500ms, so that a leftover does not add to a later gesture.
+ *
+ * <p>Pinch gestures ({@link ViewportPinchZoomEvent}) zoom the same way, centered on the pinch center. A pinch
+ * scale of 1 + zoomFactor * 2 corresponds to one wheel notch.
+ *
+ * <p>The new domain bounds can be snapped to discrete values with {@link #setBoundsQuantizer(BoundsQuantizer)}.
+ *
  * <p>Registers with the {@link HandlerManager} to receive the following events
  * <ul>
  * 	<li> {@link ViewportMouseWheelEvent} (mandatory, won't do anything otherwise)
+ * 	<li> {@link ViewportPinchZoomEvent} (optional, if the viewport captures Pointer Events)
  * 	<li> {@link SetDomainBoundsEvent} (mandatory, won't work otherwise)
  * 	<li> {@link SetViewportPixelBoundsEvent} (mandatory, won't work otherwise)
  * 	<li> {@link SetMaxDomainBoundsEvent} (optional, if not received, there will be no restriction)
@@ -63,14 +80,22 @@ import java.util.List;
  *
  * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
  */
-public class MouseWheelControl {
+public class MouseWheelControl implements Disposable {
+
+	private static final double ACCUMULATED_NOTCHES_TIMEOUT_MILLIS = 500;
 
 	private final HandlerManager handlerManager;
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
 
 	private double zoomFactor;
 	private boolean previewZoomByRescalingTheImage;
 	private boolean fireLoadImageDataEvent;
 	private EventAccumulator eventAccumulator;
+	private BoundsQuantizer boundsQuantizer;
+	private double minimalZoomStep;
+
+	private double accumulatedNotches;
+	private double lastAccumulationTime = Double.NEGATIVE_INFINITY;
 
 	private SetDomainBoundsEvent currentSetDomainBoundsEvent;
 	private SetMaxDomainBoundsEvent currentMaxDomainBoundsEvent;
@@ -86,16 +111,23 @@ public class MouseWheelControl {
 		this.handlerManager = Validate.notNull(handlerManager);
 
 		MouseWheelControlEventHandler eventHandler = new MouseWheelControlEventHandler();
-		this.handlerManager.addHandler(ViewportMouseWheelEvent.TYPE, eventHandler);
-		this.handlerManager.addHandler(SetDomainBoundsEvent.TYPE, eventHandler);
-		this.handlerManager.addHandler(SetMaxDomainBoundsEvent.TYPE, eventHandler);
-		this.handlerManager.addHandler(SetDataAreaPixelBoundsEvent.TYPE, eventHandler);
-		this.handlerManager.addHandler(SetViewportPixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportMouseWheelEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportPinchZoomEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetMaxDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetDataAreaPixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetViewportPixelBoundsEvent.TYPE, eventHandler);
 
 		setZoomFactor(0.2);
 		setPreviewZoomByRescalingTheImage(true);
 		setFireLoadImageDataEvent(true);
 		setLoadImageDataEventFiringDelay(150);
+		setMinimalZoomStep(0.1);
+	}
+
+	public void dispose() {
+		handlerRegistrations.removeHandler();
+		eventAccumulator.cancel();
 	}
 
 	/**
@@ -150,13 +182,76 @@ public class MouseWheelControl {
 		}
 	}
 
+	/**
+	 * <p>Sets the minimal zoom step in wheel notches. Smaller wheel deltas, as sent by trackpads or high resolution
+	 * wheels, are accumulated until the step is reached.
+	 *
+	 * <p>If a {@link BoundsQuantizer} is set, the minimal zoom step is at least one notch, as
+	 * the quantizer moves at least one step on the zoom ladder anyway.
+	 *
+	 * <p>Default is 0.1.
+	 *
+	 * @param minimalZoomStep the minimal step in wheel notches, must be positive
+	 */
+	public void setMinimalZoomStep(double minimalZoomStep) {
+		this.minimalZoomStep = Validate.isPositive(minimalZoomStep);
+	}
+
+	/**
+	 * <p>Snaps the new domain bounds to discrete values, so that caches for rendered images
+	 * become effective. The preview is adjusted to the snapped domain bounds.
+	 *
+	 * <p>Default is null (no snapping).
+	 *
+	 * @param boundsQuantizer the quantizer or null
+	 */
+	public void setBoundsQuantizer(BoundsQuantizer boundsQuantizer) {
+		this.boundsQuantizer = boundsQuantizer;
+	}
+
 	private void onMouseWheel(ViewportMouseWheelEvent event) {
+		MouseWheelEvent mouseWheelEvent = event.getMouseWheelEvent();
+
+		//the sign of the unrounded delta, the rounded one of GWT is 0 for small trackpad deltas
+		double notches = computeNotches(mouseWheelEvent);
+
+		if (notches != 0) {
+			zoomAt(mouseWheelEvent.getX(), mouseWheelEvent.getY(), notches);
+		}
+	}
+
+	private void onPinchZoom(ViewportPinchZoomEvent event) {
+		//a scale of one notch grows or shrinks the width by 1 + zoomFactor * 2
+		double notches = Math.log(event.getScale()) / Math.log(1 + zoomFactor * 2);
+
+		zoomAt(event.getX(), event.getY(), notches);
+	}
+
+	/**
+	 * Zooms at the viewport position, positive notches zoom in
+	 */
+	private void zoomAt(double x, double y, double notches) {
 		if (currentSetDomainBoundsEvent != null && currentViewportBoundsEvent != null) {
-			Bounds newDomainBounds = changeDomainBounds(event.getMouseWheelEvent());
+			notches = accumulateNotches(notches);
+
+			//no net change, nothing to be fired
+			if (notches == 0) {
+				return;
+			}
+
+			Bounds newDomainBounds = changeDomainBounds(x, y, notches);
 
 			if (newDomainBounds != null) {
-				if (previewZoomByRescalingTheImage) {
-					Bounds newImageBounds = changeImageBounds(event.getMouseWheelEvent());
+				if (previewZoomByRescalingTheImage && boundsQuantizer != null) {
+					//rescale the image to the snapped domain bounds
+					ChangeImagePixelBoundsEvent changeImagePixelBoundsEvent = PreviewCompensation.createChangeImagePixelBoundsEvent(
+							getViewportBounds(), getViewportDataAreaBounds(), currentSetDomainBoundsEvent.getBounds(), newDomainBounds);
+
+					if (changeImagePixelBoundsEvent != null) {
+						handlerManager.fireEvent(changeImagePixelBoundsEvent);
+					}
+				} else if (previewZoomByRescalingTheImage) {
+					Bounds newImageBounds = changeImageBounds(x, y, notches);
 
 					//rescale the image
 					handlerManager.fireEvent(new ChangeImagePixelBoundsEvent(
@@ -175,27 +270,31 @@ public class MouseWheelControl {
 	}
 
 	/**
-	 * Computes the new domain bounds
+	 * Computes the new domain bounds, positive notches zoom in
 	 */
-	private Bounds changeDomainBounds(MouseWheelEvent mouseWheelEvent) {
+	private Bounds changeDomainBounds(double x, double y, double notches) {
 		Bounds setBounds = currentSetDomainBoundsEvent.getBounds();
 
 		//memorizing the domain point at the current mouse position
-		Point originalDomainPoint = computeDomainPointAtMousePosition(mouseWheelEvent, setBounds);
+		Point originalDomainPoint = computeDomainPointAtMousePosition(x, y, setBounds);
 
 		//zoom in or zoom out at the center
-		if (mouseWheelEvent.isNorth()) {
-			setBounds = currentSetDomainBoundsEvent.getBounds().transformProportional(createZoomInBounds(computeDelta(mouseWheelEvent)));
+		if (notches > 0) {
+			setBounds = currentSetDomainBoundsEvent.getBounds().transformProportional(createZoomInBounds(notches));
 		} else {
-			setBounds = currentSetDomainBoundsEvent.getBounds().transformProportional(createZoomOutBounds(computeDelta(mouseWheelEvent)));
+			setBounds = currentSetDomainBoundsEvent.getBounds().transformProportional(createZoomOutBounds(-notches));
 		}
 
 		//figuring out the new domain point at the mouse position
-		Point newDomainPoint = computeDomainPointAtMousePosition(mouseWheelEvent, setBounds);
+		Point newDomainPoint = computeDomainPointAtMousePosition(x, y, setBounds);
 
 		//shifting the originalDomainPoint back to the mouse position
 		setBounds = setBounds.shiftAbsolute(originalDomainPoint.getX() - newDomainPoint.getX(), originalDomainPoint.getY() - newDomainPoint.getY());
 
+		if (boundsQuantizer != null) {
+			setBounds = boundsQuantizer.quantize(currentSetDomainBoundsEvent.getBounds(), setBounds);
+		}
+
 		if (currentMaxDomainBoundsEvent == null ||
 				(currentMaxDomainBoundsEvent.containsHorizontally(setBounds.getLeft(), setBounds.getRight()) &&
 						currentMaxDomainBoundsEvent.containsVertically(setBounds.getTop(), setBounds.getBottom()))) {
@@ -209,16 +308,16 @@ public class MouseWheelControl {
 	/**
 	 * Computes the new bounds of the image for the preview
 	 */
-	private Bounds changeImageBounds(MouseWheelEvent mouseWheelEvent) {
+	private Bounds changeImageBounds(double x, double y, double notches) {
 		//memorizing current mouse position
-		Point mousePos = new Point(mouseWheelEvent.getX() - getViewportBounds().getLeft(), mouseWheelEvent.getY() - getViewportBounds().getTop());
+		Point mousePos = new Point(x - getViewportBounds().getLeft(), y - getViewportBounds().getTop());
 
 		//zoom in or zoom out at the center (the inverse of changeSetBounds)
 		Bounds newImageBounds;
-		if (mouseWheelEvent.isNorth()) {
-			newImageBounds = getViewportDataAreaBounds().transformProportional(createZoomOutBounds(computeDelta(mouseWheelEvent)));
+		if (notches > 0) {
+			newImageBounds = getViewportDataAreaBounds().transformProportional(createZoomOutBounds(notches));
 		} else {
-			newImageBounds = getViewportDataAreaBounds().transformProportional(createZoomInBounds(computeDelta(mouseWheelEvent)));
+			newImageBounds = getViewportDataAreaBounds().transformProportional(createZoomInBounds(-notches));
 		}
 
 		//translating it back to the viewport size
@@ -226,8 +325,8 @@ public class MouseWheelControl {
 
 		//new pixel position at mouse coordinates
 		Point relPoint = new Point(
-				(mouseWheelEvent.getX() - getViewportBounds().getLeft()) / getViewportBounds().getWidth(),
-				(mouseWheelEvent.getY() - getViewportBounds().getTop()) / getViewportBounds().getHeight());
+				(x - getViewportBounds().getLeft()) / getViewportBounds().getWidth(),
+				(y - getViewportBounds().getTop()) / getViewportBounds().getHeight());
 
 		Point newMousePos = newImageBounds.findAbsolutePoint(relPoint);
 
@@ -237,56 +336,122 @@ public class MouseWheelControl {
 		return newImageBounds;
 	}
 
-	private Point computeDomainPointAtMousePosition(MouseWheelEvent mouseWheelEvent, Bounds domainBounds) {
+	private Point computeDomainPointAtMousePosition(double x, double y, Bounds domainBounds) {
 		Bounds viewportDataAreaBounds = getViewportDataAreaBounds();
 
 		Point relPoint = new Point(
-				(mouseWheelEvent.getX() - viewportDataAreaBounds.getLeft()) / viewportDataAreaBounds.getWidth(),
-				(mouseWheelEvent.getY() - viewportDataAreaBounds.getTop()) / viewportDataAreaBounds.getHeight());
+				(x - viewportDataAreaBounds.getLeft()) / viewportDataAreaBounds.getWidth(),
+				(y - viewportDataAreaBounds.getTop()) / viewportDataAreaBounds.getHeight());
 
 		return domainBounds.findAbsolutePoint(relPoint);
 	}
 
-	private Bounds createZoomInBounds(int delta) {
-		Bounds zoomOutBounds = new Bounds(0, 1, 0, 1);
+	private Bounds createZoomInBounds(double notches) {
+		/*
+		 * Inverse of the zoom out, so that zooming back results in the same bounds.
+		 *
+		 * One notch shrinks the width to 1/(1 + zoomFactor * 2), n notches to the n-th power of it.
+		 */
+		double margin = (1 - (1 / Math.pow(1 + zoomFactor * 2, notches))) / 2;
+
+		return new Bounds(margin, 1 - margin, margin, 1 - margin);
+	}
+
+	private Bounds createZoomOutBounds(double notches) {
+		/*
+		 * One notch adds zoomFactor on each side, growing the width by q = 1 + zoomFactor * 2.
+		 * Repeating that n times adds zoomFactor * (q^n - 1) / (q - 1) on each side (geometric series),
+		 * which is exactly zoomFactor for a single notch.
+		 */
+		double q = 1 + zoomFactor * 2;
+		double margin = zoomFactor * ((Math.pow(q, notches) - 1) / (q - 1));
+
+		return new Bounds(-margin, 1 + margin, -margin, 1 + margin);
+	}
 
-		for (int i = 0; i < delta; i++) {
-			/*
-			 * Inverse of the zoomfactor, so that zooming back results in the same bounds.
-			 *
-			 * The formula is unfortunatly quite hard
-			 */
-			zoomOutBounds = zoomOutBounds.transformProportional(new Bounds(
-					(1-(1/(1+zoomFactor * 2))) / 2,
-					1 - ((1-(1/(1+zoomFactor * 2))) / 2),
-					(1-(1/(1+zoomFactor * 2))) / 2,
-					1 - ((1-(1/(1+zoomFactor * 2))) / 2)));
+	/**
+	 * Adds the notches (positive for zooming in) to the accumulated notches and returns them,
+	 * as soon as they exceed the minimal zoom step. Returns 0 otherwise.
+	 */
+	private double accumulateNotches(double notches) {
+		double now = now();
+
+		//a leftover of the opposite direction or of a previous gesture must not add up
+		if (accumulatedNotches * notches < 0 || now - lastAccumulationTime > ACCUMULATED_NOTCHES_TIMEOUT_MILLIS) {
+			accumulatedNotches = 0;
 		}
 
-		return zoomOutBounds;
-	}
+		lastAccumulationTime = now;
+		accumulatedNotches += notches;
 
-	private Bounds createZoomOutBounds(int delta) {
-		Bounds zoomOutBounds = new Bounds(0, 1, 0, 1);
+		double minimalNotches = boundsQuantizer != null ? Math.max(minimalZoomStep, 1) : minimalZoomStep;
 
-		for (int i = 0; i < delta; i++) {
-			zoomOutBounds = zoomOutBounds.transformProportional(new Bounds(-zoomFactor, 1 + zoomFactor, -zoomFactor, 1 + zoomFactor));
+		if (Math.abs(accumulatedNotches) < minimalNotches) {
+			return 0;
 		}
 
-		return zoomOutBounds;
+		double result = accumulatedNotches;
+		accumulatedNotches = 0;
+
+		return result;
 	}
 
-	private int computeDelta(MouseWheelEvent mouseWheelEvent) {
-		/*
-		 * If the user scrolls fast, multiple mouse wheels might be summed up to one event.
-		 * GWT seems to normalize the different deltas across browser to a multiple of 3 (3, 6, 9...
-		 * tested with IE, FF, Chrome).
-		 *
-		 * Here we normalize to 1, 2, 3...
-		 */
-		return Math.abs(mouseWheelEvent.getDeltaY() / 3); //integer division
+	/*
+	 * package private, so it can be replaced for testing
+	 */
+	double now() {
+		return Duration.currentTimeMillis();
 	}
 
+	/**
+	 * The delta in wheel notches, positive for zooming in (scrolling north)
+	 */
+	private double computeNotches(MouseWheelEvent mouseWheelEvent) {
+		NativeEvent nativeEvent = mouseWheelEvent.getNativeEvent();
+
+		double notches = nativeEvent != null ? getNativeNotches(nativeEvent) : Double.NaN;
+
+		if (Double.isNaN(notches)) {
+			/*
+			 * GWT normalizes the deltas across browsers to a multiple of 3 (3, 6, 9...
+			 * tested with IE, FF, Chrome), but rounds fractional deltas of trackpads to 0.
+			 */
+			notches = Math.abs(mouseWheelEvent.getDeltaY() / 3.0);
+
+			if (mouseWheelEvent.isSouth()) {
+				notches = -notches;
+			} else if (!mouseWheelEvent.isNorth()) {
+				notches = 0;
+			}
+		}
+
+		return notches;
+	}
+
+	/**
+	 * The unrounded delta of the native event in wheel notches, positive for scrolling north, NaN if unknown.
+	 */
+	private static native double getNativeNotches(NativeEvent event) /*-{
+		if (typeof event.deltaY == 'number') {
+			//wheel event, the delta is in pixels, lines or pages, positive for scrolling south
+			if (event.deltaMode == 1) {
+				return -event.deltaY / 3;
+			} else if (event.deltaMode == 2) {
+				return -event.deltaY;
+			} else {
+				return -event.deltaY / 100;
+			}
+		} else if (typeof event.wheelDelta == 'number') {
+			//legacy mousewheel event, 120 per notch, positive for scrolling north
+			return event.wheelDelta / 120;
+		} else if (typeof event.detail == 'number') {
+			//legacy DOMMouseScroll event, 3 lines per notch, positive for scrolling south
+			return -event.detail / 3;
+		}
+
+		return NaN;
+	}-*/;
+
 	private Bounds getViewportDataAreaBounds() {
 		if (currentDataAreaBoundsEvent != null) {
 			return currentDataAreaBoundsEvent.getBounds();
@@ -327,7 +492,7 @@ public class MouseWheelControl {
 		}
 	}
 
-	private class MouseWheelControlEventHandler implements SetDomainBoundsEventHandler, SetMaxDomainBoundsEventHandler, SetDataAreaPixelBoundsEventHandler, SetViewportPixelBoundsEventHandler, ViewportMouseWheelEventHandler {
+	private class MouseWheelControlEventHandler implements SetDomainBoundsEventHandler, SetMaxDomainBoundsEventHandler, SetDataAreaPixelBoundsEventHandler, SetViewportPixelBoundsEventHandler, ViewportMouseWheelEventHandler, ViewportPinchZoomEventHandler {
 		public void onSetDomainBounds(SetDomainBoundsEvent event) {
 			MouseWheelControl.this.onSetDomainBounds(event);
 		}
@@ -347,5 +512,9 @@ public class MouseWheelControl {
 		public void onMouseWheel(ViewportMouseWheelEvent event) {
 			MouseWheelControl.this.onMouseWheel(event);
 		}
+
+		public void onPinchZoom(ViewportPinchZoomEvent event) {
+			MouseWheelControl.this.onPinchZoom(event);
+		}
 	}
 }
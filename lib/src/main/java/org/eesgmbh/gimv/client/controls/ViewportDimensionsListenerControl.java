@@ -24,6 +24,7 @@ import com.google.gwt.user.client.ui.SplitLayoutPanel;
 import org.eesgmbh.gimv.client.event.ChangeImagePixelBoundsEvent;
 import org.eesgmbh.gimv.client.event.LoadImageDataEvent;
 import org.eesgmbh.gimv.client.event.SetViewportPixelBoundsEvent;
+import org.eesgmbh.gimv.client.util.Disposable;
 import org.eesgmbh.gimv.client.util.EventAccumulator;
 import org.eesgmbh.gimv.client.util.EventAccumulator.Callback;
 import org.eesgmbh.gimv.client.widgets.Viewport;
@@ -43,6 +44,8 @@ import static org.eesgmbh.gimv.shared.util.Validate.*;
  * <p>The control listens to the viewport width and height via a {@link Timer}. The timer runs repeatedly. The period can be specified
  * with {@link #setListeningInterval(int)} but must not be smaller than 50ms (client performance). The default value is 100ms.
  *
+ * <p>The timer is only stopped by {@link #dispose()}.
+ *
  * <p>Whenever changes are detected a {@link SetViewportPixelBoundsEvent} is immediately fired.<br>
  * Optionally a {@link ChangeImagePixelBoundsEvent} is fired, which will cause the displayed image to realign itself with the viewport. This is
  * turned on by default and can be turned off with {@link #setFireSetImagePositionEvent(boolean)}.
@@ -61,7 +64,7 @@ import static org.eesgmbh.gimv.shared.util.Validate.*;
  *
  * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
  */
-public class ViewportDimensionsListenerControl {
+public class ViewportDimensionsListenerControl implements Disposable {
 
 	private final Viewport viewport;
 	private final HandlerManager handlerManager;
@@ -150,6 +153,11 @@ public class ViewportDimensionsListenerControl {
 		this.fireLoadImageDataEvent = fireLoadImageDataEvent;
 	}
 
+	public void dispose() {
+		viewportDimensionsListeningTimer.cancel();
+		eventAccumulator.cancel();
+	}
+
 	private int validateDimension(int dimension, String dimensionName) {
 		return (int) isPositive(dimension, "The " + dimensionName + " of the viewport must be greater than zero. It is probably not yet attached to the UI.");
 	}
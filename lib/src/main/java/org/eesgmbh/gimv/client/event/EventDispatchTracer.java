@@ -0,0 +1,56 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.event;
+
+import com.google.gwt.event.shared.EventHandler;
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * <p>Is informed by the {@link GimvEventBus} about every fired event and every handler invocation, e.g. for
+ * profiling the event handlers of an application.
+ *
+ * <p>Handler invocations are nested, if a handler fires an event itself.
+ *
+ * @see GimvEventBus#setTracer(EventDispatchTracer)
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public interface EventDispatchTracer {
+
+	/**
+	 * Invoked when an event is fired, before any handler is invoked.
+	 *
+	 * @param event the event
+	 */
+	void onFire(GwtEvent<?> event);
+
+	/**
+	 * Invoked right before a handler is invoked. Blocked handlers are not invoked.
+	 *
+	 * @param event the event
+	 * @param handler the handler
+	 */
+	void onHandlerStart(GwtEvent<?> event, EventHandler handler);
+
+	/**
+	 * Invoked right after a handler was invoked, even if it threw an exception.
+	 *
+	 * @param event the event
+	 * @param handler the handler
+	 */
+	void onHandlerEnd(GwtEvent<?> event, EventHandler handler);
+}
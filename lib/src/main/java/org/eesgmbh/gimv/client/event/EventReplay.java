@@ -0,0 +1,202 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.event;
+
+import com.google.gwt.event.shared.EventHandler;
+import com.google.gwt.event.shared.GwtEvent.Type;
+import com.google.gwt.event.shared.HandlerManager;
+import org.eesgmbh.gimv.client.util.Disposable;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Keeps the latest event of each event type describing the current state of a chart and replays these events to
+ * handlers registered later on, e.g. by components created after the first chart has been shown.
+ *
+ * <p>Usage: instantiate it before the first image data is loaded. Enclose the creation of a component with
+ * {@link #begin()} and {@link #end()}. On {@link #end()}, the kept events are dispatched in the order they were
+ * fired to all handlers added in between, other handlers are not invoked. The replayed events have no source.
+ *
+ * <p>Registers with the {@link HandlerManager} to receive the following events
+ * <ul>
+ * 	<li> {@link SetDomainBoundsEvent}
+ * 	<li> {@link SetMaxDomainBoundsEvent}
+ * 	<li> {@link SetOverviewDomainBoundsEvent}
+ * 	<li> {@link SetViewportPixelBoundsEvent}
+ * 	<li> {@link SetDataAreaPixelBoundsEvent}
+ * 	<li> {@link SetImageUrlEvent}
+ * 	<li> {@link SetImageEntitiesEvent}
+ * 	<li> {@link SetImageEntitiesHandleEvent}
+ * </ul>
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class EventReplay implements Disposable {
+
+	private final HandlerManager handlerManager;
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
+
+	//insertion order is the order of the latest firing, see record()
+	private final Map<Type<?>, FilteredDispatchGwtEvent<?>> latestEvents = new LinkedHashMap<Type<?>, FilteredDispatchGwtEvent<?>>();
+
+	private Map<Type<?>, List<EventHandler>> handlersAtBegin;
+
+	/**
+	 * Instantiates the replay and starts recording.
+	 *
+	 * @param handlerManager A {@link HandlerManager}
+	 */
+	public EventReplay(HandlerManager handlerManager) {
+		this.handlerManager = Validate.notNull(handlerManager);
+
+		EventReplayEventHandler eventHandler = new EventReplayEventHandler();
+		handlerRegistrations.add(handlerManager, SetDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetMaxDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetOverviewDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetViewportPixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetDataAreaPixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetImageUrlEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetImageEntitiesEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetImageEntitiesHandleEvent.TYPE, eventHandler);
+	}
+
+	public void dispose() {
+		handlerRegistrations.removeHandler();
+		latestEvents.clear();
+		handlersAtBegin = null;
+	}
+
+	/**
+	 * Remembers the currently registered handlers. Must be called before the handlers
+	 * to replay to are added.
+	 */
+	public void begin() {
+		handlersAtBegin = new LinkedHashMap<Type<?>, List<EventHandler>>();
+
+		for (Type<?> type : latestEvents.keySet()) {
+			handlersAtBegin.put(type, getHandlers(type));
+		}
+	}
+
+	/**
+	 * Dispatches the kept events to the handlers added since {@link #begin()}.
+	 *
+	 * @throws IllegalStateException if {@link #begin()} has not been called
+	 */
+	@SuppressWarnings("unchecked")
+	public void end() {
+		if (handlersAtBegin == null) {
+			throw new IllegalStateException("begin() has not been called");
+		}
+
+		Map<Type<?>, List<EventHandler>> previousHandlers = handlersAtBegin;
+		handlersAtBegin = null;
+
+		//a copy, replayed handlers might fire events themselves
+		List<FilteredDispatchGwtEvent<?>> events = new ArrayList<FilteredDispatchGwtEvent<?>>(latestEvents.values());
+
+		for (FilteredDispatchGwtEvent<?> event : events) {
+			List<EventHandler> handlersToSkip = previousHandlers.get(event.getAssociatedType());
+
+			for (EventHandler handler : getHandlers(event.getAssociatedType())) {
+				if (handlersToSkip == null || !containsIdentical(handlersToSkip, handler)) {
+					dispatch((FilteredDispatchGwtEvent<EventHandler>) event, handler);
+				}
+			}
+		}
+	}
+
+	private void dispatch(FilteredDispatchGwtEvent<EventHandler> event, EventHandler handler) {
+		Object previousSource = event.beginDispatch(null);
+
+		try {
+			event.dispatch(handler);
+		} finally {
+			event.endDispatch(previousSource);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<EventHandler> getHandlers(Type<?> type) {
+		Type<EventHandler> handlerType = (Type<EventHandler>) type;
+
+		List<EventHandler> handlers = new ArrayList<EventHandler>();
+		for (int i = 0; i < handlerManager.getHandlerCount(handlerType); i++) {
+			handlers.add(handlerManager.getHandler(handlerType, i));
+		}
+
+		return handlers;
+	}
+
+	private boolean containsIdentical(List<EventHandler> handlers, EventHandler handler) {
+		for (EventHandler h : handlers) {
+			if (h == handler) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private void record(FilteredDispatchGwtEvent<?> event) {
+		//moved to the end, so that the events are replayed in the order of their latest firing
+		latestEvents.remove(event.getAssociatedType());
+		latestEvents.put(event.getAssociatedType(), event);
+	}
+
+	private class EventReplayEventHandler implements SetDomainBoundsEventHandler, SetMaxDomainBoundsEventHandler,
+			SetOverviewDomainBoundsEventHandler, SetViewportPixelBoundsEventHandler, SetDataAreaPixelBoundsEventHandler,
+			SetImageUrlEventHandler, SetImageEntitiesEventHandler, SetImageEntitiesHandleEventHandler {
+
+		public void onSetDomainBounds(SetDomainBoundsEvent event) {
+			record(event);
+		}
+
+		public void onSetMaxDomainBounds(SetMaxDomainBoundsEvent event) {
+			record(event);
+		}
+
+		public void onSetOverviewDomainBounds(SetOverviewDomainBoundsEvent event) {
+			record(event);
+		}
+
+		public void onSetViewportBounds(SetViewportPixelBoundsEvent event) {
+			record(event);
+		}
+
+		public void onSetDataAreaPixelBounds(SetDataAreaPixelBoundsEvent event) {
+			record(event);
+		}
+
+		public void onSetImageUrl(SetImageUrlEvent event) {
+			record(event);
+		}
+
+		public void onSetImageEntities(SetImageEntitiesEvent event) {
+			record(event);
+		}
+
+		public void onSetImageEntitiesHandle(SetImageEntitiesHandleEvent event) {
+			record(event);
+		}
+	}
+}
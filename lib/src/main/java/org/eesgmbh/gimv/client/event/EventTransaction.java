@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.event;
+
+import com.google.gwt.event.shared.GwtEvent;
+import com.google.gwt.event.shared.HandlerManager;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+/**
+ * <p>Fires a sequence of events enclosed in a {@link TransactionEvent} begin and commit.
+ *
+ * <p>Usage:
+ * <pre>
+ * EventTransaction transaction = EventTransaction.begin(handlerManager);
+ * try {
+ *     transaction.fireEvent(new SetImageUrlEvent(url));
+ *     transaction.fireEvent(new SetDomainBoundsEvent(bounds));
+ * } finally {
+ *     transaction.commit();
+ * }
+ * </pre>
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class EventTransaction {
+
+	private final HandlerManager handlerManager;
+
+	private boolean committed = false;
+
+	private EventTransaction(HandlerManager handlerManager) {
+		this.handlerManager = Validate.notNull(handlerManager);
+	}
+
+	/**
+	 * Begins a transaction by firing {@link TransactionEvent#createBegin(TransactionEventHandler...)}.
+	 *
+	 * @param handlerManager A {@link HandlerManager}
+	 * @return the transaction
+	 */
+	public static EventTransaction begin(HandlerManager handlerManager) {
+		EventTransaction transaction = new EventTransaction(handlerManager);
+
+		handlerManager.fireEvent(TransactionEvent.createBegin());
+
+		return transaction;
+	}
+
+	/**
+	 * Fires an event within the transaction.
+	 *
+	 * @param event the event
+	 * @return this transaction for chaining
+	 */
+	public EventTransaction fireEvent(GwtEvent<?> event) {
+		if (committed) {
+			throw new IllegalStateException("The transaction was already committed");
+		}
+
+		handlerManager.fireEvent(event);
+
+		return this;
+	}
+
+	/**
+	 * Commits the transaction by firing {@link TransactionEvent#createCommit(TransactionEventHandler...)}.
+	 * Subsequent invocations are ignored.
+	 */
+	public void commit() {
+		if (!committed) {
+			committed = true;
+
+			handlerManager.fireEvent(TransactionEvent.createCommit());
+		}
+	}
+}
@@ -51,7 +51,10 @@ import java.util.List;
  */
 public abstract class FilteredDispatchGwtEvent<H extends EventHandler> extends GwtEvent<H> {
 
-	private final List<H> blockedHandlers;
+	private final H[] blockedHandlers;
+
+	//created on demand, dispatching only needs the array
+	private List<H> blockedHandlerList;
 
 	/**
 	 * Constructor.
@@ -60,7 +63,10 @@ public abstract class FilteredDispatchGwtEvent<H extends EventHandler> extends G
 	 * 	Any number (0-n) of {@link EventHandler} instances that should no be invoked. An element must not null.
 	 */
 	protected FilteredDispatchGwtEvent(H... blockedHandlers) {
-		this.blockedHandlers = Arrays.asList(Validate.notNullForEach(blockedHandlers));
+		Validate.notNullForEach(blockedHandlers);
+
+		//most events do not block any handler, an empty array can be shared
+		this.blockedHandlers = blockedHandlers.length == 0 ? blockedHandlers : Arrays.copyOf(blockedHandlers, blockedHandlers.length);
 	}
 
 	@Override
@@ -82,11 +88,46 @@ public abstract class FilteredDispatchGwtEvent<H extends EventHandler> extends G
 	 */
 
 	protected boolean isBlockedHandler(H handler) {
-		return getBlockedHandlers().contains(handler);
+		for (int i = 0; i < blockedHandlers.length; i++) {
+			if (blockedHandlers[i].equals(handler)) {
+				return true;
+			}
+		}
+
+		return false;
 	}
 
 	protected List<H> getBlockedHandlers() {
-		return this.blockedHandlers;
+		if (blockedHandlerList == null) {
+			blockedHandlerList = Arrays.asList(this.blockedHandlers);
+		}
+
+		return blockedHandlerList;
+	}
+
+	/**
+	 * Prepares the event for being dispatched by {@link GimvEventBus}, the equivalent of
+	 * what {@link HandlerManager} does before dispatching.
+	 *
+	 * @return the previous source to be restored afterwards
+	 */
+	Object beginDispatch(Object source) {
+		if (!isLive()) {
+			revive();
+		}
+
+		Object previousSource = getSource();
+		setSource(source);
+
+		return previousSource;
+	}
+
+	void endDispatch(Object previousSource) {
+		if (previousSource == null) {
+			kill();
+		} else {
+			setSource(previousSource);
+		}
 	}
 
 }
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.event;
+
+import com.google.gwt.event.shared.EventHandler;
+import com.google.gwt.event.shared.GwtEvent;
+import com.google.gwt.event.shared.GwtEvent.Type;
+import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.event.shared.UmbrellaException;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>A drop-in replacement for {@link HandlerManager} with less overhead for dispatching events.
+ *
+ * <p>The handlers are kept in an array per event type, which is copied when a handler is added or removed. Dispatching
+ * a {@link FilteredDispatchGwtEvent} simply iterates over the array, without creating any objects.
+ * Handlers added or removed while an event is dispatched take effect after the outermost event was dispatched, just like
+ * with {@link HandlerManager}. Events fired by handlers do not see these changes either.
+ * Exceptions thrown by handlers are collected and rethrown in an {@link UmbrellaException} after all handlers were invoked.
+ *
+ * <p>Other events are dispatched by {@link HandlerManager} itself, that is why every handler is registered with it as well.
+ *
+ * <p>Optionally, all dispatching can be traced ({@link #setTracer(EventDispatchTracer)}), e.g. for finding slow event handlers.
+ *
+ * <p>Usage: instantiate it instead of a {@link HandlerManager}, all Gimv components accept it.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class GimvEventBus extends HandlerManager {
+
+	private static final EventHandler[] NO_HANDLERS = new EventHandler[0];
+
+	private final Object source;
+
+	private final Map<Type<?>, EventHandler[]> handlersByType = new HashMap<Type<?>, EventHandler[]>();
+
+	//handlers added or removed while firing, applied after the outermost event was dispatched
+	private final List<DeferredChange<?>> deferredChanges = new ArrayList<DeferredChange<?>>();
+
+	private int firingDepth;
+
+	private EventDispatchTracer tracer;
+
+	/**
+	 * Creates an event bus without a source.
+	 */
+	public GimvEventBus() {
+		this(null);
+	}
+
+	/**
+	 * Creates an event bus.
+	 *
+	 * @param source the source of the fired events
+	 */
+	public GimvEventBus(Object source) {
+		super(source);
+
+		this.source = source;
+	}
+
+	/**
+	 * Sets a tracer, that is informed about every fired event and every handler invocation. Handlers of
+	 * events not derived from {@link FilteredDispatchGwtEvent} are not traced.
+	 *
+	 * <p>Default is null (no tracing).
+	 *
+	 * @param tracer the tracer or null
+	 */
+	public void setTracer(EventDispatchTracer tracer) {
+		this.tracer = tracer;
+	}
+
+	@Override
+	public <H extends EventHandler> HandlerRegistration addHandler(final Type<H> type, final H handler) {
+		Validate.notNull(type);
+		Validate.notNull(handler);
+
+		if (firingDepth > 0) {
+			deferredChanges.add(new DeferredChange<H>(type, handler, true));
+		} else {
+			addNow(type, handler);
+		}
+
+		return new HandlerRegistration() {
+			public void removeHandler() {
+				remove(type, handler);
+			}
+		};
+	}
+
+	@Override
+	@SuppressWarnings("deprecation")
+	public <H extends EventHandler> void removeHandler(Type<H> type, H handler) {
+		remove(type, handler);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void fireEvent(GwtEvent<?> event) {
+		if (tracer != null) {
+			tracer.onFire(event);
+		}
+
+		firingDepth++;
+
+		try {
+			if (event instanceof FilteredDispatchGwtEvent<?>) {
+				dispatch((FilteredDispatchGwtEvent<EventHandler>) event);
+			} else {
+				super.fireEvent(event);
+			}
+		} finally {
+			firingDepth--;
+
+			if (firingDepth == 0 && !deferredChanges.isEmpty()) {
+				applyDeferredChanges();
+			}
+		}
+	}
+
+	private void dispatch(FilteredDispatchGwtEvent<EventHandler> filteredEvent) {
+		EventHandler[] handlers = getHandlers(filteredEvent.getAssociatedType());
+
+		if (handlers.length == 0) {
+			return;
+		}
+
+		Object previousSource = filteredEvent.beginDispatch(source);
+
+		Set<Throwable> causes = null;
+
+		try {
+			for (int i = 0; i < handlers.length; i++) {
+				try {
+					if (tracer == null) {
+						filteredEvent.dispatch(handlers[i]);
+					} else {
+						dispatchTraced(filteredEvent, handlers[i]);
+					}
+				} catch (Throwable e) {
+					if (causes == null) {
+						causes = new HashSet<Throwable>();
+					}
+					causes.add(e);
+				}
+			}
+		} finally {
+			filteredEvent.endDispatch(previousSource);
+		}
+
+		if (causes != null) {
+			throw new UmbrellaException(causes);
+		}
+	}
+
+	private void dispatchTraced(FilteredDispatchGwtEvent<EventHandler> event, EventHandler handler) {
+		if (event.isBlockedHandler(handler)) {
+			return;
+		}
+
+		//the tracer might be removed by a handler
+		EventDispatchTracer currentTracer = tracer;
+
+		currentTracer.onHandlerStart(event, handler);
+		try {
+			event.dispatch(handler);
+		} finally {
+			currentTracer.onHandlerEnd(event, handler);
+		}
+	}
+
+	private <H extends EventHandler> void remove(Type<H> type, H handler) {
+		if (firingDepth > 0) {
+			deferredChanges.add(new DeferredChange<H>(type, handler, false));
+		} else {
+			removeNow(type, handler);
+		}
+	}
+
+	private void applyDeferredChanges() {
+		for (int i = 0; i < deferredChanges.size(); i++) {
+			deferredChanges.get(i).apply();
+		}
+
+		deferredChanges.clear();
+	}
+
+	private <H extends EventHandler> void addNow(Type<H> type, H handler) {
+		super.addHandler(type, handler);
+
+		EventHandler[] handlers = getHandlers(type);
+		EventHandler[] newHandlers = new EventHandler[handlers.length + 1];
+		System.arraycopy(handlers, 0, newHandlers, 0, handlers.length);
+		newHandlers[handlers.length] = handler;
+
+		handlersByType.put(type, newHandlers);
+	}
+
+	@SuppressWarnings("deprecation")
+	private <H extends EventHandler> void removeNow(Type<H> type, H handler) {
+		super.removeHandler(type, handler);
+		removeFromArray(type, handler);
+	}
+
+	private EventHandler[] getHandlers(Type<?> type) {
+		EventHandler[] handlers = handlersByType.get(type);
+
+		return handlers != null ? handlers : NO_HANDLERS;
+	}
+
+	/**
+	 * Removes the first occurrence of the handler
+	 */
+	private void removeFromArray(Type<?> type, EventHandler handler) {
+		EventHandler[] handlers = getHandlers(type);
+
+		for (int i = 0; i < handlers.length; i++) {
+			if (handlers[i] == handler) {
+				if (handlers.length == 1) {
+					handlersByType.remove(type);
+				} else {
+					EventHandler[] newHandlers = new EventHandler[handlers.length - 1];
+					System.arraycopy(handlers, 0, newHandlers, 0, i);
+					System.arraycopy(handlers, i + 1, newHandlers, i, handlers.length - i - 1);
+
+					handlersByType.put(type, newHandlers);
+				}
+
+				return;
+			}
+		}
+	}
+
+	private class DeferredChange<H extends EventHandler> {
+		private final Type<H> type;
+		private final H handler;
+		private final boolean add;
+
+		private DeferredChange(Type<H> type, H handler, boolean add) {
+			this.type = type;
+			this.handler = handler;
+			this.add = add;
+		}
+
+		private void apply() {
+			if (add) {
+				addNow(type, handler);
+			} else {
+				removeNow(type, handler);
+			}
+		}
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.event;
+
+import org.eesgmbh.gimv.client.controls.ImageLoadTimingControl;
+
+/**
+ * <p>Fired by the {@link ImageLoadTimingControl} after a new image was displayed as a result of
+ * a user input. Contains the durations of the stages between the input and the displayed image.
+ *
+ * <p>The stages are
+ * <ul>
+ * 	<li> input to the request of the image data ({@link LoadImageDataEvent}), which includes delays for accumulating events
+ * 	<li> request to the response of the image data
+ * 	<li> response to the {@link SetImageUrlEvent}
+ * 	<li> {@link SetImageUrlEvent} to the loaded image ({@link ImageLoadedEvent})
+ * </ul>
+ *
+ * <p>All durations are in milliseconds.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class ImageLoadTimingEvent extends FilteredDispatchGwtEvent<ImageLoadTimingEventHandler> {
+
+	public static Type<ImageLoadTimingEventHandler> TYPE = new Type<ImageLoadTimingEventHandler>();
+
+	/**
+	 * The kind of input that started the measurement.
+	 */
+	public enum InputType {
+		/** a {@link ViewportMouseWheelEvent} */
+		WHEEL,
+		/** a {@link ViewportPinchZoomEvent} */
+		PINCH,
+		/** a {@link ViewportDragFinishedEvent} */
+		DRAG,
+		/** any other change of the domain bounds, e.g. by keys or buttons, or a {@link LoadImageDataEvent} alone, e.g. after a resize */
+		OTHER
+	}
+
+	private final InputType inputType;
+	private final String url;
+	private final double inputToLoadMillis;
+	private final double loadToResponseMillis;
+	private final double responseToUrlMillis;
+	private final double urlToImageLoadedMillis;
+	private final int loadCount;
+
+	/**
+	 * Instantiates the event.
+	 *
+	 * @param inputType the kind of input
+	 * @param url the url of the loaded image
+	 * @param inputToLoadMillis input to the (last) {@link LoadImageDataEvent}
+	 * @param loadToResponseMillis {@link LoadImageDataEvent} to the response
+	 * @param responseToUrlMillis response to the {@link SetImageUrlEvent}
+	 * @param urlToImageLoadedMillis {@link SetImageUrlEvent} to the {@link ImageLoadedEvent}
+	 * @param loadCount number of {@link LoadImageDataEvent}s since the input
+	 * @param blockedHandlers optional handlers that must not be informed (see {@link FilteredDispatchGwtEvent} )
+	 */
+	public ImageLoadTimingEvent(InputType inputType, String url, double inputToLoadMillis, double loadToResponseMillis,
+			double responseToUrlMillis, double urlToImageLoadedMillis, int loadCount, ImageLoadTimingEventHandler... blockedHandlers) {
+		super(blockedHandlers);
+
+		this.inputType = inputType;
+		this.url = url;
+		this.inputToLoadMillis = inputToLoadMillis;
+		this.loadToResponseMillis = loadToResponseMillis;
+		this.responseToUrlMillis = responseToUrlMillis;
+		this.urlToImageLoadedMillis = urlToImageLoadedMillis;
+		this.loadCount = loadCount;
+	}
+
+	public InputType getInputType() {
+		return inputType;
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	public double getInputToLoadMillis() {
+		return inputToLoadMillis;
+	}
+
+	public double getLoadToResponseMillis() {
+		return loadToResponseMillis;
+	}
+
+	public double getResponseToUrlMillis() {
+		return responseToUrlMillis;
+	}
+
+	public double getUrlToImageLoadedMillis() {
+		return urlToImageLoadedMillis;
+	}
+
+	/**
+	 * @return the duration from the input to the loaded image
+	 */
+	public double getTotalMillis() {
+		return inputToLoadMillis + loadToResponseMillis + responseToUrlMillis + urlToImageLoadedMillis;
+	}
+
+	/**
+	 * Returns the number of {@link LoadImageDataEvent}s fired since the input. More than one means, that
+	 * requests were superseded, e.g. because the user kept on zooming while an image was rendered.
+	 *
+	 * @return at least one
+	 */
+	public int getLoadCount() {
+		return loadCount;
+	}
+
+	@Override
+	public Type<ImageLoadTimingEventHandler> getAssociatedType() {
+		return TYPE;
+	}
+
+	@Override
+	protected void onDispatch(ImageLoadTimingEventHandler handler) {
+		handler.onImageLoadTiming(this);
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.event;
+
+import org.eesgmbh.gimv.client.presenter.ImagePresenter;
+
+/**
+ * Fired by the {@link ImagePresenter} after the browser loaded and displayed the
+ * image, whose url was set with a {@link SetImageUrlEvent}.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class ImageLoadedEvent extends FilteredDispatchGwtEvent<ImageLoadedEventHandler> {
+
+	public static Type<ImageLoadedEventHandler> TYPE = new Type<ImageLoadedEventHandler>();
+
+	private final String url;
+
+	/**
+	 * Instantiates the event.
+	 *
+	 * @param url the url of the loaded image, null if unknown
+	 * @param blockedHandlers optional handlers that must not be informed (see {@link FilteredDispatchGwtEvent} )
+	 */
+	public ImageLoadedEvent(String url, ImageLoadedEventHandler... blockedHandlers) {
+		super(blockedHandlers);
+
+		this.url = url;
+	}
+
+	public String getUrl() {
+		return this.url;
+	}
+
+	@Override
+	public Type<ImageLoadedEventHandler> getAssociatedType() {
+		return TYPE;
+	}
+
+	@Override
+	protected void onDispatch(ImageLoadedEventHandler handler) {
+		handler.onImageLoaded(this);
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.event;
+
+import org.eesgmbh.gimv.client.imagedata.ImageDataSourceControl;
+
+/**
+ * Fired by the {@link ImageDataSourceControl}, if the image data requested for a {@link LoadImageDataEvent}
+ * could not be obtained. Superseded requests are not reported.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class LoadImageDataFailedEvent extends FilteredDispatchGwtEvent<LoadImageDataFailedEventHandler> {
+
+	public static Type<LoadImageDataFailedEventHandler> TYPE = new Type<LoadImageDataFailedEventHandler>();
+
+	private final Throwable caught;
+
+	/**
+	 * Instantiates the event.
+	 *
+	 * @param caught the reason of the failure
+	 * @param blockedHandlers optional handlers that must not be informed (see {@link FilteredDispatchGwtEvent} )
+	 */
+	public LoadImageDataFailedEvent(Throwable caught, LoadImageDataFailedEventHandler... blockedHandlers) {
+		super(blockedHandlers);
+
+		this.caught = caught;
+	}
+
+	public Throwable getCaught() {
+		return this.caught;
+	}
+
+	@Override
+	public Type<LoadImageDataFailedEventHandler> getAssociatedType() {
+		return TYPE;
+	}
+
+	@Override
+	protected void onDispatch(LoadImageDataFailedEventHandler handler) {
+		handler.onLoadImageDataFailed(this);
+	}
+}
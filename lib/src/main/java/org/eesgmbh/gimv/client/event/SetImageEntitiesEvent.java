@@ -17,6 +17,7 @@
 package org.eesgmbh.gimv.client.event;
 
 import org.eesgmbh.gimv.shared.util.ImageEntity;
+import org.eesgmbh.gimv.shared.util.ImageEntityBatch;
 
 import java.util.List;
 
@@ -24,6 +25,10 @@ import java.util.List;
  * Encapsulates 'points of interests' within the displayed image, that
  * should for example be displayed as tooltips.
  *
+ * <p>The image entities can be passed either as a list or as an {@link ImageEntityBatch}, which is
+ * considerably more compact for many entities. Both representations are available to the handlers,
+ * the other one is converted once on first access.
+ *
  * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
  *
  */
@@ -31,7 +36,8 @@ public class SetImageEntitiesEvent extends FilteredDispatchGwtEvent<SetImageEnti
 
 	public static Type<SetImageEntitiesEventHandler> TYPE = new Type<SetImageEntitiesEventHandler>();
 
-	private final List<ImageEntity> imageEntities;
+	private List<ImageEntity> imageEntities;
+	private ImageEntityBatch imageEntityBatch;
 
 	public SetImageEntitiesEvent(List<ImageEntity> imageEntities, SetImageEntitiesEventHandler... blockedHandlers) {
 		super(blockedHandlers);
@@ -39,10 +45,28 @@ public class SetImageEntitiesEvent extends FilteredDispatchGwtEvent<SetImageEnti
 		this.imageEntities = imageEntities;
 	}
 
+	public SetImageEntitiesEvent(ImageEntityBatch imageEntityBatch, SetImageEntitiesEventHandler... blockedHandlers) {
+		super(blockedHandlers);
+
+		this.imageEntityBatch = imageEntityBatch;
+	}
+
 	public List<ImageEntity> getImageEntities() {
+		if (imageEntities == null && imageEntityBatch != null) {
+			imageEntities = imageEntityBatch.toImageEntities();
+		}
+
 		return this.imageEntities;
 	}
 
+	public ImageEntityBatch getImageEntityBatch() {
+		if (imageEntityBatch == null && imageEntities != null) {
+			imageEntityBatch = ImageEntityBatch.fromImageEntities(imageEntities);
+		}
+
+		return this.imageEntityBatch;
+	}
+
 	@Override
 	public Type<SetImageEntitiesEventHandler> getAssociatedType() {
 		return TYPE;
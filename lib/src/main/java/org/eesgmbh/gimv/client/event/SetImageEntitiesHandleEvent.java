@@ -0,0 +1,53 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.eesgmbh.gimv.client.event;
+
+import org.eesgmbh.gimv.client.imagedata.ImageEntityFetchControl;
+
+/**
+ * Announces a handle, with which the image entities of the displayed image can be fetched
+ * on demand, instead of transferring them along with the image. Usually processed by
+ * an {@link ImageEntityFetchControl}.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class SetImageEntitiesHandleEvent extends FilteredDispatchGwtEvent<SetImageEntitiesHandleEventHandler> {
+
+	public static Type<SetImageEntitiesHandleEventHandler> TYPE = new Type<SetImageEntitiesHandleEventHandler>();
+
+	private final String handle;
+
+	public SetImageEntitiesHandleEvent(String handle, SetImageEntitiesHandleEventHandler... blockedHandlers) {
+		super(blockedHandlers);
+		this.handle = handle;
+	}
+
+	public String getHandle() {
+		return this.handle;
+	}
+
+	@Override
+	public Type<SetImageEntitiesHandleEventHandler> getAssociatedType() {
+		return TYPE;
+	}
+
+	@Override
+	protected void onDispatch(SetImageEntitiesHandleEventHandler handler) {
+		handler.onSetImageEntitiesHandle(this);
+	}
+}
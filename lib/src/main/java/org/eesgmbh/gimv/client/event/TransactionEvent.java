@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.event;
+
+
+/**
+ * Marks the beginning and the end (commit) of a sequence of events, that belong together
+ * and describe a single consistent state, e.g. all events fired for a newly rendered image.
+ *
+ * <p>All events within the transaction are dispatched as usual, so every component is always
+ * up to date. But components with expensive side effects (e.g. placing widgets) can defer these until
+ * the commit and carry them out only once for the whole transaction.
+ *
+ * <p>Transactions can be nested, only the outermost commit finishes the transaction. Use {@link EventTransaction}
+ * to fire the events.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class TransactionEvent extends FilteredDispatchGwtEvent<TransactionEventHandler> {
+
+	public static Type<TransactionEventHandler> TYPE = new Type<TransactionEventHandler>();
+
+	private enum State {BEGIN, COMMIT};
+
+	private final State state;
+
+	private TransactionEvent(State state, TransactionEventHandler... blockedHandlers) {
+		super(blockedHandlers);
+
+		this.state = state;
+	}
+
+	public static TransactionEvent createBegin(TransactionEventHandler... blockedHandlers) {
+		return new TransactionEvent(State.BEGIN, blockedHandlers);
+	}
+
+	public static TransactionEvent createCommit(TransactionEventHandler... blockedHandlers) {
+		return new TransactionEvent(State.COMMIT, blockedHandlers);
+	}
+
+	public boolean isBegin() {
+		return this.state == State.BEGIN;
+	}
+
+	public boolean isCommit() {
+		return this.state == State.COMMIT;
+	}
+
+	@Override
+	public Type<TransactionEventHandler> getAssociatedType() {
+		return TYPE;
+	}
+
+	@Override
+	protected void onDispatch(TransactionEventHandler handler) {
+		handler.onTransaction(this);
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.event;
+
+/**
+ * Signals a pinch gesture with two pointers over the viewport.
+ *
+ * <p>The scale is relative to the previous pinch event of the same gesture. A scale greater than 1
+ * means the pointers moved apart (zoom in).
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ *
+ */
+public class ViewportPinchZoomEvent extends FilteredDispatchGwtEvent<ViewportPinchZoomEventHandler> {
+
+	public static Type<ViewportPinchZoomEventHandler> TYPE = new Type<ViewportPinchZoomEventHandler>();
+
+	private final double x, y;
+	private final double scale;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param x horizontal center between the pointers relative to the viewport
+	 * @param y vertical center between the pointers relative to the viewport
+	 * @param scale the change of the distance between the pointers
+	 * @param blockedHandlers
+	 */
+	public ViewportPinchZoomEvent(double x, double y, double scale, ViewportPinchZoomEventHandler... blockedHandlers) {
+		super(blockedHandlers);
+
+		this.x = x;
+		this.y = y;
+		this.scale = scale;
+	}
+
+	public double getX() {
+		return this.x;
+	}
+
+	public double getY() {
+		return this.y;
+	}
+
+	public double getScale() {
+		return this.scale;
+	}
+
+	@Override
+	public Type<ViewportPinchZoomEventHandler> getAssociatedType() {
+		return TYPE;
+	}
+
+	@Override
+	protected void onDispatch(ViewportPinchZoomEventHandler handler) {
+		handler.onPinchZoom(this);
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.imagedata;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+import java.util.List;
+
+/**
+ * <p>Provides the {@link ImageData} of several charts with a single request, usually by rendering
+ * the images on the server side in one round trip.
+ *
+ * <p>Used by the {@link ChartGroupCoordinator}, which collects the requests of a group of charts.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public interface BatchImageDataSource {
+
+	/**
+	 * Requests the image data of several charts.
+	 *
+	 * @param requests the requests, at least one
+	 * @param callback will receive the image data in the order of the requests. An element
+	 * 	is null if the image data of the respective chart could not be provided.
+	 */
+	void getImageData(List<Request> requests, AsyncCallback<List<ImageData>> callback);
+
+	/**
+	 * The request of a single chart.
+	 */
+	public static final class Request {
+
+		private final String chartId;
+		private final ImageDataKey key;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param chartId identifies the chart, e.g. to look up its rendering settings
+		 * @param key identifies the image data
+		 */
+		public Request(String chartId, ImageDataKey key) {
+			this.chartId = Validate.notNull(chartId);
+			this.key = Validate.notNull(key);
+		}
+
+		public String getChartId() {
+			return this.chartId;
+		}
+
+		public ImageDataKey getKey() {
+			return this.key;
+		}
+	}
+}
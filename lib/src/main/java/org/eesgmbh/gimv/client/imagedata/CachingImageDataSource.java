@@ -0,0 +1,69 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eesgmbh.gimv.client.imagedata;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+/**
+ * <p>A stage of an {@link ImageDataSource} pipeline that serves image data from
+ * an {@link ImageDataCache}.
+ *
+ * <p>Image data, which is not cached, is requested from the next stage and added to
+ * the cache afterwards.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class CachingImageDataSource implements ImageDataSource {
+
+	private final ImageDataCache imageDataCache;
+	private final ImageDataSource next;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param imageDataCache the cache, might be shared with other stages
+	 * @param next the next stage of the pipeline
+	 */
+	public CachingImageDataSource(ImageDataCache imageDataCache, ImageDataSource next) {
+		this.imageDataCache = Validate.notNull(imageDataCache);
+		this.next = Validate.notNull(next);
+	}
+
+	public void getImageData(final ImageDataKey key, final AsyncCallback<ImageData> callback) {
+		ImageData cachedImageData = imageDataCache.get(key);
+
+		if (cachedImageData != null) {
+			callback.onSuccess(cachedImageData);
+		} else {
+			next.getImageData(key, new AsyncCallback<ImageData>() {
+				public void onSuccess(ImageData imageData) {
+					imageDataCache.put(key, imageData);
+
+					callback.onSuccess(imageData);
+				}
+
+				public void onFailure(Throwable caught) {
+					callback.onFailure(caught);
+				}
+			});
+		}
+	}
+
+	public ImageDataCache getImageDataCache() {
+		return imageDataCache;
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.imagedata;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.eesgmbh.gimv.client.event.LoadImageDataEvent;
+import org.eesgmbh.gimv.client.event.LoadImageDataEventHandler;
+import org.eesgmbh.gimv.client.util.Disposable;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Coordinates a group of charts, each with its own {@link HandlerManager} and {@link ImageDataSourceControl},
+ * so that they are rendered with a single request to a {@link BatchImageDataSource}.
+ *
+ * <p>Each chart ends its {@link ImageDataSource} pipeline with the source returned by {@link #addChart(String)}
+ * instead of an application specific transport adapter. All requests made to these sources while the current
+ * event is handled are collected and sent as one batch when the browser event loop is entered again
+ * ({@link Scheduler#scheduleFinally(ScheduledCommand)}).
+ *
+ * <p>Linked charts ({@link #link(HandlerManager)}) are rendered together: a {@link LoadImageDataEvent} fired on one
+ * of them is fired on all others as well. Thus, e.g. after a shared pan, the domain bounds are set on each chart,
+ * but the image data is loaded by firing the event on only one of them.
+ *
+ * <p>Registers with each linked {@link HandlerManager} to receive the following events
+ * <ul>
+ * 	<li> {@link LoadImageDataEvent}
+ * </ul>
+ *
+ * <p>Fires the following events
+ * <ul>
+ * 	<li> {@link LoadImageDataEvent} on the other linked handler managers, after it has been received on one of them
+ * </ul>
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class ChartGroupCoordinator implements Disposable {
+
+	private final BatchImageDataSource batchImageDataSource;
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
+
+	private final List<LinkedChartEventHandler> linkedCharts = new ArrayList<LinkedChartEventHandler>();
+
+	private List<BatchImageDataSource.Request> pendingRequests = new ArrayList<BatchImageDataSource.Request>();
+	private List<AsyncCallback<ImageData>> pendingCallbacks = new ArrayList<AsyncCallback<ImageData>>();
+
+	private boolean flushScheduled;
+	private boolean disposed;
+
+	/**
+	 * Instantiates the coordinator.
+	 *
+	 * @param batchImageDataSource the source rendering the charts of a batch
+	 */
+	public ChartGroupCoordinator(BatchImageDataSource batchImageDataSource) {
+		this.batchImageDataSource = Validate.notNull(batchImageDataSource);
+	}
+
+	public void dispose() {
+		handlerRegistrations.removeHandler();
+		linkedCharts.clear();
+
+		//a scheduled flush won't send the pending requests
+		disposed = true;
+	}
+
+	/**
+	 * Adds a chart to the group.
+	 *
+	 * @param chartId identifies the chart in the {@link BatchImageDataSource.Request}s
+	 * @return the source to be used as the last stage of the chart's {@link ImageDataSource} pipeline
+	 */
+	public ImageDataSource addChart(final String chartId) {
+		Validate.notNull(chartId);
+
+		return new ImageDataSource() {
+			public void getImageData(ImageDataKey key, AsyncCallback<ImageData> callback) {
+				enqueue(new BatchImageDataSource.Request(chartId, key), callback);
+			}
+		};
+	}
+
+	/**
+	 * Links the chart of the handler manager with the other linked charts. A {@link LoadImageDataEvent} fired on one of them will
+	 * be fired on all others as well.
+	 *
+	 * @param handlerManager A {@link HandlerManager}
+	 */
+	public void link(HandlerManager handlerManager) {
+		LinkedChartEventHandler eventHandler = new LinkedChartEventHandler(Validate.notNull(handlerManager));
+
+		linkedCharts.add(eventHandler);
+		handlerRegistrations.add(handlerManager, LoadImageDataEvent.TYPE, eventHandler);
+	}
+
+	private void enqueue(BatchImageDataSource.Request request, AsyncCallback<ImageData> callback) {
+		pendingRequests.add(request);
+		pendingCallbacks.add(callback);
+
+		if (!flushScheduled) {
+			flushScheduled = true;
+			scheduleFlush();
+		}
+	}
+
+	/*
+	 * package-private for testing, the tests invoke flush() themselves
+	 */
+
+	void scheduleFlush() {
+		Scheduler.get().scheduleFinally(new ScheduledCommand() {
+			public void execute() {
+				flush();
+			}
+		});
+	}
+
+	/**
+	 * Sends the collected requests as one batch
+	 */
+	void flush() {
+		flushScheduled = false;
+
+		if (disposed || pendingRequests.isEmpty()) {
+			return;
+		}
+
+		final List<BatchImageDataSource.Request> requests = pendingRequests;
+		final List<AsyncCallback<ImageData>> callbacks = pendingCallbacks;
+
+		pendingRequests = new ArrayList<BatchImageDataSource.Request>();
+		pendingCallbacks = new ArrayList<AsyncCallback<ImageData>>();
+
+		batchImageDataSource.getImageData(requests, new AsyncCallback<List<ImageData>>() {
+			public void onSuccess(List<ImageData> result) {
+				for (int i = 0; i < callbacks.size(); i++) {
+					ImageData imageData = i < result.size() ? result.get(i) : null;
+
+					if (imageData != null) {
+						callbacks.get(i).onSuccess(imageData);
+					} else {
+						callbacks.get(i).onFailure(new IllegalStateException("No image data for chart " + requests.get(i).getChartId()));
+					}
+				}
+			}
+
+			public void onFailure(Throwable caught) {
+				for (AsyncCallback<ImageData> callback : callbacks) {
+					callback.onFailure(caught);
+				}
+			}
+		});
+	}
+
+	private class LinkedChartEventHandler implements LoadImageDataEventHandler {
+		private final HandlerManager handlerManager;
+
+		private LinkedChartEventHandler(HandlerManager handlerManager) {
+			this.handlerManager = handlerManager;
+		}
+
+		public void onLoadImageData(LoadImageDataEvent event) {
+			//the other charts are not forwarded to again, their handlers are blocked
+			for (LinkedChartEventHandler linkedChart : new ArrayList<LinkedChartEventHandler>(linkedCharts)) {
+				if (linkedChart != this) {
+					linkedChart.handlerManager.fireEvent(new LoadImageDataEvent(linkedChart));
+				}
+			}
+		}
+	}
+}
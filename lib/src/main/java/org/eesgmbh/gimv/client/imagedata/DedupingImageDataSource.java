@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eesgmbh.gimv.client.imagedata;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>A stage of an {@link ImageDataSource} pipeline that collapses identical requests.
+ *
+ * <p>As long as a request for an {@link ImageDataKey} is in flight, further requests for the
+ * same key are not passed to the next stage. All callbacks receive the result of the single request.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class DedupingImageDataSource implements ImageDataSource {
+
+	private final ImageDataSource next;
+
+	private final Map<ImageDataKey, List<AsyncCallback<ImageData>>> inFlightRequests;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param next the next stage of the pipeline
+	 */
+	public DedupingImageDataSource(ImageDataSource next) {
+		this.next = Validate.notNull(next);
+
+		this.inFlightRequests = new HashMap<ImageDataKey, List<AsyncCallback<ImageData>>>();
+	}
+
+	public void getImageData(final ImageDataKey key, AsyncCallback<ImageData> callback) {
+		List<AsyncCallback<ImageData>> callbacks = inFlightRequests.get(key);
+
+		if (callbacks != null) {
+			callbacks.add(callback);
+		} else {
+			callbacks = new ArrayList<AsyncCallback<ImageData>>();
+			callbacks.add(callback);
+			inFlightRequests.put(key, callbacks);
+
+			next.getImageData(key, new AsyncCallback<ImageData>() {
+				public void onSuccess(ImageData imageData) {
+					for (AsyncCallback<ImageData> callback : complete(key)) {
+						callback.onSuccess(imageData);
+					}
+				}
+
+				public void onFailure(Throwable caught) {
+					for (AsyncCallback<ImageData> callback : complete(key)) {
+						callback.onFailure(caught);
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * @return the number of distinct requests that are currently in flight
+	 */
+	public int getInFlightRequestCount() {
+		return inFlightRequests.size();
+	}
+
+	private List<AsyncCallback<ImageData>> complete(ImageDataKey key) {
+		List<AsyncCallback<ImageData>> callbacks = inFlightRequests.remove(key);
+
+		return callbacks != null ? callbacks : new ArrayList<AsyncCallback<ImageData>>();
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.imagedata;
+
+import org.eesgmbh.gimv.client.event.SetDataAreaPixelBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetDomainBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetImageEntitiesEvent;
+import org.eesgmbh.gimv.client.event.SetImageUrlEvent;
+import org.eesgmbh.gimv.client.event.SetMaxDomainBoundsEvent;
+import org.eesgmbh.gimv.shared.util.Bounds;
+import org.eesgmbh.gimv.shared.util.ImageEntity;
+import org.eesgmbh.gimv.shared.util.ImageEntityBatch;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+import java.util.List;
+
+/**
+ * <p>The data of a rendered image, as it is usually published by a controller with the
+ * events {@link SetImageUrlEvent}, {@link SetDataAreaPixelBoundsEvent}, {@link SetMaxDomainBoundsEvent},
+ * {@link SetDomainBoundsEvent} and {@link SetImageEntitiesEvent}.
+ *
+ * <p>Only the image url and the domain bounds are mandatory.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class ImageData {
+
+	private final String imageUrl;
+	private final Bounds domainBounds;
+
+	private Bounds dataAreaBounds;
+	private Bounds maxDomainBounds;
+	private List<ImageEntity> imageEntities;
+	private ImageEntityBatch imageEntityBatch;
+	private String imageEntitiesHandle;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param imageUrl the url of the rendered image, may also be a data URI embedding a small image
+	 * @param domainBounds the domain bounds that were rendered
+	 */
+	public ImageData(String imageUrl, Bounds domainBounds) {
+		this.imageUrl = Validate.notNull(imageUrl);
+		this.domainBounds = Validate.notNull(domainBounds);
+	}
+
+	public String getImageUrl() {
+		return this.imageUrl;
+	}
+
+	public Bounds getDomainBounds() {
+		return this.domainBounds;
+	}
+
+	/**
+	 * @return the pixel bounds of the data area within the image, might be null
+	 */
+	public Bounds getDataAreaBounds() {
+		return this.dataAreaBounds;
+	}
+	public void setDataAreaBounds(Bounds dataAreaBounds) {
+		this.dataAreaBounds = dataAreaBounds;
+	}
+
+	/**
+	 * @return the maximum domain bounds, might be null
+	 */
+	public Bounds getMaxDomainBounds() {
+		return this.maxDomainBounds;
+	}
+	public void setMaxDomainBounds(Bounds maxDomainBounds) {
+		this.maxDomainBounds = maxDomainBounds;
+	}
+
+	/**
+	 * @return the image entities, might be null
+	 */
+	public List<ImageEntity> getImageEntities() {
+		return this.imageEntities;
+	}
+	public void setImageEntities(List<ImageEntity> imageEntities) {
+		this.imageEntities = imageEntities;
+	}
+
+	/**
+	 * @return the image entities in the compact representation, might be null. Takes precedence over {@link #getImageEntities()}.
+	 */
+	public ImageEntityBatch getImageEntityBatch() {
+		return this.imageEntityBatch;
+	}
+	public void setImageEntityBatch(ImageEntityBatch imageEntityBatch) {
+		this.imageEntityBatch = imageEntityBatch;
+	}
+
+	/**
+	 * @return a handle for fetching the image entities on demand with an {@link ImageEntitySource}, might be null.
+	 * 		Only used, if there are no image entities.
+	 */
+	public String getImageEntitiesHandle() {
+		return this.imageEntitiesHandle;
+	}
+	public void setImageEntitiesHandle(String imageEntitiesHandle) {
+		this.imageEntitiesHandle = imageEntitiesHandle;
+	}
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.imagedata;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.ImageElement;
+import org.eesgmbh.gimv.shared.util.ImageEntity;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+import java.util.LinkedHashMap;
+
+/**
+ * <p>A bounded client side cache for {@link ImageData}, keyed by {@link ImageDataKey}.
+ *
+ * <p>Revisiting a view, e.g. by navigating through the browser history, can be served
+ * instantly from the cache without rendering the image again.
+ *
+ * <p>The cache is bounded by the number of entries ({@link #setMaxEntries(int)}) and an estimated memory
+ * budget ({@link #setMaxBytes(long)}). The memory of an entry is estimated from the decoded image (four bytes per pixel)
+ * and its image entities. If any bound is exceeded, the least recently used entries are evicted.
+ *
+ * <p>By default, the cache keeps an image element for each entry, so the browser retains the
+ * image and does not have to request it again. This can be turned off with {@link #setRetainDecodedImages(boolean)}.
+ *
+ * <p>Hits, misses and evictions are counted.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class ImageDataCache {
+
+	private static final int BYTES_PER_PIXEL = 4;
+	private static final int BYTES_PER_IMAGE_ENTITY = 64;
+
+	private final LinkedHashMap<ImageDataKey, Entry> entries;
+
+	private int maxEntries;
+	private long maxBytes;
+	private boolean retainDecodedImages;
+
+	private long currentBytes;
+
+	private int hitCount;
+	private int missCount;
+	private int evictionCount;
+
+	/**
+	 * Constructor.
+	 */
+	public ImageDataCache() {
+		//access ordered, the least recently used entry comes first
+		this.entries = new LinkedHashMap<ImageDataKey, Entry>(16, 0.75f, true);
+
+		setMaxEntries(20);
+		setMaxBytes(64L * 1024 * 1024);
+		setRetainDecodedImages(true);
+	}
+
+	/**
+	 * Sets the maximum number of cached entries.
+	 *
+	 * <p>Default is 20.
+	 *
+	 * @param maxEntries at least 1
+	 */
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = (int) Validate.isPositive(maxEntries);
+
+		evict();
+	}
+
+	/**
+	 * Sets the memory budget of the cache in bytes.
+	 *
+	 * <p>Default is 64 MB.
+	 *
+	 * @param maxBytes at least 1
+	 */
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = (long) Validate.isPositive(maxBytes);
+
+		evict();
+	}
+
+	/**
+	 * Specify whether an image element is kept for each entry, so the browser retains
+	 * the loaded image.
+	 *
+	 * <p>Applies to entries that are added afterwards.
+	 *
+	 * <p>Default is true.
+	 *
+	 * @param retainDecodedImages retain them, or not
+	 */
+	public void setRetainDecodedImages(boolean retainDecodedImages) {
+		this.retainDecodedImages = retainDecodedImages;
+	}
+
+	/**
+	 * Returns the cached image data and marks it as recently used.
+	 *
+	 * @param key the key
+	 * @return the image data or null, if it is not cached
+	 */
+	public ImageData get(ImageDataKey key) {
+		Entry entry = entries.get(key);
+
+		if (entry != null) {
+			hitCount++;
+			return entry.imageData;
+		} else {
+			missCount++;
+			return null;
+		}
+	}
+
+	/**
+	 * Checks whether image data is cached without counting a hit or miss
+	 * and without changing the usage order.
+	 *
+	 * @param key the key
+	 * @return true, if the image data is cached
+	 */
+	public boolean contains(ImageDataKey key) {
+		return entries.containsKey(key);
+	}
+
+	/**
+	 * Adds image data to the cache. Least recently used entries are evicted
+	 * if necessary.
+	 *
+	 * @param key the key
+	 * @param imageData the image data
+	 */
+	public void put(ImageDataKey key, ImageData imageData) {
+		Validate.notNull(key);
+		Validate.notNull(imageData);
+
+		remove(key);
+
+		Entry entry = new Entry(imageData, estimateBytes(key, imageData));
+
+		if (retainDecodedImages) {
+			entry.retainedImage = Document.get().createImageElement();
+			entry.retainedImage.setSrc(imageData.getImageUrl());
+		}
+
+		entries.put(key, entry);
+		currentBytes += entry.bytes;
+
+		evict();
+	}
+
+	/**
+	 * Removes all entries. The counters are not reset.
+	 */
+	public void clear() {
+		entries.clear();
+		currentBytes = 0;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return the estimated memory of all entries in bytes
+	 */
+	public long getEstimatedBytes() {
+		return currentBytes;
+	}
+
+	public int getHitCount() {
+		return hitCount;
+	}
+
+	public int getMissCount() {
+		return missCount;
+	}
+
+	public int getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * @return hits divided by all lookups, zero if there was no lookup yet
+	 */
+	public double getHitRate() {
+		int lookups = hitCount + missCount;
+
+		return lookups == 0 ? 0 : (double) hitCount / lookups;
+	}
+
+	/**
+	 * Estimates the memory consumed by the image data, i.e. the decoded image and its
+	 * image entities.
+	 *
+	 * @param key the key of the image data
+	 * @param imageData the image data
+	 * @return the estimated memory in bytes
+	 */
+	public static long estimateBytes(ImageDataKey key, ImageData imageData) {
+		long bytes = (long) key.getWidth() * key.getHeight() * BYTES_PER_PIXEL + imageData.getImageUrl().length() * 2;
+
+		if (imageData.getImageEntities() != null) {
+			for (ImageEntity imageEntity : imageData.getImageEntities()) {
+				bytes += BYTES_PER_IMAGE_ENTITY;
+
+				for (String htmlFragment : imageEntity.getHtmlFragments().values()) {
+					bytes += htmlFragment != null ? htmlFragment.length() * 2 : 0;
+				}
+			}
+		}
+
+		if (imageData.getImageEntityBatch() != null) {
+			bytes += imageData.getImageEntityBatch().estimateBytes();
+		}
+
+		return bytes;
+	}
+
+	private void remove(ImageDataKey key) {
+		Entry entry = entries.remove(key);
+
+		if (entry != null) {
+			currentBytes -= entry.bytes;
+		}
+	}
+
+	private void evict() {
+		//an entry exceeding the budget on its own is kept, as long as it is the only one
+		while (entries.size() > maxEntries || (currentBytes > maxBytes && entries.size() > 1)) {
+			ImageDataKey eldestKey = entries.keySet().iterator().next();
+
+			remove(eldestKey);
+			evictionCount++;
+		}
+	}
+
+	private static class Entry {
+		private final ImageData imageData;
+		private final long bytes;
+
+		@SuppressWarnings("unused")
+		private ImageElement retainedImage;
+
+		private Entry(ImageData imageData, long bytes) {
+			this.imageData = imageData;
+			this.bytes = bytes;
+		}
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.imagedata;
+
+import org.eesgmbh.gimv.shared.util.Bounds;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+/**
+ * Identifies a rendered image by its domain bounds and the
+ * pixel dimensions of the viewport it was rendered for.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class ImageDataKey {
+
+	private final Bounds domainBounds;
+	private final int width;
+	private final int height;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param domainBounds the domain bounds of the image
+	 * @param width the width of the viewport in pixel
+	 * @param height the height of the viewport in pixel
+	 */
+	public ImageDataKey(Bounds domainBounds, int width, int height) {
+		this.domainBounds = Validate.notNull(domainBounds);
+		this.width = width;
+		this.height = height;
+	}
+
+	public Bounds getDomainBounds() {
+		return this.domainBounds;
+	}
+
+	public int getWidth() {
+		return this.width;
+	}
+
+	public int getHeight() {
+		return this.height;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + this.domainBounds.hashCode();
+		result = prime * result + this.width;
+		result = prime * result + this.height;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+
+		if (!(obj instanceof ImageDataKey)) {
+			return false;
+		}
+		ImageDataKey other = (ImageDataKey) obj;
+
+		return this.width == other.width && this.height == other.height && this.domainBounds.equals(other.domainBounds);
+	}
+
+	@Override
+	public String toString() {
+		return this.domainBounds + " " + this.width + "x" + this.height;
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eesgmbh.gimv.client.imagedata;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.eesgmbh.gimv.client.event.LoadImageDataEvent;
+
+/**
+ * <p>Provides the {@link ImageData} for an {@link ImageDataKey}, usually by rendering an image
+ * on the server side.
+ *
+ * <p>Image data sources can be chained to a pipeline, where each stage delegates to the next one. A
+ * typical pipeline is
+ * <ul>
+ * 	<li> {@link CachingImageDataSource} (serves previously rendered images from an {@link ImageDataCache})
+ * 	<li> {@link DedupingImageDataSource} (collapses identical requests that are in flight)
+ * 	<li> {@link PrefetchingImageDataSource} (requests image data at low priority)
+ * 	<li> an application specific transport adapter, e.g. invoking a GWT RPC service
+ * </ul>
+ *
+ * <p>The {@link ImageDataSourceControl} translates a {@link LoadImageDataEvent} into a request to
+ * an image data source.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public interface ImageDataSource {
+
+	/**
+	 * Requests the image data. The callback might be invoked synchronously, e.g. if
+	 * the image data is cached.
+	 *
+	 * @param key identifies the image data
+	 * @param callback will receive the image data
+	 */
+	void getImageData(ImageDataKey key, AsyncCallback<ImageData> callback);
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eesgmbh.gimv.client.imagedata;
+
+import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.eesgmbh.gimv.client.event.EventTransaction;
+import org.eesgmbh.gimv.client.event.LoadImageDataEvent;
+import org.eesgmbh.gimv.client.event.LoadImageDataEventHandler;
+import org.eesgmbh.gimv.client.event.LoadImageDataFailedEvent;
+import org.eesgmbh.gimv.client.event.SetDataAreaPixelBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetDomainBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetDomainBoundsEventHandler;
+import org.eesgmbh.gimv.client.event.SetImageEntitiesEvent;
+import org.eesgmbh.gimv.client.event.SetImageEntitiesHandleEvent;
+import org.eesgmbh.gimv.client.event.SetImageUrlEvent;
+import org.eesgmbh.gimv.client.event.SetMaxDomainBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetViewportPixelBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetViewportPixelBoundsEventHandler;
+import org.eesgmbh.gimv.client.util.Disposable;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
+import org.eesgmbh.gimv.shared.util.Bounds;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+/**
+ * <p>Translates a {@link LoadImageDataEvent} into a request to an {@link ImageDataSource} and publishes
+ * the received {@link ImageData}.
+ *
+ * <p>The request is identified by an {@link ImageDataKey} built from the current domain bounds and
+ * the current viewport dimensions. Only the response to the latest request is published,
+ * responses to superseded requests are discarded.
+ *
+ * <p>A failure of the latest request is published with a {@link LoadImageDataFailedEvent}, so the application
+ * can notify the user. Failures of superseded requests are discarded as well.
+ *
+ * <p>Registers with the {@link HandlerManager} to receive the following events
+ * <ul>
+ * 	<li> {@link LoadImageDataEvent} (mandatory, won't do anything otherwise)
+ * 	<li> {@link SetDomainBoundsEvent} (mandatory, won't work otherwise)
+ * 	<li> {@link SetViewportPixelBoundsEvent} (mandatory, won't work otherwise)
+ * </ul>
+ *
+ * <p>Fires the following events
+ * <ul>
+ * 	<li> {@link SetImageUrlEvent} after the image data has been received
+ * 	<li> {@link SetDataAreaPixelBoundsEvent} after the image data has been received, if it contains a data area
+ * 	<li> {@link SetMaxDomainBoundsEvent} after the image data has been received, if it contains max domain bounds
+ * 	<li> {@link SetDomainBoundsEvent} after the image data has been received
+ * 	<li> {@link SetImageEntitiesEvent} after the image data has been received, if it contains image entities
+ * 	<li> {@link SetImageEntitiesHandleEvent} after the image data has been received, if it contains a handle instead of image entities
+ * 	<li> {@link LoadImageDataFailedEvent} if the latest request failed
+ * </ul>
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class ImageDataSourceControl implements Disposable {
+
+	private final HandlerManager handlerManager;
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
+	private final ImageDataSource imageDataSource;
+
+	private Bounds currentDomainBounds;
+	private Bounds currentViewportBounds;
+
+	private int latestRequestId;
+
+	/**
+	 * Instantiates the control.
+	 *
+	 * @param handlerManager A {@link HandlerManager}
+	 * @param imageDataSource the source, usually a pipeline of several stages
+	 */
+	public ImageDataSourceControl(HandlerManager handlerManager, ImageDataSource imageDataSource) {
+		this.handlerManager = Validate.notNull(handlerManager);
+		this.imageDataSource = Validate.notNull(imageDataSource);
+
+		ImageDataSourceControlEventHandler eventHandler = new ImageDataSourceControlEventHandler();
+		handlerRegistrations.add(handlerManager, LoadImageDataEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetViewportPixelBoundsEvent.TYPE, eventHandler);
+	}
+
+	public void dispose() {
+		handlerRegistrations.removeHandler();
+
+		//responses to pending requests are discarded
+		latestRequestId++;
+	}
+
+	/**
+	 * Publishes the image data with the standard sequence of events, enclosed in an {@link EventTransaction}.
+	 *
+	 * @param handlerManager A {@link HandlerManager}
+	 * @param imageData the image data
+	 */
+	public static void fireImageDataEvents(HandlerManager handlerManager, ImageData imageData) {
+		EventTransaction transaction = EventTransaction.begin(handlerManager);
+
+		try {
+			transaction.fireEvent(new SetImageUrlEvent(imageData.getImageUrl()));
+
+			if (imageData.getDataAreaBounds() != null) {
+				transaction.fireEvent(new SetDataAreaPixelBoundsEvent(imageData.getDataAreaBounds()));
+			}
+
+			if (imageData.getMaxDomainBounds() != null) {
+				transaction.fireEvent(new SetMaxDomainBoundsEvent(imageData.getMaxDomainBounds()));
+			}
+
+			transaction.fireEvent(new SetDomainBoundsEvent(imageData.getDomainBounds()));
+
+			if (imageData.getImageEntityBatch() != null) {
+				transaction.fireEvent(new SetImageEntitiesEvent(imageData.getImageEntityBatch()));
+			} else if (imageData.getImageEntities() != null) {
+				transaction.fireEvent(new SetImageEntitiesEvent(imageData.getImageEntities()));
+			} else if (imageData.getImageEntitiesHandle() != null) {
+				transaction.fireEvent(new SetImageEntitiesHandleEvent(imageData.getImageEntitiesHandle()));
+			}
+		} finally {
+			transaction.commit();
+		}
+	}
+
+	private void onLoadImageData() {
+		if (currentDomainBounds == null || currentViewportBounds == null) {
+			return;
+		}
+
+		ImageDataKey key = new ImageDataKey(currentDomainBounds,
+				currentViewportBounds.getAbsWidth().intValue(), currentViewportBounds.getAbsHeight().intValue());
+
+		final int requestId = ++latestRequestId;
+
+		imageDataSource.getImageData(key, new AsyncCallback<ImageData>() {
+			public void onSuccess(ImageData imageData) {
+				//a response to a superseded request is discarded
+				if (requestId == latestRequestId) {
+					fireImageDataEvents(handlerManager, imageData);
+				}
+			}
+
+			public void onFailure(Throwable caught) {
+				if (requestId == latestRequestId) {
+					handlerManager.fireEvent(new LoadImageDataFailedEvent(caught));
+				}
+			}
+		});
+	}
+
+	private class ImageDataSourceControlEventHandler implements LoadImageDataEventHandler, SetDomainBoundsEventHandler, SetViewportPixelBoundsEventHandler {
+		public void onLoadImageData(LoadImageDataEvent event) {
+			ImageDataSourceControl.this.onLoadImageData();
+		}
+
+		public void onSetDomainBounds(SetDomainBoundsEvent event) {
+			currentDomainBounds = event.getBounds();
+		}
+
+		public void onSetViewportBounds(SetViewportPixelBoundsEvent event) {
+			currentViewportBounds = event.getBounds();
+		}
+	}
+}
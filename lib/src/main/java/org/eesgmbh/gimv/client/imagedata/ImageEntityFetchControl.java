@@ -0,0 +1,225 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.eesgmbh.gimv.client.imagedata;
+
+import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.user.client.Timer;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.eesgmbh.gimv.client.event.SetImageEntitiesEvent;
+import org.eesgmbh.gimv.client.event.SetImageEntitiesHandleEvent;
+import org.eesgmbh.gimv.client.event.SetImageEntitiesHandleEventHandler;
+import org.eesgmbh.gimv.client.event.ViewportMouseMoveEvent;
+import org.eesgmbh.gimv.client.event.ViewportMouseMoveEventHandler;
+import org.eesgmbh.gimv.client.presenter.TooltipPresenter;
+import org.eesgmbh.gimv.client.util.Disposable;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
+import org.eesgmbh.gimv.shared.util.ImageEntityBatch;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>Fetches the image entities of the displayed image on demand, so that the image data does not need to
+ * carry them. Most images are never hovered before the user moves on, so transferring their image entities
+ * along with the image only delays the image.
+ *
+ * <p>The image data then only contains a handle ({@link ImageData#setImageEntitiesHandle(String)}). The image entities
+ * are fetched from an {@link ImageEntitySource} when the mouse is moved over the viewport for the first time, or
+ * after the user did not interact with the viewport for a while ({@link #setIdleDelay(int)}), whatever comes first.
+ *
+ * <p>The fetched image entities are cached per handle ({@link #setCacheSize(int)}), e.g. for images served
+ * from an {@link ImageDataCache}.
+ *
+ * <p>Registers with the {@link HandlerManager} to receive the following events
+ * <ul>
+ * 	<li> {@link SetImageEntitiesHandleEvent} (mandatory, won't do anything otherwise)
+ * 	<li> {@link ViewportMouseMoveEvent} (optional, triggers fetching)
+ * </ul>
+ *
+ * <p>Fires the following events
+ * <ul>
+ * 	<li> {@link SetImageEntitiesEvent} after the image entities have been received, usually processed by a {@link TooltipPresenter}.
+ * 		With no image entities right after a new handle, if they are not cached, so that the image entities of the previous image are discarded.
+ * </ul>
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class ImageEntityFetchControl implements Disposable {
+
+	private final HandlerManager handlerManager;
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
+	private final ImageEntitySource imageEntitySource;
+
+	private final LinkedHashMap<String, ImageEntityBatch> cache;
+	private final IdleTimer idleTimer;
+
+	private int idleDelay;
+	private int cacheSize;
+
+	private String currentHandle;
+
+	/**
+	 * the handles of the current image, whose image entities are requested
+	 */
+	private final Set<String> requestedHandles = new HashSet<String>();
+
+	/**
+	 * the current handle, if its request failed, not requested again until the image changes
+	 */
+	private String failedHandle;
+
+	/**
+	 * Instantiates the control.
+	 *
+	 * @param handlerManager A {@link HandlerManager}
+	 * @param imageEntitySource the source of the image entities
+	 */
+	public ImageEntityFetchControl(HandlerManager handlerManager, ImageEntitySource imageEntitySource) {
+		this.handlerManager = Validate.notNull(handlerManager);
+		this.imageEntitySource = Validate.notNull(imageEntitySource);
+
+		this.cache = new LinkedHashMap<String, ImageEntityBatch>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ImageEntityBatch> eldest) {
+				return size() > cacheSize;
+			}
+		};
+		this.idleTimer = new IdleTimer();
+
+		ImageEntityFetchControlEventHandler eventHandler = new ImageEntityFetchControlEventHandler();
+		handlerRegistrations.add(handlerManager, SetImageEntitiesHandleEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportMouseMoveEvent.TYPE, eventHandler);
+
+		setIdleDelay(1000);
+		setCacheSize(20);
+	}
+
+	public void dispose() {
+		handlerRegistrations.removeHandler();
+		idleTimer.cancel();
+
+		//responses to pending requests are discarded
+		currentHandle = null;
+		cache.clear();
+		requestedHandles.clear();
+	}
+
+	/**
+	 * Sets the time without user interaction after a new image, after which the image entities are fetched
+	 * even if the mouse was not moved over the viewport. Zero disables fetching without mouse movement.
+	 *
+	 * <p>Default is 1000 milliseconds.
+	 *
+	 * @param idleDelay delay in milliseconds
+	 */
+	public void setIdleDelay(int idleDelay) {
+		this.idleDelay = (int) Validate.isPositiveOrZero(idleDelay);
+	}
+
+	/**
+	 * Sets the number of handles, whose image entities are cached.
+	 *
+	 * <p>Default is 20.
+	 *
+	 * @param cacheSize number of handles
+	 */
+	public void setCacheSize(int cacheSize) {
+		this.cacheSize = (int) Validate.isPositiveOrZero(cacheSize);
+	}
+
+	private void onSetImageEntitiesHandle(SetImageEntitiesHandleEvent event) {
+		currentHandle = event.getHandle();
+		idleTimer.cancel();
+
+		//a pending response is still cached, a failed request is tried again when its image is shown again
+		requestedHandles.clear();
+		failedHandle = null;
+
+		ImageEntityBatch imageEntities = currentHandle != null ? cache.get(currentHandle) : null;
+
+		if (imageEntities != null) {
+			handlerManager.fireEvent(new SetImageEntitiesEvent(imageEntities));
+
+		} else {
+			//the image entities of the previous image do not match the new image
+			handlerManager.fireEvent(new SetImageEntitiesEvent(new ImageEntityBatch(0)));
+
+			if (currentHandle != null && idleDelay > 0) {
+				idleTimer.schedule(idleDelay);
+			}
+		}
+	}
+
+	/*
+	 * package private for testing
+	 */
+	void fetchCurrent() {
+		final String handle = currentHandle;
+
+		if (handle == null || cache.containsKey(handle) || requestedHandles.contains(handle) || handle.equals(failedHandle)) {
+			return;
+		}
+
+		idleTimer.cancel();
+		requestedHandles.add(handle);
+
+		imageEntitySource.getImageEntities(handle, new AsyncCallback<ImageEntityBatch>() {
+			public void onSuccess(ImageEntityBatch imageEntities) {
+				requestedHandles.remove(handle);
+
+				if (imageEntities != null && cacheSize > 0) {
+					cache.put(handle, imageEntities);
+				}
+
+				//a response for a previous image is only cached
+				if (imageEntities != null && handle.equals(currentHandle)) {
+					handlerManager.fireEvent(new SetImageEntitiesEvent(imageEntities));
+				}
+			}
+
+			public void onFailure(Throwable caught) {
+				requestedHandles.remove(handle);
+
+				//not repeated on every mouse move over the same image
+				if (handle.equals(currentHandle)) {
+					failedHandle = handle;
+				}
+			}
+		});
+	}
+
+	private class IdleTimer extends Timer {
+		@Override
+		public void run() {
+			fetchCurrent();
+		}
+	}
+
+	private class ImageEntityFetchControlEventHandler implements SetImageEntitiesHandleEventHandler, ViewportMouseMoveEventHandler {
+		public void onSetImageEntitiesHandle(SetImageEntitiesHandleEvent event) {
+			ImageEntityFetchControl.this.onSetImageEntitiesHandle(event);
+		}
+
+		public void onMouseMove(ViewportMouseMoveEvent event) {
+			fetchCurrent();
+		}
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.eesgmbh.gimv.client.imagedata;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.eesgmbh.gimv.shared.util.ImageEntityBatch;
+
+/**
+ * <p>Provides the image entities of a rendered image on demand, usually by invoking a
+ * service on the server side, that kept them when rendering the image.
+ *
+ * <p>Used by the {@link ImageEntityFetchControl}.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public interface ImageEntitySource {
+
+	/**
+	 * Requests the image entities.
+	 *
+	 * @param handle identifies the image entities, see {@link ImageData#getImageEntitiesHandle()}
+	 * @param callback will receive the image entities
+	 */
+	void getImageEntities(String handle, AsyncCallback<ImageEntityBatch> callback);
+}
@@ -0,0 +1,359 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eesgmbh.gimv.client.imagedata;
+
+import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.user.client.Timer;
+import org.eesgmbh.gimv.client.controls.KeystrokeControl;
+import org.eesgmbh.gimv.client.controls.MouseWheelControl;
+import org.eesgmbh.gimv.client.event.ChangeImagePixelBoundsEvent;
+import org.eesgmbh.gimv.client.event.ChangeImagePixelBoundsEventHandler;
+import org.eesgmbh.gimv.client.event.LoadImageDataEvent;
+import org.eesgmbh.gimv.client.event.LoadImageDataEventHandler;
+import org.eesgmbh.gimv.client.event.SetDataAreaPixelBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetDataAreaPixelBoundsEventHandler;
+import org.eesgmbh.gimv.client.event.SetDomainBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetDomainBoundsEventHandler;
+import org.eesgmbh.gimv.client.event.SetImageUrlEvent;
+import org.eesgmbh.gimv.client.event.SetImageUrlEventHandler;
+import org.eesgmbh.gimv.client.event.SetMaxDomainBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetMaxDomainBoundsEventHandler;
+import org.eesgmbh.gimv.client.event.SetViewportPixelBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetViewportPixelBoundsEventHandler;
+import org.eesgmbh.gimv.client.event.ViewportDragInProgressEvent;
+import org.eesgmbh.gimv.client.event.ViewportDragInProgressEventHandler;
+import org.eesgmbh.gimv.client.event.ViewportMouseWheelEvent;
+import org.eesgmbh.gimv.client.event.ViewportMouseWheelEventHandler;
+import org.eesgmbh.gimv.client.presenter.BoundsShiftPresenter;
+import org.eesgmbh.gimv.client.util.Disposable;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
+import org.eesgmbh.gimv.shared.util.Bounds;
+import org.eesgmbh.gimv.shared.util.BoundsQuantizer;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Prefetches the image data of neighbouring views, so that the next user action can be served
+ * from the {@link ImageDataCache} without waiting for the image to be rendered.
+ *
+ * <p>The neighbouring views are registered with
+ * <ul>
+ * 	<li> {@link #addAbsoluteShift(double, double)} and {@link #addProportionalShift(double, double)}, matching the shift of a {@link BoundsShiftPresenter}
+ * 	<li> {@link #addPixelShift(int, int)}, matching a key registered with the {@link KeystrokeControl}
+ * 	<li> {@link #addZoom(double)}, matching one notch of the {@link MouseWheelControl} at the center of the viewport
+ * </ul>
+ *
+ * <p>If the navigation controls snap their domain bounds, the same {@link BoundsQuantizer} must be
+ * set with {@link #setBoundsQuantizer(BoundsQuantizer)}.
+ *
+ * <p>After a new image has been received and the user did not interact with the viewport for a while
+ * ({@link #setIdleDelay(int)}), the neighbouring views are passed in registration order to
+ * {@link PrefetchingImageDataSource#prefetch(ImageDataKey)}. The prefetching is limited by the number of
+ * requests ({@link #setMaxPrefetchRequests(int)}) and the estimated memory of the decoded images
+ * ({@link #setMaxPrefetchBytes(long)}). Any user interaction cancels the queued prefetch requests.
+ *
+ * <p>Registers with the {@link HandlerManager} to receive the following events
+ * <ul>
+ * 	<li> {@link SetImageUrlEvent} (mandatory, won't do anything otherwise)
+ * 	<li> {@link SetDomainBoundsEvent} (mandatory, won't work otherwise)
+ * 	<li> {@link SetViewportPixelBoundsEvent} (mandatory, won't work otherwise)
+ * 	<li> {@link SetMaxDomainBoundsEvent} (optional, if received, views exceeding the max domain bounds are not prefetched)
+ * 	<li> {@link SetDataAreaPixelBoundsEvent} (optional, if the vieport contains an image which contains a data area related to {@link SetDomainBoundsEvent}, e.g. axis areas)
+ * 	<li> {@link LoadImageDataEvent}, {@link ChangeImagePixelBoundsEvent}, {@link ViewportDragInProgressEvent} and {@link ViewportMouseWheelEvent} (optional, cancel the prefetching)
+ * </ul>
+ *
+ * <p>Fires no events.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class PrefetchControl implements Disposable {
+
+	private final HandlerManager handlerManager;
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
+	private final PrefetchingImageDataSource prefetchingImageDataSource;
+
+	private final List<Neighbour> neighbours;
+	private final IdleTimer idleTimer;
+
+	private int idleDelay;
+	private int maxPrefetchRequests;
+	private long maxPrefetchBytes;
+	private BoundsQuantizer boundsQuantizer;
+
+	private Bounds currentDomainBounds;
+	private SetMaxDomainBoundsEvent currentMaxDomainBoundsEvent;
+	private Bounds currentDataAreaBounds;
+	private Bounds currentViewportBounds;
+
+	/**
+	 * Instantiates the control with the default configuration.
+	 *
+	 * @param handlerManager A {@link HandlerManager}
+	 * @param prefetchingImageDataSource the stage of the pipeline which receives the prefetch requests
+	 */
+	public PrefetchControl(HandlerManager handlerManager, PrefetchingImageDataSource prefetchingImageDataSource) {
+		this.handlerManager = Validate.notNull(handlerManager);
+		this.prefetchingImageDataSource = Validate.notNull(prefetchingImageDataSource);
+
+		this.neighbours = new ArrayList<Neighbour>();
+		this.idleTimer = new IdleTimer();
+
+		PrefetchControlEventHandler eventHandler = new PrefetchControlEventHandler();
+		handlerRegistrations.add(handlerManager, SetImageUrlEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetMaxDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetDataAreaPixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetViewportPixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, LoadImageDataEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ChangeImagePixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportDragInProgressEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportMouseWheelEvent.TYPE, eventHandler);
+
+		setIdleDelay(500);
+		setMaxPrefetchRequests(6);
+		setMaxPrefetchBytes(8L * 1024 * 1024);
+	}
+
+	public void dispose() {
+		handlerRegistrations.removeHandler();
+		cancel();
+	}
+
+	/**
+	 * Adds a neighbouring view shifted by an absolute value in the units of the domain bounds.
+	 *
+	 * @param horizontalShift absolute horizontal shift
+	 * @param verticalShift absolute vertical shift
+	 */
+	public void addAbsoluteShift(final double horizontalShift, final double verticalShift) {
+		neighbours.add(new Neighbour() {
+			public Bounds compute() {
+				return currentDomainBounds.shiftAbsolute(horizontalShift, verticalShift);
+			}
+		});
+	}
+
+	/**
+	 * Adds a neighbouring view shifted proportionally, e.g. 0.2 and 0 for 20% to the right.
+	 *
+	 * @param horizontalShift proportional horizontal shift
+	 * @param verticalShift proportional vertical shift
+	 */
+	public void addProportionalShift(final double horizontalShift, final double verticalShift) {
+		neighbours.add(new Neighbour() {
+			public Bounds compute() {
+				return currentDomainBounds.shiftProportional(horizontalShift, verticalShift);
+			}
+		});
+	}
+
+	/**
+	 * Adds a neighbouring view with the image shifted by pixels, e.g. 20 and 0 for shifting
+	 * the image 20 pixels to the right (the domain bounds move to the left).
+	 *
+	 * @param horizontalShiftInPixels horizontal shift of the image
+	 * @param verticalShiftInPixels vertical shift of the image
+	 */
+	public void addPixelShift(final int horizontalShiftInPixels, final int verticalShiftInPixels) {
+		neighbours.add(new Neighbour() {
+			public Bounds compute() {
+				Bounds shiftedTo = getViewportDataAreaBounds().shiftAbsolute(-horizontalShiftInPixels, -verticalShiftInPixels);
+				return shiftedTo.transform(getViewportDataAreaBounds(), currentDomainBounds);
+			}
+		});
+	}
+
+	/**
+	 * Adds two neighbouring views, zoomed in and out at the center.
+	 *
+	 * @param zoomFactor the zoom factor as set with {@link MouseWheelControl#setZoomFactor(double)}
+	 */
+	public void addZoom(double zoomFactor) {
+		Validate.isPositive(zoomFactor);
+
+		//the same proportions as one notch of the MouseWheelControl
+		final double zoomOutMargin = zoomFactor / 2;
+		final double zoomInMargin = (1 - (1 / (1 + zoomFactor))) / 2;
+
+		neighbours.add(new Neighbour() {
+			public Bounds compute() {
+				return currentDomainBounds.transformProportional(new Bounds(-zoomOutMargin, 1 + zoomOutMargin, -zoomOutMargin, 1 + zoomOutMargin));
+			}
+		});
+
+		neighbours.add(new Neighbour() {
+			public Bounds compute() {
+				return currentDomainBounds.transformProportional(new Bounds(zoomInMargin, 1 - zoomInMargin, zoomInMargin, 1 - zoomInMargin));
+			}
+		});
+	}
+
+	/**
+	 * Sets the time in milliseconds without user interaction after a new image,
+	 * before the neighbouring views are prefetched.
+	 *
+	 * <p>Default is 500 ms.
+	 *
+	 * @param idleDelay a positive millisecond value
+	 */
+	public void setIdleDelay(int idleDelay) {
+		this.idleDelay = (int) Validate.isPositive(idleDelay);
+	}
+
+	/**
+	 * Sets the maximum number of prefetch requests after a new image.
+	 *
+	 * <p>Default is 6.
+	 *
+	 * @param maxPrefetchRequests at least 1
+	 */
+	public void setMaxPrefetchRequests(int maxPrefetchRequests) {
+		this.maxPrefetchRequests = (int) Validate.isPositive(maxPrefetchRequests);
+	}
+
+	/**
+	 * Sets the maximum estimated memory of the decoded images that are prefetched after a new
+	 * image, in bytes.
+	 *
+	 * <p>Default is 8 MB.
+	 *
+	 * @param maxPrefetchBytes at least 1
+	 */
+	public void setMaxPrefetchBytes(long maxPrefetchBytes) {
+		this.maxPrefetchBytes = (long) Validate.isPositive(maxPrefetchBytes);
+	}
+
+	/**
+	 * <p>Snaps the neighbouring views, so that they match the domain bounds produced
+	 * by navigation controls using the same quantizer.
+	 *
+	 * <p>Default is null (no snapping).
+	 *
+	 * @param boundsQuantizer the quantizer or null
+	 */
+	public void setBoundsQuantizer(BoundsQuantizer boundsQuantizer) {
+		this.boundsQuantizer = boundsQuantizer;
+	}
+
+	/*
+	 * Just for testing, invoked by the timer otherwise
+	 */
+	void prefetchNeighbours() {
+		if (currentDomainBounds == null || currentViewportBounds == null) {
+			return;
+		}
+
+		int width = currentViewportBounds.getAbsWidth().intValue();
+		int height = currentViewportBounds.getAbsHeight().intValue();
+		long bytesPerImage = (long) width * height * 4;
+
+		int requests = 0;
+		long bytes = 0;
+
+		for (Neighbour neighbour : neighbours) {
+			if (requests >= maxPrefetchRequests || bytes + bytesPerImage > maxPrefetchBytes) {
+				break;
+			}
+
+			Bounds bounds = neighbour.compute();
+
+			if (boundsQuantizer != null) {
+				bounds = boundsQuantizer.quantize(currentDomainBounds, bounds);
+			}
+
+			if (isWithinMaxDomainBounds(bounds)) {
+				prefetchingImageDataSource.prefetch(new ImageDataKey(bounds, width, height));
+
+				requests++;
+				bytes += bytesPerImage;
+			}
+		}
+	}
+
+	private boolean isWithinMaxDomainBounds(Bounds bounds) {
+		return currentMaxDomainBoundsEvent == null ||
+				(currentMaxDomainBoundsEvent.containsHorizontally(bounds.getLeft(), bounds.getRight()) &&
+						currentMaxDomainBoundsEvent.containsVertically(bounds.getTop(), bounds.getBottom()));
+	}
+
+	private void cancel() {
+		idleTimer.cancel();
+		prefetchingImageDataSource.cancelPrefetches();
+	}
+
+	private Bounds getViewportDataAreaBounds() {
+		if (currentDataAreaBounds != null) {
+			return currentDataAreaBounds;
+		} else {
+			return currentViewportBounds;
+		}
+	}
+
+	private interface Neighbour {
+		Bounds compute();
+	}
+
+	private class IdleTimer extends Timer {
+		@Override
+		public void run() {
+			prefetchNeighbours();
+		}
+	}
+
+	private class PrefetchControlEventHandler implements SetImageUrlEventHandler, SetDomainBoundsEventHandler, SetMaxDomainBoundsEventHandler,
+			SetDataAreaPixelBoundsEventHandler, SetViewportPixelBoundsEventHandler, LoadImageDataEventHandler, ChangeImagePixelBoundsEventHandler,
+			ViewportDragInProgressEventHandler, ViewportMouseWheelEventHandler {
+
+		public void onSetImageUrl(SetImageUrlEvent event) {
+			idleTimer.cancel();
+			idleTimer.schedule(idleDelay);
+		}
+
+		public void onSetDomainBounds(SetDomainBoundsEvent event) {
+			currentDomainBounds = event.getBounds();
+		}
+
+		public void onSetMaxDomainBounds(SetMaxDomainBoundsEvent event) {
+			currentMaxDomainBoundsEvent = event;
+		}
+
+		public void onSetDataAreaPixelBounds(SetDataAreaPixelBoundsEvent event) {
+			currentDataAreaBounds = event.getBounds();
+		}
+
+		public void onSetViewportBounds(SetViewportPixelBoundsEvent event) {
+			currentViewportBounds = event.getBounds();
+		}
+
+		public void onLoadImageData(LoadImageDataEvent event) {
+			cancel();
+		}
+
+		public void onSetImageBounds(ChangeImagePixelBoundsEvent event) {
+			cancel();
+		}
+
+		public void onDragInProgress(ViewportDragInProgressEvent event) {
+			cancel();
+		}
+
+		public void onMouseWheel(ViewportMouseWheelEvent event) {
+			cancel();
+		}
+	}
+}
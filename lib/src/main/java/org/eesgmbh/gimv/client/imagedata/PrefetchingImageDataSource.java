@@ -0,0 +1,169 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eesgmbh.gimv.client.imagedata;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>A stage of an {@link ImageDataSource} pipeline that additionally accepts low priority
+ * prefetch requests ({@link #prefetch(ImageDataKey)}).
+ *
+ * <p>Requests passed through {@link #getImageData(ImageDataKey, AsyncCallback)} always have precedence.
+ * Prefetch requests are queued as long as such a request is in flight. Prefetched image data
+ * is added to the {@link ImageDataCache}, so it is served by a {@link CachingImageDataSource} sharing
+ * the same cache later on. A request for image data that is currently prefetched joins the
+ * prefetch request instead of requesting the image data again.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class PrefetchingImageDataSource implements ImageDataSource {
+
+	private final ImageDataSource next;
+	private final ImageDataCache imageDataCache;
+
+	private final LinkedHashSet<ImageDataKey> queuedPrefetches;
+	private final Map<ImageDataKey, List<AsyncCallback<ImageData>>> inFlightPrefetches;
+
+	private int inFlightRequestCount;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param next the next stage of the pipeline
+	 * @param imageDataCache receives the prefetched image data
+	 */
+	public PrefetchingImageDataSource(ImageDataSource next, ImageDataCache imageDataCache) {
+		this.next = Validate.notNull(next);
+		this.imageDataCache = Validate.notNull(imageDataCache);
+
+		this.queuedPrefetches = new LinkedHashSet<ImageDataKey>();
+		this.inFlightPrefetches = new HashMap<ImageDataKey, List<AsyncCallback<ImageData>>>();
+	}
+
+	public void getImageData(ImageDataKey key, final AsyncCallback<ImageData> callback) {
+		List<AsyncCallback<ImageData>> prefetchCallbacks = inFlightPrefetches.get(key);
+
+		if (prefetchCallbacks != null) {
+			prefetchCallbacks.add(callback);
+			return;
+		}
+
+		//requested now, so it need not be prefetched anymore
+		queuedPrefetches.remove(key);
+
+		inFlightRequestCount++;
+
+		next.getImageData(key, new AsyncCallback<ImageData>() {
+			public void onSuccess(ImageData imageData) {
+				inFlightRequestCount--;
+
+				callback.onSuccess(imageData);
+
+				startQueuedPrefetch();
+			}
+
+			public void onFailure(Throwable caught) {
+				inFlightRequestCount--;
+
+				callback.onFailure(caught);
+
+				startQueuedPrefetch();
+			}
+		});
+	}
+
+	/**
+	 * Requests the image data at low priority. The request is skipped, if the image data is
+	 * already cached or requested.
+	 *
+	 * @param key identifies the image data
+	 */
+	public void prefetch(ImageDataKey key) {
+		if (imageDataCache.contains(key) || inFlightPrefetches.containsKey(key)) {
+			return;
+		}
+
+		queuedPrefetches.add(key);
+
+		startQueuedPrefetch();
+	}
+
+	/**
+	 * Discards all queued prefetch requests. Prefetch requests in flight
+	 * are not affected.
+	 */
+	public void cancelPrefetches() {
+		queuedPrefetches.clear();
+	}
+
+	/**
+	 * @return the number of queued prefetch requests
+	 */
+	public int getQueuedPrefetchCount() {
+		return queuedPrefetches.size();
+	}
+
+	/**
+	 * @return true, if neither a request nor a prefetch request is in flight
+	 */
+	public boolean isIdle() {
+		return inFlightRequestCount == 0 && inFlightPrefetches.isEmpty();
+	}
+
+	private void startQueuedPrefetch() {
+		//one request at a time, requests always have precedence
+		if (!isIdle() || queuedPrefetches.isEmpty()) {
+			return;
+		}
+
+		final ImageDataKey key = queuedPrefetches.iterator().next();
+		queuedPrefetches.remove(key);
+
+		if (imageDataCache.contains(key)) {
+			startQueuedPrefetch();
+			return;
+		}
+
+		inFlightPrefetches.put(key, new ArrayList<AsyncCallback<ImageData>>());
+
+		next.getImageData(key, new AsyncCallback<ImageData>() {
+			public void onSuccess(ImageData imageData) {
+				imageDataCache.put(key, imageData);
+
+				for (AsyncCallback<ImageData> callback : inFlightPrefetches.remove(key)) {
+					callback.onSuccess(imageData);
+				}
+
+				startQueuedPrefetch();
+			}
+
+			public void onFailure(Throwable caught) {
+				for (AsyncCallback<ImageData> callback : inFlightPrefetches.remove(key)) {
+					callback.onFailure(caught);
+				}
+
+				startQueuedPrefetch();
+			}
+		});
+	}
+}
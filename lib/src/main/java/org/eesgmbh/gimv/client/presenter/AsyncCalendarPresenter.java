@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.presenter;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.RunAsyncCallback;
+import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.user.client.ui.HasWidgets;
+import com.google.gwt.user.datepicker.client.DatePicker;
+import org.eesgmbh.gimv.client.util.AsyncComponent;
+import org.eesgmbh.gimv.client.view.CalendarViewImpl;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+/**
+ * <p>Creates a {@link CalendarPresenter} with a {@link CalendarViewImpl} in a split point. The {@link DatePicker}
+ * is created in the split point as well and added to a container, which is usually empty until then.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class AsyncCalendarPresenter extends AsyncComponent<CalendarPresenter> {
+
+	private final HandlerManager handlerManager;
+	private final HasWidgets datePickerContainer;
+
+	/**
+	 * Instantiates the factory, the presenter is created on the first call to {@link #get(com.google.gwt.user.client.rpc.AsyncCallback)}.
+	 *
+	 * @param handlerManager A {@link HandlerManager}
+	 * @param datePickerContainer the container the {@link DatePicker} is added to
+	 */
+	public AsyncCalendarPresenter(HandlerManager handlerManager, HasWidgets datePickerContainer) {
+		super(handlerManager);
+
+		this.handlerManager = handlerManager;
+		this.datePickerContainer = Validate.notNull(datePickerContainer);
+	}
+
+	@Override
+	protected void load() {
+		GWT.runAsync(CalendarPresenter.class, new RunAsyncCallback() {
+			public void onSuccess() {
+				DatePicker datePicker = new DatePicker();
+				datePickerContainer.add(datePicker);
+
+				beginCreate();
+				endCreate(new CalendarPresenter(handlerManager, new CalendarViewImpl(datePicker)));
+			}
+
+			public void onFailure(Throwable reason) {
+				failCreate(reason);
+			}
+		});
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.presenter;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.RunAsyncCallback;
+import com.google.gwt.event.shared.HandlerManager;
+import org.eesgmbh.gimv.client.util.AsyncComponent;
+import org.eesgmbh.gimv.client.view.GenericWidgetView;
+
+/**
+ * <p>Creates an {@link OverviewPresenter} in a split point.
+ *
+ * <p>The events of both handler managers are replayed, so the live preview
+ * ({@link OverviewPresenter#setLivePreview(boolean)}) can be enabled in the callback.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class AsyncOverviewPresenter extends AsyncComponent<OverviewPresenter> {
+
+	private final GenericWidgetView overviewWidgetView;
+	private final HandlerManager handlerManager;
+	private final HandlerManager dependantHandlerManager;
+
+	/**
+	 * Instantiates the factory, the presenter is created on the first call to {@link #get(com.google.gwt.user.client.rpc.AsyncCallback)}.
+	 *
+	 * @param overviewWidgetView see {@link OverviewPresenter#OverviewPresenter(GenericWidgetView, HandlerManager, HandlerManager)}
+	 * @param handlerManager see {@link OverviewPresenter#OverviewPresenter(GenericWidgetView, HandlerManager, HandlerManager)}
+	 * @param dependantHandlerManager see {@link OverviewPresenter#OverviewPresenter(GenericWidgetView, HandlerManager, HandlerManager)}
+	 */
+	public AsyncOverviewPresenter(GenericWidgetView overviewWidgetView, HandlerManager handlerManager, HandlerManager dependantHandlerManager) {
+		super(handlerManager, dependantHandlerManager);
+
+		this.overviewWidgetView = overviewWidgetView;
+		this.handlerManager = handlerManager;
+		this.dependantHandlerManager = dependantHandlerManager;
+	}
+
+	@Override
+	protected void load() {
+		GWT.runAsync(OverviewPresenter.class, new RunAsyncCallback() {
+			public void onSuccess() {
+				beginCreate();
+				endCreate(new OverviewPresenter(overviewWidgetView, handlerManager, dependantHandlerManager));
+			}
+
+			public void onFailure(Throwable reason) {
+				failCreate(reason);
+			}
+		});
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.presenter;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.RunAsyncCallback;
+import com.google.gwt.event.shared.HandlerManager;
+import org.eesgmbh.gimv.client.util.AsyncComponent;
+
+/**
+ * <p>Creates a {@link TooltipPresenter} in a split point.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class AsyncTooltipPresenter extends AsyncComponent<TooltipPresenter> {
+
+	private final HandlerManager handlerManager;
+
+	/**
+	 * Instantiates the factory, the presenter is created on the first call to {@link #get(com.google.gwt.user.client.rpc.AsyncCallback)}.
+	 *
+	 * @param handlerManager A {@link HandlerManager}
+	 */
+	public AsyncTooltipPresenter(HandlerManager handlerManager) {
+		super(handlerManager);
+
+		this.handlerManager = handlerManager;
+	}
+
+	@Override
+	protected void load() {
+		GWT.runAsync(TooltipPresenter.class, new RunAsyncCallback() {
+			public void onSuccess() {
+				beginCreate();
+				endCreate(new TooltipPresenter(handlerManager));
+			}
+
+			public void onFailure(Throwable reason) {
+				failCreate(reason);
+			}
+		});
+	}
+}
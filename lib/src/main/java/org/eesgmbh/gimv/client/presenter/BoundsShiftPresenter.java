@@ -19,8 +19,11 @@ package org.eesgmbh.gimv.client.presenter;
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
 import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.ui.Image;
 import org.eesgmbh.gimv.client.event.*;
+import org.eesgmbh.gimv.client.util.Disposable;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
 import org.eesgmbh.gimv.client.view.BoundsShiftViewImpl;
 import org.eesgmbh.gimv.shared.util.Bounds;
 import org.eesgmbh.gimv.shared.util.Validate;
@@ -59,18 +62,21 @@ import org.eesgmbh.gimv.shared.util.Validate;
  *
  * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
  */
-public class BoundsShiftPresenter {
+public class BoundsShiftPresenter implements Disposable {
 
 	/**
 	 * The View interface for {@link BoundsShiftPresenter}
+	 *
+	 * <p>The returned {@link HandlerRegistration} is removed on {@link BoundsShiftPresenter#dispose()}.
 	 */
 	public interface View {
-		void addClickHandler(ClickHandler clickHandler);
+		HandlerRegistration addClickHandler(ClickHandler clickHandler);
 	}
 
 	private enum ShiftMode {PROPORTIONAL, ABSOLUTE};
 
 	private final HandlerManager handlerManager;
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
 
 	private ShiftMode shiftMode;
 	private double horizontalShift = Double.NaN;
@@ -95,17 +101,21 @@ public class BoundsShiftPresenter {
 		Validate.notNull(view, "view must not be null");
 
 		BoundsShiftPresenterEventHandler eventHandler = new BoundsShiftPresenterEventHandler();
-		handlerManager.addHandler(SetDomainBoundsEvent.TYPE, eventHandler);
-		handlerManager.addHandler(SetMaxDomainBoundsEvent.TYPE, eventHandler);
-		handlerManager.addHandler(SetViewportPixelBoundsEvent.TYPE, eventHandler);
-		handlerManager.addHandler(SetDataAreaPixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetMaxDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetViewportPixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetDataAreaPixelBoundsEvent.TYPE, eventHandler);
 
-		view.addClickHandler(eventHandler);
+		handlerRegistrations.add(view.addClickHandler(eventHandler));
 
 		setFireChangeImagePixelBoundsEvent(true);
 		setFireLoadImageDataEvent(true);
 	}
 
+	public void dispose() {
+		handlerRegistrations.removeHandler();
+	}
+
 	/**
 	 * Configures the presenter to shift the domain bounds by an absolute value.
 	 *
@@ -21,7 +21,10 @@ import com.google.gwt.event.logical.shared.ShowRangeHandler;
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.event.shared.HandlerRegistration;
 import org.eesgmbh.gimv.client.event.*;
+import org.eesgmbh.gimv.client.util.Disposable;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
 import org.eesgmbh.gimv.shared.util.Bound;
 import org.eesgmbh.gimv.shared.util.Bounds;
 import org.eesgmbh.gimv.shared.util.DateUtils;
@@ -53,11 +56,13 @@ import java.util.List;
  *
  * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
  */
-public class CalendarPresenter {
+public class CalendarPresenter implements Disposable {
 
 	/**
 	 * The View interface of this presenter.
 	 *
+	 * <p>The returned {@link HandlerRegistration}s are removed on {@link CalendarPresenter#dispose()}.
+	 *
 	 * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
 	 */
 	public interface View {
@@ -69,7 +74,7 @@ public class CalendarPresenter {
 		 *
 		 * @param valueChangeHandler
 		 */
-		void addValueChangeHandler(ValueChangeHandler<Date> valueChangeHandler);
+		HandlerRegistration addValueChangeHandler(ValueChangeHandler<Date> valueChangeHandler);
 
 		/**
 		 * This is where the presenter gets notified of all shown
@@ -77,10 +82,11 @@ public class CalendarPresenter {
 		 *
 		 * @param showRangeHandler
 		 */
-		void addShowRangeHandler(ShowRangeHandler<Date> showRangeHandler);
+		HandlerRegistration addShowRangeHandler(ShowRangeHandler<Date> showRangeHandler);
 	}
 
 	private final HandlerManager handlerManager;
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
 	private final View view;
 
 	private boolean fireLoadImageDataEvent;
@@ -101,15 +107,19 @@ public class CalendarPresenter {
 
 		CalendarPresenterEventHandler eventHandler = new CalendarPresenterEventHandler();
 
-		this.view.addShowRangeHandler(eventHandler);
-		this.view.addValueChangeHandler(eventHandler);
+		handlerRegistrations.add(this.view.addShowRangeHandler(eventHandler));
+		handlerRegistrations.add(this.view.addValueChangeHandler(eventHandler));
 
-		handlerManager.addHandler(SetDomainBoundsEvent.TYPE, eventHandler);
-		handlerManager.addHandler(SetMaxDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetMaxDomainBoundsEvent.TYPE, eventHandler);
 
 		setFireLoadImageDataEvent(true);
 	}
 
+	public void dispose() {
+		handlerRegistrations.removeHandler();
+	}
+
 	/**
 	 * This method will assign the domain bound (left, right, bottom, top) to the presenter.
 	 *
@@ -19,9 +19,12 @@ package org.eesgmbh.gimv.client.presenter;
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
 import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.event.shared.HandlerRegistration;
 import org.eesgmbh.gimv.client.controls.DragImageControl;
 import org.eesgmbh.gimv.client.event.StateChangeEvent;
 import org.eesgmbh.gimv.client.event.StateChangeEventHandler;
+import org.eesgmbh.gimv.client.util.Disposable;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
 import org.eesgmbh.gimv.client.view.ImageMoveOrZoomToggleButtonViewImpl;
 import org.eesgmbh.gimv.shared.util.Validate;
 
@@ -52,11 +55,13 @@ import org.eesgmbh.gimv.shared.util.Validate;
  *
  * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
  */
-public class ImageMoveOrZoomToggleButtonPresenter {
+public class ImageMoveOrZoomToggleButtonPresenter implements Disposable {
 
 	/**
 	 * The view interface belonging to the {@link ImageMoveOrZoomToggleButtonPresenter}.
 	 *
+	 * <p>The returned {@link HandlerRegistration}s are removed on {@link ImageMoveOrZoomToggleButtonPresenter#dispose()}.
+	 *
 	 * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
 	 *
 	 */
@@ -64,11 +69,12 @@ public class ImageMoveOrZoomToggleButtonPresenter {
 		void toggleMove();
 		void toggleZoom();
 
-		void addMoveClickHandler(ClickHandler clickHandler);
-		void addZoomClickHandler(ClickHandler clickHandler);
+		HandlerRegistration addMoveClickHandler(ClickHandler clickHandler);
+		HandlerRegistration addZoomClickHandler(ClickHandler clickHandler);
 	}
 
 	private final HandlerManager handlerManager;
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
 	private final View view;
 	private StateChangeEventHandlerImpl stateChangeEventHandler;
 
@@ -83,10 +89,14 @@ public class ImageMoveOrZoomToggleButtonPresenter {
 		this.view = Validate.notNull(view);
 
 		this.stateChangeEventHandler = new StateChangeEventHandlerImpl();
-		this.handlerManager.addHandler(StateChangeEvent.TYPE, stateChangeEventHandler);
+		handlerRegistrations.add(handlerManager, StateChangeEvent.TYPE, stateChangeEventHandler);
+
+		handlerRegistrations.add(this.view.addMoveClickHandler(new MoveClickHandler()));
+		handlerRegistrations.add(this.view.addZoomClickHandler(new ZoomClickHandler()));
+	}
 
-		this.view.addMoveClickHandler(new MoveClickHandler());
-		this.view.addZoomClickHandler(new ZoomClickHandler());
+	public void dispose() {
+		handlerRegistrations.removeHandler();
 	}
 
 	private class StateChangeEventHandlerImpl implements StateChangeEventHandler {
@@ -16,11 +16,15 @@
 
 package org.eesgmbh.gimv.client.presenter;
 
+import com.google.gwt.event.dom.client.ErrorEvent;
 import com.google.gwt.event.dom.client.ErrorHandler;
 import com.google.gwt.event.dom.client.LoadEvent;
 import com.google.gwt.event.dom.client.LoadHandler;
 import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.event.shared.HandlerRegistration;
 import org.eesgmbh.gimv.client.event.*;
+import org.eesgmbh.gimv.client.util.Disposable;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
 import org.eesgmbh.gimv.client.view.ImageViewImpl;
 import org.eesgmbh.gimv.client.widgets.Viewport;
 import org.eesgmbh.gimv.shared.util.Bounds;
@@ -46,15 +50,21 @@ import org.eesgmbh.gimv.shared.util.Validate;
  * 		 changes caused by mouse wheels)
  * </ul>
  *
- * <p>Fires no events.
+ * <p>Fires the following events
+ * <ul>
+ * 	<li> {@link ImageLoadedEvent} after the image was loaded
+ * 	<li> {@link ImageLoadFailedEvent} if the image could not be loaded
+ * </ul>
  *
  * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
  */
-public class ImagePresenter {
+public class ImagePresenter implements Disposable {
 
 	/**
 	 * The view interface of {@link ImagePresenter}.
 	 *
+	 * <p>The returned {@link HandlerRegistration}s are removed on {@link ImagePresenter#dispose()}.
+	 *
 	 * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
 	 *
 	 */
@@ -64,7 +74,7 @@ public class ImagePresenter {
 		void changePosition(int offsetX, int offsetY);
 		void setDimensions(int width, int height);
 		void changeDimensions(int offsetWidth, int offsetHeight);
-		void addLoadHandler(LoadHandler loadHandler);
+		HandlerRegistration addLoadHandler(LoadHandler loadHandler);
 
 		/**
 		 * Adds an error handler to the view, which will be
@@ -73,12 +83,15 @@ public class ImagePresenter {
 		 *
 		 * @param errorHandler An implementation of {@link ErrorHandler}
 		 */
-		void addErrorHandler(ErrorHandler errorHandler);
+		HandlerRegistration addErrorHandler(ErrorHandler errorHandler);
 	}
 
+	private final HandlerManager handlerManager;
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
 	private final View view;
 
 	private Bounds currentViewportBounds;
+	private String currentUrl;
 
 	/**
 	 * Instantiates the presenter.
@@ -87,20 +100,26 @@ public class ImagePresenter {
 	 * @param view A {@link View} implementation.
 	 */
 	public ImagePresenter(HandlerManager handlerManager, View view) {
-		Validate.notNull(handlerManager);
+		this.handlerManager = Validate.notNull(handlerManager);
 		this.view = Validate.notNull(view);
 
 		ImagePresenterEventHandler eventHandler = new ImagePresenterEventHandler();
 
-		handlerManager.addHandler(SetImageUrlEvent.TYPE, eventHandler);
-		handlerManager.addHandler(ChangeImagePixelBoundsEvent.TYPE, eventHandler);
-		handlerManager.addHandler(SetViewportPixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetImageUrlEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ChangeImagePixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetViewportPixelBoundsEvent.TYPE, eventHandler);
+
+		handlerRegistrations.add(view.addLoadHandler(eventHandler));
+		handlerRegistrations.add(view.addErrorHandler(eventHandler));
+	}
 
-		view.addLoadHandler(eventHandler);
+	public void dispose() {
+		handlerRegistrations.removeHandler();
 	}
 
 	private void onSetImageUrl(SetImageUrlEvent event) {
-		view.setUrl(event.getUrl());
+		currentUrl = event.getUrl();
+		view.setUrl(currentUrl);
 	}
 
 	private void onSetImagePosition(ChangeImagePixelBoundsEvent event) {
@@ -126,9 +145,15 @@ public class ImagePresenter {
 		if (currentViewportBounds != null) {
 			view.setDimensions(currentViewportBounds.getAbsWidth().intValue(), currentViewportBounds.getAbsHeight().intValue());
 		}
+
+		handlerManager.fireEvent(new ImageLoadedEvent(currentUrl));
+	}
+
+	private void onImageError(ErrorEvent event) {
+		handlerManager.fireEvent(new ImageLoadFailedEvent(currentUrl));
 	}
 
-	private class ImagePresenterEventHandler implements SetImageUrlEventHandler, ChangeImagePixelBoundsEventHandler, SetViewportPixelBoundsEventHandler, LoadHandler {
+	private class ImagePresenterEventHandler implements SetImageUrlEventHandler, ChangeImagePixelBoundsEventHandler, SetViewportPixelBoundsEventHandler, LoadHandler, ErrorHandler {
 		public void onSetImageUrl(SetImageUrlEvent event) {
 			ImagePresenter.this.onSetImageUrl(event);
 		}
@@ -144,5 +169,9 @@ public class ImagePresenter {
 		public void onLoad(LoadEvent event) {
 			ImagePresenter.this.onImageLoad(event);
 		}
+
+		public void onError(ErrorEvent event) {
+			ImagePresenter.this.onImageError(event);
+		}
 	}
 }
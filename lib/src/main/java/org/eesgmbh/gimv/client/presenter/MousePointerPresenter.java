@@ -18,6 +18,8 @@ package org.eesgmbh.gimv.client.presenter;
 
 import com.google.gwt.event.shared.HandlerManager;
 import org.eesgmbh.gimv.client.event.*;
+import org.eesgmbh.gimv.client.util.Disposable;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
 import org.eesgmbh.gimv.client.view.GenericWidgetView;
 import org.eesgmbh.gimv.client.view.GenericWidgetViewImpl;
 import org.eesgmbh.gimv.client.widgets.Viewport;
@@ -51,8 +53,9 @@ import org.eesgmbh.gimv.shared.util.Validate;
  *
  * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
  */
-public class MousePointerPresenter {
+public class MousePointerPresenter implements Disposable {
 
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
 	private final GenericWidgetView view;
 	private boolean enableHorizontalPositioning;
 	private boolean enableVerticalPositioning;
@@ -72,11 +75,15 @@ public class MousePointerPresenter {
 
 		MousePointerPresenterEventHandler eventHandler = new MousePointerPresenterEventHandler();
 
-		handlerManager.addHandler(ViewportMouseMoveEvent.TYPE, eventHandler);
-		handlerManager.addHandler(ViewportMouseOutEvent.TYPE, eventHandler);
-		handlerManager.addHandler(SetDataAreaPixelBoundsEvent.TYPE, eventHandler);
-		handlerManager.addHandler(ViewportDragInProgressEvent.TYPE, eventHandler);
-		handlerManager.addHandler(ViewportDragFinishedEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportMouseMoveEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportMouseOutEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetDataAreaPixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportDragInProgressEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportDragFinishedEvent.TYPE, eventHandler);
+	}
+
+	public void dispose() {
+		handlerRegistrations.removeHandler();
 	}
 
 	/**
@@ -19,7 +19,11 @@ package org.eesgmbh.gimv.client.presenter;
 import com.google.gwt.event.shared.EventHandler;
 import com.google.gwt.event.shared.GwtEvent;
 import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.user.client.Timer;
 import org.eesgmbh.gimv.client.event.*;
+import org.eesgmbh.gimv.client.util.Disposable;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
+import org.eesgmbh.gimv.client.util.PreviewCompensation;
 import org.eesgmbh.gimv.client.view.GenericWidgetView;
 import org.eesgmbh.gimv.client.widgets.Viewport;
 import org.eesgmbh.gimv.shared.util.Bound;
@@ -50,6 +54,11 @@ import java.util.List;
  * the visual representation of the overview and are configured to alter a certain set of bounds
  * (see {@link #addHandle(GenericWidgetView, Bound...)}.
  *
+ * <p>Optionally, the images of the dependant handler managers are previewed while the overview is being dragged
+ * ({@link #setLivePreview(boolean)}). The current image is moved and rescaled to the dragged domain bounds and
+ * new images are requested at most once per {@link #setLivePreviewLoadInterval(int)}. Only the latest request
+ * is relevant, the controller is expected to discard outdated images (see {@link org.eesgmbh.gimv.client.imagedata.ImageDataSourceControl}).
+ *
  * <p>Registers with the {@link HandlerManager} to receive the following events
  * <ul>
  * 	<li> {@link ViewportDragInProgressEvent} (mandatory, received from the overview's viewport)
@@ -59,26 +68,41 @@ import java.util.List;
  * 	<li> {@link SetOverviewDomainBoundsEvent} (mandatory, the actual portion of the total bounds highlighted by the presenter)
  * 	<li> {@link SetViewportPixelBoundsEvent} (mandatory, the dimensions of the overview's viewport)
  * 	<li> {@link SetMaxDomainBoundsEvent} (optional, if not received, there will be no restriction)
+ * 	<li> {@link TransactionEvent} (optional, the overview is placed only once at the commit of a transaction)
+ * </ul>
+ *
+ * <p>Registers with the dependant handler managers to receive the following events, needed for the live preview
+ * <ul>
+ * 	<li> {@link SetDomainBoundsEvent} (the domain bounds of the dependant image)
+ * 	<li> {@link SetViewportPixelBoundsEvent} (the dimensions of the dependant viewport)
+ * 	<li> {@link SetDataAreaPixelBoundsEvent} (optional, if the dependant image contains a data area, e.g. axis areas)
+ * 	<li> {@link ImageLoadedEvent} (an image requested during the drag was loaded and reset to its origin by the {@link ImagePresenter})
  * </ul>
  *
  * <p>Fires the following events on all dependant handler managers
  * <ul>
- * 	<li> {@link SetDomainBoundsEvent} (the new domain bounds after a drag finished)
- * 	<li> {@link LoadImageDataEvent} (after a drag finished)
+ * 	<li> {@link SetDomainBoundsEvent} (the new domain bounds after a drag finished or during the drag with the live preview)
+ * 	<li> {@link LoadImageDataEvent} (after a drag finished or during the drag with the live preview)
+ * 	<li> {@link ChangeImagePixelBoundsEvent} (during the drag with the live preview)
  * </ul>
  *
  * @since 0.1.3
  * @author Sascha Hagedorn - EES GmbH - s.hagedorn@ees-gmbh.de
  */
-public class OverviewPresenter {
+public class OverviewPresenter implements Disposable {
 
 	/**
-	 * Contains a list of {@link HandlerManager} instances who will receive a {@link SetDomainBoundsEvent}
+	 * Contains the {@link HandlerManager} instances who will receive a {@link SetDomainBoundsEvent}
 	 * and (optionally) a {@link LoadImageDataEvent} after a drag on the overviewWidget finished.
 	 *
 	 * The bounds are the current domain bounds of the overview (the portion selected).
 	 */
-	private final List<HandlerManager> dependantHandlerManagers = new ArrayList<HandlerManager>();
+	private final List<Dependant> dependants = new ArrayList<Dependant>();
+
+	/**
+	 * The registrations of all handlers, also those of the dependants
+	 */
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
 
 	/**
 	 * The widget of the overview
@@ -175,6 +199,27 @@ public class OverviewPresenter {
 
 	private boolean fireLoadImageDataEvent;
 
+	/**
+	 * The nesting depth of the current {@link TransactionEvent}, 0 if outside of a transaction
+	 */
+	private int transactionDepth = 0;
+	private boolean placementPending = false;
+
+	private boolean livePreview = false;
+
+	private int livePreviewLoadInterval;
+
+	/**
+	 * Throttles the loads during the drag with the live preview
+	 */
+	private final Timer livePreviewLoadTimer = new LivePreviewLoadTimer();
+	private boolean livePreviewLoadScheduled = false;
+
+	/**
+	 * The domain bounds the overview was dragged to, null if not dragging
+	 */
+	private Bounds draggedDomainBounds;
+
 	/*
 	 * public API
 	 */
@@ -195,14 +240,27 @@ public class OverviewPresenter {
 		addDependantHandlerManager(dependantHandlerManager);
 
 		OverviewPresenterEventHandler eventHandler = new OverviewPresenterEventHandler();
-		handlerManager.addHandler(ViewportDragInProgressEvent.TYPE,	eventHandler);
-		handlerManager.addHandler(ViewportDragFinishedEvent.TYPE, eventHandler);
-		handlerManager.addHandler(SetDomainBoundsEvent.TYPE, eventHandler);
-		handlerManager.addHandler(SetMaxDomainBoundsEvent.TYPE, eventHandler);
-		handlerManager.addHandler(SetOverviewDomainBoundsEvent.TYPE, eventHandler);
-		handlerManager.addHandler(SetViewportPixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportDragInProgressEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportDragFinishedEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetMaxDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetOverviewDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetViewportPixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, TransactionEvent.TYPE, eventHandler);
 
 		setFireLoadImageDataEvent(true);
+		setLivePreviewLoadInterval(300);
+	}
+
+	public void dispose() {
+		handlerRegistrations.removeHandler();
+
+		livePreviewLoadTimer.cancel();
+		livePreviewLoadScheduled = false;
+		draggedDomainBounds = null;
+		initialDragHandle = null;
+
+		dependants.clear();
 	}
 
 	/**
@@ -328,6 +386,30 @@ public class OverviewPresenter {
 		this.fireLoadImageDataEvent = fireLoadImageDataEvent;
 	}
 
+	/**
+	 * <p>Specify whether the images of the dependant handler managers are previewed while
+	 * the overview is being dragged.
+	 *
+	 * <p>Default is false.
+	 *
+	 * @param livePreview preview them, or not
+	 */
+	public void setLivePreview(boolean livePreview) {
+		this.livePreview = livePreview;
+	}
+
+	/**
+	 * <p>Sets the minimal time in milliseconds between two {@link LoadImageDataEvent}s fired during the drag with
+	 * the live preview.
+	 *
+	 * <p>Default is 300 ms.
+	 *
+	 * @param delayInMillis A millisecond value. Pass in 0 (zero) to fire on every drag movement.
+	 */
+	public void setLivePreviewLoadInterval(int delayInMillis) {
+		this.livePreviewLoadInterval = delayInMillis;
+	}
+
 	/**
 	 * Adds {@link HandlerManager} who will receive a {@link SetDomainBoundsEvent} and (optionally) a {@link LoadImageDataEvent}
 	 * after a drag on the overviewWidget finished.
@@ -335,7 +417,7 @@ public class OverviewPresenter {
 	 * @param handlerManager A {@link HandlerManager} instance
 	 */
 	public void addDependantHandlerManager(HandlerManager handlerManager) {
-		this.dependantHandlerManagers.add(Validate.notNull(handlerManager));
+		this.dependants.add(new Dependant(Validate.notNull(handlerManager)));
 	}
 
 	/*
@@ -345,15 +427,39 @@ public class OverviewPresenter {
 	private void onSetDomainBounds(SetDomainBoundsEvent event) {
 		currentDomainBounds = event.getBounds();
 
-		if (isOverviewPlacementAvailable()) {
-			currentPixelBounds = overviewBounds.transform(currentDomainBounds, currentViewportBounds);
-			placeOverviewWidget(currentPixelBounds);
-		}
+		placeOverviewWidgetFromDomainBounds();
 	}
 
 	private void onSetOverviewBounds(SetOverviewDomainBoundsEvent event) {
 		overviewBounds = event.getBounds();
 
+		placeOverviewWidgetFromDomainBounds();
+	}
+
+	private void onTransaction(TransactionEvent event) {
+		if (event.isBegin()) {
+			transactionDepth++;
+		} else if (transactionDepth > 0) {
+			transactionDepth--;
+
+			if (transactionDepth == 0 && placementPending) {
+				placeOverviewWidgetFromDomainBounds();
+			}
+		}
+	}
+
+	/**
+	 * Computes the pixel bounds of the overview from its domain bounds and places it. Deferred
+	 * until the commit, if within a transaction.
+	 */
+	private void placeOverviewWidgetFromDomainBounds() {
+		if (transactionDepth > 0) {
+			placementPending = true;
+			return;
+		}
+
+		placementPending = false;
+
 		if (isOverviewPlacementAvailable()){
 			currentPixelBounds = overviewBounds.transform(currentDomainBounds, currentViewportBounds);
 			// If the incoming converted pixel data is smaller than the minimum widget size: recalculate to mimimum pixel size.
@@ -395,13 +501,21 @@ public class OverviewPresenter {
 		}
 
 		initialDragHandle = null;
+
+		//the preview is finished, the final image was requested
+		draggedDomainBounds = null;
+		livePreviewLoadTimer.cancel();
+		livePreviewLoadScheduled = false;
+
+		for (Dependant dependant : dependants) {
+			dependant.finishPreview();
+		}
 	}
 
 	private void onDragInProgress(ViewportDragInProgressEvent event) {
-		Handle handle = getHandleBeingHovered(event.getAbsolutePixelBounds().getLeft().intValue(), event.getAbsolutePixelBounds().getTop().intValue());
-
+		//the handle is determined once at the start of the drag, so no layout is read while dragging
 		if (initialDragHandle == null) {
-			initialDragHandle = handle;
+			initialDragHandle = getHandleBeingHovered(event.getAbsolutePixelBounds().getLeft().intValue(), event.getAbsolutePixelBounds().getTop().intValue());
 		}
 
 		if (initialDragHandle != null && currentPixelBounds != null && currentViewportBounds != null) {
@@ -492,6 +606,9 @@ public class OverviewPresenter {
 				currentPixelBounds = newPixelBounds;
 				placeOverviewWidget(currentPixelBounds);
 
+				if (livePreview) {
+					previewDependants(dataBounds);
+				}
 			}
 		}
 	}
@@ -499,10 +616,7 @@ public class OverviewPresenter {
 	private void onSetViewportBounds(SetViewportPixelBoundsEvent event) {
 		currentViewportBounds = event.getBounds();
 
-		if (isOverviewPlacementAvailable()) {
-			currentPixelBounds = overviewBounds.transform(currentDomainBounds, currentViewportBounds);
-			placeOverviewWidget(currentPixelBounds);
-		}
+		placeOverviewWidgetFromDomainBounds();
 	}
 
 	/*
@@ -510,8 +624,37 @@ public class OverviewPresenter {
 	 */
 
 	private void fireEventOnAllDependantHandlerManagers(GwtEvent<? extends EventHandler> gwtEvent) {
-		for (HandlerManager hm : dependantHandlerManagers) {
-			hm.fireEvent(gwtEvent);
+		for (Dependant dependant : dependants) {
+			dependant.handlerManager.fireEvent(gwtEvent);
+		}
+	}
+
+	/**
+	 * Moves and rescales the dependant images to the dragged domain bounds
+	 * and requests new images, not more often than the load interval.
+	 */
+	private void previewDependants(Bounds domainBounds) {
+		draggedDomainBounds = domainBounds;
+
+		for (Dependant dependant : dependants) {
+			dependant.preview(domainBounds);
+		}
+
+		if (fireLoadImageDataEvent) {
+			if (livePreviewLoadInterval <= 0) {
+				loadDependants();
+			} else if (!livePreviewLoadScheduled) {
+				livePreviewLoadScheduled = true;
+				livePreviewLoadTimer.schedule(livePreviewLoadInterval);
+			}
+		}
+	}
+
+	private void loadDependants() {
+		if (draggedDomainBounds != null) {
+			for (Dependant dependant : dependants) {
+				dependant.load(draggedDomainBounds);
+			}
 		}
 	}
 
@@ -535,6 +678,10 @@ public class OverviewPresenter {
 	 * Place the overview widget respectively to the offset.
 	 */
 	private void placeOverviewWidget(Bounds bounds) {
+		for (Handle handle : handleWidgets) {
+			handle.invalidateBounds();
+		}
+
 		this.overviewWidgetView.setWidth(this.currentPixelBounds.getAbsWidth().intValue());
 		this.overviewWidgetView.setHeight(this.currentPixelBounds.getAbsHeight().intValue());
 
@@ -572,7 +719,8 @@ public class OverviewPresenter {
 	 * inner class that delegates received events to internal methods
 	 */
 
-	private class OverviewPresenterEventHandler implements ViewportDragInProgressEventHandler, ViewportDragFinishedEventHandler, SetDomainBoundsEventHandler, SetOverviewDomainBoundsEventHandler, SetMaxDomainBoundsEventHandler, SetViewportPixelBoundsEventHandler {
+	private class OverviewPresenterEventHandler implements ViewportDragInProgressEventHandler, ViewportDragFinishedEventHandler, SetDomainBoundsEventHandler, SetOverviewDomainBoundsEventHandler, SetMaxDomainBoundsEventHandler, SetViewportPixelBoundsEventHandler,
+			TransactionEventHandler {
 
 		public void onDragInProgress(ViewportDragInProgressEvent event) {
 			OverviewPresenter.this.onDragInProgress(event);
@@ -598,11 +746,121 @@ public class OverviewPresenter {
 			OverviewPresenter.this.onSetViewportBounds(event);
 		}
 
+		public void onTransaction(TransactionEvent event) {
+			OverviewPresenter.this.onTransaction(event);
+		}
+
+	}
+
+	private class LivePreviewLoadTimer extends Timer {
+		@Override
+		public void run() {
+			livePreviewLoadScheduled = false;
+			loadDependants();
+		}
+	}
+
+	/**
+	 * A dependant handler manager and the state of its image for the live preview
+	 */
+	private class Dependant implements SetDomainBoundsEventHandler, SetViewportPixelBoundsEventHandler, SetDataAreaPixelBoundsEventHandler, ImageLoadedEventHandler {
+		private final HandlerManager handlerManager;
+
+		private Bounds domainBounds;
+		private Bounds viewportBounds;
+		private Bounds dataAreaBounds;
+
+		/**
+		 * The pixel bounds of the previewed image and the domain bounds displayed in its data area, null if not previewing
+		 */
+		private Bounds previewImageBounds;
+		private Bounds previewDomainBounds;
+
+		/**
+		 * The domain bounds of the last image requested during the drag
+		 */
+		private Bounds loadedDomainBounds;
+
+		private Dependant(HandlerManager handlerManager) {
+			this.handlerManager = handlerManager;
+
+			handlerRegistrations.add(handlerManager, SetDomainBoundsEvent.TYPE, this);
+			handlerRegistrations.add(handlerManager, SetViewportPixelBoundsEvent.TYPE, this);
+			handlerRegistrations.add(handlerManager, SetDataAreaPixelBoundsEvent.TYPE, this);
+			handlerRegistrations.add(handlerManager, ImageLoadedEvent.TYPE, this);
+		}
+
+		private void preview(Bounds newDomainBounds) {
+			if (viewportBounds == null || domainBounds == null) {
+				return;
+			}
+
+			//the image is at its origin when the drag starts
+			if (previewImageBounds == null) {
+				previewImageBounds = viewportBounds;
+				previewDomainBounds = domainBounds;
+			}
+
+			ChangeImagePixelBoundsEvent changeImagePixelBoundsEvent = PreviewCompensation.createChangeImagePixelBoundsEvent(
+					previewImageBounds, dataAreaBounds != null ? dataAreaBounds : viewportBounds, previewDomainBounds, newDomainBounds);
+
+			if (changeImagePixelBoundsEvent != null) {
+				previewImageBounds = new Bounds(
+						previewImageBounds.getLeft() + changeImagePixelBoundsEvent.getOffsetX(),
+						previewImageBounds.getRight() + changeImagePixelBoundsEvent.getOffsetX() + changeImagePixelBoundsEvent.getOffsetWidth(),
+						previewImageBounds.getTop() + changeImagePixelBoundsEvent.getOffsetY(),
+						previewImageBounds.getBottom() + changeImagePixelBoundsEvent.getOffsetY() + changeImagePixelBoundsEvent.getOffsetHeight());
+				previewDomainBounds = newDomainBounds;
+
+				handlerManager.fireEvent(changeImagePixelBoundsEvent);
+			}
+		}
+
+		private void load(Bounds newDomainBounds) {
+			if (!newDomainBounds.equals(loadedDomainBounds)) {
+				loadedDomainBounds = newDomainBounds;
+
+				handlerManager.fireEvent(new SetDomainBoundsEvent(newDomainBounds, this));
+				handlerManager.fireEvent(new LoadImageDataEvent());
+			}
+		}
+
+		private void finishPreview() {
+			previewImageBounds = null;
+			previewDomainBounds = null;
+			loadedDomainBounds = null;
+		}
+
+		public void onSetDomainBounds(SetDomainBoundsEvent event) {
+			domainBounds = event.getBounds();
+		}
+
+		public void onSetViewportBounds(SetViewportPixelBoundsEvent event) {
+			viewportBounds = event.getBounds();
+		}
+
+		public void onSetDataAreaPixelBounds(SetDataAreaPixelBoundsEvent event) {
+			dataAreaBounds = event.getBounds();
+		}
+
+		public void onImageLoaded(ImageLoadedEvent event) {
+			if (previewImageBounds != null && loadedDomainBounds != null) {
+				/*
+				 * An image requested during the drag is displayed at its origin now. Its domain bounds
+				 * were received with the image data, continue previewing from there.
+				 */
+				previewImageBounds = viewportBounds;
+				previewDomainBounds = domainBounds;
+
+				preview(draggedDomainBounds);
+			}
+		}
 	}
 
 	private class Handle {
 		private GenericWidgetView widget;
 		private List<Bound> bounds;
+		private Bounds cachedBounds;
 
 		public Handle(GenericWidgetView widget, Bound[] bounds) {
 			super();
@@ -621,8 +879,19 @@ public class OverviewPresenter {
 				   bounds.contains(Bound.BOTTOM);
 		}
 
+		/**
+		 * The absolute bounds of the handle, read from the layout only once after each placement
+		 */
 		public Bounds getBounds() {
-			return this.widget.getAbsBounds();
+			if (this.cachedBounds == null) {
+				this.cachedBounds = this.widget.getAbsBounds();
+			}
+
+			return this.cachedBounds;
+		}
+
+		public void invalidateBounds() {
+			this.cachedBounds = null;
 		}
 	}
 }
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.presenter;
+
+import com.google.gwt.event.shared.HandlerManager;
+import org.eesgmbh.gimv.client.controls.DragImageControl;
+import org.eesgmbh.gimv.client.controls.MouseWheelControl;
+import org.eesgmbh.gimv.client.event.*;
+import org.eesgmbh.gimv.client.util.Disposable;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
+import org.eesgmbh.gimv.client.view.PreviewCompositorViewImpl;
+import org.eesgmbh.gimv.shared.util.Bounds;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <p>The presenter fills the areas of the viewport, which are exposed while the current image
+ * is moved or rescaled (e.g. by the {@link DragImageControl} or a zoom out preview of the
+ * {@link MouseWheelControl}), with recently loaded images.
+ *
+ * <p>Every loaded image is remembered together with its domain bounds. Whenever the current image
+ * changes its pixel bounds, all cached images that contribute to the visible area are scaled and
+ * positioned with {@link Bounds#transform(Bounds, Bounds)} and painted underneath the current image.
+ * Coarser images are painted first, so the image with the best resolution ends up on top. No additional
+ * image data is requested.
+ *
+ * <p>The view must therefore be placed underneath the actual image within the {@link org.eesgmbh.gimv.client.widgets.Viewport}.
+ * An implementation of {@link View} is {@link PreviewCompositorViewImpl}.
+ *
+ * <p>Images of other handler managers, most notably the one of an overview, can be made available with
+ * {@link #addImageSource(HandlerManager)}. They are usually of a lower resolution but cover a much larger domain.
+ *
+ * <p>An image is remembered, after a {@link SetImageUrlEvent} is followed by a {@link SetDomainBoundsEvent}, which
+ * is the order in which a controller usually publishes a newly rendered image. A new image of the main handler manager
+ * replaces the current image only after the browser loaded it ({@link ImageLoadedEvent}). Until then, the previous image
+ * is still displayed and moved, so the previews are painted relative to it.
+ *
+ * <p>Registers with the {@link HandlerManager} to receive the following events
+ * <ul>
+ * 	<li> {@link SetImageUrlEvent} (mandatory, won't work otherwise)
+ * 	<li> {@link SetDomainBoundsEvent} (mandatory, won't work otherwise)
+ * 	<li> {@link SetViewportPixelBoundsEvent} (mandatory, won't work otherwise)
+ * 	<li> {@link ChangeImagePixelBoundsEvent} (triggers the painting of the cached images)
+ * 	<li> {@link ImageLoadedEvent} (mandatory, the published image is now displayed at its origin)
+ * 	<li> {@link SetDataAreaPixelBoundsEvent} (optional, if the image contains a data area related to {@link SetDomainBoundsEvent}, e.g. without axis areas)
+ * </ul>
+ *
+ * <p>Fires no events.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class PreviewCompositorPresenter implements Disposable {
+
+	/**
+	 * The view interface of {@link PreviewCompositorPresenter}.
+	 *
+	 * <p>Layers are added from bottom to top.
+	 *
+	 * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+	 */
+	public interface View {
+		void clearLayers();
+		void addLayer(String url, int x, int y, int width, int height);
+	}
+
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
+	private final View view;
+
+	private final List<CachedImage> cachedImages;
+	private int maxCachedImages;
+
+	private final ImageSource mainImageSource;
+
+	private CachedImage currentImage;
+	private Bounds currentImagePixelBounds;
+	private CachedImage loadingImage;
+
+	/**
+	 * Instantiates the presenter.
+	 *
+	 * @param handlerManager A {@link HandlerManager}
+	 * @param view A {@link View} implementation
+	 */
+	public PreviewCompositorPresenter(HandlerManager handlerManager, View view) {
+		Validate.notNull(handlerManager);
+		this.view = Validate.notNull(view);
+
+		this.cachedImages = new ArrayList<CachedImage>();
+
+		this.mainImageSource = new ImageSource(handlerManager, true);
+		handlerRegistrations.add(handlerManager, ChangeImagePixelBoundsEvent.TYPE, new PreviewCompositorPresenterEventHandler());
+
+		setMaxCachedImages(8);
+	}
+
+	public void dispose() {
+		handlerRegistrations.removeHandler();
+
+		cachedImages.clear();
+		currentImage = null;
+		loadingImage = null;
+		view.clearLayers();
+	}
+
+	/**
+	 * Additionally remembers the images loaded within the given {@link HandlerManager}, e.g.
+	 * the one of an overview.
+	 *
+	 * <p>The images of this handler manager must share the domain with the ones of the main
+	 * handler manager.
+	 *
+	 * @param handlerManager A {@link HandlerManager}
+	 */
+	public void addImageSource(HandlerManager handlerManager) {
+		new ImageSource(Validate.notNull(handlerManager), false);
+	}
+
+	/**
+	 * Sets the maximum number of images that are remembered.
+	 *
+	 * <p>Default is 8.
+	 *
+	 * @param maxCachedImages at least 1
+	 */
+	public void setMaxCachedImages(int maxCachedImages) {
+		this.maxCachedImages = (int) Validate.isPositive(maxCachedImages);
+
+		evictCachedImages();
+	}
+
+	private void onSetImagePixelBounds(ChangeImagePixelBoundsEvent event) {
+		if (currentImage != null) {
+			double left = currentImagePixelBounds.getLeft() + event.getOffsetX();
+			double top = currentImagePixelBounds.getTop() + event.getOffsetY();
+
+			currentImagePixelBounds = new Bounds(
+					left, left + currentImagePixelBounds.getWidth() + event.getOffsetWidth(),
+					top, top + currentImagePixelBounds.getHeight() + event.getOffsetHeight());
+
+			paintCachedImages();
+		}
+	}
+
+	private void onImageRendered(CachedImage image, boolean main) {
+		//an image that is loaded again replaces its previous entry
+		for (int i = cachedImages.size() - 1; i >= 0; i--) {
+			if (cachedImages.get(i).url.equals(image.url)) {
+				cachedImages.remove(i);
+			}
+		}
+
+		cachedImages.add(image);
+
+		if (main) {
+			//the previous image is displayed until the new one was loaded
+			loadingImage = image;
+		}
+
+		evictCachedImages();
+	}
+
+	private void onImageLoaded(ImageLoadedEvent event) {
+		if (loadingImage != null && (event.getUrl() == null || event.getUrl().equals(loadingImage.url))) {
+			currentImage = loadingImage;
+			currentImagePixelBounds = loadingImage.pixelBounds;
+			loadingImage = null;
+
+			//the new image covers the complete viewport
+			view.clearLayers();
+		}
+	}
+
+	private void paintCachedImages() {
+		view.clearLayers();
+
+		List<CachedImage> paintingOrder = new ArrayList<CachedImage>(cachedImages);
+		Collections.sort(paintingOrder, new Comparator<CachedImage>() {
+			public int compare(CachedImage image1, CachedImage image2) {
+				//coarse resolutions first
+				return Double.compare(image2.getResolution(), image1.getResolution());
+			}
+		});
+
+		for (CachedImage cachedImage : paintingOrder) {
+			if (cachedImage != currentImage) {
+				Bounds pixelBounds = computePixelBounds(cachedImage);
+
+				if (pixelBounds != null && isVisible(pixelBounds) && !isCoveredByCurrentImage(pixelBounds)) {
+					view.addLayer(cachedImage.url,
+							(int) Math.round(pixelBounds.getLeft()), (int) Math.round(pixelBounds.getTop()),
+							(int) Math.round(pixelBounds.getAbsWidth()), (int) Math.round(pixelBounds.getAbsHeight()));
+				}
+			}
+		}
+	}
+
+	/*
+	 * Maps the domain covered by the cached image onto the pixel bounds of the viewport as they are
+	 * currently displayed, derived from the current image and its pixel bounds.
+	 */
+	private Bounds computePixelBounds(CachedImage cachedImage) {
+		if (!cachedImage.imageDomainBounds.isHorizontalBoundsDefined() || !currentImage.imageDomainBounds.isHorizontalBoundsDefined()) {
+			//the horizontal domain of the two images is not comparable
+			return null;
+		}
+
+		Bounds pixelBounds = cachedImage.imageDomainBounds.transform(currentImage.imageDomainBounds, currentImagePixelBounds);
+
+		if (!cachedImage.imageDomainBounds.isVerticalBoundsDefined() || !currentImage.imageDomainBounds.isVerticalBoundsDefined()) {
+			//e.g. horizontal overviews without a vertical domain, they cover the whole height
+			pixelBounds = pixelBounds.setTop(currentImagePixelBounds.getTop()).setBottom(currentImagePixelBounds.getBottom());
+		}
+
+		return pixelBounds;
+	}
+
+	private boolean isVisible(Bounds pixelBounds) {
+		Bounds viewportBounds = mainImageSource.viewportBounds;
+
+		return Math.max(pixelBounds.getLeft(), pixelBounds.getRight()) > viewportBounds.getLeft() &&
+			   Math.min(pixelBounds.getLeft(), pixelBounds.getRight()) < viewportBounds.getRight() &&
+			   Math.max(pixelBounds.getTop(), pixelBounds.getBottom()) > viewportBounds.getTop() &&
+			   Math.min(pixelBounds.getTop(), pixelBounds.getBottom()) < viewportBounds.getBottom();
+	}
+
+	private boolean isCoveredByCurrentImage(Bounds pixelBounds) {
+		return currentImagePixelBounds.containsHorizontally(pixelBounds.getLeft(), pixelBounds.getRight()) &&
+			   currentImagePixelBounds.containsVertically(pixelBounds.getTop(), pixelBounds.getBottom());
+	}
+
+	private void evictCachedImages() {
+		for (int i = 0; i < cachedImages.size() && cachedImages.size() > maxCachedImages; ) {
+			if (cachedImages.get(i) != currentImage && cachedImages.get(i) != loadingImage) {
+				cachedImages.remove(i);
+			} else {
+				i++;
+			}
+		}
+	}
+
+	/*
+	 * just for testing
+	 */
+	List<String> getCachedImageUrls() {
+		List<String> urls = new ArrayList<String>();
+		for (CachedImage cachedImage : cachedImages) {
+			urls.add(cachedImage.url);
+		}
+		return urls;
+	}
+
+	private class PreviewCompositorPresenterEventHandler implements ChangeImagePixelBoundsEventHandler {
+		public void onSetImageBounds(ChangeImagePixelBoundsEvent event) {
+			PreviewCompositorPresenter.this.onSetImagePixelBounds(event);
+		}
+	}
+
+	/*
+	 * Remembers the images published within one handler manager. An image url is
+	 * associated with the next domain bounds that are set.
+	 */
+	private class ImageSource implements SetImageUrlEventHandler, SetDomainBoundsEventHandler, SetDataAreaPixelBoundsEventHandler, SetViewportPixelBoundsEventHandler,
+			ImageLoadedEventHandler {
+		private final boolean main;
+
+		private String pendingUrl;
+		private Bounds dataAreaBounds;
+		private Bounds viewportBounds;
+
+		private ImageSource(HandlerManager handlerManager, boolean main) {
+			this.main = main;
+
+			handlerRegistrations.add(handlerManager, SetImageUrlEvent.TYPE, this);
+			handlerRegistrations.add(handlerManager, SetDomainBoundsEvent.TYPE, this);
+			handlerRegistrations.add(handlerManager, SetDataAreaPixelBoundsEvent.TYPE, this);
+			handlerRegistrations.add(handlerManager, SetViewportPixelBoundsEvent.TYPE, this);
+
+			if (main) {
+				handlerRegistrations.add(handlerManager, ImageLoadedEvent.TYPE, this);
+			}
+		}
+
+		public void onSetImageUrl(SetImageUrlEvent event) {
+			pendingUrl = event.getUrl();
+		}
+
+		public void onSetDomainBounds(SetDomainBoundsEvent event) {
+			if (pendingUrl != null && viewportBounds != null) {
+				Bounds imageDomainBounds = viewportBounds.transform(dataAreaBounds != null ? dataAreaBounds : viewportBounds, event.getBounds());
+
+				onImageRendered(new CachedImage(pendingUrl, imageDomainBounds, viewportBounds), main);
+			}
+
+			pendingUrl = null;
+		}
+
+		public void onSetDataAreaPixelBounds(SetDataAreaPixelBoundsEvent event) {
+			dataAreaBounds = event.getBounds();
+		}
+
+		public void onSetViewportBounds(SetViewportPixelBoundsEvent event) {
+			viewportBounds = event.getBounds();
+		}
+
+		public void onImageLoaded(ImageLoadedEvent event) {
+			PreviewCompositorPresenter.this.onImageLoaded(event);
+		}
+	}
+
+	private static class CachedImage {
+		private final String url;
+		private final Bounds imageDomainBounds;
+		private final Bounds pixelBounds;
+
+		private CachedImage(String url, Bounds imageDomainBounds, Bounds pixelBounds) {
+			this.url = url;
+			this.imageDomainBounds = imageDomainBounds;
+			this.pixelBounds = pixelBounds;
+		}
+
+		/*
+		 * domain units per pixel, the higher the coarser
+		 */
+		private double getResolution() {
+			return imageDomainBounds.getAbsWidth() / pixelBounds.getAbsWidth();
+		}
+	}
+}
@@ -22,10 +22,13 @@ import com.google.gwt.user.client.ui.HTML;
 import com.google.gwt.user.client.ui.RootPanel;
 import com.google.gwt.user.client.ui.Widget;
 import org.eesgmbh.gimv.client.event.*;
+import org.eesgmbh.gimv.client.util.Disposable;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
 import org.eesgmbh.gimv.client.view.GenericWidgetView;
 import org.eesgmbh.gimv.client.view.GenericWidgetViewImpl;
 import org.eesgmbh.gimv.shared.util.Bounds;
 import org.eesgmbh.gimv.shared.util.ImageEntity;
+import org.eesgmbh.gimv.shared.util.ImageEntityBatch;
 import org.eesgmbh.gimv.shared.util.Validate;
 
 import java.util.*;
@@ -33,7 +36,8 @@ import java.util.*;
 /**
  * <p>A presenter to display hover, clickable (not yet) and static (not yet) tooltips.
  *
- * <p>The actual tooltip html is obtained from the {@link ImageEntity} instances in the {@link SetImageEntitiesEvent}.
+ * <p>The actual tooltip html is obtained from the {@link ImageEntity} instances in the {@link SetImageEntitiesEvent},
+ * which are processed in the compact {@link ImageEntityBatch} representation.
  * The html is passed into {@link HTML} widgets, that are internally constructed in a pool.
  *
  * <p>The presenter can be configured in what way it will match a particular tooltip to the current mouse position,
@@ -41,6 +45,10 @@ import java.util.*;
  *
  * <p>The offset of the tooltip can be set with {@link #setDisplayOffset(int, int)}.
  *
+ * <p>Instead of shipping an html fragment per entity, the {@link ImageEntityBatch} might carry only the domain values
+ * of the entities. The hover html is then produced on demand by an {@link HtmlFormatter} per group id,
+ * see {@link #setHoverHtmlFormatter(String, HtmlFormatter)}. An html fragment of an entity takes precedence.
+ *
  * <p>If there shouldn't be any tooltips for a certain {@link ImageEntity} group id, these can be set with {@link #addExcludedImageEntityGroupId(String)}.
  *
  *  <p>Registers with the {@link HandlerManager} to receive the following events
@@ -51,6 +59,7 @@ import java.util.*;
  * 	<li> {@link ViewportMouseOutEvent} (technically optional, but the last tooltip might remain visible after the mouse cursor wandered outside the viewport)
  * 	<li> {@link ViewportDragInProgressEvent} (optional, will stop showing any tooltips, when there dragging takes places)
  * 	<li> {@link ViewportDragFinishedEvent} (optional, will show tooltips again, after dragging finished )
+ * 	<li> {@link TransactionEvent} (optional, the tooltips are indexed only once at the commit of a transaction)
  * </ul>
  *
  * <p>Fires no events.
@@ -58,13 +67,28 @@ import java.util.*;
  * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
  *
  */
-public class TooltipPresenter {
+public class TooltipPresenter implements Disposable {
+
+	/**
+	 * Produces the tooltip html of an entity on demand, e.g. from its domain values.
+	 *
+	 * @see TooltipTemplate
+	 */
+	public interface HtmlFormatter {
+		/**
+		 * @param imageEntities all image entities
+		 * @param index the index of the entity to format
+		 * @return the tooltip html
+		 */
+		String format(ImageEntityBatch imageEntities, int index);
+	}
 
 	/*
 	 * implementation notes:
 	 *
-	 * - to achieve acceptable performance the list of #imageEntities is converted to a
+	 * - to achieve acceptable performance the #imageEntities are converted to a
 	 *   two-dimensional array reflecting both x and y coordinates of ImageEntity.
+	 * - image entities are referenced by their index within the batch
 	 */
 
 
@@ -75,10 +99,12 @@ public class TooltipPresenter {
 
 	private List<String> excludedImageEntityGroupId = new ArrayList<String>();
 
+	private final Map<String, HtmlFormatter> hoverHtmlFormatters = new HashMap<String, HtmlFormatter>();
+
 	/**
-	 * all image entities within a list
+	 * all image entities
 	 */
-	private List<ImageEntity> imageEntities;
+	private ImageEntityBatch imageEntities;
 
 	/**
 	 * ImageEntities represented with a two-dimensional array. X and y is represented by the two array indices.
@@ -90,12 +116,19 @@ public class TooltipPresenter {
 	 * A Java map would be compiled into a javascript array structure with iterative access, which is very inefficient.
 	 *
 	 */
-	private Map<String, List<ImageEntity>[][]>  hoverImageEntities;
+	private Map<String, List<Integer>[][]>  hoverImageEntities;
 
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
 	private final TooltipViewFactory tooltipViewFactory;
 
 	private boolean dragInProgress = false;
 
+	/**
+	 * The nesting depth of the current {@link TransactionEvent}, 0 if outside of a transaction
+	 */
+	private int transactionDepth = 0;
+	private boolean indexingPending;
+
 	private Bounds currentDataAreaBounds;
 
 	/**
@@ -105,18 +138,28 @@ public class TooltipPresenter {
 	 */
 	public TooltipPresenter(HandlerManager handlerManager) {
 		TooltipPresenterEventHandler eventHandler = new TooltipPresenterEventHandler();
-		handlerManager.addHandler(ViewportMouseMoveEvent.TYPE, eventHandler);
-		handlerManager.addHandler(SetImageEntitiesEvent.TYPE, eventHandler);
-		handlerManager.addHandler(SetDataAreaPixelBoundsEvent.TYPE, eventHandler);
-		handlerManager.addHandler(ViewportMouseOutEvent.TYPE, eventHandler);
-		handlerManager.addHandler(ViewportDragInProgressEvent.TYPE, eventHandler);
-		handlerManager.addHandler(ViewportDragFinishedEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportMouseMoveEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetImageEntitiesEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetDataAreaPixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportMouseOutEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportDragInProgressEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportDragFinishedEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, TransactionEvent.TYPE, eventHandler);
 
 		configureHoverMatch(true, false, false);
 		setDisplayOffset(1, 1);
 		tooltipViewFactory = new TooltipViewFactory(10000);
 	}
 
+	public void dispose() {
+		handlerRegistrations.removeHandler();
+
+		//the tooltip widgets were added to the root panel
+		tooltipViewFactory.removeAll();
+		imageEntities = null;
+		hoverImageEntities = null;
+	}
+
 	/**
 	 * <p>Configures the tooltip display mechanism to be used as a result of the current mouse position.
 	 *
@@ -144,7 +187,7 @@ public class TooltipPresenter {
 		Validate.isTrue(horizontal || vertical, "At least one of horizontal or vertical must be true");
 
 		this.hoverMatchConfiguration = new MatchConfiguration(horizontal, vertical, displayAll);
-		this.hoverImageEntities = configureHoverImageEntities(this.hoverMatchConfiguration);
+		indexHoverImageEntities();
 	}
 
 	/**
@@ -169,6 +212,22 @@ public class TooltipPresenter {
 		this.excludedImageEntityGroupId.add(groupId);
 	}
 
+	/**
+	 * Sets the formatter, that produces the hover html for entities of a group id without a hover html fragment.
+	 *
+	 * @param groupId an {@link ImageEntity} group id
+	 * @param formatter a formatter, null removes it
+	 */
+	public void setHoverHtmlFormatter(String groupId, HtmlFormatter formatter) {
+		Validate.notNull(groupId);
+
+		if (formatter != null) {
+			this.hoverHtmlFormatters.put(groupId, formatter);
+		} else {
+			this.hoverHtmlFormatters.remove(groupId);
+		}
+	}
+
 	/**
 	 * Set the z-index for all tooltips.
 	 *
@@ -189,9 +248,9 @@ public class TooltipPresenter {
 	 */
 
 	private void onSetImageEntities(SetImageEntitiesEvent event) {
-		imageEntities = event.getImageEntities();
+		imageEntities = event.getImageEntityBatch();
 
-		hoverImageEntities = configureHoverImageEntities(hoverMatchConfiguration);
+		indexHoverImageEntities();
 	}
 
 	private void onMouseOut(ViewportMouseOutEvent event) {
@@ -212,6 +271,18 @@ public class TooltipPresenter {
 		currentDataAreaBounds = event.getBounds();
 	}
 
+	private void onTransaction(TransactionEvent event) {
+		if (event.isBegin()) {
+			transactionDepth++;
+		} else if (transactionDepth > 0) {
+			transactionDepth--;
+
+			if (transactionDepth == 0 && indexingPending) {
+				indexHoverImageEntities();
+			}
+		}
+	}
+
 	/*
 	 * private methods
 	 */
@@ -220,6 +291,24 @@ public class TooltipPresenter {
 		return this.tooltipViewFactory;
 	}
 
+	/**
+	 * Sets the {@link #hoverImageEntities}. Deferred until the commit, if within a transaction, so
+	 * the expensive indexing runs only once for the whole transaction.
+	 */
+	private void indexHoverImageEntities() {
+		if (transactionDepth > 0) {
+			indexingPending = true;
+
+			//the current index refers to the previous image entities
+			hoverImageEntities = null;
+			return;
+		}
+
+		indexingPending = false;
+
+		hoverImageEntities = configureHoverImageEntities(hoverMatchConfiguration);
+	}
+
 	/**
 	 * Sets the {@link #hoverImageEntities}. Runs once when a new image was loaded.
 	 *
@@ -229,41 +318,41 @@ public class TooltipPresenter {
 	 * Runs in 4500ms !! (FF), 600ms (Chrome) and 25000ms !!!!!!!! (IE) on an Intel Core 2Duo, 2,5Ghz for
 	 * about 800 tooltips with both horizontal and vertical match beeing configured and displayAll=true
 	 *
-	 * The major performance bottleneck is {@link #computeDistance(ImageEntity, int, int, MatchConfiguration)}
+	 * The major performance bottleneck is {@link #computeDistance(int, int, int, MatchConfiguration)}
 	 * in particular when configuring horizontal=true and vertical=true
 	 *
 	 * @param matchConfig
 	 * @return
 	 */
-	private Map<String, List<ImageEntity>[][]> configureHoverImageEntities(MatchConfiguration matchConfig) {
+	private Map<String, List<Integer>[][]> configureHoverImageEntities(MatchConfiguration matchConfig) {
 		if (this.imageEntities != null && matchConfig != null) {
-			int vpWidth = findMaxRight(this.imageEntities);
-			int vpHeight = findMaxBottom(this.imageEntities);
+			int vpWidth = (int) Math.round(imageEntities.getMaxRight());
+			int vpHeight = (int) Math.round(imageEntities.getMaxBottom());
 
-			Map<String, List<ImageEntity>[][]> ent = new HashMap<String, List<ImageEntity>[][]>();
+			Map<String, List<Integer>[][]> ent = new HashMap<String, List<Integer>[][]>();
 
-			//transform the list of imageEntities to a multidimensial array
-			for (ImageEntity e : imageEntities) {
-				Bounds bounds = e.getBounds();
+			//transform the imageEntities to a multidimensial array
+			for (int e = 0; e < imageEntities.size(); e++) {
+				String groupId = imageEntities.getGroupId(e);
 
-				for (int x = matchConfig.horizontal ? bounds.getLeft().intValue() : 0; x <= (matchConfig.horizontal ? bounds.getRight().intValue() : 0); x++) {
-					for (int y = matchConfig.vertical ? bounds.getTop().intValue() : 0; y <= (matchConfig.vertical ? bounds.getBottom().intValue() : 0); y++) {
+				for (int x = matchConfig.horizontal ? (int) imageEntities.getLeft(e) : 0; x <= (matchConfig.horizontal ? (int) imageEntities.getRight(e) : 0); x++) {
+					for (int y = matchConfig.vertical ? (int) imageEntities.getTop(e) : 0; y <= (matchConfig.vertical ? (int) imageEntities.getBottom(e) : 0); y++) {
 						if (x >= 0 && y >= 0 && x < vpWidth + 1 && y < vpHeight + 1) { //do not risk index out of bounds
-							if (!this.excludedImageEntityGroupId.contains(e.getGroupId())) {
+							if (!this.excludedImageEntityGroupId.contains(groupId)) {
 								//Add a new entry for group id
-								if (!ent.containsKey(e.getGroupId())) {
+								if (!ent.containsKey(groupId)) {
 									@SuppressWarnings("unchecked")
-									List<ImageEntity>[][] array = new List[matchConfig.horizontal ? vpWidth + 1 : 1][matchConfig.vertical ? vpHeight + 1 : 1];
+									List<Integer>[][] array = new List[matchConfig.horizontal ? vpWidth + 1 : 1][matchConfig.vertical ? vpHeight + 1 : 1];
 
-									ent.put(e.getGroupId(), array);
+									ent.put(groupId, array);
 								}
 
 								//Add new at array position
-								if (ent.get(e.getGroupId())[x][y] == null) {
-									ent.get(e.getGroupId())[x][y] = new ArrayList<ImageEntity>();
+								if (ent.get(groupId)[x][y] == null) {
+									ent.get(groupId)[x][y] = new ArrayList<Integer>();
 								}
 
-								ent.get(e.getGroupId())[x][y].add(e);
+								ent.get(groupId)[x][y].add(e);
 							}
 						}
 					}
@@ -278,16 +367,16 @@ public class TooltipPresenter {
 						for (int y = 0; y < ent.get(key)[x].length; y++) {
 							if (ent.get(key)[x][y] != null) {
 								boolean containsDistZero = false;
-								for (ImageEntity e  : ent.get(key)[x][y]) {
+								for (int e  : ent.get(key)[x][y]) {
 									if (Math.round(computeDistance(e, x, y, matchConfig)) == 0) {
 										containsDistZero = true;
 									}
 								}
 
 								if (containsDistZero) {
-									List<ImageEntity> newEntities = new ArrayList<ImageEntity>();
+									List<Integer> newEntities = new ArrayList<Integer>();
 
-									for (ImageEntity e  : ent.get(key)[x][y]) {
+									for (int e  : ent.get(key)[x][y]) {
 										if (Math.round(computeDistance(e, x, y, matchConfig)) == 0) {
 											newEntities.add(e);
 										}
@@ -339,19 +428,19 @@ public class TooltipPresenter {
 						if (indexX >= 0 && indexX < hoverImageEntities.get(key).length) {
 							if (indexY >= 0 && indexY < hoverImageEntities.get(key)[indexX].length) {
 
-								List<ImageEntity> imageEntities = hoverImageEntities.get(key)[indexX][indexY];
+								List<Integer> entityIndices = hoverImageEntities.get(key)[indexX][indexY];
 
-								if (imageEntities != null && !imageEntities.isEmpty()) { //actually never empty, but you never how the impl might change
+								if (entityIndices != null && !entityIndices.isEmpty()) { //actually never empty, but you never how the impl might change
 
 									int verticalOffset = 0;
-									for (ImageEntity e : imageEntities) {
+									for (int e : entityIndices) {
 										GenericWidgetView view = tooltipViewFactory.getNext();
 
 										//Only display the tooltip if it is within the inner pixel bounds
-										if (insideInnerPixelBounds(e.getBounds().getHorizontalCenter(), e.getBounds().getVerticalCenter())) {
-											view.setRelX(event.getGwtEvent().getClientX() - event.getGwtEvent().getX() + (int)Math.round(e.getBounds().getHorizontalCenter()) + xOffset);
-											view.setRelY(event.getGwtEvent().getClientY() - event.getGwtEvent().getY() + (int)Math.round(e.getBounds().getVerticalCenter()) + verticalOffset + yOffset);
-											view.setHtml(e.getHoverHtmlFragment());
+										if (insideInnerPixelBounds(imageEntities.getHorizontalCenter(e), imageEntities.getVerticalCenter(e))) {
+											view.setRelX(event.getGwtEvent().getClientX() - event.getGwtEvent().getX() + (int)Math.round(imageEntities.getHorizontalCenter(e)) + xOffset);
+											view.setRelY(event.getGwtEvent().getClientY() - event.getGwtEvent().getY() + (int)Math.round(imageEntities.getVerticalCenter(e)) + verticalOffset + yOffset);
+											view.setHtml(getHoverHtml(e));
 											view.show();
 
 											verticalOffset += view.getHeight() + 5;
@@ -366,13 +455,27 @@ public class TooltipPresenter {
 		}
 	}
 
-	private ImageEntity findClosest(List<ImageEntity> imageEntities, int x, int y, MatchConfiguration matchConfig) {
-		Validate.isFalse(imageEntities.isEmpty());
+	private String getHoverHtml(int entityIndex) {
+		String html = imageEntities.getHoverHtmlFragment(entityIndex);
+
+		if (html == null) {
+			HtmlFormatter formatter = hoverHtmlFormatters.get(imageEntities.getGroupId(entityIndex));
+
+			if (formatter != null) {
+				html = formatter.format(imageEntities, entityIndex);
+			}
+		}
+
+		return html;
+	}
+
+	private Integer findClosest(List<Integer> entityIndices, int x, int y, MatchConfiguration matchConfig) {
+		Validate.isFalse(entityIndices.isEmpty());
 
 		double dist = Double.MAX_VALUE;
-		ImageEntity mostRelevant = null;
+		Integer mostRelevant = null;
 
-		for (ImageEntity e : imageEntities) {
+		for (Integer e : entityIndices) {
 			double newDist = Math.min(dist, computeDistance(e, x, y, matchConfig));
 
 			if (newDist < dist) {
@@ -384,18 +487,18 @@ public class TooltipPresenter {
 		return mostRelevant;
 	}
 
-	private double computeDistance(ImageEntity imageEntity, int x, int y, MatchConfiguration matchConfig) {
+	private double computeDistance(int entityIndex, int x, int y, MatchConfiguration matchConfig) {
 		if (matchConfig.horizontal && !matchConfig.vertical) {
-			return Math.abs(imageEntity.getBounds().getHorizontalCenter() - x);
+			return Math.abs(imageEntities.getHorizontalCenter(entityIndex) - x);
 
 		} else if (!matchConfig.horizontal && matchConfig.vertical) {
-			return Math.abs(imageEntity.getBounds().getVerticalCenter() - y);
+			return Math.abs(imageEntities.getVerticalCenter(entityIndex) - y);
 
 		} else if (matchConfig.horizontal && matchConfig.vertical) {
 			//pythagoras
 			return Math.sqrt(
-					Math.pow(imageEntity.getBounds().getHorizontalCenter() - x, 2) +
-					Math.pow(imageEntity.getBounds().getVerticalCenter() - y, 2)
+					Math.pow(imageEntities.getHorizontalCenter(entityIndex) - x, 2) +
+					Math.pow(imageEntities.getVerticalCenter(entityIndex) - y, 2)
 			);
 
 		} else {
@@ -403,26 +506,6 @@ public class TooltipPresenter {
 		}
 	}
 
-	private int findMaxRight(List<ImageEntity> imageEntities) {
-		double maxRight = Double.MIN_VALUE;
-
-		for (ImageEntity e : imageEntities) {
-			maxRight = Math.max(maxRight, e.getBounds().getRight());
-		}
-
-		return (int) Math.round(maxRight);
-	}
-
-	private int findMaxBottom(List<ImageEntity> imageEntities) {
-		double maxBottom = Double.MIN_VALUE;
-
-		for (ImageEntity e : imageEntities) {
-			maxBottom = Math.max(maxBottom, e.getBounds().getBottom());
-		}
-
-		return (int) Math.round(maxBottom);
-	}
-
 	private boolean insideInnerPixelBounds(double x, double y) {
 		return currentDataAreaBounds == null || currentDataAreaBounds.contains(x, y);
 	}
@@ -431,7 +514,8 @@ public class TooltipPresenter {
 	 * inner class for recieving events
 	 */
 
-	private class TooltipPresenterEventHandler implements ViewportMouseMoveEventHandler, SetImageEntitiesEventHandler, ViewportMouseOutEventHandler, ViewportDragInProgressEventHandler, ViewportDragFinishedEventHandler, SetDataAreaPixelBoundsEventHandler {
+	private class TooltipPresenterEventHandler implements ViewportMouseMoveEventHandler, SetImageEntitiesEventHandler, ViewportMouseOutEventHandler, ViewportDragInProgressEventHandler, ViewportDragFinishedEventHandler, SetDataAreaPixelBoundsEventHandler,
+			TransactionEventHandler {
 
 		public void onMouseMove(ViewportMouseMoveEvent event) {
 			TooltipPresenter.this.processMouseMoveEvent(event);
@@ -457,6 +541,10 @@ public class TooltipPresenter {
 		public void onSetDataAreaPixelBounds(SetDataAreaPixelBoundsEvent event) {
 			TooltipPresenter.this.onSetDataAreaBounds(event);
 		}
+
+		public void onTransaction(TransactionEvent event) {
+			TooltipPresenter.this.onTransaction(event);
+		}
 	}
 
 	/*
@@ -486,6 +574,7 @@ public class TooltipPresenter {
 	 */
 	class TooltipViewFactory {
 		private final List<GenericWidgetView> viewsPool = new ArrayList<GenericWidgetView>();
+		private final List<Widget> widgets = new ArrayList<Widget>();
 		private int zIndex;
 
 		private int currentIndex;
@@ -521,11 +610,22 @@ public class TooltipPresenter {
 			}
 		}
 
+		private void removeAll() {
+			for (Widget widget : widgets) {
+				widget.removeFromParent();
+			}
+
+			widgets.clear();
+			viewsPool.clear();
+			currentIndex = 0;
+		}
+
 		private GenericWidgetView createView() {
 			Widget widget = new HTML();
 			DOM.setStyleAttribute(widget.getElement(), "position", "absolute");
 			DOM.setStyleAttribute(widget.getElement(), "cursor", "default"); // don't let the textcursor appear
 			RootPanel.get().add(widget); //won't show otherwise
+			widgets.add(widget);
 
 			GenericWidgetView view = new GenericWidgetViewImpl(widget);
 			view.hide();
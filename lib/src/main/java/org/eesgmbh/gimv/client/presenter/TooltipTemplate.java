@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.eesgmbh.gimv.client.presenter;
+
+import org.eesgmbh.gimv.shared.util.ImageEntityBatch;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>An {@link TooltipPresenter.HtmlFormatter}, that fills the domain values of an entity into an html template
+ * with the placeholders <code>{x}</code> and <code>{y}</code>, e.g.
+ * <code>&lt;span class="tooltip"&gt;{y} cm on {x}&lt;/span&gt;</code>.
+ *
+ * <p>The values are converted with {@link #formatX(double)} and {@link #formatY(double)}, which can be overridden
+ * e.g. for formatting a time stamp. The returned strings are inserted as they are, so they must be valid html.
+ *
+ * <p>One instance is meant to be shared by all entities of a group, so the entities only need to carry
+ * their values, see {@link ImageEntityBatch#putValues(int, double, double)}.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class TooltipTemplate implements TooltipPresenter.HtmlFormatter {
+
+	private static final String X_PLACEHOLDER = "{x}";
+	private static final String Y_PLACEHOLDER = "{y}";
+
+	/**
+	 * the template split at the placeholders, the odd elements are placeholders
+	 */
+	private final List<String> parts = new ArrayList<String>();
+
+	/**
+	 * Instantiates the template.
+	 *
+	 * @param template the html template with the placeholders <code>{x}</code> and <code>{y}</code>
+	 */
+	public TooltipTemplate(String template) {
+		Validate.notNull(template);
+
+		//parsing once, formatting runs on every mouse move
+		int start = 0;
+		while (true) {
+			int x = template.indexOf(X_PLACEHOLDER, start);
+			int y = template.indexOf(Y_PLACEHOLDER, start);
+			int next = x < 0 ? y : (y < 0 ? x : Math.min(x, y));
+
+			if (next < 0) {
+				parts.add(template.substring(start));
+				break;
+			}
+
+			parts.add(template.substring(start, next));
+			parts.add(next == x ? X_PLACEHOLDER : Y_PLACEHOLDER);
+
+			start = next + X_PLACEHOLDER.length();
+		}
+	}
+
+	public String format(ImageEntityBatch imageEntities, int index) {
+		StringBuilder html = new StringBuilder();
+
+		for (int i = 0; i < parts.size(); i++) {
+			if (i % 2 == 0) {
+				html.append(parts.get(i));
+			} else if (X_PLACEHOLDER.equals(parts.get(i))) {
+				html.append(formatX(imageEntities.getXValue(index)));
+			} else {
+				html.append(formatY(imageEntities.getYValue(index)));
+			}
+		}
+
+		return html.toString();
+	}
+
+	/**
+	 * Formats the x value. Override for a specific format, e.g. a date.
+	 *
+	 * @param x the x value in domain units
+	 * @return the html to insert
+	 */
+	protected String formatX(double x) {
+		return String.valueOf(x);
+	}
+
+	/**
+	 * Formats the y value. Override for a specific format.
+	 *
+	 * @param y the y value in domain units
+	 * @return the html to insert
+	 */
+	protected String formatY(double y) {
+		return String.valueOf(y);
+	}
+}
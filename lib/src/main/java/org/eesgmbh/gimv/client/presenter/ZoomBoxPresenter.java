@@ -19,8 +19,11 @@ package org.eesgmbh.gimv.client.presenter;
 import com.google.gwt.event.shared.HandlerManager;
 import org.eesgmbh.gimv.client.controls.DragImageControl;
 import org.eesgmbh.gimv.client.event.*;
+import org.eesgmbh.gimv.client.util.Disposable;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
 import org.eesgmbh.gimv.client.view.GenericWidgetView;
 import org.eesgmbh.gimv.shared.util.Bounds;
+import org.eesgmbh.gimv.shared.util.BoundsQuantizer;
 
 /**
  * This presenter enables to zoom the image by mouse dragging
@@ -37,6 +40,8 @@ import org.eesgmbh.gimv.shared.util.Bounds;
  * the mandatory activation is, that dragging can both mean zooming or moving the image. Only
  * this presenter or the {@link DragImageControl} can be active at the same time.
  *
+ * <p>The new domain bounds can be snapped to discrete values with {@link #setBoundsQuantizer(BoundsQuantizer)}.
+ *
  * <p>Registers with the {@link HandlerManager} to receive the following events
  * <ul>
  * 	<li> {@link ViewportDragInProgressEvent} (the presenter changes the position and dimension of the view accordingly)
@@ -54,9 +59,10 @@ import org.eesgmbh.gimv.shared.util.Bounds;
  *
  * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
  */
-public class ZoomBoxPresenter {
+public class ZoomBoxPresenter implements Disposable {
 
 	private final HandlerManager handlerManager;
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
 	private final GenericWidgetView view;
 	private boolean fireLoadImageDataEvent;
 	private int minimalDragOffsetInPixel;
@@ -65,6 +71,8 @@ public class ZoomBoxPresenter {
 	private Bounds currentDomainBounds;
 	private SetMaxDomainBoundsEvent currentMaxDomainBounds;
 
+	private BoundsQuantizer boundsQuantizer;
+
 	/**
 	 * Instantiates the presenter.
 	 *
@@ -76,16 +84,20 @@ public class ZoomBoxPresenter {
 		this.view = view;
 
 		ZoomBoxPresenterEventHandler eventHandler = new ZoomBoxPresenterEventHandler();
-		handlerManager.addHandler(ViewportDragInProgressEvent.TYPE, eventHandler);
-		handlerManager.addHandler(ViewportDragFinishedEvent.TYPE, eventHandler);
-		handlerManager.addHandler(SetDomainBoundsEvent.TYPE, eventHandler);
-		handlerManager.addHandler(SetMaxDomainBoundsEvent.TYPE, eventHandler);
-		handlerManager.addHandler(StateChangeEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportDragInProgressEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, ViewportDragFinishedEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetMaxDomainBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, StateChangeEvent.TYPE, eventHandler);
 
 		setMinimalDragOffsetInPixel(15);
 		setFireLoadImageDataEvent(true);
 	}
 
+	public void dispose() {
+		handlerRegistrations.removeHandler();
+	}
+
 	/**
 	 * Specifies the minimal width and height of the zoom area. If the dragging
 	 * width or height is below that, no {@link SetDomainBoundsEvent} or {@link LoadImageDataEvent}
@@ -114,6 +126,18 @@ public class ZoomBoxPresenter {
 		this.fireLoadImageDataEvent = fireLoadImageDataEvent;
 	}
 
+	/**
+	 * <p>Snaps the new domain bounds to discrete values, so that caches for rendered images
+	 * become effective.
+	 *
+	 * <p>Default is null (no snapping).
+	 *
+	 * @param boundsQuantizer the quantizer or null
+	 */
+	public void setBoundsQuantizer(BoundsQuantizer boundsQuantizer) {
+		this.boundsQuantizer = boundsQuantizer;
+	}
+
 	private void onDragInProgress(ViewportDragInProgressEvent event) {
 		if (active) {
 			Bounds bounds = event.getPixelBounds().normalizeBounds();
@@ -137,6 +161,10 @@ public class ZoomBoxPresenter {
 
 					Bounds newBounds = currentDomainBounds.transformProportional(proportionalBounds);
 
+					if (boundsQuantizer != null) {
+						newBounds = boundsQuantizer.quantize(currentDomainBounds, newBounds);
+					}
+
 					if (currentMaxDomainBounds != null) {
 						if (!currentMaxDomainBounds.containsHorizontally(newBounds.getLeft(), newBounds.getRight())) {
 							newBounds = newBounds.setLeft(currentDomainBounds.getLeft());
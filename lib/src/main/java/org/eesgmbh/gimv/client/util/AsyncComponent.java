@@ -0,0 +1,162 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.util;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.RunAsyncCallback;
+import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.eesgmbh.gimv.client.event.EventReplay;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Base class for factories creating an optional Gimv component in a split point, so that its code
+ * (and the code of its views and widgets) is not part of the initial download and can be loaded after the
+ * first chart has been shown.
+ *
+ * <p>The component is created once, on the first call to {@link #get(AsyncCallback)}. Calls made while
+ * the code is loading are queued and answered when it is available. If loading fails, all queued callbacks
+ * are informed and the next call to {@link #get(AsyncCallback)} tries again.
+ *
+ * <p>As the component is created after the chart has been initialized, it has missed the events describing
+ * the current state of the chart. These are recorded with an {@link EventReplay} from the instantiation of the
+ * factory on and replayed to the handlers of the new component. The callbacks are invoked before the replay, so
+ * the component can be configured before it receives the current state.
+ *
+ * <p>Usage: instantiate the factory before the first image data is loaded.
+ *
+ * <p>Subclasses implement {@link #load()} with their own call to {@link GWT#runAsync(Class, RunAsyncCallback)}.
+ * Each call site is a separate split point, the component must only be referenced within
+ * {@link RunAsyncCallback#onSuccess()}, which enclose its creation with {@link #beginCreate()} and {@link #endCreate(Object)}.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ *
+ * @param <T> the component type
+ */
+public abstract class AsyncComponent<T> implements Disposable {
+
+	private final List<EventReplay> eventReplays = new ArrayList<EventReplay>();
+	private final List<AsyncCallback<T>> pendingCallbacks = new ArrayList<AsyncCallback<T>>();
+
+	private T component;
+	private boolean loading;
+
+	/**
+	 * Instantiates the factory and starts recording the events of the handler managers.
+	 *
+	 * @param handlerManagers the {@link HandlerManager}s the component registers with
+	 */
+	protected AsyncComponent(HandlerManager... handlerManagers) {
+		Validate.notNullForEach(handlerManagers);
+
+		for (HandlerManager handlerManager : handlerManagers) {
+			eventReplays.add(new EventReplay(handlerManager));
+		}
+	}
+
+	public void dispose() {
+		disposeEventReplays();
+		pendingCallbacks.clear();
+	}
+
+	/**
+	 * Passes the component to the callback, loading and creating it if necessary.
+	 *
+	 * @param callback the callback, invoked synchronously if the component has been created before
+	 */
+	public void get(AsyncCallback<T> callback) {
+		Validate.notNull(callback);
+
+		if (component != null) {
+			callback.onSuccess(component);
+			return;
+		}
+
+		pendingCallbacks.add(callback);
+
+		if (!loading) {
+			loading = true;
+			load();
+		}
+	}
+
+	/**
+	 * Starts loading and creating the component in a split point. Implementations
+	 * call {@link #beginCreate()} and {@link #endCreate(Object)} on success and {@link #failCreate(Throwable)} on failure.
+	 */
+	protected abstract void load();
+
+	/**
+	 * Must be called immediately before the component is created.
+	 */
+	protected final void beginCreate() {
+		for (EventReplay eventReplay : eventReplays) {
+			eventReplay.begin();
+		}
+	}
+
+	/**
+	 * Must be called after the component has been created. Invokes the queued callbacks and
+	 * replays the recorded events.
+	 *
+	 * @param component the created component
+	 */
+	protected final void endCreate(T component) {
+		this.component = Validate.notNull(component);
+		loading = false;
+
+		List<AsyncCallback<T>> callbacks = new ArrayList<AsyncCallback<T>>(pendingCallbacks);
+		pendingCallbacks.clear();
+
+		for (AsyncCallback<T> callback : callbacks) {
+			callback.onSuccess(component);
+		}
+
+		for (EventReplay eventReplay : eventReplays) {
+			eventReplay.end();
+		}
+
+		//the component receives the events itself from now on
+		disposeEventReplays();
+	}
+
+	/**
+	 * Must be called if the code could not be loaded, e.g. due to a network failure.
+	 *
+	 * @param reason the reason
+	 */
+	protected final void failCreate(Throwable reason) {
+		loading = false;
+
+		List<AsyncCallback<T>> callbacks = new ArrayList<AsyncCallback<T>>(pendingCallbacks);
+		pendingCallbacks.clear();
+
+		for (AsyncCallback<T> callback : callbacks) {
+			callback.onFailure(reason);
+		}
+	}
+
+	private void disposeEventReplays() {
+		for (EventReplay eventReplay : eventReplays) {
+			eventReplay.dispose();
+		}
+		eventReplays.clear();
+	}
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.util;
+
+/**
+ * <p>Implemented by Gimv presenters and controls (and some widgets), that register handlers, run timers or attach
+ * DOM nodes.
+ *
+ * <p>{@link #dispose()} releases all of it, so a component that is no longer needed can be garbage collected
+ * and does not consume any CPU anymore. This is of particular interest for applications that create and
+ * destroy charts repeatedly.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public interface Disposable {
+
+	/**
+	 * Removes all registered handlers, cancels all timers and animations and detaches
+	 * all DOM nodes that were created by the component.
+	 *
+	 * <p>The component must not be used anymore afterwards. Calling the method more than once
+	 * has no effect.
+	 */
+	void dispose();
+}
@@ -98,6 +98,16 @@ public class EventAccumulator {
 		this.callbackExecutionDelay = callbackExecutionDelay;
 	}
 
+	/**
+	 * Discards all accumulated events without invoking the {@link Callback}.
+	 */
+	public void cancel() {
+		timer.cancel();
+		timer.elapsed = true;
+
+		accumulatedGwtEvents.clear();
+	}
+
 	private final class EventAccumulatorTimer extends Timer {
 		private boolean elapsed = true;
 
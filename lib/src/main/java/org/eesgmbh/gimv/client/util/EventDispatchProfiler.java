@@ -0,0 +1,288 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.util;
+
+import com.google.gwt.event.shared.EventHandler;
+import com.google.gwt.event.shared.GwtEvent;
+import org.eesgmbh.gimv.client.event.EventDispatchTracer;
+import org.eesgmbh.gimv.client.event.GimvEventBus;
+import org.eesgmbh.gimv.client.widgets.EventDispatchProfilerWidget;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Collects statistics about the events fired within a {@link GimvEventBus}, in order to find
+ * event handlers that slow down the user interface.
+ *
+ * <p>Per event class the number of fired events and the current rate (events per second) is recorded,
+ * per event class and handler class the number of invocations and the cumulative and maximum time spent in the
+ * handler. The time of a handler includes the time of the handlers of events fired by it.
+ *
+ * <p>The statistics can be displayed with an {@link EventDispatchProfilerWidget} or exported with {@link #toJson()}.
+ *
+ * <p>Usage: <code>eventBus.setTracer(new EventDispatchProfiler())</code>
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class EventDispatchProfiler implements EventDispatchTracer {
+
+	/** the period in milliseconds, over which the event rate is measured */
+	private static final double RATE_PERIOD = 1000;
+
+	private final Map<String, EventStatistics> eventStatistics = new LinkedHashMap<String, EventStatistics>();
+
+	/** start times of the currently running (nested) handler invocations */
+	private final List<Double> handlerStartTimes = new ArrayList<Double>();
+
+	public void onFire(GwtEvent<?> event) {
+		getEventStatistics(event).count(now());
+	}
+
+	public void onHandlerStart(GwtEvent<?> event, EventHandler handler) {
+		handlerStartTimes.add(now());
+	}
+
+	public void onHandlerEnd(GwtEvent<?> event, EventHandler handler) {
+		if (handlerStartTimes.isEmpty()) { //reset during the invocation
+			return;
+		}
+
+		double duration = now() - handlerStartTimes.remove(handlerStartTimes.size() - 1);
+
+		getEventStatistics(event).getHandlerStatistics(handler).count(duration);
+	}
+
+	/**
+	 * @return the statistics per event class in the order of their first occurrence
+	 */
+	public Collection<EventStatistics> getEventStatistics() {
+		return eventStatistics.values();
+	}
+
+	/**
+	 * Discards all statistics.
+	 */
+	public void reset() {
+		eventStatistics.clear();
+		handlerStartTimes.clear();
+	}
+
+	/**
+	 * Exports the statistics, e.g.
+	 *
+	 * <pre>
+	 * {"events": [{"type": "ViewportMouseMoveEvent", "count": 120, "ratePerSecond": 60.0,
+	 *   "handlers": [{"handler": "TooltipPresenter$TooltipPresenterEventHandler", "count": 120, "totalMillis": 35.5, "maxMillis": 2.1}]}]}
+	 * </pre>
+	 *
+	 * @return the statistics as JSON
+	 */
+	public String toJson() {
+		StringBuilder json = new StringBuilder("{\"events\": [");
+
+		boolean firstEvent = true;
+		for (EventStatistics event : eventStatistics.values()) {
+			json.append(firstEvent ? "" : ", ");
+			json.append("{\"type\": ").append(quote(event.getType()));
+			json.append(", \"count\": ").append(event.getCount());
+			json.append(", \"ratePerSecond\": ").append(round(event.getRatePerSecond()));
+			json.append(", \"handlers\": [");
+
+			boolean firstHandler = true;
+			for (HandlerStatistics handler : event.getHandlerStatistics()) {
+				json.append(firstHandler ? "" : ", ");
+				json.append("{\"handler\": ").append(quote(handler.getHandler()));
+				json.append(", \"count\": ").append(handler.getCount());
+				json.append(", \"totalMillis\": ").append(round(handler.getTotalMillis()));
+				json.append(", \"maxMillis\": ").append(round(handler.getMaxMillis()));
+				json.append("}");
+
+				firstHandler = false;
+			}
+
+			json.append("]}");
+
+			firstEvent = false;
+		}
+
+		return json.append("]}").toString();
+	}
+
+	/*
+	 * package private, so it can be replaced for testing
+	 */
+	double now() {
+		return nativeNow();
+	}
+
+	private EventStatistics getEventStatistics(GwtEvent<?> event) {
+		String type = getSimpleName(event.getClass());
+
+		EventStatistics statistics = eventStatistics.get(type);
+		if (statistics == null) {
+			statistics = new EventStatistics(type);
+			eventStatistics.put(type, statistics);
+		}
+
+		return statistics;
+	}
+
+	private static String getSimpleName(Class<?> clazz) {
+		//Class.getSimpleName() is not supported by GWT
+		String name = clazz.getName();
+
+		return name.substring(name.lastIndexOf('.') + 1);
+	}
+
+	private static double round(double value) {
+		return Math.round(value * 100) / 100d;
+	}
+
+	private static String quote(String value) {
+		return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+
+	private static native double nativeNow() /*-{
+		return $wnd.performance && $wnd.performance.now ? $wnd.performance.now() : new Date().getTime();
+	}-*/;
+
+	/**
+	 * The statistics of one event class.
+	 */
+	public class EventStatistics {
+		private final String type;
+		private final Map<String, HandlerStatistics> handlerStatistics = new LinkedHashMap<String, HandlerStatistics>();
+
+		private int count;
+
+		private double rateStart = Double.NaN;
+		private int rateCount;
+		private double lastRate;
+
+		private EventStatistics(String type) {
+			this.type = type;
+		}
+
+		private void count(double now) {
+			count++;
+
+			if (Double.isNaN(rateStart)) {
+				rateStart = now;
+			} else if (now - rateStart >= RATE_PERIOD) {
+				lastRate = rateCount * RATE_PERIOD / (now - rateStart);
+				rateStart = now;
+				rateCount = 0;
+			}
+
+			rateCount++;
+		}
+
+		private HandlerStatistics getHandlerStatistics(EventHandler handler) {
+			String name = getSimpleName(handler.getClass());
+
+			HandlerStatistics statistics = handlerStatistics.get(name);
+			if (statistics == null) {
+				statistics = new HandlerStatistics(name);
+				handlerStatistics.put(name, statistics);
+			}
+
+			return statistics;
+		}
+
+		/**
+		 * @return the simple class name of the event
+		 */
+		public String getType() {
+			return type;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		/**
+		 * Returns the number of events per second within the last second. If no event was
+		 * fired for a while, the rate decreases accordingly.
+		 *
+		 * @return events per second
+		 */
+		public double getRatePerSecond() {
+			if (Double.isNaN(rateStart)) {
+				return 0;
+			}
+
+			double elapsed = now() - rateStart;
+
+			if (elapsed < RATE_PERIOD) {
+				return lastRate;
+			} else {
+				return rateCount * RATE_PERIOD / elapsed;
+			}
+		}
+
+		/**
+		 * @return the statistics per handler class in the order of their first invocation
+		 */
+		public Collection<HandlerStatistics> getHandlerStatistics() {
+			return handlerStatistics.values();
+		}
+	}
+
+	/**
+	 * The statistics of one handler class for one event class.
+	 */
+	public static class HandlerStatistics {
+		private final String handler;
+
+		private int count;
+		private double totalMillis;
+		private double maxMillis;
+
+		private HandlerStatistics(String handler) {
+			this.handler = handler;
+		}
+
+		private void count(double duration) {
+			count++;
+			totalMillis += duration;
+			maxMillis = Math.max(maxMillis, duration);
+		}
+
+		/**
+		 * @return the simple class name of the handler, e.g. <code>TooltipPresenter$TooltipPresenterEventHandler</code>
+		 */
+		public String getHandler() {
+			return handler;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		public double getTotalMillis() {
+			return totalMillis;
+		}
+
+		public double getMaxMillis() {
+			return maxMillis;
+		}
+	}
+}
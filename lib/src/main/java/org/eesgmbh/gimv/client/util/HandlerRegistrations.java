@@ -0,0 +1,73 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.util;
+
+import com.google.gwt.event.shared.EventHandler;
+import com.google.gwt.event.shared.GwtEvent.Type;
+import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.event.shared.HandlerRegistration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Collects {@link HandlerRegistration}s, so they can be removed at once, typically
+ * when a {@link Disposable} is disposed.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class HandlerRegistrations implements HandlerRegistration {
+
+	private final List<HandlerRegistration> handlerRegistrations = new ArrayList<HandlerRegistration>();
+
+	/**
+	 * Adds a handler to the {@link HandlerManager} and keeps the registration.
+	 *
+	 * @param handlerManager the handler manager
+	 * @param type the event type
+	 * @param handler the handler
+	 */
+	public <H extends EventHandler> void add(HandlerManager handlerManager, Type<H> type, H handler) {
+		add(handlerManager.addHandler(type, handler));
+	}
+
+	/**
+	 * Keeps the registration.
+	 *
+	 * @param handlerRegistration the registration, ignored if null
+	 */
+	public void add(HandlerRegistration handlerRegistration) {
+		if (handlerRegistration != null) {
+			handlerRegistrations.add(handlerRegistration);
+		}
+	}
+
+	/**
+	 * Removes all kept registrations.
+	 */
+	public void removeHandler() {
+		for (HandlerRegistration handlerRegistration : handlerRegistrations) {
+			handlerRegistration.removeHandler();
+		}
+
+		handlerRegistrations.clear();
+	}
+
+	public int size() {
+		return handlerRegistrations.size();
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.util;
+
+import org.eesgmbh.gimv.client.event.ChangeImagePixelBoundsEvent;
+import org.eesgmbh.gimv.shared.util.Bounds;
+import org.eesgmbh.gimv.shared.util.BoundsQuantizer;
+
+import static org.eesgmbh.gimv.shared.util.Validate.notNull;
+
+/**
+ * <p>Computes the change of the image's pixel bounds that makes the currently displayed image preview
+ * different domain bounds.
+ *
+ * <p>Used by controls which snap their domain bounds with a {@link BoundsQuantizer}. After the control previewed its
+ * unsnapped domain bounds, the image is additionally moved and rescaled so that the preview matches the snapped
+ * domain bounds.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class PreviewCompensation {
+
+	private PreviewCompensation() {
+	}
+
+	/**
+	 * <p>Creates the event, which changes the image from displaying <code>displayedDomainBounds</code> in the data area
+	 * to displaying <code>newDomainBounds</code> in the data area.
+	 *
+	 * <p>The image is expected to be located at <code>imagePixelBounds</code>. Usually the viewport bounds are passed in,
+	 * which is exact as long as the image was only moved and not rescaled before.
+	 *
+	 * @param imagePixelBounds the current pixel bounds of the image
+	 * @param dataAreaPixelBounds the pixel bounds of the data area, the viewport bounds if the image does not have a dedicated data area
+	 * @param displayedDomainBounds the domain bounds currently displayed in the data area
+	 * @param newDomainBounds the domain bounds to be displayed in the data area
+	 * @return the event or null, if the image does not have to be changed
+	 */
+	public static ChangeImagePixelBoundsEvent createChangeImagePixelBoundsEvent(Bounds imagePixelBounds, Bounds dataAreaPixelBounds,
+			Bounds displayedDomainBounds, Bounds newDomainBounds) {
+
+		notNull(imagePixelBounds);
+		notNull(dataAreaPixelBounds);
+		notNull(displayedDomainBounds);
+		notNull(newDomainBounds);
+
+		if (displayedDomainBounds.equals(newDomainBounds)) {
+			return null;
+		}
+
+		//the domain bounds of the whole image and their pixel bounds, if the new domain bounds are displayed in the data area
+		Bounds imageDomainBounds = imagePixelBounds.transform(dataAreaPixelBounds, displayedDomainBounds);
+		Bounds newImagePixelBounds = imageDomainBounds.transform(newDomainBounds, dataAreaPixelBounds);
+
+		return new ChangeImagePixelBoundsEvent(
+				Math.round(newImagePixelBounds.getLeft() - imagePixelBounds.getLeft()),
+				Math.round(newImagePixelBounds.getTop() - imagePixelBounds.getTop()),
+				Math.round(newImagePixelBounds.getWidth() - imagePixelBounds.getWidth()),
+				Math.round(newImagePixelBounds.getHeight() - imagePixelBounds.getHeight()));
+	}
+}
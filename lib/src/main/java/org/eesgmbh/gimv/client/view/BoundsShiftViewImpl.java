@@ -18,6 +18,7 @@ package org.eesgmbh.gimv.client.view;
 
 import com.google.gwt.event.dom.client.ClickHandler;
 import com.google.gwt.event.dom.client.HasClickHandlers;
+import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.ui.Widget;
 import org.eesgmbh.gimv.client.presenter.BoundsShiftPresenter.View;
 
@@ -37,7 +38,7 @@ public class BoundsShiftViewImpl implements View {
 		this.widget = widget;
 	}
 
-	public void addClickHandler(ClickHandler clickHandler) {
-		this.widget.addClickHandler(clickHandler);
+	public HandlerRegistration addClickHandler(ClickHandler clickHandler) {
+		return this.widget.addClickHandler(clickHandler);
 	}
 }
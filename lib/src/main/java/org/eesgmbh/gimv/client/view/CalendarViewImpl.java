@@ -18,6 +18,7 @@ package org.eesgmbh.gimv.client.view;
 
 import com.google.gwt.event.logical.shared.ShowRangeHandler;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.datepicker.client.DatePicker;
 import org.eesgmbh.gimv.client.presenter.CalendarPresenter.View;
 
@@ -45,11 +46,11 @@ public class CalendarViewImpl implements View {
 		this.datePicker.setTransientEnabledOnDates(false, date);
 	}
 
-	public void addShowRangeHandler(ShowRangeHandler<Date> showRangeHandler) {
-		this.datePicker.addShowRangeHandler(showRangeHandler);
+	public HandlerRegistration addShowRangeHandler(ShowRangeHandler<Date> showRangeHandler) {
+		return this.datePicker.addShowRangeHandler(showRangeHandler);
 	}
 
-	public void addValueChangeHandler(ValueChangeHandler<Date> valueChangeHandler) {
-		this.datePicker.addValueChangeHandler(valueChangeHandler);
+	public HandlerRegistration addValueChangeHandler(ValueChangeHandler<Date> valueChangeHandler) {
+		return this.datePicker.addValueChangeHandler(valueChangeHandler);
 	}
 }
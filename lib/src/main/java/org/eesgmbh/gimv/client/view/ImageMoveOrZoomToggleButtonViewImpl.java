@@ -17,6 +17,7 @@
 package org.eesgmbh.gimv.client.view;
 
 import com.google.gwt.event.dom.client.ClickHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.ui.ToggleButton;
 import org.eesgmbh.gimv.client.presenter.ImageMoveOrZoomToggleButtonPresenter.View;
 
@@ -41,12 +42,12 @@ public class ImageMoveOrZoomToggleButtonViewImpl implements View {
 		this.zoomToggleButton = zoomToggleButton;
 	}
 
-	public void addMoveClickHandler(ClickHandler clickHandler) {
-		this.moveToggleButton.addClickHandler(clickHandler);
+	public HandlerRegistration addMoveClickHandler(ClickHandler clickHandler) {
+		return this.moveToggleButton.addClickHandler(clickHandler);
 	}
 
-	public void addZoomClickHandler(ClickHandler clickHandler) {
-		this.zoomToggleButton.addClickHandler(clickHandler);
+	public HandlerRegistration addZoomClickHandler(ClickHandler clickHandler) {
+		return this.zoomToggleButton.addClickHandler(clickHandler);
 	}
 
 	public void toggleMove() {
@@ -18,6 +18,7 @@ package org.eesgmbh.gimv.client.view;
 
 import com.google.gwt.event.dom.client.ErrorHandler;
 import com.google.gwt.event.dom.client.LoadHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.DOM;
 import com.google.gwt.user.client.ui.Image;
 import org.eesgmbh.gimv.client.presenter.ImagePresenter.View;
@@ -64,11 +65,11 @@ public class ImageViewImpl implements View {
 		}
 	}
 
-	public void addLoadHandler(LoadHandler loadHandler) {
-		this.image.addLoadHandler(loadHandler);
+	public HandlerRegistration addLoadHandler(LoadHandler loadHandler) {
+		return this.image.addLoadHandler(loadHandler);
 	}
 
-	public void addErrorHandler(ErrorHandler errorHandler) {
-		this.image.addErrorHandler(errorHandler);
+	public HandlerRegistration addErrorHandler(ErrorHandler errorHandler) {
+		return this.image.addErrorHandler(errorHandler);
 	}
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.view;
+
+import com.google.gwt.user.client.ui.AbsolutePanel;
+import com.google.gwt.user.client.ui.Image;
+import org.eesgmbh.gimv.client.presenter.PreviewCompositorPresenter.View;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An implementation of {@link View}.
+ *
+ * <p>The layers are {@link Image} widgets, which are added to the given panel
+ * and reused. The panel must be placed underneath the actual image.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class PreviewCompositorViewImpl implements View {
+
+	private final AbsolutePanel layerPanel;
+
+	private final List<Image> layers;
+	private final List<String> layerUrls;
+	private int visibleLayers;
+
+	public PreviewCompositorViewImpl(AbsolutePanel layerPanel) {
+		this.layerPanel = layerPanel;
+
+		this.layers = new ArrayList<Image>();
+		this.layerUrls = new ArrayList<String>();
+	}
+
+	public void clearLayers() {
+		for (int i = 0; i < visibleLayers; i++) {
+			layers.get(i).setVisible(false);
+		}
+
+		visibleLayers = 0;
+	}
+
+	public void addLayer(String url, int x, int y, int width, int height) {
+		if (width <= 0 || height <= 0) {
+			return;
+		}
+
+		if (visibleLayers == layers.size()) {
+			Image layer = new Image();
+			layerPanel.add(layer, 0, 0);
+
+			layers.add(layer);
+			layerUrls.add(null);
+		}
+
+		Image layer = layers.get(visibleLayers);
+
+		//avoid reloading, if the layer shows the same image as before
+		if (!url.equals(layerUrls.get(visibleLayers))) {
+			layer.setUrl(url);
+			layerUrls.set(visibleLayers, url);
+		}
+
+		layerPanel.setWidgetPosition(layer, x, y);
+		layer.setPixelSize(width, height);
+		layer.setVisible(true);
+
+		visibleLayers++;
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.widgets;
+
+import com.google.gwt.safehtml.shared.SafeHtmlUtils;
+import com.google.gwt.user.client.Timer;
+import com.google.gwt.user.client.ui.HTML;
+import org.eesgmbh.gimv.client.util.Disposable;
+import org.eesgmbh.gimv.client.util.EventDispatchProfiler;
+import org.eesgmbh.gimv.client.util.EventDispatchProfiler.EventStatistics;
+import org.eesgmbh.gimv.client.util.EventDispatchProfiler.HandlerStatistics;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+/**
+ * <p>A small debug overlay, that periodically renders the statistics of an {@link EventDispatchProfiler}
+ * as a table. It has the style name <code>gimv-eventDispatchProfiler</code>, the rows of the event classes
+ * additionally <code>gimv-eventDispatchProfiler-event</code>.
+ *
+ * <p>It is meant for development, it can be added e.g. to a corner of the root panel.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class EventDispatchProfilerWidget extends HTML implements Disposable {
+
+	private final EventDispatchProfiler profiler;
+
+	private final Timer refreshTimer = new Timer() {
+		@Override
+		public void run() {
+			refresh();
+		}
+	};
+
+	/**
+	 * Instantiates the widget and starts refreshing.
+	 *
+	 * @param profiler the profiler, whose statistics are displayed
+	 */
+	public EventDispatchProfilerWidget(EventDispatchProfiler profiler) {
+		this.profiler = Validate.notNull(profiler);
+
+		setStyleName("gimv-eventDispatchProfiler");
+		setRefreshInterval(1000);
+	}
+
+	/**
+	 * Sets the interval, in which the statistics are rendered.
+	 *
+	 * <p>Default is 1000 milliseconds.
+	 *
+	 * @param refreshInterval the interval in milliseconds, must be positive
+	 */
+	public void setRefreshInterval(int refreshInterval) {
+		Validate.isTrue(refreshInterval > 0);
+
+		refreshTimer.scheduleRepeating(refreshInterval);
+		refresh();
+	}
+
+	/**
+	 * Renders the current statistics.
+	 */
+	public void refresh() {
+		StringBuilder html = new StringBuilder("<table><tr><th>Event / Handler</th><th>Count</th><th>Rate/s</th><th>Total ms</th><th>Max ms</th></tr>");
+
+		for (EventStatistics event : profiler.getEventStatistics()) {
+			html.append("<tr class=\"gimv-eventDispatchProfiler-event\"><td>").append(SafeHtmlUtils.htmlEscape(event.getType())).append("</td>");
+			html.append("<td>").append(event.getCount()).append("</td>");
+			html.append("<td>").append(format(event.getRatePerSecond())).append("</td><td></td><td></td></tr>");
+
+			for (HandlerStatistics handler : event.getHandlerStatistics()) {
+				html.append("<tr><td>&nbsp;&nbsp;").append(SafeHtmlUtils.htmlEscape(handler.getHandler())).append("</td>");
+				html.append("<td>").append(handler.getCount()).append("</td><td></td>");
+				html.append("<td>").append(format(handler.getTotalMillis())).append("</td>");
+				html.append("<td>").append(format(handler.getMaxMillis())).append("</td></tr>");
+			}
+		}
+
+		setHTML(html.append("</table>").toString());
+	}
+
+	public void dispose() {
+		refreshTimer.cancel();
+	}
+
+	private String format(double value) {
+		return String.valueOf(Math.round(value * 10) / 10d);
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.widgets;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.dom.client.Element;
+
+/**
+ * Listens to Pointer Events on an element and passes them to a {@link Callback}.
+ *
+ * <p>The pointer is captured on pointer down, so that the element receives all subsequent events of the pointer, even
+ * if it leaves the element. Pointer move events are listened to passively and are expanded into their coalesced
+ * events, so that no intermediate position is lost.
+ *
+ * <p>All coordinates are passed relative to the element and relative to the browser window (client coordinates).
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+class PointerEventListener {
+
+	/**
+	 * Receives the pointer events.
+	 */
+	interface Callback {
+		void onPointerDown(int pointerId, double x, double y, double clientX, double clientY, boolean shiftKey);
+
+		void onPointerMove(int pointerId, double x, double y, double clientX, double clientY);
+
+		void onPointerUp(int pointerId, double x, double y, double clientX, double clientY);
+	}
+
+	private final Element element;
+	private final Callback callback;
+
+	private JavaScriptObject listeners;
+
+	PointerEventListener(Element element, Callback callback) {
+		this.element = element;
+		this.callback = callback;
+	}
+
+	/**
+	 * @return true, if the browser supports Pointer Events
+	 */
+	static native boolean isSupported() /*-{
+		return !!$wnd.PointerEvent;
+	}-*/;
+
+	void attach() {
+		if (listeners == null) {
+			listeners = addListeners(element, callback);
+		}
+	}
+
+	void detach() {
+		if (listeners != null) {
+			removeListeners(element, listeners);
+			listeners = null;
+		}
+	}
+
+	private static native JavaScriptObject addListeners(Element element, Callback callback) /*-{
+		var position = function(e) {
+			var rect = element.getBoundingClientRect();
+			return [e.clientX - rect.left, e.clientY - rect.top];
+		};
+
+		var down = $entry(function(e) {
+			//only the primary mouse button
+			if (e.pointerType == 'mouse' && e.button != 0) {
+				return;
+			}
+
+			if (element.setPointerCapture) {
+				element.setPointerCapture(e.pointerId);
+			}
+
+			var p = position(e);
+			callback.@org.eesgmbh.gimv.client.widgets.PointerEventListener.Callback::onPointerDown(IDDDDZ)(e.pointerId, p[0], p[1], e.clientX, e.clientY, e.shiftKey);
+
+			//suppresses native image dragging and the compatibility mouse events
+			e.preventDefault();
+		});
+
+		var move = $entry(function(e) {
+			var events = e.getCoalescedEvents ? e.getCoalescedEvents() : null;
+			if (!events || events.length == 0) {
+				events = [e];
+			}
+
+			for (var i = 0; i < events.length; i++) {
+				var p = position(events[i]);
+				callback.@org.eesgmbh.gimv.client.widgets.PointerEventListener.Callback::onPointerMove(IDDDD)(e.pointerId, p[0], p[1], events[i].clientX, events[i].clientY);
+			}
+		});
+
+		var up = $entry(function(e) {
+			if (element.hasPointerCapture && element.hasPointerCapture(e.pointerId)) {
+				element.releasePointerCapture(e.pointerId);
+			}
+
+			var p = position(e);
+			callback.@org.eesgmbh.gimv.client.widgets.PointerEventListener.Callback::onPointerUp(IDDDD)(e.pointerId, p[0], p[1], e.clientX, e.clientY);
+		});
+
+		element.addEventListener('pointerdown', down, false);
+		element.addEventListener('pointermove', move, {passive: true});
+		element.addEventListener('pointerup', up, false);
+		element.addEventListener('pointercancel', up, false);
+
+		return {down: down, move: move, up: up};
+	}-*/;
+
+	private static native void removeListeners(Element element, JavaScriptObject listeners) /*-{
+		element.removeEventListener('pointerdown', listeners.down, false);
+		element.removeEventListener('pointermove', listeners.move, {passive: true});
+		element.removeEventListener('pointerup', listeners.up, false);
+		element.removeEventListener('pointercancel', listeners.up, false);
+	}-*/;
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.widgets;
+
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+import com.google.gwt.dom.client.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates the pointer events of a {@link PointerEventListener} into drag and pinch gestures.
+ *
+ * <p>A single pointer drags. Its moves are collected and dispatched at most once per animation frame, with
+ * the last position winning. A second pointer finishes the drag and starts a pinch, which is dispatched as the
+ * change of the distance between both pointers since the last frame.
+ *
+ * <p>Pointer moves arrive at a high rate, the positions are therefore kept in mutable instances, which are reused
+ * for later pointers. Tracking a gesture does not create any objects.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+class PointerGestureTracker implements PointerEventListener.Callback, AnimationCallback {
+
+	/**
+	 * Receives the gestures.
+	 */
+	interface Callback {
+		void onDragStart(int x, int y, int clientX, int clientY, boolean shiftKey);
+
+		void onDrag(int x, int y, int clientX, int clientY);
+
+		void onDragFinish(int x, int y);
+
+		void onPinch(double centerX, double centerY, double scale);
+	}
+
+	private final Element element;
+	private final Callback callback;
+
+	//the pointers in the order they went down
+	private final List<PointerPosition> pointerPositions = new ArrayList<PointerPosition>();
+	private final List<PointerPosition> unusedPointerPositions = new ArrayList<PointerPosition>();
+	private boolean dragging = false;
+	private int dragX, dragY;
+	private boolean animationFrameRequested = false;
+	private double pinchDistance;
+
+	PointerGestureTracker(Element element, Callback callback) {
+		this.element = element;
+		this.callback = callback;
+	}
+
+	public void onPointerDown(int pointerId, double x, double y, double clientX, double clientY, boolean shiftKey) {
+		PointerPosition position = findPointerPosition(pointerId);
+
+		if (position == null) {
+			position = unusedPointerPositions.isEmpty() ? new PointerPosition() : unusedPointerPositions.remove(unusedPointerPositions.size() - 1);
+			position.pointerId = pointerId;
+
+			pointerPositions.add(position);
+		}
+
+		position.set(x, y, clientX, clientY);
+
+		if (pointerPositions.size() == 1) {
+			dragging = true;
+			dragX = (int) x;
+			dragY = (int) y;
+
+			callback.onDragStart((int) x, (int) y, (int) clientX, (int) clientY, shiftKey);
+
+		} else if (pointerPositions.size() == 2) {
+			//a second pointer turns the drag into a pinch
+			if (dragging) {
+				PointerPosition first = pointerPositions.get(0);
+				finishDrag((int) first.x, (int) first.y);
+			}
+
+			pinchDistance = computePinchDistance();
+		}
+	}
+
+	public void onPointerMove(int pointerId, double x, double y, double clientX, double clientY) {
+		PointerPosition position = findPointerPosition(pointerId);
+
+		if (position != null) {
+			//the last coalesced position wins, the drag offset is computed from the last dispatched position
+			position.set(x, y, clientX, clientY);
+
+			if (!animationFrameRequested) {
+				animationFrameRequested = true;
+				requestAnimationFrame(this);
+			}
+		}
+	}
+
+	public void onPointerUp(int pointerId, double x, double y, double clientX, double clientY) {
+		PointerPosition position = findPointerPosition(pointerId);
+
+		if (position != null) {
+			position.set(x, y, clientX, clientY);
+
+			//dispatch pending moves first
+			execute(0);
+
+			if (pointerPositions.size() == 1 && dragging) {
+				finishDrag((int) x, (int) y);
+			}
+
+			pointerPositions.remove(position);
+			unusedPointerPositions.add(position);
+		}
+	}
+
+	public void execute(double timestamp) {
+		animationFrameRequested = false;
+
+		if (pointerPositions.size() == 1 && dragging) {
+			PointerPosition position = pointerPositions.get(0);
+
+			if ((int) position.x != dragX || (int) position.y != dragY) {
+				dragX = (int) position.x;
+				dragY = (int) position.y;
+
+				callback.onDrag(dragX, dragY, (int) position.clientX, (int) position.clientY);
+			}
+
+		} else if (pointerPositions.size() == 2) {
+			double distance = computePinchDistance();
+
+			if (pinchDistance > 0 && distance > 0 && distance != pinchDistance) {
+				double centerX = (pointerPositions.get(0).x + pointerPositions.get(1).x) / 2;
+				double centerY = (pointerPositions.get(0).y + pointerPositions.get(1).y) / 2;
+
+				callback.onPinch(centerX, centerY, distance / pinchDistance);
+			}
+
+			pinchDistance = distance;
+		}
+	}
+
+	/**
+	 * Forgets all pointers, a pending animation frame dispatches nothing.
+	 */
+	void reset() {
+		for (int i = 0; i < pointerPositions.size(); i++) {
+			unusedPointerPositions.add(pointerPositions.get(i));
+		}
+
+		pointerPositions.clear();
+		dragging = false;
+	}
+
+	/**
+	 * Just for testing
+	 */
+	boolean isDragging() {
+		return dragging;
+	}
+
+	void requestAnimationFrame(AnimationCallback animationCallback) {
+		AnimationScheduler.get().requestAnimationFrame(animationCallback, element);
+	}
+
+	private void finishDrag(int x, int y) {
+		dragging = false;
+
+		callback.onDragFinish(x, y);
+	}
+
+	private double computePinchDistance() {
+		double dx = pointerPositions.get(0).x - pointerPositions.get(1).x;
+		double dy = pointerPositions.get(0).y - pointerPositions.get(1).y;
+
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+
+	private PointerPosition findPointerPosition(int pointerId) {
+		for (int i = 0; i < pointerPositions.size(); i++) {
+			if (pointerPositions.get(i).pointerId == pointerId) {
+				return pointerPositions.get(i);
+			}
+		}
+
+		return null;
+	}
+
+	private static class PointerPosition {
+		private int pointerId;
+		private double x, y;
+		private double clientX, clientY;
+
+		private void set(double x, double y, double clientX, double clientY) {
+			this.x = x;
+			this.y = y;
+			this.clientX = clientX;
+			this.clientY = clientY;
+		}
+	}
+}
@@ -23,6 +23,8 @@ import com.google.gwt.user.client.ui.AbsolutePanel;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.gwt.user.client.ui.impl.FocusImpl;
 import org.eesgmbh.gimv.client.event.*;
+import org.eesgmbh.gimv.client.util.Disposable;
+import org.eesgmbh.gimv.client.util.HandlerRegistrations;
 import org.eesgmbh.gimv.shared.util.Bounds;
 import org.eesgmbh.gimv.shared.util.Validate;
 
@@ -33,6 +35,10 @@ import org.eesgmbh.gimv.shared.util.Validate;
  * is translated into semantic {@link ViewportDragInProgressEvent} and {@link ViewportDragFinishedEventHandler}
  * events.
  *
+ * <p>Alternatively, dragging can be captured with Pointer Events ({@link #setUsePointerEvents(boolean)}), which
+ * supports touch devices. Pointer moves are dispatched at most once per animation frame. Moving two pointers
+ * (pinching) is translated into {@link ViewportPinchZoomEvent}.
+ *
  * <p>For most Gimv components, it is required to define a viewport widget and
  * add the actual image to this viewport. There must not be any margin, padding or other
  * kinds of offsets between the viewport and the contained image.
@@ -54,14 +60,16 @@ import org.eesgmbh.gimv.shared.util.Validate;
  * 	<li> {@link StateChangeEvent} - fired when the shift key is pressed, during left mouse down and move (drag)
  * 	<li> {@link ViewportDragInProgressEvent} - fired, while the user moves the mouse over the image and presses down the left mouse button
  * 	<li> {@link ViewportDragFinishedEvent} - fired, when the user finished dragging (releases the mouse button)
+ * 	<li> {@link ViewportPinchZoomEvent} - fired, while the user moves two pointers (only with Pointer Events)
  * </ul>
  *
  * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
  */
-public class Viewport extends AbsolutePanel {
+public class Viewport extends AbsolutePanel implements Disposable {
 
 	private final ViewportEventHandler eventHandler;
 	private HandlerManager handlerManager;
+	private final HandlerRegistrations handlerRegistrations = new HandlerRegistrations();
 
 	private Bounds currentDataAreaBounds = null;
 
@@ -77,6 +85,9 @@ public class Viewport extends AbsolutePanel {
 
 	private boolean zoom = false;
 
+	private final PointerGestureTracker pointerGestureTracker;
+	private PointerEventListener pointerEventListener;
+
 	/**
 	 * No arg constructor. Should only be used if the viewport is instantiated within a
 	 * ui binder context.
@@ -87,11 +98,12 @@ public class Viewport extends AbsolutePanel {
 	 */
 	public Viewport() {
 		eventHandler = new ViewportEventHandler();
-		addDomHandler(eventHandler, MouseDownEvent.getType());
-		addDomHandler(eventHandler, MouseUpEvent.getType());
-		addDomHandler(eventHandler, MouseMoveEvent.getType());
-		addDomHandler(eventHandler, MouseOutEvent.getType());
-		addDomHandler(eventHandler, MouseWheelEvent.getType());
+		pointerGestureTracker = new PointerGestureTracker(getElement(), eventHandler);
+		handlerRegistrations.add(addDomHandler(eventHandler, MouseDownEvent.getType()));
+		handlerRegistrations.add(addDomHandler(eventHandler, MouseUpEvent.getType()));
+		handlerRegistrations.add(addDomHandler(eventHandler, MouseMoveEvent.getType()));
+		handlerRegistrations.add(addDomHandler(eventHandler, MouseOutEvent.getType()));
+		handlerRegistrations.add(addDomHandler(eventHandler, MouseWheelEvent.getType()));
 
 		setEnableZoomWhenShiftkeyPressed(false);
 
@@ -120,8 +132,8 @@ public class Viewport extends AbsolutePanel {
 	public void setHandlerManager(HandlerManager handlerManager) {
 		this.handlerManager = Validate.notNull(handlerManager, "handlerManager must not be null");
 
-		this.handlerManager.addHandler(StateChangeEvent.TYPE, eventHandler);
-		this.handlerManager.addHandler(SetDataAreaPixelBoundsEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, StateChangeEvent.TYPE, eventHandler);
+		handlerRegistrations.add(handlerManager, SetDataAreaPixelBoundsEvent.TYPE, eventHandler);
 	}
 
 	/**
@@ -139,6 +151,45 @@ public class Viewport extends AbsolutePanel {
 		this.enableZoomWhenShiftkeyPressed = enableZoomWhenShiftkeyPressed;
 	}
 
+	/**
+	 * <p>If set to true, dragging is captured with Pointer Events instead of mouse events. This
+	 * supports touch and pen input, including pinch zoom with two pointers.
+	 *
+	 * <p>Pointer moves are collected with their coalesced events and dispatched once per animation frame.
+	 * Falls back to mouse events, if the browser does not support Pointer Events.
+	 *
+	 * <p>Default is false.
+	 *
+	 * @param usePointerEvents use them, or not
+	 */
+	public void setUsePointerEvents(boolean usePointerEvents) {
+		if (usePointerEvents && pointerEventListener == null && PointerEventListener.isSupported()) {
+			pointerEventListener = new PointerEventListener(getElement(), pointerGestureTracker);
+			pointerEventListener.attach();
+
+			//the browser must not pan or zoom the page on touch input
+			getElement().getStyle().setProperty("touchAction", "none");
+		} else if (!usePointerEvents && pointerEventListener != null) {
+			pointerEventListener.detach();
+			pointerEventListener = null;
+
+			getElement().getStyle().clearProperty("touchAction");
+		}
+	}
+
+	/**
+	 * Removes all handlers, including the ones capturing mouse and pointer input. The viewport
+	 * itself is not removed from its parent.
+	 */
+	public void dispose() {
+		handlerRegistrations.removeHandler();
+		setUsePointerEvents(false);
+
+		//a pending animation frame dispatches nothing
+		pointerGestureTracker.reset();
+		mouseDragging = false;
+	}
+
 	/**
 	 * Delegates to {@link AbsolutePanel#add(Widget, int, int)} with height and with set to zero.
 	 *
@@ -167,50 +218,83 @@ public class Viewport extends AbsolutePanel {
 	 */
 
 	private void onMouseDown(MouseDownEvent event) {
-		mouseDragging = true;
-
-		startDragX = event.getX();
-		startDragY = event.getY();
-		startDragAbsX = event.getClientX();
-		startDragAbsY = event.getClientY();
+		if (pointerEventListener != null) {
+			return;
+		}
 
-		currentDragX = event.getX();
-		currentDragY = event.getY();
+		startDrag(event.getX(), event.getY(), event.getClientX(), event.getClientY(), event.getNativeEvent().getShiftKey());
 
 		//so the mouse cursor can be moved outside the viewport without loosing mouse event capturing
 		DOM.setCapture(getElement());
 
+		//otherwise the browser will drag the image natively, this would interfere
+		event.preventDefault();
+	}
+
+	private void onMouseUp(MouseUpEvent event) {
+		if (pointerEventListener != null) {
+			return;
+		}
+
+		DOM.releaseCapture(getElement());
+
+		finishDrag(event.getX(), event.getY());
+	}
+
+	private void onMouseMove(MouseMoveEvent event) {
+		if (mouseDragging) {
+			if (pointerEventListener == null) {
+				drag(event.getX(), event.getY(), event.getClientX(), event.getClientY());
+			}
+		} else {
+			handlerManager.fireEvent(new ViewportMouseMoveEvent(event));
+		}
+	}
+
+	private void startDrag(int x, int y, int clientX, int clientY, boolean shiftKey) {
+		mouseDragging = true;
+
+		startDragX = x;
+		startDragY = y;
+		startDragAbsX = clientX;
+		startDragAbsY = clientY;
+
+		currentDragX = x;
+		currentDragY = y;
+
 		/*
 		 * Carry out the zoom state change if the viewport is configured to to do so, if the shift
 		 * key is pressed and only if zoom is not the current default already
 		 */
-		if (enableZoomWhenShiftkeyPressed && event.getNativeEvent().getShiftKey() && !zoom) {
+		if (enableZoomWhenShiftkeyPressed && shiftKey && !zoom) {
 			handlerManager.fireEvent(StateChangeEvent.createZoom());
 
 			zoomEnabledWhenDragWasInitiated  = true;
 		}
 
-		//otherwise the browser will drag the image natively, this would interfere
-		event.preventDefault();
-
 		//as all defaults were prevented, the element also did not get the focus in order to receive keyboard events, correct this here
 		focus();
 	}
 
-	private void onMouseUp(MouseUpEvent event) {
-		mouseDragging = false;
+	private void drag(int x, int y, int clientX, int clientY) {
+		handlerManager.fireEvent(new ViewportDragInProgressEvent(x - currentDragX, y - currentDragY, new Bounds(startDragX, currentDragX, startDragY, currentDragY), new Bounds(startDragAbsX, clientX, startDragAbsY, clientY)));
 
-		DOM.releaseCapture(getElement());
+		currentDragX = x;
+		currentDragY = y;
+	}
+
+	private void finishDrag(int x, int y) {
+		mouseDragging = false;
 
 		Bounds dataBounds = getDataAreaBounds();
 
 		Bounds proportionalBounds = new Bounds(
-				(startDragX - dataBounds.getLeft()) / dataBounds.getAbsWidth(), (event.getX() - dataBounds.getLeft()) / dataBounds.getAbsWidth(),
-				(startDragY - dataBounds.getTop()) / dataBounds.getAbsHeight(), (event.getY() - dataBounds.getTop()) / dataBounds.getAbsHeight()
+				(startDragX - dataBounds.getLeft()) / dataBounds.getAbsWidth(), (x - dataBounds.getLeft()) / dataBounds.getAbsWidth(),
+				(startDragY - dataBounds.getTop()) / dataBounds.getAbsHeight(), (y - dataBounds.getTop()) / dataBounds.getAbsHeight()
 		);
 
 		Bounds absoluteBounds = new Bounds(
-				startDragX, event.getX(), startDragY, event.getY()
+				startDragX, x, startDragY, y
 		);
 
 		handlerManager.fireEvent(new ViewportDragFinishedEvent(proportionalBounds,  absoluteBounds));
@@ -221,15 +305,12 @@ public class Viewport extends AbsolutePanel {
 		}
 	}
 
-	private void onMouseMove(MouseMoveEvent event) {
-		if (mouseDragging) {
-			handlerManager.fireEvent(new ViewportDragInProgressEvent(event.getX() - currentDragX, event.getY() - currentDragY, new Bounds(startDragX, currentDragX, startDragY, currentDragY), new Bounds(startDragAbsX, event.getClientX(), startDragAbsY, event.getClientY())));
+	/*
+	 * Pointer event handling, only if enabled
+	 */
 
-			currentDragX = event.getX();
-			currentDragY = event.getY();
-		} else {
-			handlerManager.fireEvent(new ViewportMouseMoveEvent(event));
-		}
+	private void onPinch(double centerX, double centerY, double scale) {
+		handlerManager.fireEvent(new ViewportPinchZoomEvent(centerX, centerY, scale));
 	}
 
 	private void onMouseOut(MouseOutEvent event) {
@@ -256,7 +337,8 @@ public class Viewport extends AbsolutePanel {
 		currentDataAreaBounds = event.getBounds();
 	}
 
-	private class ViewportEventHandler implements MouseDownHandler, MouseUpHandler, MouseMoveHandler, MouseOutHandler, MouseWheelHandler, StateChangeEventHandler, SetDataAreaPixelBoundsEventHandler {
+	private class ViewportEventHandler implements MouseDownHandler, MouseUpHandler, MouseMoveHandler, MouseOutHandler, MouseWheelHandler, StateChangeEventHandler, SetDataAreaPixelBoundsEventHandler,
+			PointerGestureTracker.Callback {
 		public void onMouseDown(MouseDownEvent event) {
 			Viewport.this.onMouseDown(event);
 		}
@@ -284,6 +366,22 @@ public class Viewport extends AbsolutePanel {
 		public void onSetDataAreaPixelBounds(SetDataAreaPixelBoundsEvent event) {
 			Viewport.this.onSetDataAreaBounds(event);
 		}
+
+		public void onDragStart(int x, int y, int clientX, int clientY, boolean shiftKey) {
+			Viewport.this.startDrag(x, y, clientX, clientY, shiftKey);
+		}
+
+		public void onDrag(int x, int y, int clientX, int clientY) {
+			Viewport.this.drag(x, y, clientX, clientY);
+		}
+
+		public void onDragFinish(int x, int y) {
+			Viewport.this.finishDrag(x, y);
+		}
+
+		public void onPinch(double centerX, double centerY, double scale) {
+			Viewport.this.onPinch(centerX, centerY, scale);
+		}
 	}
 
 	/*
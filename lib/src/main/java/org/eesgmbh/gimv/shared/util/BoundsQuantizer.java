@@ -0,0 +1,152 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.shared.util;
+
+/**
+ * <p>Snaps horizontal domain bounds to discrete values, so that identical views are requested
+ * across users and sessions and caches for rendered images become effective.
+ *
+ * <p>The width is snapped to a zoom ladder <code>baseWidth * zoomRatio^n</code>. The zoom ratio should
+ * match the zoom steps of the application, e.g. 1.2 for a mouse wheel zoom factor of 0.2. The left edge is
+ * snapped to a grid, which divides the snapped width into {@link #setGridDivisions(int)} steps.
+ *
+ * <p>Passing in the previous bounds with {@link #quantize(Bounds, Bounds)} makes sure
+ * that small shifts or zooms are not undone by the snapping. A shift moves the left edge
+ * by at least one grid step and a zoom moves the width by at least one ladder step.
+ *
+ * <p>The vertical bounds are left unchanged, as they are usually derived from the data.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class BoundsQuantizer {
+
+	//relative tolerance for comparing widths and grid positions
+	private static final double EPSILON = 1e-6;
+
+	private final double baseWidth;
+	private final double zoomRatio;
+
+	private int gridDivisions;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param baseWidth the width of the zoom ladder's rung zero in domain units, e.g. a day in milliseconds
+	 * @param zoomRatio the ratio between neighbouring rungs of the zoom ladder, must be greater than 1
+	 */
+	public BoundsQuantizer(double baseWidth, double zoomRatio) {
+		this.baseWidth = Validate.isPositive(baseWidth);
+		this.zoomRatio = Validate.isGreaterThan(zoomRatio, 1);
+
+		setGridDivisions(100);
+	}
+
+	/**
+	 * Sets the number of grid steps within the snapped width. The left edge
+	 * is snapped to multiples of <code>width / gridDivisions</code>.
+	 *
+	 * <p>Default is 100.
+	 *
+	 * @param gridDivisions at least 1
+	 */
+	public void setGridDivisions(int gridDivisions) {
+		this.gridDivisions = (int) Validate.isPositive(gridDivisions);
+	}
+
+	/**
+	 * Snaps the bounds to the nearest rung of the zoom ladder, keeping the center, and the
+	 * left edge to the nearest grid position.
+	 *
+	 * @param bounds the bounds to be snapped
+	 * @return the snapped bounds
+	 */
+	public Bounds quantize(Bounds bounds) {
+		return quantize(null, bounds);
+	}
+
+	/**
+	 * Snaps the bounds like {@link #quantize(Bounds)}, but makes sure that the change from the previous
+	 * bounds is not undone.
+	 *
+	 * <p>If the width did not change (a shift), the left edge is snapped to the next grid position in the direction
+	 * of the shift. Otherwise (a zoom), the width is snapped to the next rung in the direction of the zoom.
+	 *
+	 * @param previous the bounds before the shift or zoom, might be null
+	 * @param bounds the bounds to be snapped
+	 * @return the snapped bounds
+	 */
+	public Bounds quantize(Bounds previous, Bounds bounds) {
+		Validate.notNull(bounds);
+
+		if (!bounds.isHorizontalBoundsDefined() || bounds.getWidth() == 0) {
+			return bounds;
+		}
+
+		boolean hasPrevious = previous != null && previous.isHorizontalBoundsDefined() && previous.getWidth() != 0;
+
+		double width = bounds.getAbsWidth();
+		double sign = bounds.getWidth() > 0 ? 1 : -1;
+
+		boolean shifted = hasPrevious && Math.abs(width - previous.getAbsWidth()) <= previous.getAbsWidth() * EPSILON;
+
+		int rung = findRung(width);
+
+		//a zoom must not be undone by snapping back to the rung of the previous bounds
+		if (hasPrevious && !shifted) {
+			double previousWidth = previous.getAbsWidth();
+
+			if (width < previousWidth && getRungWidth(rung) >= previousWidth * (1 - EPSILON)) {
+				rung--;
+			} else if (width > previousWidth && getRungWidth(rung) <= previousWidth * (1 + EPSILON)) {
+				rung++;
+			}
+		}
+
+		double quantizedWidth = getRungWidth(rung);
+		double gridStep = quantizedWidth / gridDivisions;
+
+		double left;
+		if (shifted) {
+			left = bounds.getLeft();
+		} else {
+			left = bounds.getHorizontalCenter() - sign * quantizedWidth / 2;
+		}
+
+		double gridPosition = left / gridStep;
+		double snappedGridPosition;
+
+		if (shifted && bounds.getLeft() > previous.getLeft()) {
+			snappedGridPosition = Math.ceil(gridPosition - EPSILON);
+		} else if (shifted && bounds.getLeft() < previous.getLeft()) {
+			snappedGridPosition = Math.floor(gridPosition + EPSILON);
+		} else {
+			snappedGridPosition = Math.round(gridPosition);
+		}
+
+		double quantizedLeft = snappedGridPosition * gridStep;
+
+		return bounds.setLeft(quantizedLeft).setRight(quantizedLeft + sign * quantizedWidth);
+	}
+
+	private int findRung(double width) {
+		return (int) Math.round(Math.log(width / baseWidth) / Math.log(zoomRatio));
+	}
+
+	private double getRungWidth(int rung) {
+		return baseWidth * Math.pow(zoomRatio, rung);
+	}
+}
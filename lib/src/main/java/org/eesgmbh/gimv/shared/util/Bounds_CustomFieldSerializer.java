@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.shared.util;
+
+import com.google.gwt.user.client.rpc.CustomFieldSerializer;
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.client.rpc.SerializationStreamReader;
+import com.google.gwt.user.client.rpc.SerializationStreamWriter;
+
+/**
+ * <p>A GWT RPC field serializer for {@link Bounds}, picked up by naming convention.
+ *
+ * <p>Instead of four boxed values and the cached centers, a bit mask of the defined bounds is written
+ * followed by their values. The centers are computed again on demand.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public final class Bounds_CustomFieldSerializer extends CustomFieldSerializer<Bounds> {
+
+	private static final int LEFT = 1;
+	private static final int RIGHT = 2;
+	private static final int TOP = 4;
+	private static final int BOTTOM = 8;
+
+	public static void serialize(SerializationStreamWriter writer, Bounds instance) throws SerializationException {
+		int definedBounds = (instance.getLeft() != null ? LEFT : 0)
+				| (instance.getRight() != null ? RIGHT : 0)
+				| (instance.getTop() != null ? TOP : 0)
+				| (instance.getBottom() != null ? BOTTOM : 0);
+
+		writer.writeInt(definedBounds);
+
+		writeIfDefined(writer, instance.getLeft());
+		writeIfDefined(writer, instance.getRight());
+		writeIfDefined(writer, instance.getTop());
+		writeIfDefined(writer, instance.getBottom());
+	}
+
+	public static Bounds instantiate(SerializationStreamReader reader) throws SerializationException {
+		int definedBounds = reader.readInt();
+
+		Double left = (definedBounds & LEFT) != 0 ? reader.readDouble() : null;
+		Double right = (definedBounds & RIGHT) != 0 ? reader.readDouble() : null;
+		Double top = (definedBounds & TOP) != 0 ? reader.readDouble() : null;
+		Double bottom = (definedBounds & BOTTOM) != 0 ? reader.readDouble() : null;
+
+		return new Bounds(left, right, top, bottom);
+	}
+
+	public static void deserialize(SerializationStreamReader reader, Bounds instance) throws SerializationException {
+		//immutable, completely read in instantiate
+	}
+
+	@Override
+	public boolean hasCustomInstantiateInstance() {
+		return true;
+	}
+
+	@Override
+	public Bounds instantiateInstance(SerializationStreamReader reader) throws SerializationException {
+		return instantiate(reader);
+	}
+
+	@Override
+	public void deserializeInstance(SerializationStreamReader reader, Bounds instance) throws SerializationException {
+		deserialize(reader, instance);
+	}
+
+	@Override
+	public void serializeInstance(SerializationStreamWriter writer, Bounds instance) throws SerializationException {
+		serialize(writer, instance);
+	}
+
+	private static void writeIfDefined(SerializationStreamWriter writer, Double value) throws SerializationException {
+		if (value != null) {
+			writer.writeDouble(value);
+		}
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.eesgmbh.gimv.shared.util;
+
+/**
+ * <p>Columns of equal size, decoded from a base64 string of little endian 64 bit floats
+ * (see {@link ImageEntityBatch_CustomFieldSerializer#encode(double[][], int)}).
+ *
+ * <p>This is the version for the JVM. The browser uses a super-source version, that decodes the string
+ * with a typed array and reads the columns directly from it.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+final class Float64Columns {
+
+	private final byte[] bytes;
+	private final int size;
+
+	/**
+	 * @param base64 the encoded columns, one column after the other
+	 * @param size the number of values per column
+	 */
+	Float64Columns(String base64, int size) {
+		this.size = size;
+
+		int padding = base64.endsWith("==") ? 2 : base64.endsWith("=") ? 1 : 0;
+		bytes = new byte[base64.length() / 4 * 3 - padding];
+
+		int b = 0;
+		for (int i = 0; i < base64.length(); i += 4) {
+			int n = indexOf(base64.charAt(i)) << 18
+					| indexOf(base64.charAt(i + 1)) << 12
+					| (base64.charAt(i + 2) != '=' ? indexOf(base64.charAt(i + 2)) << 6 : 0)
+					| (base64.charAt(i + 3) != '=' ? indexOf(base64.charAt(i + 3)) : 0);
+
+			for (int shift = 16; shift >= 0 && b < bytes.length; shift -= 8) {
+				bytes[b++] = (byte) (n >>> shift);
+			}
+		}
+	}
+
+	double[] getColumn(int column) {
+		double[] values = new double[size];
+		for (int i = 0; i < size; i++) {
+			values[i] = get(column * size + i);
+		}
+
+		return values;
+	}
+
+	int[] getIntColumn(int column) {
+		int[] values = new int[size];
+		for (int i = 0; i < size; i++) {
+			values[i] = (int) get(column * size + i);
+		}
+
+		return values;
+	}
+
+	private double get(int index) {
+		long bits = 0;
+		for (int j = 7; j >= 0; j--) {
+			bits = bits << 8 | (bytes[index * 8 + j] & 0xff);
+		}
+
+		return Double.longBitsToDouble(bits);
+	}
+
+	private static int indexOf(char c) {
+		return ImageEntityBatch_CustomFieldSerializer.BASE64_ALPHABET.indexOf(c);
+	}
+}
@@ -41,6 +41,8 @@ import java.util.HashMap;
  * on the entity.<br>
  * Any number of application specific Tooltips can be defined here, who in turn will require application specific tooltip presenters.
  *
+ * <p>For many entities, e.g. the data points of a dense time series, an {@link ImageEntityBatch} is considerably more compact.
+ *
  * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
  *
  * TODO: consider using enums instead of Strings as keys
@@ -0,0 +1,504 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.eesgmbh.gimv.shared.util;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>A compact, column oriented container for many {@link ImageEntity} instances, e.g. all data points
+ * of a dense time series.
+ *
+ * <p>Instead of one object with a {@link Bounds} and a map per entity, the bounds are kept in parallel primitive
+ * arrays, the group ids are stored once and referenced by index and the html fragments are kept in one
+ * table per fragment key, indexed by entity. This reduces both the GWT RPC payload and the heap used
+ * in the browser considerably.
+ *
+ * <p>Optionally, the batch carries the domain values (x and y) of the entities instead of html fragments, the tooltip html
+ * is then produced on the client on demand, e.g. with a {@code TooltipTemplate} per group.
+ *
+ * <p>Entities are appended with {@link #add(double, double, double, double, String)}, which returns the index of
+ * the entity for accessing it subsequently. {@link #trimToSize()} should be invoked before sending the batch
+ * over the wire, if the initial capacity was not exact.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class ImageEntityBatch implements IsSerializable {
+
+	private int size;
+
+	/*
+	 * bounds in pixel coordinates, indexed by entity
+	 */
+
+	private double[] lefts;
+	private double[] rights;
+	private double[] tops;
+	private double[] bottoms;
+
+	/**
+	 * the distinct group ids
+	 */
+	private String[] groupIds;
+
+	/**
+	 * index into {@link #groupIds}, indexed by entity
+	 */
+	private int[] groupIndices;
+
+	/*
+	 * domain values, indexed by entity, null if not used
+	 */
+
+	private double[] xValues;
+	private double[] yValues;
+
+	/**
+	 * the distinct html fragment keys, e.g. {@link ImageEntity#HOVER_HTML_FRAGMENT_KEY}
+	 */
+	private String[] fragmentKeys;
+
+	/**
+	 * one table per fragment key, indexed by entity, might contain null
+	 */
+	private String[][] fragments;
+
+	@SuppressWarnings("unused")
+	private ImageEntityBatch() {
+	}
+
+	/**
+	 * Creates an empty batch.
+	 *
+	 * @param capacity the expected number of entities, the batch grows if necessary
+	 */
+	public ImageEntityBatch(int capacity) {
+		Validate.isTrue(capacity >= 0, "capacity must not be negative");
+
+		lefts = new double[capacity];
+		rights = new double[capacity];
+		tops = new double[capacity];
+		bottoms = new double[capacity];
+		groupIndices = new int[capacity];
+		groupIds = new String[0];
+		fragmentKeys = new String[0];
+		fragments = new String[0][];
+	}
+
+	/**
+	 * Converts image entities into a batch. Only html fragments with {@link String} keys are taken over.
+	 *
+	 * @param imageEntities the image entities
+	 * @return a new batch containing all image entities in the same order
+	 */
+	public static ImageEntityBatch fromImageEntities(List<ImageEntity> imageEntities) {
+		ImageEntityBatch batch = new ImageEntityBatch(imageEntities.size());
+
+		for (ImageEntity imageEntity : imageEntities) {
+			Bounds bounds = imageEntity.getBounds();
+			int index = batch.add(bounds.getLeft(), bounds.getRight(), bounds.getTop(), bounds.getBottom(), imageEntity.getGroupId());
+
+			for (Map.Entry<Object, String> fragment : imageEntity.getHtmlFragments().entrySet()) {
+				if (fragment.getKey() instanceof String) {
+					batch.putHtmlFragment(index, (String) fragment.getKey(), fragment.getValue());
+				}
+			}
+		}
+
+		return batch;
+	}
+
+	/**
+	 * Appends an entity.
+	 *
+	 * @param left The left bound in pixels
+	 * @param right The right bound in pixels
+	 * @param top The top bound in pixels
+	 * @param bottom The bottom bound in pixels
+	 * @param groupId the group id, see {@link ImageEntity#getGroupId()}
+	 * @return the index of the new entity
+	 */
+	public int add(double left, double right, double top, double bottom, String groupId) {
+		Validate.notNull(groupId, "groupId must not be null");
+
+		if (size == lefts.length) {
+			grow(Math.max(16, size * 2));
+		}
+
+		lefts[size] = left;
+		rights[size] = right;
+		tops[size] = top;
+		bottoms[size] = bottom;
+		groupIndices[size] = indexOf(groupId);
+
+		return size++;
+	}
+
+	/**
+	 * Sets an html fragment of an entity.
+	 *
+	 * @param index the index of the entity
+	 * @param key the fragment key, e.g. {@link ImageEntity#HOVER_HTML_FRAGMENT_KEY}
+	 * @param html the html fragment
+	 */
+	public void putHtmlFragment(int index, String key, String html) {
+		checkIndex(index);
+		Validate.notNull(key, "key must not be null");
+
+		String[] table = getFragmentTable(key);
+
+		if (table == null) {
+			String[] keys = new String[fragmentKeys.length + 1];
+			System.arraycopy(fragmentKeys, 0, keys, 0, fragmentKeys.length);
+			keys[fragmentKeys.length] = key;
+
+			String[][] tables = new String[fragments.length + 1][];
+			System.arraycopy(fragments, 0, tables, 0, fragments.length);
+			tables[fragments.length] = table = new String[lefts.length];
+
+			fragmentKeys = keys;
+			fragments = tables;
+		}
+
+		table[index] = html;
+	}
+
+	/**
+	 * convenience access.
+	 *
+	 * @param index the index of the entity
+	 * @param html the html fragment to be displayed with on hover
+	 */
+	public void putHoverHtmlFragment(int index, String html) {
+		putHtmlFragment(index, ImageEntity.HOVER_HTML_FRAGMENT_KEY, html);
+	}
+
+	/**
+	 * Sets the domain values of an entity, e.g. time and value of a data point.
+	 *
+	 * @param index the index of the entity
+	 * @param x the x value in domain units
+	 * @param y the y value in domain units
+	 */
+	public void putValues(int index, double x, double y) {
+		checkIndex(index);
+
+		if (xValues == null) {
+			xValues = new double[lefts.length];
+			yValues = new double[lefts.length];
+		}
+
+		xValues[index] = x;
+		yValues[index] = y;
+	}
+
+	/**
+	 * Shrinks the internal arrays to the number of entities.
+	 */
+	public void trimToSize() {
+		if (size < lefts.length) {
+			grow(size);
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public double getLeft(int index) {
+		checkIndex(index);
+		return lefts[index];
+	}
+
+	public double getRight(int index) {
+		checkIndex(index);
+		return rights[index];
+	}
+
+	public double getTop(int index) {
+		checkIndex(index);
+		return tops[index];
+	}
+
+	public double getBottom(int index) {
+		checkIndex(index);
+		return bottoms[index];
+	}
+
+	public double getHorizontalCenter(int index) {
+		checkIndex(index);
+		return (lefts[index] + rights[index]) / 2;
+	}
+
+	public double getVerticalCenter(int index) {
+		checkIndex(index);
+		return (tops[index] + bottoms[index]) / 2;
+	}
+
+	/**
+	 * @param index the index of the entity
+	 * @return new bounds of the entity in pixels
+	 */
+	public Bounds getBounds(int index) {
+		checkIndex(index);
+		return new Bounds(lefts[index], rights[index], tops[index], bottoms[index]);
+	}
+
+	public String getGroupId(int index) {
+		checkIndex(index);
+		return groupIds[groupIndices[index]];
+	}
+
+	/**
+	 * @param index the index of the entity
+	 * @param key the fragment key, e.g. {@link ImageEntity#HOVER_HTML_FRAGMENT_KEY}
+	 * @return the html fragment or null
+	 */
+	public String getHtmlFragment(int index, String key) {
+		checkIndex(index);
+
+		String[] table = getFragmentTable(key);
+
+		return table != null ? table[index] : null;
+	}
+
+	/**
+	 * convenience access.
+	 *
+	 * @param index the index of the entity
+	 * @return the html fragment to be displayed with on hover
+	 */
+	public String getHoverHtmlFragment(int index) {
+		return getHtmlFragment(index, ImageEntity.HOVER_HTML_FRAGMENT_KEY);
+	}
+
+	/**
+	 * @return true, if domain values were set with {@link #putValues(int, double, double)}
+	 */
+	public boolean hasValues() {
+		return xValues != null;
+	}
+
+	/**
+	 * @param index the index of the entity
+	 * @return the x value in domain units, zero if not set
+	 */
+	public double getXValue(int index) {
+		checkIndex(index);
+		return xValues != null ? xValues[index] : 0;
+	}
+
+	/**
+	 * @param index the index of the entity
+	 * @return the y value in domain units, zero if not set
+	 */
+	public double getYValue(int index) {
+		checkIndex(index);
+		return yValues != null ? yValues[index] : 0;
+	}
+
+	/**
+	 * @return the largest right bound of all entities, zero if there are none
+	 */
+	public double getMaxRight() {
+		double maxRight = 0;
+
+		for (int i = 0; i < size; i++) {
+			maxRight = Math.max(maxRight, rights[i]);
+		}
+
+		return maxRight;
+	}
+
+	/**
+	 * @return the largest bottom bound of all entities, zero if there are none
+	 */
+	public double getMaxBottom() {
+		double maxBottom = 0;
+
+		for (int i = 0; i < size; i++) {
+			maxBottom = Math.max(maxBottom, bottoms[i]);
+		}
+
+		return maxBottom;
+	}
+
+	/**
+	 * Estimates the memory consumed by the batch.
+	 *
+	 * @return the estimated memory in bytes
+	 */
+	public long estimateBytes() {
+		long bytes = lefts.length * (4 * 8 + 4) + (xValues != null ? xValues.length * 2 * 8 : 0);
+
+		for (String[] table : fragments) {
+			for (int i = 0; i < size; i++) {
+				bytes += table[i] != null ? table[i].length() * 2 : 0;
+			}
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * Converts the batch into single image entities, e.g. for components not supporting batches.
+	 *
+	 * @return a new list of image entities in the same order
+	 */
+	public List<ImageEntity> toImageEntities() {
+		List<ImageEntity> imageEntities = new ArrayList<ImageEntity>(size);
+
+		for (int i = 0; i < size; i++) {
+			ImageEntity imageEntity = new ImageEntity(getBounds(i), getGroupId(i));
+
+			for (int k = 0; k < fragmentKeys.length; k++) {
+				if (fragments[k][i] != null) {
+					imageEntity.getHtmlFragments().put(fragmentKeys[k], fragments[k][i]);
+				}
+			}
+
+			imageEntities.add(imageEntity);
+		}
+
+		return imageEntities;
+	}
+
+	/*
+	 * package-private access for ImageEntityBatch_CustomFieldSerializer, the arrays
+	 * might be longer than the size of the batch
+	 */
+
+	ImageEntityBatch(int size, double[] lefts, double[] rights, double[] tops, double[] bottoms, String[] groupIds, int[] groupIndices,
+			double[] xValues, double[] yValues, String[] fragmentKeys, String[][] fragments) {
+		this.size = size;
+		this.lefts = lefts;
+		this.rights = rights;
+		this.tops = tops;
+		this.bottoms = bottoms;
+		this.groupIds = groupIds;
+		this.groupIndices = groupIndices;
+		this.xValues = xValues;
+		this.yValues = yValues;
+		this.fragmentKeys = fragmentKeys;
+		this.fragments = fragments;
+	}
+
+	double[] getLefts() {
+		return lefts;
+	}
+
+	double[] getRights() {
+		return rights;
+	}
+
+	double[] getTops() {
+		return tops;
+	}
+
+	double[] getBottoms() {
+		return bottoms;
+	}
+
+	String[] getGroupIds() {
+		return groupIds;
+	}
+
+	int[] getGroupIndices() {
+		return groupIndices;
+	}
+
+	double[] getXValues() {
+		return xValues;
+	}
+
+	double[] getYValues() {
+		return yValues;
+	}
+
+	String[] getFragmentKeys() {
+		return fragmentKeys;
+	}
+
+	String[][] getFragments() {
+		return fragments;
+	}
+
+	private int indexOf(String groupId) {
+		//usually only a handful of group ids
+		for (int i = 0; i < groupIds.length; i++) {
+			if (groupIds[i].equals(groupId)) {
+				return i;
+			}
+		}
+
+		String[] ids = new String[groupIds.length + 1];
+		System.arraycopy(groupIds, 0, ids, 0, groupIds.length);
+		ids[groupIds.length] = groupId;
+		groupIds = ids;
+
+		return groupIds.length - 1;
+	}
+
+	private String[] getFragmentTable(String key) {
+		for (int i = 0; i < fragmentKeys.length; i++) {
+			if (fragmentKeys[i].equals(key)) {
+				return fragments[i];
+			}
+		}
+
+		return null;
+	}
+
+	private void grow(int capacity) {
+		lefts = copyOf(lefts, capacity);
+		rights = copyOf(rights, capacity);
+		tops = copyOf(tops, capacity);
+		bottoms = copyOf(bottoms, capacity);
+
+		int[] indices = new int[capacity];
+		System.arraycopy(groupIndices, 0, indices, 0, size);
+		groupIndices = indices;
+
+		if (xValues != null) {
+			xValues = copyOf(xValues, capacity);
+			yValues = copyOf(yValues, capacity);
+		}
+
+		for (int i = 0; i < fragments.length; i++) {
+			String[] table = new String[capacity];
+			System.arraycopy(fragments[i], 0, table, 0, size);
+			fragments[i] = table;
+		}
+	}
+
+	private double[] copyOf(double[] array, int capacity) {
+		double[] copy = new double[capacity];
+		System.arraycopy(array, 0, copy, 0, size);
+
+		return copy;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+}
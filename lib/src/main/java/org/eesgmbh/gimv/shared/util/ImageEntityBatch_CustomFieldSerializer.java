@@ -0,0 +1,138 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.shared.util;
+
+import com.google.gwt.user.client.rpc.CustomFieldSerializer;
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.client.rpc.SerializationStreamReader;
+import com.google.gwt.user.client.rpc.SerializationStreamWriter;
+
+/**
+ * <p>A GWT RPC field serializer for {@link ImageEntityBatch}, picked up by naming convention.
+ *
+ * <p>The numeric columns (bounds, group indices and the optional domain values) are written as a single
+ * base64 string of little endian 64 bit floats instead of one token per value. In the browser the string is
+ * decoded with a typed array (see {@link Float64Columns}), which is much faster than parsing the values of the
+ * RPC payload one by one.
+ * Group ids, fragment keys and html fragments are written as regular string arrays.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public final class ImageEntityBatch_CustomFieldSerializer extends CustomFieldSerializer<ImageEntityBatch> {
+
+	static final String BASE64_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+
+	public static void serialize(SerializationStreamWriter writer, ImageEntityBatch instance) throws SerializationException {
+		int size = instance.size();
+		boolean hasValues = instance.hasValues();
+
+		double[] groupIndices = new double[size];
+		for (int i = 0; i < size; i++) {
+			groupIndices[i] = instance.getGroupIndices()[i];
+		}
+
+		double[][] columns = hasValues
+				? new double[][] {instance.getLefts(), instance.getRights(), instance.getTops(), instance.getBottoms(), groupIndices, instance.getXValues(), instance.getYValues()}
+				: new double[][] {instance.getLefts(), instance.getRights(), instance.getTops(), instance.getBottoms(), groupIndices};
+
+		String[][] fragments = new String[instance.getFragments().length][];
+		for (int k = 0; k < fragments.length; k++) {
+			fragments[k] = new String[size];
+			System.arraycopy(instance.getFragments()[k], 0, fragments[k], 0, size);
+		}
+
+		writer.writeInt(size);
+		writer.writeBoolean(hasValues);
+		writer.writeString(encode(columns, size));
+		writer.writeObject(instance.getGroupIds());
+		writer.writeObject(instance.getFragmentKeys());
+		writer.writeObject(fragments);
+	}
+
+	public static ImageEntityBatch instantiate(SerializationStreamReader reader) throws SerializationException {
+		int size = reader.readInt();
+		boolean hasValues = reader.readBoolean();
+		Float64Columns columns = new Float64Columns(reader.readString(), size);
+
+		String[] groupIds = (String[]) reader.readObject();
+		String[] fragmentKeys = (String[]) reader.readObject();
+		String[][] fragments = (String[][]) reader.readObject();
+
+		return new ImageEntityBatch(size,
+				columns.getColumn(0), columns.getColumn(1), columns.getColumn(2), columns.getColumn(3),
+				groupIds, columns.getIntColumn(4),
+				hasValues ? columns.getColumn(5) : null, hasValues ? columns.getColumn(6) : null,
+				fragmentKeys, fragments);
+	}
+
+	public static void deserialize(SerializationStreamReader reader, ImageEntityBatch instance) throws SerializationException {
+		//completely read in instantiate
+	}
+
+	@Override
+	public boolean hasCustomInstantiateInstance() {
+		return true;
+	}
+
+	@Override
+	public ImageEntityBatch instantiateInstance(SerializationStreamReader reader) throws SerializationException {
+		return instantiate(reader);
+	}
+
+	@Override
+	public void deserializeInstance(SerializationStreamReader reader, ImageEntityBatch instance) throws SerializationException {
+		deserialize(reader, instance);
+	}
+
+	@Override
+	public void serializeInstance(SerializationStreamWriter writer, ImageEntityBatch instance) throws SerializationException {
+		serialize(writer, instance);
+	}
+
+	/**
+	 * Encodes the first <code>size</code> values of each column, one column after the other.
+	 */
+	static String encode(double[][] columns, int size) {
+		byte[] bytes = new byte[columns.length * size * 8];
+
+		int b = 0;
+		for (double[] column : columns) {
+			for (int i = 0; i < size; i++) {
+				long bits = Double.doubleToLongBits(column[i]);
+
+				//little endian, like typed arrays on all common platforms
+				for (int shift = 0; shift < 64; shift += 8) {
+					bytes[b++] = (byte) (bits >>> shift);
+				}
+			}
+		}
+
+		StringBuilder base64 = new StringBuilder((bytes.length + 2) / 3 * 4);
+		for (int i = 0; i < bytes.length; i += 3) {
+			int n = (bytes[i] & 0xff) << 16
+					| (i + 1 < bytes.length ? (bytes[i + 1] & 0xff) << 8 : 0)
+					| (i + 2 < bytes.length ? bytes[i + 2] & 0xff : 0);
+
+			base64.append(BASE64_ALPHABET.charAt(n >>> 18 & 63));
+			base64.append(BASE64_ALPHABET.charAt(n >>> 12 & 63));
+			base64.append(i + 1 < bytes.length ? BASE64_ALPHABET.charAt(n >>> 6 & 63) : '=');
+			base64.append(i + 2 < bytes.length ? BASE64_ALPHABET.charAt(n & 63) : '=');
+		}
+
+		return base64.toString();
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.eesgmbh.gimv.shared.util;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * <p>Columns of equal size, decoded from a base64 string of little endian 64 bit floats
+ * (see {@link ImageEntityBatch_CustomFieldSerializer#encode(double[][], int)}).
+ *
+ * <p>This is the super-source version for the browser. The string is decoded into a single typed array,
+ * each column is copied from it once into its final Java array.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+final class Float64Columns {
+
+	private final JavaScriptObject values;
+	private final int size;
+
+	/**
+	 * @param base64 the encoded columns, one column after the other
+	 * @param size the number of values per column
+	 */
+	Float64Columns(String base64, int size) {
+		this.values = decode(base64);
+		this.size = size;
+	}
+
+	double[] getColumn(int column) {
+		double[] columnValues = new double[size];
+		copy(values, column * size, columnValues);
+
+		return columnValues;
+	}
+
+	int[] getIntColumn(int column) {
+		int[] columnValues = new int[size];
+		copyInt(values, column * size, columnValues);
+
+		return columnValues;
+	}
+
+	private static native JavaScriptObject decode(String base64) /*-{
+		var binary = $wnd.atob(base64);
+
+		var bytes = new Uint8Array(binary.length);
+		for (var i = 0; i < binary.length; i++) {
+			bytes[i] = binary.charCodeAt(i);
+		}
+
+		return new Float64Array(bytes.buffer);
+	}-*/;
+
+	private static native void copy(JavaScriptObject from, int offset, double[] to) /*-{
+		for (var i = 0; i < to.length; i++) {
+			to[i] = from[offset + i];
+		}
+	}-*/;
+
+	private static native void copyInt(JavaScriptObject from, int offset, int[] to) /*-{
+		for (var i = 0; i < to.length; i++) {
+			to[i] = from[offset + i] | 0;
+		}
+	}-*/;
+}
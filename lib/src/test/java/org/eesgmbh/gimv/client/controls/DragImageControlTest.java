@@ -19,14 +19,20 @@ package org.eesgmbh.gimv.client.controls;
 import static org.junit.Assert.*;
 
 import org.eesgmbh.gimv.client.event.SetDomainBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetImageUrlEvent;
+import org.eesgmbh.gimv.client.event.SetViewportPixelBoundsEvent;
 import org.eesgmbh.gimv.client.event.StateChangeEvent;
 import org.eesgmbh.gimv.client.event.ViewportDragFinishedEvent;
 import org.eesgmbh.gimv.client.event.ViewportDragInProgressEvent;
 import org.eesgmbh.gimv.client.testsupport.AbstractGimvUnitTest;
+import org.eesgmbh.gimv.client.testsupport.TestEventHandler;
 import org.eesgmbh.gimv.shared.util.Bounds;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+import com.google.gwt.event.shared.HandlerManager;
+
 
 public class DragImageControlTest extends AbstractGimvUnitTest {
 
@@ -75,6 +81,135 @@ public class DragImageControlTest extends AbstractGimvUnitTest {
 		assertNotNull(testEH.loadImageDataEvent);
 	}
 
+	@Test
+	public void testKineticPanning() throws Exception {
+		KineticDragImageControl kineticControl = createKineticControl();
+
+		//200 pixels within 100 ms to the left, 2 pixels per millisecond
+		for (int i = 0; i <= 10; i++) {
+			kineticControl.time = i * 10;
+			testHM.fireEvent(createDragInProgressEvent(-20, 0));
+		}
+
+		testHM.fireEvent(createDragFinishedEvent(-0.22, 0));
+
+		//the resting position is requested right away, 2 px/ms * 100 ms = 200 px = 20%
+		assertEquals(42, testEH.setDomainBoundsEvent.getBounds().getLeft(), 0.0001);
+		assertEquals(142, testEH.setDomainBoundsEvent.getBounds().getRight(), 0.0001);
+		assertNotNull(testEH.loadImageDataEvent);
+		assertTrue(kineticControl.isFlinging());
+
+		//the image keeps moving to the left
+		kineticControl.time += 100;
+		kineticControl.animationCallback.execute(0);
+		assertEquals(-126, testEH.changeImagePixelBoundsEvent.getOffsetX(), 0.001);
+
+		//until it comes to rest
+		kineticControl.time += 1000;
+		kineticControl.animationCallback.execute(0);
+		assertEquals(-74, testEH.changeImagePixelBoundsEvent.getOffsetX(), 0.001);
+		assertFalse(kineticControl.isFlinging());
+	}
+
+	@Test
+	public void testKineticPanningStopsWithNewImage() throws Exception {
+		KineticDragImageControl kineticControl = createKineticControl();
+
+		for (int i = 0; i <= 10; i++) {
+			kineticControl.time = i * 10;
+			testHM.fireEvent(createDragInProgressEvent(-20, 0));
+		}
+		testHM.fireEvent(createDragFinishedEvent(-0.22, 0));
+		assertTrue(kineticControl.isFlinging());
+
+		testHM.fireEvent(new SetImageUrlEvent("url"));
+		assertFalse(kineticControl.isFlinging());
+	}
+
+	@Test
+	public void testKineticPanningInterruptedByDrag() throws Exception {
+		KineticDragImageControl kineticControl = createKineticControl();
+
+		for (int i = 0; i <= 10; i++) {
+			kineticControl.time = i * 10;
+			testHM.fireEvent(createDragInProgressEvent(-20, 0));
+		}
+		testHM.fireEvent(createDragFinishedEvent(-0.22, 0));
+
+		kineticControl.time += 100;
+		kineticControl.animationCallback.execute(0);
+		assertEquals(-126, testEH.changeImagePixelBoundsEvent.getOffsetX(), 0.001);
+
+		//the user grabs the image, which has moved 126 of 200 pixels
+		testHM.fireEvent(createDragInProgressEvent(-10, 0));
+		assertFalse(kineticControl.isFlinging());
+		assertEquals(34.6, testEH.setDomainBoundsEvent.getBounds().getLeft(), 0.0001);
+		assertEquals(134.6, testEH.setDomainBoundsEvent.getBounds().getRight(), 0.0001);
+		assertEquals(-10, testEH.changeImagePixelBoundsEvent.getOffsetX(), 0.001);
+
+		//the pending frame does not move the image any further
+		testEH.changeImagePixelBoundsEvent = null;
+		kineticControl.animationCallback.execute(0);
+		assertNull(testEH.changeImagePixelBoundsEvent);
+
+		//the new drag starts from the position reached
+		testHM.fireEvent(createDragFinishedEvent(-0.01, 0));
+		assertEquals(35.6, testEH.setDomainBoundsEvent.getBounds().getLeft(), 0.0001);
+		assertEquals(135.6, testEH.setDomainBoundsEvent.getBounds().getRight(), 0.0001);
+	}
+
+	@Test
+	public void testNoKineticPanningAfterPause() throws Exception {
+		KineticDragImageControl kineticControl = createKineticControl();
+
+		for (int i = 0; i <= 10; i++) {
+			kineticControl.time = i * 10;
+			testHM.fireEvent(createDragInProgressEvent(-20, 0));
+		}
+
+		//the user held still before releasing
+		kineticControl.time += 200;
+		testHM.fireEvent(createDragFinishedEvent(-0.22, 0));
+
+		assertEquals(new Bounds(22, 122, 0, 100), testEH.setDomainBoundsEvent.getBounds());
+		assertFalse(kineticControl.isFlinging());
+	}
+
+	private KineticDragImageControl createKineticControl() {
+		//without the default control
+		testHM = new HandlerManager(null);
+		testEH = new TestEventHandler(testHM);
+
+		KineticDragImageControl kineticControl = new KineticDragImageControl();
+		kineticControl.setKineticPanning(true);
+		kineticControl.setKineticTimeConstant(100);
+
+		testHM.fireEvent(StateChangeEvent.createMove());
+		testHM.fireEvent(new SetViewportPixelBoundsEvent(new Bounds(0, 1000, 0, 1000)));
+		testHM.fireEvent(new SetDomainBoundsEvent(new Bounds(0, 100, 0, 100)));
+
+		return kineticControl;
+	}
+
+	private class KineticDragImageControl extends DragImageControl {
+		private long time;
+		private AnimationCallback animationCallback;
+
+		private KineticDragImageControl() {
+			super(testHM);
+		}
+
+		@Override
+		long currentTimeMillis() {
+			return time;
+		}
+
+		@Override
+		void requestAnimationFrame(AnimationCallback animationCallback) {
+			this.animationCallback = animationCallback;
+		}
+	}
+
 	private ViewportDragFinishedEvent createDragFinishedEvent(double proportionalHorizontalDragOffset, double proportionalVerticalDragOffset) {
 		return new ViewportDragFinishedEvent(new Bounds(0d, proportionalHorizontalDragOffset, 0d, proportionalVerticalDragOffset), new Bounds());
 	}
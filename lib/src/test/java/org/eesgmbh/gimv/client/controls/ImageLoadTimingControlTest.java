@@ -0,0 +1,216 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.controls;
+
+import static junit.framework.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eesgmbh.gimv.client.event.ImageLoadFailedEvent;
+import org.eesgmbh.gimv.client.event.ImageLoadTimingEvent;
+import org.eesgmbh.gimv.client.event.ImageLoadTimingEvent.InputType;
+import org.eesgmbh.gimv.client.event.ImageLoadTimingEventHandler;
+import org.eesgmbh.gimv.client.event.ImageLoadedEvent;
+import org.eesgmbh.gimv.client.event.LoadImageDataEvent;
+import org.eesgmbh.gimv.client.event.LoadImageDataFailedEvent;
+import org.eesgmbh.gimv.client.event.SetDomainBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetImageUrlEvent;
+import org.eesgmbh.gimv.client.event.TransactionEvent;
+import org.eesgmbh.gimv.client.event.ViewportMouseWheelEvent;
+import org.eesgmbh.gimv.client.event.ViewportDragFinishedEvent;
+import org.eesgmbh.gimv.client.event.ViewportPinchZoomEvent;
+import org.eesgmbh.gimv.client.testsupport.AbstractGimvUnitTest;
+import org.eesgmbh.gimv.shared.util.Bounds;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gwt.event.shared.GwtEvent;
+
+public class ImageLoadTimingControlTest extends AbstractGimvUnitTest {
+
+	private TestImageLoadTimingControl control;
+
+	private List<ImageLoadTimingEvent> timingEvents;
+
+	@Before
+	public void setUp() {
+		control = new TestImageLoadTimingControl();
+
+		timingEvents = new ArrayList<ImageLoadTimingEvent>();
+		testHM.addHandler(ImageLoadTimingEvent.TYPE, new ImageLoadTimingEventHandler() {
+			public void onImageLoadTiming(ImageLoadTimingEvent event) {
+				timingEvents.add(event);
+			}
+		});
+	}
+
+	@Test
+	public void testStages() throws Exception {
+		fireAt(100, new ViewportDragFinishedEvent(new Bounds(), new Bounds()));
+		fireAt(110, new SetDomainBoundsEvent(new Bounds(0, 10, 0, 10)));
+		fireAt(150, new LoadImageDataEvent());
+		fireAt(400, TransactionEvent.createBegin());
+		fireAt(405, new SetImageUrlEvent("a.png"));
+		fireAt(406, TransactionEvent.createCommit());
+		fireAt(480, new ImageLoadedEvent("a.png"));
+
+		assertEquals(1, timingEvents.size());
+
+		ImageLoadTimingEvent event = timingEvents.get(0);
+		assertEquals(InputType.DRAG, event.getInputType());
+		assertEquals("a.png", event.getUrl());
+		assertEquals(50d, event.getInputToLoadMillis());
+		assertEquals(250d, event.getLoadToResponseMillis());
+		assertEquals(5d, event.getResponseToUrlMillis());
+		assertEquals(75d, event.getUrlToImageLoadedMillis());
+		assertEquals(380d, event.getTotalMillis());
+		assertEquals(1, event.getLoadCount());
+
+		assertEquals("[gimv-input, gimv-load, gimv-response, gimv-url, gimv-pixels]", control.marks.toString());
+		assertEquals("[gimv-input-to-pixels]", control.measures.toString());
+	}
+
+	@Test
+	public void testCoalescedLoads() throws Exception {
+		fireAt(100, new ViewportPinchZoomEvent(10, 10, 1.2));
+		fireAt(150, new LoadImageDataEvent());
+		fireAt(160, new ViewportPinchZoomEvent(10, 10, 1.2));
+		fireAt(210, new LoadImageDataEvent());
+
+		//without a transaction, the url marks the response
+		fireAt(300, new SetImageUrlEvent("b.png"));
+		fireAt(350, new ImageLoadedEvent("b.png"));
+
+		ImageLoadTimingEvent event = timingEvents.get(0);
+		assertEquals(InputType.PINCH, event.getInputType());
+		assertEquals(110d, event.getInputToLoadMillis());
+		assertEquals(90d, event.getLoadToResponseMillis());
+		assertEquals(0d, event.getResponseToUrlMillis());
+		assertEquals(2, event.getLoadCount());
+
+		//the next input starts a new measurement
+		fireAt(1000, new LoadImageDataEvent());
+		fireAt(1100, new SetImageUrlEvent("c.png"));
+		fireAt(1200, new ImageLoadedEvent("c.png"));
+
+		event = timingEvents.get(1);
+		assertEquals(InputType.OTHER, event.getInputType());
+		assertEquals(200d, event.getTotalMillis());
+		assertEquals(1, event.getLoadCount());
+	}
+
+	@Test
+	public void testUnchangedUrl() throws Exception {
+		fireAt(0, new LoadImageDataEvent());
+		fireAt(10, new SetImageUrlEvent("a.png"));
+		fireAt(20, new ImageLoadedEvent("a.png"));
+
+		//the browser will not load the image again
+		fireAt(100, new LoadImageDataEvent());
+		fireAt(110, new SetImageUrlEvent("a.png"));
+
+		assertEquals(2, timingEvents.size());
+		assertEquals(10d, timingEvents.get(1).getTotalMillis());
+	}
+
+	@Test
+	public void testInputWithoutRequestIsDiscarded() throws Exception {
+		//e.g. a wheel delta below the minimal zoom step
+		fireAt(100, new ViewportMouseWheelEvent(null));
+		assertEquals(1, control.inputChecks);
+		control.checkInput();
+
+		fireAt(5000, new ViewportPinchZoomEvent(10, 10, 1.2));
+		fireAt(5010, new SetDomainBoundsEvent(new Bounds(0, 10, 0, 10)));
+		control.checkInput();
+		fireAt(5100, new LoadImageDataEvent());
+		fireAt(5200, new SetImageUrlEvent("a.png"));
+		fireAt(5300, new ImageLoadedEvent("a.png"));
+
+		assertEquals(1, timingEvents.size());
+		assertEquals(InputType.PINCH, timingEvents.get(0).getInputType());
+		assertEquals(300d, timingEvents.get(0).getTotalMillis());
+		assertEquals(2, control.inputChecks);
+	}
+
+	@Test
+	public void testFailedLoadIsDiscarded() throws Exception {
+		fireAt(0, new LoadImageDataEvent());
+		fireAt(10, new LoadImageDataFailedEvent(new RuntimeException()));
+
+		fireAt(100, new LoadImageDataEvent());
+		fireAt(110, new SetImageUrlEvent("a.png"));
+		fireAt(120, new ImageLoadFailedEvent("a.png"));
+
+		fireAt(200, new LoadImageDataEvent());
+		fireAt(210, new SetImageUrlEvent("b.png"));
+		fireAt(220, new ImageLoadedEvent("b.png"));
+
+		assertEquals(1, timingEvents.size());
+		assertEquals("b.png", timingEvents.get(0).getUrl());
+		assertEquals(20d, timingEvents.get(0).getTotalMillis());
+	}
+
+	@Test
+	public void testDispose() throws Exception {
+		control.dispose();
+
+		fireAt(0, new LoadImageDataEvent());
+		fireAt(10, new SetImageUrlEvent("a.png"));
+		fireAt(20, new ImageLoadedEvent("a.png"));
+
+		assertTrue(timingEvents.isEmpty());
+		assertTrue(control.marks.isEmpty());
+	}
+
+	private void fireAt(double time, GwtEvent<?> event) {
+		control.time = time;
+		testHM.fireEvent(event);
+	}
+
+	private class TestImageLoadTimingControl extends ImageLoadTimingControl {
+		private double time;
+		private final List<String> marks = new ArrayList<String>();
+		private final List<String> measures = new ArrayList<String>();
+		private int inputChecks;
+
+		private TestImageLoadTimingControl() {
+			super(testHM);
+		}
+
+		@Override
+		void scheduleInputCheck() {
+			inputChecks++;
+		}
+
+		@Override
+		double now() {
+			return time;
+		}
+
+		@Override
+		void mark(String name) {
+			marks.add(name);
+		}
+
+		@Override
+		void measure(String name, String startMark, String endMark) {
+			measures.add(name);
+		}
+	}
+}
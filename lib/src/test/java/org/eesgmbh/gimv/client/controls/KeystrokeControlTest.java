@@ -0,0 +1,233 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.eesgmbh.gimv.client.controls;
+
+import static org.junit.Assert.*;
+
+import org.eesgmbh.gimv.client.event.SetDomainBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetViewportPixelBoundsEvent;
+import org.eesgmbh.gimv.client.testsupport.AbstractGimvUnitTest;
+import org.eesgmbh.gimv.shared.util.Bounds;
+import org.eesgmbh.gimv.shared.util.Direction;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+import com.google.gwt.dom.client.Element;
+
+
+public class KeystrokeControlTest extends AbstractGimvUnitTest {
+
+	private static final int KEY_LEFT = 37;
+	private static final int KEY_RIGHT = 39;
+
+	private TestKeystrokeControl control;
+
+	@Before
+	public void setUp() {
+		if (this.control == null) {
+			this.control = new TestKeystrokeControl();
+			control.setLoadImageDataEventFiringDelay(0);
+			control.registerKey(KEY_LEFT, Direction.WEST, 10);
+			control.registerKey(KEY_RIGHT, Direction.EAST, 10);
+		}
+
+		testHM.fireEvent(new SetViewportPixelBoundsEvent(new Bounds(0, 1000, 0, 1000)));
+		testHM.fireEvent(new SetDomainBoundsEvent(new Bounds(0, 100, 0, 100)));
+	}
+
+	@Test
+	public void testKeystroke() throws Exception {
+		assertTrue(control.onKeyDown(KEY_LEFT, false, false, false, false));
+
+		assertEquals(-10d, testEH.changeImagePixelBoundsEvent.getOffsetX(), 0.001);
+		assertEquals(new Bounds(1, 101, 0, 100), testEH.setDomainBoundsEvent.getBounds());
+		assertNotNull(testEH.loadImageDataEvent);
+	}
+
+	@Test
+	public void testModifierKeysMustMatch() throws Exception {
+		assertFalse(control.onKeyDown(KEY_LEFT, true, false, false, false));
+
+		assertNull(testEH.changeImagePixelBoundsEvent);
+		assertEquals(new Bounds(0, 100, 0, 100), testEH.setDomainBoundsEvent.getBounds());
+
+		control.registerKey(KEY_LEFT, true, false, false, false, Direction.WEST, 100);
+		assertTrue(control.onKeyDown(KEY_LEFT, true, false, false, false));
+		assertEquals(new Bounds(10, 110, 0, 100), testEH.setDomainBoundsEvent.getBounds());
+	}
+
+	@Test
+	public void testHoldToPan() throws Exception {
+		control.setHoldToPan(true);
+
+		//the first step is immediate
+		control.onKeyDown(KEY_LEFT, false, false, false, false);
+		assertEquals(-10d, testEH.changeImagePixelBoundsEvent.getOffsetX(), 0.001);
+		assertEquals(new Bounds(1, 101, 0, 100), testEH.setDomainBoundsEvent.getBounds());
+		assertNull(testEH.loadImageDataEvent);
+
+		//the first frame only takes the time
+		testEH.changeImagePixelBoundsEvent = null;
+		control.frame(1000);
+		assertNull(testEH.changeImagePixelBoundsEvent);
+
+		//10 pixels per 100 ms
+		control.frame(1050);
+		assertEquals(-5d, testEH.changeImagePixelBoundsEvent.getOffsetX(), 0.001);
+		assertEquals(new Bounds(1.5, 101.5, 0d, 100d), testEH.setDomainBoundsEvent.getBounds());
+
+		//fractions of pixels are carried over to the next frame
+		testEH.changeImagePixelBoundsEvent = null;
+		control.frame(1058);
+		assertNull(testEH.changeImagePixelBoundsEvent);
+
+		control.frame(1066);
+		assertEquals(-1d, testEH.changeImagePixelBoundsEvent.getOffsetX(), 0.001);
+		assertNull(testEH.loadImageDataEvent);
+
+		//a single load after the key was released
+		control.onKeyUp(KEY_LEFT);
+		assertNotNull(testEH.loadImageDataEvent);
+
+		//the loop stops
+		testEH.changeImagePixelBoundsEvent = null;
+		control.frame(1100);
+		assertNull(testEH.changeImagePixelBoundsEvent);
+		assertNull(control.animationCallback);
+	}
+
+	@Test
+	public void testHoldToPanIgnoresAutoRepeat() throws Exception {
+		control.setHoldToPan(true);
+
+		control.onKeyDown(KEY_LEFT, false, false, false, false);
+		control.frame(1000);
+
+		//the auto-repeated key down neither moves the image nor restarts the timing
+		testEH.changeImagePixelBoundsEvent = null;
+		control.onKeyDown(KEY_LEFT, false, false, false, false);
+		assertNull(testEH.changeImagePixelBoundsEvent);
+
+		control.frame(1100);
+		assertEquals(-10d, testEH.changeImagePixelBoundsEvent.getOffsetX(), 0.001);
+		assertEquals(new Bounds(2, 102, 0, 100), testEH.setDomainBoundsEvent.getBounds());
+	}
+
+	@Test
+	public void testHoldToPanWithTwoKeys() throws Exception {
+		control.setHoldToPan(true);
+
+		control.onKeyDown(KEY_LEFT, false, false, false, false);
+		control.frame(1000);
+
+		//the second key is added to the movement, left and right cancel each other
+		testEH.changeImagePixelBoundsEvent = null;
+		control.onKeyDown(KEY_RIGHT, false, false, false, false);
+		assertNull(testEH.changeImagePixelBoundsEvent);
+
+		control.frame(1100);
+		assertNull(testEH.changeImagePixelBoundsEvent);
+
+		//still holding the right key
+		control.onKeyUp(KEY_LEFT);
+		assertNull(testEH.loadImageDataEvent);
+
+		control.frame(1200);
+		assertEquals(10d, testEH.changeImagePixelBoundsEvent.getOffsetX(), 0.001);
+
+		control.onKeyUp(KEY_RIGHT);
+		assertNotNull(testEH.loadImageDataEvent);
+	}
+
+	@Test
+	public void testBlurFinishesHold() throws Exception {
+		control.setHoldToPan(true);
+
+		control.onKeyDown(KEY_LEFT, false, false, false, false);
+		control.frame(1000);
+
+		//the key up will not be received anymore
+		control.onBlur();
+		assertNotNull(testEH.loadImageDataEvent);
+
+		testEH.changeImagePixelBoundsEvent = null;
+		control.frame(1100);
+		assertNull(testEH.changeImagePixelBoundsEvent);
+
+		//the next key down starts a new hold
+		control.onKeyDown(KEY_LEFT, false, false, false, false);
+		assertEquals(-10d, testEH.changeImagePixelBoundsEvent.getOffsetX(), 0.001);
+		assertEquals(new Bounds(2, 102, 0, 100), testEH.setDomainBoundsEvent.getBounds());
+	}
+
+	@Test
+	public void testDisposeStopsHold() throws Exception {
+		control.setHoldToPan(true);
+
+		control.onKeyDown(KEY_LEFT, false, false, false, false);
+		control.frame(1000);
+
+		control.dispose();
+
+		testEH.changeImagePixelBoundsEvent = null;
+		control.frame(1100);
+		assertNull(testEH.changeImagePixelBoundsEvent);
+		assertTrue(control.detached);
+	}
+
+	private class TestKeystrokeControl extends KeystrokeControl {
+		private AnimationCallback animationCallback;
+		private boolean detached;
+
+		private TestKeystrokeControl() {
+			super(testHM);
+		}
+
+		/**
+		 * Runs the requested animation frame
+		 */
+		private void frame(double timestamp) {
+			AnimationCallback callback = animationCallback;
+			animationCallback = null;
+
+			if (callback != null) {
+				callback.execute(timestamp);
+			}
+		}
+
+		@Override
+		void requestAnimationFrame(AnimationCallback animationCallback) {
+			this.animationCallback = animationCallback;
+		}
+
+		@Override
+		KeyEventListener createKeyEventListener(Element element, KeyEventListener.Callback callback) {
+			return new KeyEventListener(element, callback) {
+				@Override
+				void attach() {
+				}
+
+				@Override
+				void detach() {
+					detached = true;
+				}
+			};
+		}
+	}
+}
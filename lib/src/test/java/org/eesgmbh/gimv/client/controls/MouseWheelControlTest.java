@@ -19,9 +19,11 @@ package org.eesgmbh.gimv.client.controls;
 import org.eesgmbh.gimv.client.event.SetDomainBoundsEvent;
 import org.eesgmbh.gimv.client.event.SetViewportPixelBoundsEvent;
 import org.eesgmbh.gimv.client.event.ViewportMouseWheelEvent;
+import org.eesgmbh.gimv.client.event.ViewportPinchZoomEvent;
 import org.eesgmbh.gimv.client.testsupport.AbstractGimvGwtTest;
 import org.eesgmbh.gimv.client.testsupport.MockMouseWheelEvent;
 import org.eesgmbh.gimv.shared.util.Bounds;
+import org.eesgmbh.gimv.shared.util.BoundsQuantizer;
 import org.junit.Test;
 
 import com.google.gwt.user.client.Timer;
@@ -29,17 +31,20 @@ import com.google.gwt.user.client.Timer;
 
 public class MouseWheelControlTest extends AbstractGimvGwtTest {
 
-	private MouseWheelControl control;
+	private TestMouseWheelControl control;
 
 	@Override
 	protected void gwtSetUp() throws Exception {
 		super.gwtSetUp();
 
 		if (this.control == null) {
-			this.control = new MouseWheelControl(testHM);
+			this.control = new TestMouseWheelControl();
 
 			testHM.fireEvent(new SetDomainBoundsEvent(new Bounds(0, 100, 0, 100)));
 			testHM.fireEvent(new SetViewportPixelBoundsEvent(new Bounds(0, 1000, 0, 1000)));
+
+			//only the events fired by the control are of interest
+			testEH.setDomainBoundsEvent = null;
 		}
 	}
 
@@ -69,6 +74,109 @@ public class MouseWheelControlTest extends AbstractGimvGwtTest {
 		assertEquals(new Bounds(-5.329070518200751E-15, 100.0, -5.329070518200751E-15, 100.0), testEH.setDomainBoundsEvent.getBounds());
 	}
 
+	@Test
+	public void testZeroDeltaIsDropped() throws Exception {
+		testHM.fireEvent(new ViewportMouseWheelEvent(new MockMouseWheelEvent(250, 250, 0)));
+
+		assertNull(testEH.changeImagePixelBoundsEvent);
+		assertNull(testEH.setDomainBoundsEvent);
+	}
+
+	@Test
+	public void testSubNotchDeltasAddUpToOneNotch() throws Exception {
+		control.setMinimalZoomStep(1);
+
+		//a quarter notch each, rounded to 0 by GWT
+		for (int i = 0; i < 3; i++) {
+			testHM.fireEvent(new ViewportMouseWheelEvent(new MockMouseWheelEvent(250, 250, -25.0)));
+			assertNull(testEH.setDomainBoundsEvent);
+		}
+
+		testHM.fireEvent(new ViewportMouseWheelEvent(new MockMouseWheelEvent(250, 250, -25.0)));
+		assertEquals(new Bounds(4.166666666666664, 87.5, 4.166666666666664, 87.5), testEH.setDomainBoundsEvent.getBounds());
+	}
+
+	@Test
+	public void testSubNotchDeltasZoomOut() throws Exception {
+		control.setMinimalZoomStep(0.5);
+
+		testHM.fireEvent(new ViewportMouseWheelEvent(new MockMouseWheelEvent(250, 250, 25.0)));
+		assertNull(testEH.setDomainBoundsEvent);
+
+		testHM.fireEvent(new ViewportMouseWheelEvent(new MockMouseWheelEvent(250, 250, 25.0)));
+		assertEquals(100 * Math.sqrt(1.2), testEH.setDomainBoundsEvent.getBounds().getAbsWidth(), 0.001);
+	}
+
+	@Test
+	public void testOppositeSubNotchDeltasCancel() throws Exception {
+		control.setMinimalZoomStep(0.5);
+
+		testHM.fireEvent(new ViewportMouseWheelEvent(new MockMouseWheelEvent(250, 250, -25.0)));
+		testHM.fireEvent(new ViewportMouseWheelEvent(new MockMouseWheelEvent(250, 250, 25.0)));
+		testHM.fireEvent(new ViewportMouseWheelEvent(new MockMouseWheelEvent(250, 250, -25.0)));
+
+		assertNull(testEH.setDomainBoundsEvent);
+	}
+
+	@Test
+	public void testSubNotchLeftoverDroppedOnDirectionChange() throws Exception {
+		control.setMinimalZoomStep(0.5);
+
+		testHM.fireEvent(new ViewportMouseWheelEvent(new MockMouseWheelEvent(250, 250, -25.0)));
+		testHM.fireEvent(new ViewportMouseWheelEvent(new MockMouseWheelEvent(250, 250, 25.0)));
+		assertNull(testEH.setDomainBoundsEvent);
+
+		testHM.fireEvent(new ViewportMouseWheelEvent(new MockMouseWheelEvent(250, 250, 25.0)));
+		assertEquals(100 * Math.sqrt(1.2), testEH.setDomainBoundsEvent.getBounds().getAbsWidth(), 0.001);
+	}
+
+	@Test
+	public void testSubNotchLeftoverExpires() throws Exception {
+		control.setMinimalZoomStep(0.5);
+
+		testHM.fireEvent(new ViewportMouseWheelEvent(new MockMouseWheelEvent(250, 250, -25.0)));
+
+		control.time = 501;
+		testHM.fireEvent(new ViewportMouseWheelEvent(new MockMouseWheelEvent(250, 250, -25.0)));
+		assertNull(testEH.setDomainBoundsEvent);
+
+		control.time = 600;
+		testHM.fireEvent(new ViewportMouseWheelEvent(new MockMouseWheelEvent(250, 250, -25.0)));
+		assertNotNull(testEH.setDomainBoundsEvent);
+	}
+
+	@Test
+	public void testDefaultMinimalZoomStep() throws Exception {
+		//0.05 notches are below the default of 0.1
+		testHM.fireEvent(new ViewportMouseWheelEvent(new MockMouseWheelEvent(250, 250, -5.0)));
+		assertNull(testEH.setDomainBoundsEvent);
+
+		testHM.fireEvent(new ViewportMouseWheelEvent(new MockMouseWheelEvent(250, 250, -5.0)));
+		assertEquals(100 / Math.pow(1.2, 0.1), testEH.setDomainBoundsEvent.getBounds().getAbsWidth(), 0.001);
+	}
+
+	@Test
+	public void testMinimalZoomStepIsOneNotchWithBoundsQuantizer() throws Exception {
+		control.setBoundsQuantizer(new BoundsQuantizer(100, 2));
+		control.setMinimalZoomStep(0.5);
+
+		testHM.fireEvent(new ViewportMouseWheelEvent(new MockMouseWheelEvent(250, 250, -50.0)));
+		assertNull(testEH.setDomainBoundsEvent);
+
+		testHM.fireEvent(new ViewportMouseWheelEvent(new MockMouseWheelEvent(250, 250, -50.0)));
+		assertNotNull(testEH.setDomainBoundsEvent);
+	}
+
+	@Test
+	public void testPinchZoomEqualsWheelNotch() throws Exception {
+		//a pinch scale of 1 + zoomFactor * 2 is one wheel notch
+		testHM.fireEvent(new ViewportPinchZoomEvent(250, 250, 1.2));
+		assertEquals(new Bounds(4.166666666666664, 87.5, 4.166666666666664, 87.5), testEH.setDomainBoundsEvent.getBounds());
+
+		testHM.fireEvent(new ViewportPinchZoomEvent(250, 250, 1 / 1.2));
+		assertEquals(new Bounds(-5.329070518200751E-15, 100.0, -5.329070518200751E-15, 100.0), testEH.setDomainBoundsEvent.getBounds());
+	}
+
 	@Test
 	public void testLoadImageDataEvent() throws Exception {
 		delayTestFinish(20000);
@@ -86,4 +194,17 @@ public class MouseWheelControlTest extends AbstractGimvGwtTest {
 
 		timer.schedule(350); //default is 150ms deferr
 	}
+
+	private class TestMouseWheelControl extends MouseWheelControl {
+		private double time;
+
+		private TestMouseWheelControl() {
+			super(testHM);
+		}
+
+		@Override
+		double now() {
+			return time;
+		}
+	}
 }
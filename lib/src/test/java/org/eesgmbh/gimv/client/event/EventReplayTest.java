@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.event;
+
+import static junit.framework.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eesgmbh.gimv.shared.util.Bounds;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EventReplayTest {
+
+	private GimvEventBus eventBus;
+	private EventReplay eventReplay;
+
+	private List<String> invocations;
+
+	@Before
+	public void setUp() {
+		eventBus = new GimvEventBus();
+		eventReplay = new EventReplay(eventBus);
+		invocations = new ArrayList<String>();
+	}
+
+	@Test
+	public void testReplayLatestEventsToNewHandlers() throws Exception {
+		eventBus.addHandler(SetDomainBoundsEvent.TYPE, new RecordingHandler("old"));
+
+		eventBus.fireEvent(new SetDomainBoundsEvent(new Bounds(0, 1, 0, 1)));
+		eventBus.fireEvent(new SetImageUrlEvent("a.png"));
+		eventBus.fireEvent(new SetDomainBoundsEvent(new Bounds(2, 3, 0, 1)));
+		invocations.clear();
+
+		eventReplay.begin();
+		eventBus.addHandler(SetDomainBoundsEvent.TYPE, new RecordingHandler("new"));
+		eventBus.addHandler(SetImageUrlEvent.TYPE, new RecordingHandler("new"));
+		eventReplay.end();
+
+		//in the order of the latest firing, only to the new handlers
+		assertEquals("[new:a.png, new:2.0]", invocations.toString());
+	}
+
+	@Test
+	public void testNothingRecorded() throws Exception {
+		eventReplay.begin();
+		eventBus.addHandler(SetDomainBoundsEvent.TYPE, new RecordingHandler("new"));
+		eventReplay.end();
+
+		assertTrue(invocations.isEmpty());
+	}
+
+	@Test
+	public void testDispose() throws Exception {
+		eventReplay.dispose();
+
+		eventBus.fireEvent(new SetImageUrlEvent("a.png"));
+
+		eventReplay.begin();
+		eventBus.addHandler(SetImageUrlEvent.TYPE, new RecordingHandler("new"));
+		eventReplay.end();
+
+		assertTrue(invocations.isEmpty());
+		assertEquals(1, eventBus.getHandlerCount(SetImageUrlEvent.TYPE));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testEndWithoutBegin() throws Exception {
+		eventReplay.end();
+	}
+
+	private class RecordingHandler implements SetDomainBoundsEventHandler, SetImageUrlEventHandler {
+		private final String name;
+
+		RecordingHandler(String name) {
+			this.name = name;
+		}
+
+		public void onSetDomainBounds(SetDomainBoundsEvent event) {
+			invocations.add(name + ":" + event.getBounds().getLeft());
+		}
+
+		public void onSetImageUrl(SetImageUrlEvent event) {
+			invocations.add(name + ":" + event.getUrl());
+		}
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.event;
+
+import static junit.framework.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.event.shared.UmbrellaException;
+
+public class GimvEventBusTest {
+
+	private GimvEventBus eventBus;
+
+	private List<String> invocations;
+
+	@Before
+	public void setUp() {
+		eventBus = new GimvEventBus();
+		invocations = new ArrayList<String>();
+	}
+
+	@Test
+	public void testDispatchInRegistrationOrder() throws Exception {
+		eventBus.addHandler(LoadImageDataEvent.TYPE, new RecordingHandler("a"));
+		eventBus.addHandler(LoadImageDataEvent.TYPE, new RecordingHandler("b"));
+		eventBus.addHandler(SetImageUrlEvent.TYPE, new RecordingHandler("c"));
+
+		eventBus.fireEvent(new LoadImageDataEvent());
+
+		assertEquals("[a, b]", invocations.toString());
+		assertEquals(2, eventBus.getHandlerCount(LoadImageDataEvent.TYPE));
+		assertTrue(eventBus.isEventHandled(SetImageUrlEvent.TYPE));
+	}
+
+	@Test
+	public void testBlockedHandler() throws Exception {
+		RecordingHandler blocked = new RecordingHandler("a");
+		eventBus.addHandler(LoadImageDataEvent.TYPE, blocked);
+		eventBus.addHandler(LoadImageDataEvent.TYPE, new RecordingHandler("b"));
+
+		eventBus.fireEvent(new LoadImageDataEvent(blocked));
+
+		assertEquals("[b]", invocations.toString());
+	}
+
+	@Test
+	public void testRemoveHandler() throws Exception {
+		HandlerRegistration registration = eventBus.addHandler(LoadImageDataEvent.TYPE, new RecordingHandler("a"));
+		eventBus.addHandler(LoadImageDataEvent.TYPE, new RecordingHandler("b"));
+
+		registration.removeHandler();
+		eventBus.fireEvent(new LoadImageDataEvent());
+
+		assertEquals("[b]", invocations.toString());
+		assertEquals(1, eventBus.getHandlerCount(LoadImageDataEvent.TYPE));
+	}
+
+	@Test
+	public void testChangesDuringDispatchApplyToNextEvent() throws Exception {
+		final RecordingHandler added = new RecordingHandler("added");
+		final HandlerRegistration[] registration = new HandlerRegistration[1];
+
+		eventBus.addHandler(LoadImageDataEvent.TYPE, new LoadImageDataEventHandler() {
+			public void onLoadImageData(LoadImageDataEvent event) {
+				invocations.add("adding");
+				eventBus.addHandler(LoadImageDataEvent.TYPE, added);
+				registration[0].removeHandler();
+			}
+		});
+		registration[0] = eventBus.addHandler(LoadImageDataEvent.TYPE, new RecordingHandler("removed"));
+
+		eventBus.fireEvent(new LoadImageDataEvent());
+		assertEquals("[adding, removed]", invocations.toString());
+
+		invocations.clear();
+		eventBus.fireEvent(new LoadImageDataEvent());
+		assertTrue(invocations.contains("added"));
+		assertFalse(invocations.contains("removed"));
+	}
+
+	@Test
+	public void testChangesDuringNestedDispatchApplyAfterOutermostEvent() throws Exception {
+		final RecordingHandler added = new RecordingHandler("added");
+		final HandlerRegistration removed = eventBus.addHandler(SetImageUrlEvent.TYPE, new RecordingHandler("removed"));
+
+		eventBus.addHandler(LoadImageDataEvent.TYPE, new LoadImageDataEventHandler() {
+			public void onLoadImageData(LoadImageDataEvent event) {
+				eventBus.addHandler(SetImageUrlEvent.TYPE, added);
+				removed.removeHandler();
+
+				eventBus.fireEvent(new SetImageUrlEvent("url"));
+			}
+		});
+
+		eventBus.fireEvent(new LoadImageDataEvent());
+		assertEquals("[removed]", invocations.toString());
+		assertEquals(1, eventBus.getHandlerCount(SetImageUrlEvent.TYPE));
+
+		invocations.clear();
+		eventBus.fireEvent(new SetImageUrlEvent("url"));
+		assertEquals("[added]", invocations.toString());
+	}
+
+	@Test
+	public void testBlockedHandlersAreCopied() throws Exception {
+		RecordingHandler a = new RecordingHandler("a");
+		RecordingHandler b = new RecordingHandler("b");
+		eventBus.addHandler(LoadImageDataEvent.TYPE, a);
+		eventBus.addHandler(LoadImageDataEvent.TYPE, b);
+
+		LoadImageDataEventHandler[] blockedHandlers = new LoadImageDataEventHandler[] {a};
+		LoadImageDataEvent event = new LoadImageDataEvent(blockedHandlers);
+		blockedHandlers[0] = b;
+
+		eventBus.fireEvent(event);
+		assertEquals("[b]", invocations.toString());
+	}
+
+	@Test
+	public void testExceptionsAreCollected() throws Exception {
+		eventBus.addHandler(LoadImageDataEvent.TYPE, new LoadImageDataEventHandler() {
+			public void onLoadImageData(LoadImageDataEvent event) {
+				throw new IllegalStateException();
+			}
+		});
+		eventBus.addHandler(LoadImageDataEvent.TYPE, new RecordingHandler("b"));
+
+		try {
+			eventBus.fireEvent(new LoadImageDataEvent());
+			fail();
+		} catch (UmbrellaException e) {
+			//the remaining handlers were invoked nevertheless
+			assertEquals("[b]", invocations.toString());
+		}
+	}
+
+	private class RecordingHandler implements LoadImageDataEventHandler, SetImageUrlEventHandler {
+		private final String name;
+
+		private RecordingHandler(String name) {
+			this.name = name;
+		}
+
+		public void onLoadImageData(LoadImageDataEvent event) {
+			invocations.add(name);
+		}
+
+		public void onSetImageUrl(SetImageUrlEvent event) {
+			invocations.add(name);
+		}
+	}
+}
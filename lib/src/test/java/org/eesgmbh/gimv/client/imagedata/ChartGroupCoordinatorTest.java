@@ -0,0 +1,206 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.imagedata;
+
+import static junit.framework.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eesgmbh.gimv.client.event.LoadImageDataEvent;
+import org.eesgmbh.gimv.client.event.LoadImageDataEventHandler;
+import org.eesgmbh.gimv.shared.util.Bounds;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+
+public class ChartGroupCoordinatorTest {
+
+	private MockBatchImageDataSource batchSource;
+	private TestChartGroupCoordinator coordinator;
+
+	@Before
+	public void setUp() {
+		batchSource = new MockBatchImageDataSource();
+		coordinator = new TestChartGroupCoordinator(batchSource);
+	}
+
+	@Test
+	public void testRequestsAreBatched() throws Exception {
+		ImageDataSource main = coordinator.addChart("main");
+		ImageDataSource overview = coordinator.addChart("overview");
+
+		MockCallback mainCallback = new MockCallback();
+		MockCallback overviewCallback = new MockCallback();
+
+		main.getImageData(createKey(0), mainCallback);
+		overview.getImageData(createKey(1), overviewCallback);
+
+		assertEquals(1, coordinator.scheduleCount);
+		assertEquals(0, batchSource.requestCount);
+
+		coordinator.flush();
+
+		assertEquals(1, batchSource.requestCount);
+		assertEquals(2, batchSource.requests.size());
+		assertEquals("main", batchSource.requests.get(0).getChartId());
+		assertEquals("overview", batchSource.requests.get(1).getChartId());
+
+		batchSource.respond("a", "b");
+
+		assertEquals("a", mainCallback.imageData.getImageUrl());
+		assertEquals("b", overviewCallback.imageData.getImageUrl());
+
+		//the next request starts a new batch
+		main.getImageData(createKey(2), new MockCallback());
+		assertEquals(2, coordinator.scheduleCount);
+	}
+
+	@Test
+	public void testFailures() throws Exception {
+		ImageDataSource main = coordinator.addChart("main");
+		ImageDataSource overview = coordinator.addChart("overview");
+
+		MockCallback mainCallback = new MockCallback();
+		MockCallback overviewCallback = new MockCallback();
+
+		main.getImageData(createKey(0), mainCallback);
+		overview.getImageData(createKey(1), overviewCallback);
+		coordinator.flush();
+
+		//a single chart could not be rendered
+		batchSource.respond("a", null);
+
+		assertNotNull(mainCallback.imageData);
+		assertNotNull(overviewCallback.caught);
+
+		mainCallback = new MockCallback();
+		overviewCallback = new MockCallback();
+
+		main.getImageData(createKey(0), mainCallback);
+		overview.getImageData(createKey(1), overviewCallback);
+		coordinator.flush();
+
+		//the whole batch failed
+		batchSource.callback.onFailure(new RuntimeException());
+
+		assertNotNull(mainCallback.caught);
+		assertNotNull(overviewCallback.caught);
+	}
+
+	@Test
+	public void testLinkedCharts() throws Exception {
+		HandlerManager hm1 = new HandlerManager(null);
+		HandlerManager hm2 = new HandlerManager(null);
+		HandlerManager hm3 = new HandlerManager(null);
+
+		coordinator.link(hm1);
+		coordinator.link(hm2);
+		coordinator.link(hm3);
+
+		CountingHandler counter1 = new CountingHandler(hm1);
+		CountingHandler counter2 = new CountingHandler(hm2);
+		CountingHandler counter3 = new CountingHandler(hm3);
+
+		hm2.fireEvent(new LoadImageDataEvent());
+
+		assertEquals(1, counter1.count);
+		assertEquals(1, counter2.count);
+		assertEquals(1, counter3.count);
+	}
+
+	@Test
+	public void testDispose() throws Exception {
+		HandlerManager hm1 = new HandlerManager(null);
+		HandlerManager hm2 = new HandlerManager(null);
+		coordinator.link(hm1);
+		coordinator.link(hm2);
+
+		coordinator.addChart("main").getImageData(createKey(0), new MockCallback());
+
+		coordinator.dispose();
+		coordinator.flush();
+
+		assertEquals(0, batchSource.requestCount);
+		assertEquals(0, hm1.getHandlerCount(LoadImageDataEvent.TYPE));
+	}
+
+	private ImageDataKey createKey(int i) {
+		return new ImageDataKey(new Bounds(i, i + 1, 0, 1), 800, 400);
+	}
+
+	private static class TestChartGroupCoordinator extends ChartGroupCoordinator {
+		private int scheduleCount;
+
+		TestChartGroupCoordinator(BatchImageDataSource batchImageDataSource) {
+			super(batchImageDataSource);
+		}
+
+		@Override
+		void scheduleFlush() {
+			scheduleCount++;
+		}
+	}
+
+	private static class MockBatchImageDataSource implements BatchImageDataSource {
+		private List<Request> requests;
+		private AsyncCallback<List<ImageData>> callback;
+		private int requestCount;
+
+		public void getImageData(List<Request> requests, AsyncCallback<List<ImageData>> callback) {
+			this.requests = requests;
+			this.callback = callback;
+			requestCount++;
+		}
+
+		private void respond(String... urls) {
+			List<ImageData> result = new ArrayList<ImageData>();
+			for (int i = 0; i < urls.length; i++) {
+				result.add(urls[i] != null ? new ImageData(urls[i], requests.get(i).getKey().getDomainBounds()) : null);
+			}
+
+			callback.onSuccess(result);
+		}
+	}
+
+	private static class MockCallback implements AsyncCallback<ImageData> {
+		private ImageData imageData;
+		private Throwable caught;
+
+		public void onSuccess(ImageData imageData) {
+			this.imageData = imageData;
+		}
+
+		public void onFailure(Throwable caught) {
+			this.caught = caught;
+		}
+	}
+
+	private static class CountingHandler implements LoadImageDataEventHandler {
+		private int count;
+
+		CountingHandler(HandlerManager handlerManager) {
+			handlerManager.addHandler(LoadImageDataEvent.TYPE, this);
+		}
+
+		public void onLoadImageData(LoadImageDataEvent event) {
+			count++;
+		}
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eesgmbh.gimv.client.imagedata;
+
+import static junit.framework.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eesgmbh.gimv.shared.util.Bounds;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+
+public class DedupingImageDataSourceTest {
+
+	private MockImageDataSource transport;
+
+	private ImageDataCache cache;
+	private PrefetchingImageDataSource prefetchingImageDataSource;
+	private ImageDataSource pipeline;
+
+	@Before
+	public void setUp() {
+		transport = new MockImageDataSource();
+
+		cache = new ImageDataCache();
+		cache.setRetainDecodedImages(false);
+
+		prefetchingImageDataSource = new PrefetchingImageDataSource(transport, cache);
+		pipeline = new CachingImageDataSource(cache, new DedupingImageDataSource(prefetchingImageDataSource));
+	}
+
+	@Test
+	public void testIdenticalRequestsAreCollapsed() throws Exception {
+		MockCallback callback1 = new MockCallback();
+		MockCallback callback2 = new MockCallback();
+
+		pipeline.getImageData(createKey(0), callback1);
+		pipeline.getImageData(createKey(0), callback2);
+		assertEquals(1, transport.pendingKeys.size());
+
+		transport.respond(0, "a");
+
+		assertEquals("a", callback1.imageData.getImageUrl());
+		assertSame(callback1.imageData, callback2.imageData);
+	}
+
+	@Test
+	public void testCachedImageDataIsNotRequestedAgain() throws Exception {
+		pipeline.getImageData(createKey(0), new MockCallback());
+		transport.respond(0, "a");
+
+		MockCallback callback = new MockCallback();
+		pipeline.getImageData(createKey(0), callback);
+
+		assertEquals(0, transport.pendingKeys.size());
+		assertEquals(1, transport.requestCount);
+		assertEquals("a", callback.imageData.getImageUrl());
+	}
+
+	@Test
+	public void testFailureIsPassedToAllCallbacks() throws Exception {
+		MockCallback callback1 = new MockCallback();
+		MockCallback callback2 = new MockCallback();
+
+		pipeline.getImageData(createKey(0), callback1);
+		pipeline.getImageData(createKey(0), callback2);
+
+		transport.fail(0);
+
+		assertNotNull(callback1.caught);
+		assertNotNull(callback2.caught);
+		assertEquals(0, cache.size());
+
+		//the next request is passed on again
+		pipeline.getImageData(createKey(0), new MockCallback());
+		assertEquals(1, transport.pendingKeys.size());
+	}
+
+	@Test
+	public void testPrefetchWaitsForRequests() throws Exception {
+		pipeline.getImageData(createKey(0), new MockCallback());
+
+		prefetchingImageDataSource.prefetch(createKey(1));
+		assertEquals(1, transport.pendingKeys.size());
+		assertEquals(1, prefetchingImageDataSource.getQueuedPrefetchCount());
+
+		transport.respond(0, "a");
+
+		//the prefetch request is started afterwards
+		assertEquals(1, transport.pendingKeys.size());
+		assertEquals(createKey(1), transport.pendingKeys.get(0));
+
+		transport.respond(0, "b");
+		assertTrue(cache.contains(createKey(1)));
+		assertTrue(prefetchingImageDataSource.isIdle());
+	}
+
+	@Test
+	public void testRequestJoinsPrefetch() throws Exception {
+		prefetchingImageDataSource.prefetch(createKey(1));
+		assertEquals(1, transport.pendingKeys.size());
+
+		MockCallback callback = new MockCallback();
+		pipeline.getImageData(createKey(1), callback);
+		assertEquals(1, transport.pendingKeys.size());
+
+		transport.respond(0, "b");
+		assertEquals("b", callback.imageData.getImageUrl());
+		assertEquals(1, transport.requestCount);
+	}
+
+	private ImageDataKey createKey(int left) {
+		return new ImageDataKey(new Bounds(left, left + 10, 0, 1), 100, 10);
+	}
+
+	private static class MockImageDataSource implements ImageDataSource {
+		private final List<ImageDataKey> pendingKeys = new ArrayList<ImageDataKey>();
+		private final List<AsyncCallback<ImageData>> pendingCallbacks = new ArrayList<AsyncCallback<ImageData>>();
+		private int requestCount;
+
+		public void getImageData(ImageDataKey key, AsyncCallback<ImageData> callback) {
+			pendingKeys.add(key);
+			pendingCallbacks.add(callback);
+			requestCount++;
+		}
+
+		private void respond(int index, String url) {
+			ImageDataKey key = pendingKeys.remove(index);
+			pendingCallbacks.remove(index).onSuccess(new ImageData(url, key.getDomainBounds()));
+		}
+
+		private void fail(int index) {
+			pendingKeys.remove(index);
+			pendingCallbacks.remove(index).onFailure(new RuntimeException());
+		}
+	}
+
+	private static class MockCallback implements AsyncCallback<ImageData> {
+		private ImageData imageData;
+		private Throwable caught;
+
+		public void onSuccess(ImageData imageData) {
+			this.imageData = imageData;
+		}
+
+		public void onFailure(Throwable caught) {
+			this.caught = caught;
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.imagedata;
+
+import static junit.framework.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eesgmbh.gimv.shared.util.Bounds;
+import org.eesgmbh.gimv.shared.util.ImageEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ImageDataCacheTest {
+
+	private ImageDataCache cache;
+
+	@Before
+	public void setUp() {
+		cache = new ImageDataCache();
+		cache.setRetainDecodedImages(false);
+	}
+
+	@Test
+	public void testGetAndCounters() throws Exception {
+		ImageData imageData = createImageData("a");
+		cache.put(createKey(0, 100, 10), imageData);
+
+		assertSame(imageData, cache.get(createKey(0, 100, 10)));
+		assertNull(cache.get(createKey(0, 100, 11)));
+		assertNull(cache.get(createKey(1, 100, 10)));
+		assertTrue(cache.contains(createKey(0, 100, 10)));
+
+		assertEquals(1, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+		assertEquals(1 / 3d, cache.getHitRate(), 0.0001);
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEviction() throws Exception {
+		cache.setMaxEntries(2);
+
+		cache.put(createKey(0, 100, 10), createImageData("a"));
+		cache.put(createKey(1, 100, 10), createImageData("b"));
+
+		//a is more recently used than b now
+		cache.get(createKey(0, 100, 10));
+
+		cache.put(createKey(2, 100, 10), createImageData("c"));
+
+		assertEquals(2, cache.size());
+		assertTrue(cache.contains(createKey(0, 100, 10)));
+		assertFalse(cache.contains(createKey(1, 100, 10)));
+		assertTrue(cache.contains(createKey(2, 100, 10)));
+		assertEquals(1, cache.getEvictionCount());
+	}
+
+	@Test
+	public void testMemoryBudget() throws Exception {
+		//a 100x10 image costs at least 4000 bytes
+		cache.setMaxBytes(10000);
+
+		cache.put(createKey(0, 100, 10), createImageData("a"));
+		cache.put(createKey(1, 100, 10), createImageData("b"));
+		assertEquals(2, cache.size());
+
+		cache.put(createKey(2, 100, 10), createImageData("c"));
+		assertEquals(2, cache.size());
+		assertFalse(cache.contains(createKey(0, 100, 10)));
+		assertTrue(cache.getEstimatedBytes() <= 10000);
+
+		//a single entry is kept, even if it exceeds the budget
+		cache.put(createKey(3, 1000, 1000), createImageData("d"));
+		assertEquals(1, cache.size());
+		assertTrue(cache.contains(createKey(3, 1000, 1000)));
+	}
+
+	@Test
+	public void testReplaceEntry() throws Exception {
+		cache.put(createKey(0, 100, 10), createImageData("a"));
+		long bytes = cache.getEstimatedBytes();
+
+		ImageData imageData = createImageData("b");
+		cache.put(createKey(0, 100, 10), imageData);
+
+		assertEquals(1, cache.size());
+		assertEquals(bytes, cache.getEstimatedBytes());
+		assertSame(imageData, cache.get(createKey(0, 100, 10)));
+	}
+
+	@Test
+	public void testEstimateBytesIncludesImageEntities() throws Exception {
+		ImageData imageData = createImageData("a");
+		long bytesWithoutEntities = ImageDataCache.estimateBytes(createKey(0, 100, 10), imageData);
+
+		List<ImageEntity> imageEntities = new ArrayList<ImageEntity>();
+		ImageEntity imageEntity = new ImageEntity(new Bounds(0, 1, 0, 1), "1");
+		imageEntity.putHoverHtmlFragment("0123456789");
+		imageEntities.add(imageEntity);
+		imageData.setImageEntities(imageEntities);
+
+		assertTrue(ImageDataCache.estimateBytes(createKey(0, 100, 10), imageData) > bytesWithoutEntities + 20);
+	}
+
+	private ImageDataKey createKey(int left, int width, int height) {
+		return new ImageDataKey(new Bounds(left, left + 10, 0, 1), width, height);
+	}
+
+	private ImageData createImageData(String url) {
+		return new ImageData(url, new Bounds(0, 10, 0, 1));
+	}
+}
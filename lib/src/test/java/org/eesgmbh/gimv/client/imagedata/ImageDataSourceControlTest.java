@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.imagedata;
+
+import static junit.framework.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eesgmbh.gimv.client.event.LoadImageDataEvent;
+import org.eesgmbh.gimv.client.event.LoadImageDataFailedEvent;
+import org.eesgmbh.gimv.client.event.LoadImageDataFailedEventHandler;
+import org.eesgmbh.gimv.client.event.SetDomainBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetImageUrlEvent;
+import org.eesgmbh.gimv.client.event.SetImageUrlEventHandler;
+import org.eesgmbh.gimv.client.event.SetViewportPixelBoundsEvent;
+import org.eesgmbh.gimv.client.testsupport.AbstractGimvUnitTest;
+import org.eesgmbh.gimv.shared.util.Bounds;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+
+public class ImageDataSourceControlTest extends AbstractGimvUnitTest {
+
+	private List<ImageDataKey> requestedKeys;
+	private List<AsyncCallback<ImageData>> callbacks;
+
+	private List<String> publishedUrls;
+	private List<LoadImageDataFailedEvent> failedEvents;
+
+	@Before
+	public void setUp() {
+		requestedKeys = new ArrayList<ImageDataKey>();
+		callbacks = new ArrayList<AsyncCallback<ImageData>>();
+
+		new ImageDataSourceControl(testHM, new ImageDataSource() {
+			public void getImageData(ImageDataKey key, AsyncCallback<ImageData> callback) {
+				requestedKeys.add(key);
+				callbacks.add(callback);
+			}
+		});
+
+		publishedUrls = new ArrayList<String>();
+		testHM.addHandler(SetImageUrlEvent.TYPE, new SetImageUrlEventHandler() {
+			public void onSetImageUrl(SetImageUrlEvent event) {
+				publishedUrls.add(event.getUrl());
+			}
+		});
+
+		failedEvents = new ArrayList<LoadImageDataFailedEvent>();
+		testHM.addHandler(LoadImageDataFailedEvent.TYPE, new LoadImageDataFailedEventHandler() {
+			public void onLoadImageDataFailed(LoadImageDataFailedEvent event) {
+				failedEvents.add(event);
+			}
+		});
+
+		testHM.fireEvent(new SetViewportPixelBoundsEvent(new Bounds(0, 100, 0, 50)));
+	}
+
+	@Test
+	public void testLoad() throws Exception {
+		testHM.fireEvent(new SetDomainBoundsEvent(new Bounds(0, 10, 0, 5)));
+		testHM.fireEvent(new LoadImageDataEvent());
+
+		assertEquals(1, requestedKeys.size());
+		assertEquals(new ImageDataKey(new Bounds(0, 10, 0, 5), 100, 50), requestedKeys.get(0));
+
+		callbacks.get(0).onSuccess(new ImageData("url", new Bounds(0, 10, 0, 5)));
+		assertEquals("[url]", publishedUrls.toString());
+	}
+
+	@Test
+	public void testSupersededResponseIsDiscarded() throws Exception {
+		testHM.fireEvent(new SetDomainBoundsEvent(new Bounds(0, 10, 0, 5)));
+		testHM.fireEvent(new LoadImageDataEvent());
+		testHM.fireEvent(new SetDomainBoundsEvent(new Bounds(10, 20, 0, 5)));
+		testHM.fireEvent(new LoadImageDataEvent());
+
+		callbacks.get(1).onSuccess(new ImageData("latest", new Bounds(10, 20, 0, 5)));
+		callbacks.get(0).onSuccess(new ImageData("superseded", new Bounds(0, 10, 0, 5)));
+
+		assertEquals("[latest]", publishedUrls.toString());
+	}
+
+	@Test
+	public void testFailureIsPublished() throws Exception {
+		testHM.fireEvent(new SetDomainBoundsEvent(new Bounds(0, 10, 0, 5)));
+		testHM.fireEvent(new LoadImageDataEvent());
+		testHM.fireEvent(new LoadImageDataEvent());
+
+		//only the failure of the latest request
+		RuntimeException caught = new RuntimeException();
+		callbacks.get(0).onFailure(new RuntimeException());
+		callbacks.get(1).onFailure(caught);
+
+		assertEquals(1, failedEvents.size());
+		assertSame(caught, failedEvents.get(0).getCaught());
+	}
+}
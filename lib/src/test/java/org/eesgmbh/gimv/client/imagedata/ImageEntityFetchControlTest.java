@@ -0,0 +1,186 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.eesgmbh.gimv.client.imagedata;
+
+import static junit.framework.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eesgmbh.gimv.client.event.SetImageEntitiesEvent;
+import org.eesgmbh.gimv.client.event.SetImageEntitiesEventHandler;
+import org.eesgmbh.gimv.client.event.SetImageEntitiesHandleEvent;
+import org.eesgmbh.gimv.client.event.ViewportMouseMoveEvent;
+import org.eesgmbh.gimv.client.testsupport.AbstractGimvUnitTest;
+import org.eesgmbh.gimv.client.testsupport.MockMouseMoveEvent;
+import org.eesgmbh.gimv.shared.util.ImageEntityBatch;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+
+public class ImageEntityFetchControlTest extends AbstractGimvUnitTest {
+
+	private ImageEntityFetchControl control;
+
+	private List<String> requestedHandles;
+	private List<AsyncCallback<ImageEntityBatch>> callbacks;
+
+	private List<ImageEntityBatch> publishedImageEntities;
+
+	@Before
+	public void setUp() {
+		requestedHandles = new ArrayList<String>();
+		callbacks = new ArrayList<AsyncCallback<ImageEntityBatch>>();
+
+		control = new ImageEntityFetchControl(testHM, new ImageEntitySource() {
+			public void getImageEntities(String handle, AsyncCallback<ImageEntityBatch> callback) {
+				requestedHandles.add(handle);
+				callbacks.add(callback);
+			}
+		});
+
+		publishedImageEntities = new ArrayList<ImageEntityBatch>();
+		testHM.addHandler(SetImageEntitiesEvent.TYPE, new SetImageEntitiesEventHandler() {
+			public void onSetImageEntities(SetImageEntitiesEvent event) {
+				publishedImageEntities.add(event.getImageEntityBatch());
+			}
+		});
+	}
+
+	@Test
+	public void testFetchOnFirstHover() throws Exception {
+		testHM.fireEvent(new SetImageEntitiesHandleEvent("a"));
+
+		//the previous image entities are discarded, nothing is fetched yet
+		assertEquals(1, publishedImageEntities.size());
+		assertEquals(0, publishedImageEntities.get(0).size());
+		assertTrue(requestedHandles.isEmpty());
+
+		moveMouse();
+		moveMouse();
+		assertEquals(1, requestedHandles.size());
+		assertEquals("a", requestedHandles.get(0));
+
+		ImageEntityBatch imageEntities = createImageEntities();
+		callbacks.get(0).onSuccess(imageEntities);
+
+		assertEquals(2, publishedImageEntities.size());
+		assertSame(imageEntities, publishedImageEntities.get(1));
+
+		//no further requests
+		moveMouse();
+		assertEquals(1, requestedHandles.size());
+	}
+
+	@Test
+	public void testCachedPerHandle() throws Exception {
+		ImageEntityBatch imageEntities = createImageEntities();
+
+		testHM.fireEvent(new SetImageEntitiesHandleEvent("a"));
+		moveMouse();
+		callbacks.get(0).onSuccess(imageEntities);
+
+		testHM.fireEvent(new SetImageEntitiesHandleEvent("b"));
+		testHM.fireEvent(new SetImageEntitiesHandleEvent("a"));
+
+		//published right away, without another request
+		assertSame(imageEntities, publishedImageEntities.get(publishedImageEntities.size() - 1));
+		assertEquals(1, requestedHandles.size());
+	}
+
+	@Test
+	public void testSupersededResponse() throws Exception {
+		testHM.fireEvent(new SetImageEntitiesHandleEvent("a"));
+		control.fetchCurrent();
+
+		testHM.fireEvent(new SetImageEntitiesHandleEvent("b"));
+		int published = publishedImageEntities.size();
+
+		//the response for the previous image is not published
+		callbacks.get(0).onSuccess(createImageEntities());
+		assertEquals(published, publishedImageEntities.size());
+	}
+
+	@Test
+	public void testFailedRequestNotRepeated() throws Exception {
+		testHM.fireEvent(new SetImageEntitiesHandleEvent("a"));
+		moveMouse();
+		callbacks.get(0).onFailure(new RuntimeException());
+
+		moveMouse();
+		assertEquals(1, requestedHandles.size());
+	}
+
+	@Test
+	public void testFailedRequestRetriedWhenShownAgain() throws Exception {
+		testHM.fireEvent(new SetImageEntitiesHandleEvent("a"));
+		moveMouse();
+		callbacks.get(0).onFailure(new RuntimeException());
+
+		testHM.fireEvent(new SetImageEntitiesHandleEvent("b"));
+		testHM.fireEvent(new SetImageEntitiesHandleEvent("a"));
+		moveMouse();
+
+		assertEquals(2, requestedHandles.size());
+		assertEquals("a", requestedHandles.get(1));
+
+		callbacks.get(1).onSuccess(createImageEntities());
+		assertEquals(1, publishedImageEntities.get(publishedImageEntities.size() - 1).size());
+	}
+
+	@Test
+	public void testFailedResponseForPreviousImage() throws Exception {
+		testHM.fireEvent(new SetImageEntitiesHandleEvent("a"));
+		moveMouse();
+
+		//the failure of a previous image does not block the current one
+		testHM.fireEvent(new SetImageEntitiesHandleEvent("b"));
+		callbacks.get(0).onFailure(new RuntimeException());
+		testHM.fireEvent(new SetImageEntitiesHandleEvent("a"));
+		moveMouse();
+
+		assertEquals(2, requestedHandles.size());
+	}
+
+	@Test
+	public void testDispose() throws Exception {
+		testHM.fireEvent(new SetImageEntitiesHandleEvent("a"));
+		moveMouse();
+
+		control.dispose();
+		callbacks.get(0).onSuccess(createImageEntities());
+
+		testHM.fireEvent(new SetImageEntitiesHandleEvent("b"));
+		moveMouse();
+
+		assertEquals(1, requestedHandles.size());
+		assertEquals(1, publishedImageEntities.size());
+	}
+
+	private void moveMouse() {
+		testHM.fireEvent(new ViewportMouseMoveEvent(new MockMouseMoveEvent(10, 10, 10, 10)));
+	}
+
+	private ImageEntityBatch createImageEntities() {
+		ImageEntityBatch imageEntities = new ImageEntityBatch(1);
+		imageEntities.add(0, 1, 0, 1, "1");
+
+		return imageEntities;
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eesgmbh.gimv.client.imagedata;
+
+import static junit.framework.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eesgmbh.gimv.client.event.LoadImageDataEvent;
+import org.eesgmbh.gimv.client.event.SetDomainBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetMaxDomainBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetViewportPixelBoundsEvent;
+import org.eesgmbh.gimv.client.testsupport.AbstractGimvUnitTest;
+import org.eesgmbh.gimv.shared.util.Bounds;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+
+public class PrefetchControlTest extends AbstractGimvUnitTest {
+
+	private PrefetchControl control;
+
+	private PrefetchingImageDataSource prefetchingImageDataSource;
+	private List<ImageDataKey> requestedKeys;
+
+	@Before
+	public void setUp() {
+		requestedKeys = new ArrayList<ImageDataKey>();
+
+		ImageDataCache cache = new ImageDataCache();
+		cache.setRetainDecodedImages(false);
+
+		//never responds, so the first prefetch stays in flight and the others are queued
+		prefetchingImageDataSource = new PrefetchingImageDataSource(new ImageDataSource() {
+			public void getImageData(ImageDataKey key, AsyncCallback<ImageData> callback) {
+				requestedKeys.add(key);
+			}
+		}, cache);
+
+		control = new PrefetchControl(testHM, prefetchingImageDataSource);
+
+		testHM.fireEvent(new SetViewportPixelBoundsEvent(new Bounds(0, 100, 0, 50)));
+		testHM.fireEvent(new SetDomainBoundsEvent(new Bounds(100, 200, 0, 50)));
+	}
+
+	@Test
+	public void testNeighbours() throws Exception {
+		control.addAbsoluteShift(10, 0);
+		control.addProportionalShift(-0.5, 0);
+		control.addPixelShift(20, 0);
+		control.addZoom(1);
+
+		control.prefetchNeighbours();
+
+		assertEquals(1, requestedKeys.size());
+		assertEquals(new ImageDataKey(new Bounds(110, 210, 0, 50), 100, 50), requestedKeys.get(0));
+		assertEquals(4, prefetchingImageDataSource.getQueuedPrefetchCount());
+	}
+
+	@Test
+	public void testZoomNeighboursMatchMouseWheelNotch() throws Exception {
+		control.addZoom(1);
+
+		control.prefetchNeighbours();
+		prefetchingImageDataSource.cancelPrefetches();
+
+		//zoom out by 100%, half of it on each side
+		assertEquals(new ImageDataKey(new Bounds(50, 250, -25, 75), 100, 50), requestedKeys.get(0));
+	}
+
+	@Test
+	public void testRequestBudget() throws Exception {
+		control.setMaxPrefetchRequests(2);
+		control.addAbsoluteShift(10, 0);
+		control.addAbsoluteShift(20, 0);
+		control.addAbsoluteShift(30, 0);
+
+		control.prefetchNeighbours();
+
+		assertEquals(1, requestedKeys.size());
+		assertEquals(1, prefetchingImageDataSource.getQueuedPrefetchCount());
+	}
+
+	@Test
+	public void testByteBudget() throws Exception {
+		//a 100x50 image costs 20000 bytes
+		control.setMaxPrefetchBytes(30000);
+		control.addAbsoluteShift(10, 0);
+		control.addAbsoluteShift(20, 0);
+
+		control.prefetchNeighbours();
+
+		assertEquals(1, requestedKeys.size());
+		assertEquals(0, prefetchingImageDataSource.getQueuedPrefetchCount());
+	}
+
+	@Test
+	public void testNeighboursBeyondMaxDomainBoundsAreSkipped() throws Exception {
+		testHM.fireEvent(new SetMaxDomainBoundsEvent(new Bounds(0, 205, 0, 50)));
+		control.addAbsoluteShift(10, 0);
+		control.addAbsoluteShift(-10, 0);
+
+		control.prefetchNeighbours();
+
+		assertEquals(1, requestedKeys.size());
+		assertEquals(new ImageDataKey(new Bounds(90, 190, 0, 50), 100, 50), requestedKeys.get(0));
+	}
+
+	@Test
+	public void testInputCancelsQueuedPrefetches() throws Exception {
+		control.addAbsoluteShift(10, 0);
+		control.addAbsoluteShift(20, 0);
+
+		control.prefetchNeighbours();
+		assertEquals(1, prefetchingImageDataSource.getQueuedPrefetchCount());
+
+		testHM.fireEvent(new LoadImageDataEvent());
+		assertEquals(0, prefetchingImageDataSource.getQueuedPrefetchCount());
+	}
+}
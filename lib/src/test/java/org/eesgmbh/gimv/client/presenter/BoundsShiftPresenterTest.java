@@ -21,11 +21,13 @@ import static org.junit.Assert.*;
 import org.eesgmbh.gimv.client.event.SetDomainBoundsEvent;
 import org.eesgmbh.gimv.client.event.SetViewportPixelBoundsEvent;
 import org.eesgmbh.gimv.client.testsupport.AbstractGimvUnitTest;
+import org.eesgmbh.gimv.client.testsupport.MockHandlerRegistration;
 import org.eesgmbh.gimv.shared.util.Bounds;
 import org.junit.Before;
 import org.junit.Test;
 
 import com.google.gwt.event.dom.client.ClickHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
 
 
 public class BoundsShiftPresenterTest extends AbstractGimvUnitTest {
@@ -164,11 +166,21 @@ public class BoundsShiftPresenterTest extends AbstractGimvUnitTest {
 		assertNotNull(testEH.loadImageDataEvent);
 	}
 
+	@Test
+	public void testDisposeRemovesViewHandler() throws Exception {
+		assertFalse(mockView.clickHandlerRegistration.removed);
+
+		presenter.dispose();
+		assertTrue(mockView.clickHandlerRegistration.removed);
+	}
+
 	private class MockView implements BoundsShiftPresenter.View {
 		private ClickHandler clickHandler;
+		private final MockHandlerRegistration clickHandlerRegistration = new MockHandlerRegistration();
 
-		public void addClickHandler(ClickHandler clickHandler) {
+		public HandlerRegistration addClickHandler(ClickHandler clickHandler) {
 			this.clickHandler = clickHandler;
+			return clickHandlerRegistration;
 		}
 
 		private void click() {
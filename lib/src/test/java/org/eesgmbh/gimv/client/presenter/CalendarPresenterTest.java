@@ -24,6 +24,7 @@ import java.util.GregorianCalendar;
 
 import org.eesgmbh.gimv.client.event.SetDomainBoundsEvent;
 import org.eesgmbh.gimv.client.testsupport.AbstractGimvUnitTest;
+import org.eesgmbh.gimv.client.testsupport.MockHandlerRegistration;
 import org.eesgmbh.gimv.shared.util.Bound;
 import org.eesgmbh.gimv.shared.util.Bounds;
 import org.junit.Before;
@@ -32,6 +33,7 @@ import org.junit.Test;
 import com.google.gwt.event.logical.shared.ShowRangeHandler;
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
 
 
 public class CalendarPresenterTest extends AbstractGimvUnitTest {
@@ -153,6 +155,16 @@ public class CalendarPresenterTest extends AbstractGimvUnitTest {
 		return newCal;
 	}
 
+	@Test
+	public void testDisposeRemovesViewHandlers() throws Exception {
+		assertFalse(mockView.showRangeHandlerRegistration.removed);
+		assertFalse(mockView.valueChangeHandlerRegistration.removed);
+
+		presenter.dispose();
+		assertTrue(mockView.showRangeHandlerRegistration.removed);
+		assertTrue(mockView.valueChangeHandlerRegistration.removed);
+	}
+
 	private Calendar addDay(Calendar cal) {
 		Calendar newCal = (Calendar) cal.clone();
 		newCal.add(Calendar.DAY_OF_MONTH, 1);
@@ -168,6 +180,8 @@ public class CalendarPresenterTest extends AbstractGimvUnitTest {
 	private class MockView implements CalendarPresenter.View {
 		private Date date;
 		private ValueChangeHandler<Date> valueChangeHandler;
+		private final MockHandlerRegistration showRangeHandlerRegistration = new MockHandlerRegistration();
+		private final MockHandlerRegistration valueChangeHandlerRegistration = new MockHandlerRegistration();
 
 		private void changeDate(Calendar date) {
 			valueChangeHandler.onValueChange(new TestDateChangeEvent(date.getTime()));
@@ -179,10 +193,12 @@ public class CalendarPresenterTest extends AbstractGimvUnitTest {
 		public void setDate(Date date) {
 			this.date = date;
 		}
-		public void addShowRangeHandler(ShowRangeHandler<Date> showRangeHandler) {
+		public HandlerRegistration addShowRangeHandler(ShowRangeHandler<Date> showRangeHandler) {
+			return showRangeHandlerRegistration;
 		}
-		public void addValueChangeHandler(ValueChangeHandler<Date> valueChangeHandler) {
+		public HandlerRegistration addValueChangeHandler(ValueChangeHandler<Date> valueChangeHandler) {
 			this.valueChangeHandler = valueChangeHandler;
+			return valueChangeHandlerRegistration;
 		}
 	}
 
@@ -20,10 +20,12 @@ import static junit.framework.Assert.*;
 
 import org.eesgmbh.gimv.client.event.StateChangeEvent;
 import org.eesgmbh.gimv.client.testsupport.AbstractGimvUnitTest;
+import org.eesgmbh.gimv.client.testsupport.MockHandlerRegistration;
 import org.junit.Before;
 import org.junit.Test;
 
 import com.google.gwt.event.dom.client.ClickHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
 
 
 public class ImageMoveOrZoomToggleButtonPresenterTest extends AbstractGimvUnitTest {
@@ -69,11 +71,23 @@ public class ImageMoveOrZoomToggleButtonPresenterTest extends AbstractGimvUnitTe
 		assertTrue(mockView.toggleZoomInvoked);
 	}
 
+	@Test
+	public void testDisposeRemovesViewHandlers() throws Exception {
+		assertFalse(mockView.moveClickHandlerRegistration.removed);
+		assertFalse(mockView.zoomClickHandlerRegistration.removed);
+
+		presenter.dispose();
+		assertTrue(mockView.moveClickHandlerRegistration.removed);
+		assertTrue(mockView.zoomClickHandlerRegistration.removed);
+	}
+
 	private class MockView implements ImageMoveOrZoomToggleButtonPresenter.View {
 		private boolean toggleMoveInvoked;
 		private boolean toggleZoomInvoked;
 		private ClickHandler moveClickHandler;
 		private ClickHandler zoomClickHandler;
+		private final MockHandlerRegistration moveClickHandlerRegistration = new MockHandlerRegistration();
+		private final MockHandlerRegistration zoomClickHandlerRegistration = new MockHandlerRegistration();
 
 		private void clear() {
 			toggleMoveInvoked = false;
@@ -96,12 +110,14 @@ public class ImageMoveOrZoomToggleButtonPresenterTest extends AbstractGimvUnitTe
 			toggleZoomInvoked = true;
 		}
 
-		public void addMoveClickHandler(ClickHandler clickHandler) {
+		public HandlerRegistration addMoveClickHandler(ClickHandler clickHandler) {
 			moveClickHandler = clickHandler;
+			return moveClickHandlerRegistration;
 		}
 
-		public void addZoomClickHandler(ClickHandler clickHandler) {
+		public HandlerRegistration addZoomClickHandler(ClickHandler clickHandler) {
 			zoomClickHandler = clickHandler;
+			return zoomClickHandlerRegistration;
 		}
 	}
 }
@@ -19,15 +19,21 @@ package org.eesgmbh.gimv.client.presenter;
 import static junit.framework.Assert.*;
 
 import org.eesgmbh.gimv.client.event.ChangeImagePixelBoundsEvent;
+import org.eesgmbh.gimv.client.event.ImageLoadFailedEvent;
+import org.eesgmbh.gimv.client.event.ImageLoadFailedEventHandler;
+import org.eesgmbh.gimv.client.event.ImageLoadedEvent;
+import org.eesgmbh.gimv.client.event.ImageLoadedEventHandler;
 import org.eesgmbh.gimv.client.event.SetImageUrlEvent;
 import org.eesgmbh.gimv.client.event.SetViewportPixelBoundsEvent;
 import org.eesgmbh.gimv.client.testsupport.AbstractGimvUnitTest;
+import org.eesgmbh.gimv.client.testsupport.MockHandlerRegistration;
 import org.eesgmbh.gimv.shared.util.Bounds;
 import org.junit.Before;
 import org.junit.Test;
 
 import com.google.gwt.event.dom.client.ErrorHandler;
 import com.google.gwt.event.dom.client.LoadHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
 
 
 public class ImagePresenterTest extends AbstractGimvUnitTest {
@@ -86,6 +92,46 @@ public class ImagePresenterTest extends AbstractGimvUnitTest {
 		assertEquals(200, mockView.height);
 	}
 
+	@Test
+	public void testImageLoadedEvent() throws Exception {
+		final ImageLoadedEvent[] imageLoadedEvent = new ImageLoadedEvent[1];
+		testHM.addHandler(ImageLoadedEvent.TYPE, new ImageLoadedEventHandler() {
+			public void onImageLoaded(ImageLoadedEvent event) {
+				imageLoadedEvent[0] = event;
+			}
+		});
+
+		testHM.fireEvent(new SetImageUrlEvent("myUrl"));
+		assertNull(imageLoadedEvent[0]);
+
+		mockView.loadHandler.onLoad(null);
+		assertEquals("myUrl", imageLoadedEvent[0].getUrl());
+	}
+
+	@Test
+	public void testImageLoadFailedEvent() throws Exception {
+		final ImageLoadFailedEvent[] imageLoadFailedEvent = new ImageLoadFailedEvent[1];
+		testHM.addHandler(ImageLoadFailedEvent.TYPE, new ImageLoadFailedEventHandler() {
+			public void onImageLoadFailed(ImageLoadFailedEvent event) {
+				imageLoadFailedEvent[0] = event;
+			}
+		});
+
+		testHM.fireEvent(new SetImageUrlEvent("myUrl"));
+		mockView.errorHandler.onError(null);
+		assertEquals("myUrl", imageLoadFailedEvent[0].getUrl());
+	}
+
+	@Test
+	public void testDisposeRemovesViewHandlers() throws Exception {
+		assertFalse(mockView.loadHandlerRegistration.removed);
+		assertFalse(mockView.errorHandlerRegistration.removed);
+
+		presenter.dispose();
+		assertTrue(mockView.loadHandlerRegistration.removed);
+		assertTrue(mockView.errorHandlerRegistration.removed);
+	}
+
 	private class MockView implements ImagePresenter.View {
 		private String url;
 
@@ -100,6 +146,9 @@ public class ImagePresenterTest extends AbstractGimvUnitTest {
 		private int offsetHeight;
 
 		private LoadHandler loadHandler;
+		private ErrorHandler errorHandler;
+		private final MockHandlerRegistration loadHandlerRegistration = new MockHandlerRegistration();
+		private final MockHandlerRegistration errorHandlerRegistration = new MockHandlerRegistration();
 
 		private void clear() {
 			url = null;
@@ -115,8 +164,9 @@ public class ImagePresenterTest extends AbstractGimvUnitTest {
 			offsetHeight = Integer.MAX_VALUE;
 		}
 
-		public void addLoadHandler(LoadHandler loadHandler) {
+		public HandlerRegistration addLoadHandler(LoadHandler loadHandler) {
 			this.loadHandler = loadHandler;
+			return loadHandlerRegistration;
 		}
 
 		public void changeDimensions(int offsetWidth, int offsetHeight) {
@@ -143,7 +193,9 @@ public class ImagePresenterTest extends AbstractGimvUnitTest {
 			this.url = url;
 		}
 
-		public void addErrorHandler(ErrorHandler errorHandler) {
+		public HandlerRegistration addErrorHandler(ErrorHandler errorHandler) {
+			this.errorHandler = errorHandler;
+			return errorHandlerRegistration;
 		}
 	}
 }
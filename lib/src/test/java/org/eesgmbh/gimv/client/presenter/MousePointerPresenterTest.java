@@ -121,5 +121,18 @@ public class MousePointerPresenterTest extends AbstractGimvUnitTest {
 		assertTrue(mockView.hideInvoked);
 	}
 
+	@Test
+	public void testDispose() throws Exception {
+		int handlerCount = testHM.getHandlerCount(ViewportMouseMoveEvent.TYPE);
+
+		presenter.dispose();
+		assertEquals(handlerCount - 1, testHM.getHandlerCount(ViewportMouseMoveEvent.TYPE));
 
+		mockView.clear();
+		testHM.fireEvent(new ViewportMouseMoveEvent(new MockMouseMoveEvent(10, 20, 110, 220)));
+		assertFalse(mockView.showInvoked);
+
+		//disposing twice has no effect
+		presenter.dispose();
+	}
 }
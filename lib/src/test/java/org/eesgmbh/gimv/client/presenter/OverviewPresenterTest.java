@@ -18,10 +18,13 @@ package org.eesgmbh.gimv.client.presenter;
 
 import static junit.framework.Assert.*;
 
+import org.eesgmbh.gimv.client.event.ImageLoadedEvent;
 import org.eesgmbh.gimv.client.event.LoadImageDataEvent;
 import org.eesgmbh.gimv.client.event.SetDomainBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetImageUrlEvent;
 import org.eesgmbh.gimv.client.event.SetOverviewDomainBoundsEvent;
 import org.eesgmbh.gimv.client.event.SetViewportPixelBoundsEvent;
+import org.eesgmbh.gimv.client.event.TransactionEvent;
 import org.eesgmbh.gimv.client.event.ViewportDragFinishedEvent;
 import org.eesgmbh.gimv.client.event.ViewportDragInProgressEvent;
 import org.eesgmbh.gimv.client.testsupport.AbstractGimvUnitTest;
@@ -96,6 +99,30 @@ public class OverviewPresenterTest extends AbstractGimvUnitTest {
 		assertMockOverviewHandleView(300, 0, 200, 300);
 	}
 
+	/**
+	 * Asserts that the overview is placed only once at the commit of a transaction
+	 */
+	@Test
+	public void testOverviewPlacementWithinTransaction() throws Exception {
+		mockOverviewHandleView.clear();
+
+		testHM.fireEvent(TransactionEvent.createBegin());
+		testHM.fireEvent(new SetViewportPixelBoundsEvent(new Bounds(0, 100, 0, 50)));
+		testHM.fireEvent(new SetDomainBoundsEvent(new Bounds(0, 1000, 0, 500)));
+		testHM.fireEvent(new SetOverviewDomainBoundsEvent(new Bounds(300, 700, 100, 400)));
+
+		//nested transactions are committed by the outermost commit
+		testHM.fireEvent(TransactionEvent.createBegin());
+		testHM.fireEvent(new SetDomainBoundsEvent(new Bounds(100, 1100, 0, 500)));
+		testHM.fireEvent(TransactionEvent.createCommit());
+
+		assertFalse(mockOverviewHandleView.showInvoked);
+
+		testHM.fireEvent(TransactionEvent.createCommit());
+		assertTrue(mockOverviewHandleView.showInvoked);
+		assertMockOverviewHandleView(20, 0, 40, 30);
+	}
+
 	/**
 	 * Asserts the correct placement of the overview based on movements of the handle
 	 * and also asserts proper firefing of {@link SetDomainBoundsEvent} and {@link LoadImageDataEvent}
@@ -140,6 +167,117 @@ public class OverviewPresenterTest extends AbstractGimvUnitTest {
 		assertNotNull(dependantTestEH.loadImageDataEvent);
 	}
 
+	/**
+	 * Asserts that the handles' layout is only read at the start of a drag
+	 */
+	@Test
+	public void testHandleBoundsAreNotReadWhileDragging() throws Exception {
+		testHM.fireEvent(new SetViewportPixelBoundsEvent(new Bounds(0, 100, 0, 50)));
+		testHM.fireEvent(new SetDomainBoundsEvent(new Bounds(0, 1000, 0, 500)));
+		testHM.fireEvent(new SetOverviewDomainBoundsEvent(new Bounds(300, 700, 100, 400)));
+
+		mockLeftHandleView.clear();
+		mockLeftAndRightHandleView.clear();
+		mockRightHandleView.clear();
+
+		mockLeftHandleView.getBounds = new Bounds(30, 40, 0, 50);
+		mockLeftAndRightHandleView.getBounds = new Bounds(41, 59, 0, 50);
+		mockRightHandleView.getBounds = new Bounds(60, 70, 0, 50);
+
+		for (int i = 0; i < 5; i++) {
+			testHM.fireEvent(createDragInProgressEvent(50 + i, 10, 1, 0));
+		}
+
+		assertMockOverviewHandleView(35, 0, 40, 30);
+		assertEquals(1, mockLeftHandleView.getAbsBoundsInvocations);
+		assertEquals(1, mockLeftAndRightHandleView.getAbsBoundsInvocations);
+		assertEquals(0, mockRightHandleView.getAbsBoundsInvocations);
+
+		testHM.fireEvent(createDragFinishedEvent());
+		assertEquals(new Bounds(350, 750, 100, 400), dependantTestEH.setDomainBoundsEvent.getBounds());
+	}
+
+	@Test
+	public void testLivePreview() throws Exception {
+		presenter.setLivePreview(true);
+		presenter.setLivePreviewLoadInterval(0);
+
+		testHM.fireEvent(new SetViewportPixelBoundsEvent(new Bounds(0, 100, 0, 50)));
+		testHM.fireEvent(new SetDomainBoundsEvent(new Bounds(0, 1000, 0, 500)));
+		testHM.fireEvent(new SetOverviewDomainBoundsEvent(new Bounds(300, 700, 100, 400)));
+
+		dependantTestHM.fireEvent(new SetViewportPixelBoundsEvent(new Bounds(0, 1000, 0, 500)));
+		dependantTestHM.fireEvent(new SetDomainBoundsEvent(new Bounds(300, 700, 100, 400)));
+
+		mockLeftHandleView.getBounds = new Bounds(30, 40, 0, 50);
+		mockLeftAndRightHandleView.getBounds = new Bounds(41, 59, 0, 50);
+		mockRightHandleView.getBounds = new Bounds(60, 70, 0, 50);
+
+		//moving the dependant image to the left while dragging the overview to the right
+		testHM.fireEvent(createDragInProgressEvent(50, 10, 6, 0));
+		assertEquals(-150d, dependantTestEH.changeImagePixelBoundsEvent.getOffsetX(), 0.001);
+		assertEquals(0d, dependantTestEH.changeImagePixelBoundsEvent.getOffsetWidth(), 0.001);
+		assertEquals(new Bounds(360, 760, 100, 400), dependantTestEH.setDomainBoundsEvent.getBounds());
+		assertNotNull(dependantTestEH.loadImageDataEvent);
+
+		testHM.fireEvent(createDragInProgressEvent(56, 10, 4, 0));
+		assertEquals(-100d, dependantTestEH.changeImagePixelBoundsEvent.getOffsetX(), 0.001);
+		assertEquals(new Bounds(400, 800, 100, 400), dependantTestEH.setDomainBoundsEvent.getBounds());
+
+		//the requested image arrived, but the browser still displays the previous one
+		dependantTestEH.changeImagePixelBoundsEvent = null;
+		dependantTestHM.fireEvent(new SetImageUrlEvent("url"));
+		dependantTestHM.fireEvent(new SetDomainBoundsEvent(new Bounds(400, 800, 100, 400)));
+		assertNull(dependantTestEH.changeImagePixelBoundsEvent);
+
+		//still moving the previous image
+		testHM.fireEvent(createDragInProgressEvent(60, 10, 2, 0));
+		assertEquals(-50d, dependantTestEH.changeImagePixelBoundsEvent.getOffsetX(), 0.001);
+		assertEquals(new Bounds(420, 820, 100, 400), dependantTestEH.setDomainBoundsEvent.getBounds());
+
+		//the new image of 400 - 800 is displayed at its origin, moved to the dragged domain bounds
+		dependantTestEH.changeImagePixelBoundsEvent = null;
+		dependantTestHM.fireEvent(new ImageLoadedEvent("url"));
+		assertEquals(-50d, dependantTestEH.changeImagePixelBoundsEvent.getOffsetX(), 0.001);
+		assertEquals(0d, dependantTestEH.changeImagePixelBoundsEvent.getOffsetWidth(), 0.001);
+
+		//previewing continues from there
+		testHM.fireEvent(createDragInProgressEvent(62, 10, 2, 0));
+		assertEquals(-50d, dependantTestEH.changeImagePixelBoundsEvent.getOffsetX(), 0.001);
+
+		dependantTestEH.loadImageDataEvent = null;
+		testHM.fireEvent(createDragFinishedEvent());
+		assertEquals(new Bounds(440, 840, 100, 400), dependantTestEH.setDomainBoundsEvent.getBounds());
+		assertNotNull(dependantTestEH.loadImageDataEvent);
+	}
+
+	@Test
+	public void testLivePreviewIgnoresImageLoadAfterDrag() throws Exception {
+		presenter.setLivePreview(true);
+		presenter.setLivePreviewLoadInterval(0);
+
+		testHM.fireEvent(new SetViewportPixelBoundsEvent(new Bounds(0, 100, 0, 50)));
+		testHM.fireEvent(new SetDomainBoundsEvent(new Bounds(0, 1000, 0, 500)));
+		testHM.fireEvent(new SetOverviewDomainBoundsEvent(new Bounds(300, 700, 100, 400)));
+
+		dependantTestHM.fireEvent(new SetViewportPixelBoundsEvent(new Bounds(0, 1000, 0, 500)));
+		dependantTestHM.fireEvent(new SetDomainBoundsEvent(new Bounds(300, 700, 100, 400)));
+
+		mockLeftHandleView.getBounds = new Bounds(30, 40, 0, 50);
+		mockLeftAndRightHandleView.getBounds = new Bounds(41, 59, 0, 50);
+		mockRightHandleView.getBounds = new Bounds(60, 70, 0, 50);
+
+		testHM.fireEvent(createDragInProgressEvent(50, 10, 6, 0));
+		testHM.fireEvent(createDragFinishedEvent());
+
+		//the image loaded after the drag is not moved anymore
+		dependantTestEH.changeImagePixelBoundsEvent = null;
+		dependantTestHM.fireEvent(new SetImageUrlEvent("url"));
+		dependantTestHM.fireEvent(new SetDomainBoundsEvent(new Bounds(360, 760, 100, 400)));
+		dependantTestHM.fireEvent(new ImageLoadedEvent("url"));
+		assertNull(dependantTestEH.changeImagePixelBoundsEvent);
+	}
+
 	private void assertMockOverviewHandleView(int x, int y, int width, int height) {
 		assertEquals(x, mockOverviewHandleView.setX);
 		assertEquals(y, mockOverviewHandleView.setY);
@@ -154,4 +292,16 @@ public class OverviewPresenterTest extends AbstractGimvUnitTest {
 	private ViewportDragInProgressEvent createDragInProgressEvent(int originAbsX, int originAbsY, int horizontalDragOffset, int verticalDragOffset) {
 		return new ViewportDragInProgressEvent(horizontalDragOffset, verticalDragOffset, new Bounds(), new Bounds(originAbsX, 0, originAbsY, 0));
 	}
+
+	@Test
+	public void testDispose() throws Exception {
+		int handlerCount = testHM.getHandlerCount(SetDomainBoundsEvent.TYPE);
+		int dependantHandlerCount = dependantTestHM.getHandlerCount(SetDomainBoundsEvent.TYPE);
+
+		presenter.dispose();
+
+		//the handlers registered with the dependant handler manager are removed as well
+		assertEquals(handlerCount - 1, testHM.getHandlerCount(SetDomainBoundsEvent.TYPE));
+		assertEquals(dependantHandlerCount - 1, dependantTestHM.getHandlerCount(SetDomainBoundsEvent.TYPE));
+	}
 }
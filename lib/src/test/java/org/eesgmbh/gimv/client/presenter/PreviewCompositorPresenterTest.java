@@ -0,0 +1,199 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.presenter;
+
+import static junit.framework.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eesgmbh.gimv.client.event.ChangeImagePixelBoundsEvent;
+import org.eesgmbh.gimv.client.event.ImageLoadedEvent;
+import org.eesgmbh.gimv.client.event.SetDomainBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetImageUrlEvent;
+import org.eesgmbh.gimv.client.event.SetViewportPixelBoundsEvent;
+import org.eesgmbh.gimv.client.testsupport.AbstractGimvUnitTest;
+import org.eesgmbh.gimv.shared.util.Bounds;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gwt.event.shared.HandlerManager;
+
+
+public class PreviewCompositorPresenterTest extends AbstractGimvUnitTest {
+
+	private PreviewCompositorPresenter presenter;
+	private MockView mockView;
+
+	private HandlerManager overviewHM;
+
+	@Before
+	public void setUp() {
+		mockView = new MockView();
+		presenter = new PreviewCompositorPresenter(testHM, mockView);
+
+		overviewHM = new HandlerManager(null);
+		presenter.addImageSource(overviewHM);
+
+		testHM.fireEvent(new SetViewportPixelBoundsEvent(new Bounds(0, 100, 0, 50)));
+		overviewHM.fireEvent(new SetViewportPixelBoundsEvent(new Bounds(0, 100, 0, 50)));
+	}
+
+	@Test
+	public void testImagesAreRememberedWithDomainBounds() throws Exception {
+		publishImage(testHM, "a", new Bounds(0, 100, 0, 50));
+		assertEquals(1, presenter.getCachedImageUrls().size());
+
+		//domain bounds without a preceding url are no new image
+		testHM.fireEvent(new SetDomainBoundsEvent(new Bounds(10, 110, 0, 50)));
+		assertEquals(1, presenter.getCachedImageUrls().size());
+
+		publishImage(testHM, "b", new Bounds(100, 200, 0, 50));
+		publishImage(overviewHM, "overview", new Bounds(-1000, 1000, 0, 50));
+		assertEquals("[a, b, overview]", presenter.getCachedImageUrls().toString());
+
+		//an image loaded again replaces its entry
+		publishImage(testHM, "a", new Bounds(0, 100, 0, 50));
+		assertEquals("[b, overview, a]", presenter.getCachedImageUrls().toString());
+	}
+
+	@Test
+	public void testPaintExposedAreaWhileDragging() throws Exception {
+		publishImage(testHM, "a", new Bounds(0, 100, 0, 50));
+		publishImage(testHM, "b", new Bounds(100, 200, 0, 50));
+
+		//the image b is moved to the right, a becomes visible on the left
+		testHM.fireEvent(new ChangeImagePixelBoundsEvent(50, 0));
+
+		assertEquals(1, mockView.layers.size());
+		assertEquals(new Layer("a", -50, 0, 100, 50), mockView.layers.get(0));
+
+		//image a is not visible anymore
+		testHM.fireEvent(new ChangeImagePixelBoundsEvent(-100, 0));
+		assertEquals(0, mockView.layers.size());
+	}
+
+	@Test
+	public void testPaintCoarseImagesFirst() throws Exception {
+		publishImage(overviewHM, "overview", new Bounds(-1000, 1000, 0, 50));
+		publishImage(testHM, "a", new Bounds(0, 200, 0, 50));
+		publishImage(testHM, "b", new Bounds(50, 150, 0, 50));
+
+		//zoom out preview, the image b shrinks to half of its size
+		testHM.fireEvent(new ChangeImagePixelBoundsEvent(25, 12, -50, -25));
+
+		assertEquals(2, mockView.layers.size());
+		assertEquals(new Layer("overview", -500, 12, 1000, 25), mockView.layers.get(0));
+		assertEquals(new Layer("a", 0, 12, 100, 25), mockView.layers.get(1));
+	}
+
+	@Test
+	public void testNewImageClearsLayers() throws Exception {
+		publishImage(testHM, "a", new Bounds(0, 100, 0, 50));
+		publishImage(testHM, "b", new Bounds(100, 200, 0, 50));
+		testHM.fireEvent(new ChangeImagePixelBoundsEvent(50, 0));
+		assertEquals(1, mockView.layers.size());
+
+		publishImage(testHM, "c", new Bounds(50, 150, 0, 50));
+		assertEquals(0, mockView.layers.size());
+	}
+
+	@Test
+	public void testMoveBetweenPublishAndLoad() throws Exception {
+		publishImage(testHM, "a", new Bounds(0, 100, 0, 50));
+		publishImage(testHM, "b", new Bounds(100, 200, 0, 50));
+		testHM.fireEvent(new ChangeImagePixelBoundsEvent(50, 0));
+
+		//c is published, but b is still displayed at 50 until c was loaded
+		testHM.fireEvent(new SetImageUrlEvent("c"));
+		testHM.fireEvent(new SetDomainBoundsEvent(new Bounds(50, 150, 0, 50)));
+		assertEquals(1, mockView.layers.size());
+
+		//the move is relative to b
+		testHM.fireEvent(new ChangeImagePixelBoundsEvent(10, 0));
+		assertEquals(2, mockView.layers.size());
+		assertEquals(new Layer("a", -40, 0, 100, 50), mockView.layers.get(0));
+		assertEquals(new Layer("c", 10, 0, 100, 50), mockView.layers.get(1));
+
+		//c is displayed at its origin
+		testHM.fireEvent(new ImageLoadedEvent("c"));
+		assertEquals(0, mockView.layers.size());
+
+		testHM.fireEvent(new ChangeImagePixelBoundsEvent(20, 0));
+		assertEquals(2, mockView.layers.size());
+		assertEquals(new Layer("a", -30, 0, 100, 50), mockView.layers.get(0));
+		assertEquals(new Layer("b", 70, 0, 100, 50), mockView.layers.get(1));
+	}
+
+	@Test
+	public void testMaxCachedImages() throws Exception {
+		presenter.setMaxCachedImages(2);
+
+		publishImage(testHM, "a", new Bounds(0, 100, 0, 50));
+		publishImage(testHM, "b", new Bounds(100, 200, 0, 50));
+		publishImage(testHM, "c", new Bounds(200, 300, 0, 50));
+
+		assertEquals("[b, c]", presenter.getCachedImageUrls().toString());
+	}
+
+	private void publishImage(HandlerManager handlerManager, String url, Bounds domainBounds) {
+		handlerManager.fireEvent(new SetImageUrlEvent(url));
+		handlerManager.fireEvent(new SetDomainBoundsEvent(domainBounds));
+		handlerManager.fireEvent(new ImageLoadedEvent(url));
+	}
+
+	private static class Layer {
+		private final String url;
+		private final int x, y, width, height;
+
+		private Layer(String url, int x, int y, int width, int height) {
+			this.url = url;
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			Layer other = (Layer) obj;
+			return url.equals(other.url) && x == other.x && y == other.y && width == other.width && height == other.height;
+		}
+
+		@Override
+		public int hashCode() {
+			return url.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return url + " " + x + "," + y + " " + width + "x" + height;
+		}
+	}
+
+	private class MockView implements PreviewCompositorPresenter.View {
+		private final List<Layer> layers = new ArrayList<Layer>();
+
+		public void clearLayers() {
+			layers.clear();
+		}
+
+		public void addLayer(String url, int x, int y, int width, int height) {
+			layers.add(new Layer(url, x, y, width, height));
+		}
+	}
+}
@@ -19,12 +19,14 @@ package org.eesgmbh.gimv.client.presenter;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.eesgmbh.gimv.client.event.EventTransaction;
 import org.eesgmbh.gimv.client.event.SetImageEntitiesEvent;
 import org.eesgmbh.gimv.client.event.ViewportMouseMoveEvent;
 import org.eesgmbh.gimv.client.testsupport.AbstractGimvGwtTest;
 import org.eesgmbh.gimv.client.testsupport.MockMouseMoveEvent;
 import org.eesgmbh.gimv.shared.util.Bounds;
 import org.eesgmbh.gimv.shared.util.ImageEntity;
+import org.eesgmbh.gimv.shared.util.ImageEntityBatch;
 import org.junit.Test;
 
 
@@ -58,4 +60,55 @@ public class TooltipPresenterTest extends AbstractGimvGwtTest {
 		assertEquals("test html", presenter.getTooltipViewFactory().getViewsPool().get(0).getHtml());
 	}
 
+	@Test
+	public void testShowTooltipFromBatch() throws Exception {
+		ImageEntityBatch imageEntityBatch = new ImageEntityBatch(1);
+		imageEntityBatch.putHoverHtmlFragment(imageEntityBatch.add(60, 62, 40, 42, "1"), "batch html");
+
+		testHM.fireEvent(new SetImageEntitiesEvent(imageEntityBatch));
+
+		testHM.fireEvent(new ViewportMouseMoveEvent(new MockMouseMoveEvent(50, 40, 150, 140)));
+		assertEquals(0, presenter.getTooltipViewFactory().getViewsPool().size());
+
+		testHM.fireEvent(new ViewportMouseMoveEvent(new MockMouseMoveEvent(61, 40, 161, 140)));
+		assertEquals("batch html", presenter.getTooltipViewFactory().getViewsPool().get(0).getHtml());
+	}
+
+	@Test
+	public void testShowTooltipFromTemplate() throws Exception {
+		ImageEntityBatch imageEntityBatch = new ImageEntityBatch(1);
+		imageEntityBatch.putValues(imageEntityBatch.add(60, 62, 40, 42, "1"), 1000, 2.5);
+
+		presenter.setHoverHtmlFormatter("1", new TooltipTemplate("{y} at {x}"));
+		testHM.fireEvent(new SetImageEntitiesEvent(imageEntityBatch));
+
+		testHM.fireEvent(new ViewportMouseMoveEvent(new MockMouseMoveEvent(61, 40, 161, 140)));
+		assertEquals("2.5 at 1000.0", presenter.getTooltipViewFactory().getViewsPool().get(0).getHtml());
+	}
+
+	@Test
+	public void testIndexingIsDeferredUntilCommit() throws Exception {
+		ImageEntityBatch firstBatch = new ImageEntityBatch(1);
+		firstBatch.putHoverHtmlFragment(firstBatch.add(60, 62, 40, 42, "1"), "first html");
+
+		ImageEntityBatch secondBatch = new ImageEntityBatch(1);
+		secondBatch.putHoverHtmlFragment(secondBatch.add(70, 72, 40, 42, "1"), "second html");
+
+		EventTransaction transaction = EventTransaction.begin(testHM);
+		transaction.fireEvent(new SetImageEntitiesEvent(firstBatch));
+		transaction.fireEvent(new SetImageEntitiesEvent(secondBatch));
+
+		//not indexed yet
+		testHM.fireEvent(new ViewportMouseMoveEvent(new MockMouseMoveEvent(71, 40, 171, 140)));
+		assertEquals(0, presenter.getTooltipViewFactory().getViewsPool().size());
+
+		//indexed once with the latest image entities
+		transaction.commit();
+
+		testHM.fireEvent(new ViewportMouseMoveEvent(new MockMouseMoveEvent(61, 40, 161, 140)));
+		assertEquals(0, presenter.getTooltipViewFactory().getViewsPool().size());
+
+		testHM.fireEvent(new ViewportMouseMoveEvent(new MockMouseMoveEvent(71, 40, 171, 140)));
+		assertEquals("second html", presenter.getTooltipViewFactory().getViewsPool().get(0).getHtml());
+	}
 }
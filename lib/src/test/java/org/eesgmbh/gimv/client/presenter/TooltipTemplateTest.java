@@ -0,0 +1,57 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.eesgmbh.gimv.client.presenter;
+
+import static junit.framework.Assert.*;
+
+import org.eesgmbh.gimv.shared.util.ImageEntityBatch;
+import org.junit.Test;
+
+public class TooltipTemplateTest {
+
+	@Test
+	public void testFormat() throws Exception {
+		ImageEntityBatch batch = new ImageEntityBatch(2);
+		batch.putValues(batch.add(0, 1, 0, 1, "1"), 10, 2.5);
+		batch.putValues(batch.add(1, 2, 0, 1, "1"), 20, 3.5);
+
+		TooltipTemplate template = new TooltipTemplate("<b>{y}</b> at {x}, again {y}") {
+			@Override
+			protected String formatX(double x) {
+				return "t" + (int) x;
+			}
+		};
+
+		assertEquals("<b>2.5</b> at t10, again 2.5", template.format(batch, 0));
+		assertEquals("<b>3.5</b> at t20, again 3.5", template.format(batch, 1));
+	}
+
+	@Test
+	public void testWithoutPlaceholders() throws Exception {
+		ImageEntityBatch batch = new ImageEntityBatch(1);
+		batch.add(0, 1, 0, 1, "1");
+
+		assertEquals("static", new TooltipTemplate("static").format(batch, 0));
+		assertEquals("5.0", new TooltipTemplate("{x}") {
+			@Override
+			protected String formatX(double x) {
+				return String.valueOf(x + 5);
+			}
+		}.format(batch, 0));
+	}
+}
@@ -28,6 +28,7 @@ public class MockGenericWidgetViewImpl implements GenericWidgetView {
 	public int setWidth;
 	public int setHeight;
 	public Bounds getBounds;
+	public int getAbsBoundsInvocations;
 
 	public void clear() {
 		showInvoked = false;
@@ -37,6 +38,7 @@ public class MockGenericWidgetViewImpl implements GenericWidgetView {
 		setWidth = Integer.MAX_VALUE;
 		setHeight = Integer.MAX_VALUE;
 		getBounds = null;
+		getAbsBoundsInvocations = 0;
 	}
 
 	public void show() {
@@ -64,6 +66,7 @@ public class MockGenericWidgetViewImpl implements GenericWidgetView {
 	}
 
 	public Bounds getAbsBounds() {
+		getAbsBoundsInvocations++;
 		return getBounds;
 	}
 
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.testsupport;
+
+import com.google.gwt.event.shared.HandlerRegistration;
+
+/**
+ * Returned by the add*Handler methods of mock views, remembers whether it was removed.
+ *
+ * @author Christian Seewald - EES GmbH - c.seewald@ees-gmbh.de
+ */
+public class MockHandlerRegistration implements HandlerRegistration {
+
+	public boolean removed;
+
+	public void removeHandler() {
+		removed = true;
+	}
+}
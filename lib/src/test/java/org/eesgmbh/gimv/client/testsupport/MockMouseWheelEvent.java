@@ -16,6 +16,7 @@
 
 package org.eesgmbh.gimv.client.testsupport;
 
+import com.google.gwt.dom.client.NativeEvent;
 import com.google.gwt.event.dom.client.MouseWheelEvent;
 
 public class MockMouseWheelEvent extends MouseWheelEvent {
@@ -30,6 +31,20 @@ public class MockMouseWheelEvent extends MouseWheelEvent {
 		this.deltaY = deltaY;
 	}
 
+	/**
+	 * A wheel event with an unrounded delta, GWT's rounded delta is 0 as for small trackpad deltas.
+	 *
+	 * @param nativeDeltaY the deltaY of the native wheel event in pixels, positive for scrolling south
+	 */
+	public MockMouseWheelEvent(int x, int y, double nativeDeltaY) {
+		this(x, y, 0);
+		setNativeEvent(createNativeWheelEvent(nativeDeltaY));
+	}
+
+	private static native NativeEvent createNativeWheelEvent(double deltaY) /*-{
+		return {deltaY: deltaY, deltaMode: 0};
+	}-*/;
+
 	@Override
 	public int getDeltaY() {
 		return deltaY;
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.util;
+
+import static junit.framework.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eesgmbh.gimv.client.event.SetImageUrlEvent;
+import org.eesgmbh.gimv.client.event.SetImageUrlEventHandler;
+import org.eesgmbh.gimv.client.testsupport.AbstractGimvUnitTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+
+public class AsyncComponentTest extends AbstractGimvUnitTest {
+
+	private TestAsyncComponent asyncComponent;
+
+	private List<String> results;
+
+	@Before
+	public void setUp() {
+		asyncComponent = new TestAsyncComponent();
+		results = new ArrayList<String>();
+	}
+
+	@Test
+	public void testCallbacksQueuedWhileLoading() throws Exception {
+		asyncComponent.get(new ResultCallback());
+		asyncComponent.get(new ResultCallback());
+
+		assertEquals(1, asyncComponent.loadCount);
+		assertTrue(results.isEmpty());
+
+		asyncComponent.succeed();
+		assertEquals("[component, component]", results.toString());
+
+		//created once, answered synchronously
+		asyncComponent.get(new ResultCallback());
+		assertEquals("[component, component, component]", results.toString());
+		assertEquals(1, asyncComponent.loadCount);
+	}
+
+	@Test
+	public void testReplayToComponent() throws Exception {
+		testHM.fireEvent(new SetImageUrlEvent("a.png"));
+
+		asyncComponent.get(new ResultCallback());
+		asyncComponent.succeed();
+
+		assertEquals("a.png", asyncComponent.createdHandler.url);
+
+		//no more recording after the creation, only the created handler is left
+		assertEquals(1, testHM.getHandlerCount(SetImageUrlEvent.TYPE));
+	}
+
+	@Test
+	public void testFailureAndRetry() throws Exception {
+		asyncComponent.get(new ResultCallback());
+		asyncComponent.fail();
+
+		assertEquals("[failed]", results.toString());
+
+		asyncComponent.get(new ResultCallback());
+		assertEquals(2, asyncComponent.loadCount);
+
+		asyncComponent.succeed();
+		assertEquals("[failed, component]", results.toString());
+	}
+
+	private class ResultCallback implements AsyncCallback<String> {
+		public void onSuccess(String result) {
+			results.add(result);
+		}
+
+		public void onFailure(Throwable caught) {
+			results.add("failed");
+		}
+	}
+
+	private class UrlHandler implements SetImageUrlEventHandler {
+		private String url;
+
+		public void onSetImageUrl(SetImageUrlEvent event) {
+			url = event.getUrl();
+		}
+	}
+
+	private class TestAsyncComponent extends AsyncComponent<String> {
+		private int loadCount;
+		private UrlHandler createdHandler;
+
+		TestAsyncComponent() {
+			super(testHM);
+		}
+
+		@Override
+		protected void load() {
+			loadCount++;
+		}
+
+		void succeed() {
+			beginCreate();
+			createdHandler = new UrlHandler();
+			testHM.addHandler(SetImageUrlEvent.TYPE, createdHandler);
+			endCreate("component");
+		}
+
+		void fail() {
+			failCreate(new RuntimeException());
+		}
+	}
+}
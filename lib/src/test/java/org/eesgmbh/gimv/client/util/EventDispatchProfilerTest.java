@@ -0,0 +1,154 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.eesgmbh.gimv.client.util;
+
+import static junit.framework.Assert.*;
+
+import java.util.Iterator;
+
+import org.eesgmbh.gimv.client.event.GimvEventBus;
+import org.eesgmbh.gimv.client.event.SetDomainBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetDomainBoundsEventHandler;
+import org.eesgmbh.gimv.client.event.StateChangeEvent;
+import org.eesgmbh.gimv.client.event.StateChangeEventHandler;
+import org.eesgmbh.gimv.client.util.EventDispatchProfiler.EventStatistics;
+import org.eesgmbh.gimv.client.util.EventDispatchProfiler.HandlerStatistics;
+import org.eesgmbh.gimv.shared.util.Bounds;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EventDispatchProfilerTest {
+
+	private TestEventDispatchProfiler profiler;
+	private GimvEventBus eventBus;
+
+	@Before
+	public void setUp() {
+		profiler = new TestEventDispatchProfiler();
+
+		eventBus = new GimvEventBus();
+		eventBus.setTracer(profiler);
+	}
+
+	@Test
+	public void testHandlerTimes() throws Exception {
+		eventBus.addHandler(SetDomainBoundsEvent.TYPE, new SlowHandler(5));
+		eventBus.addHandler(SetDomainBoundsEvent.TYPE, new SlowHandler(5));
+
+		eventBus.fireEvent(new SetDomainBoundsEvent(new Bounds(0, 1, 0, 1)));
+
+		profiler.time += 995;
+		eventBus.fireEvent(new SetDomainBoundsEvent(new Bounds(0, 1, 0, 1)));
+
+		EventStatistics event = profiler.getEventStatistics().iterator().next();
+		assertEquals("SetDomainBoundsEvent", event.getType());
+		assertEquals(2, event.getCount());
+
+		//both handler instances are of the same class
+		assertEquals(1, event.getHandlerStatistics().size());
+
+		HandlerStatistics handler = event.getHandlerStatistics().iterator().next();
+		assertEquals("EventDispatchProfilerTest$SlowHandler", handler.getHandler());
+		assertEquals(4, handler.getCount());
+		assertEquals(20d, handler.getTotalMillis());
+		assertEquals(5d, handler.getMaxMillis());
+	}
+
+	@Test
+	public void testNestedDispatch() throws Exception {
+		eventBus.addHandler(SetDomainBoundsEvent.TYPE, new SlowHandler(2));
+		eventBus.addHandler(StateChangeEvent.TYPE, new StateChangeEventHandler() {
+			public void onStateChange(StateChangeEvent event) {
+				profiler.time += 1;
+				eventBus.fireEvent(new SetDomainBoundsEvent(new Bounds(0, 1, 0, 1)));
+			}
+		});
+
+		eventBus.fireEvent(StateChangeEvent.createMove());
+
+		Iterator<EventStatistics> events = profiler.getEventStatistics().iterator();
+
+		EventStatistics stateChange = events.next();
+		assertEquals("StateChangeEvent", stateChange.getType());
+		//includes the time of the nested handler
+		assertEquals(3d, stateChange.getHandlerStatistics().iterator().next().getTotalMillis());
+
+		EventStatistics setDomainBounds = events.next();
+		assertEquals("SetDomainBoundsEvent", setDomainBounds.getType());
+		assertEquals(2d, setDomainBounds.getHandlerStatistics().iterator().next().getTotalMillis());
+	}
+
+	@Test
+	public void testRate() throws Exception {
+		for (int i = 0; i < 10; i++) {
+			eventBus.fireEvent(new SetDomainBoundsEvent(new Bounds(0, 1, 0, 1)));
+			profiler.time += 100;
+		}
+		//the first window has been completed with the 11th event
+		eventBus.fireEvent(new SetDomainBoundsEvent(new Bounds(0, 1, 0, 1)));
+
+		EventStatistics event = profiler.getEventStatistics().iterator().next();
+		assertEquals(10d, event.getRatePerSecond());
+
+		//no more events, the rate decreases
+		profiler.time += 4000;
+		assertEquals(0.25, event.getRatePerSecond());
+	}
+
+	@Test
+	public void testJsonAndReset() throws Exception {
+		eventBus.addHandler(SetDomainBoundsEvent.TYPE, new SlowHandler(1.5));
+		eventBus.fireEvent(new SetDomainBoundsEvent(new Bounds(0, 1, 0, 1)));
+
+		assertEquals("{\"events\": [{\"type\": \"SetDomainBoundsEvent\", \"count\": 1, \"ratePerSecond\": 0.0, \"handlers\": " +
+				"[{\"handler\": \"EventDispatchProfilerTest$SlowHandler\", \"count\": 1, \"totalMillis\": 1.5, \"maxMillis\": 1.5}]}]}", profiler.toJson());
+
+		profiler.reset();
+		assertEquals("{\"events\": []}", profiler.toJson());
+	}
+
+	@Test
+	public void testWithoutTracer() throws Exception {
+		eventBus.setTracer(null);
+		eventBus.addHandler(SetDomainBoundsEvent.TYPE, new SlowHandler(1));
+		eventBus.fireEvent(new SetDomainBoundsEvent(new Bounds(0, 1, 0, 1)));
+
+		assertTrue(profiler.getEventStatistics().isEmpty());
+	}
+
+	private class SlowHandler implements SetDomainBoundsEventHandler {
+		private final double duration;
+
+		private SlowHandler(double duration) {
+			this.duration = duration;
+		}
+
+		public void onSetDomainBounds(SetDomainBoundsEvent event) {
+			profiler.time += duration;
+		}
+	}
+
+	private static class TestEventDispatchProfiler extends EventDispatchProfiler {
+		private double time;
+
+		@Override
+		double now() {
+			return time;
+		}
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.util;
+
+import static junit.framework.Assert.*;
+
+import org.eesgmbh.gimv.client.event.ChangeImagePixelBoundsEvent;
+import org.eesgmbh.gimv.shared.util.Bounds;
+import org.junit.Test;
+
+public class PreviewCompensationTest {
+
+	private final Bounds viewportBounds = new Bounds(0, 200, 0, 100);
+	private final Bounds dataAreaBounds = new Bounds(50, 150, 0, 100);
+
+	@Test
+	public void testShift() throws Exception {
+		ChangeImagePixelBoundsEvent event = PreviewCompensation.createChangeImagePixelBoundsEvent(
+				viewportBounds, dataAreaBounds, new Bounds(0, 1000, 0, 10), new Bounds(100, 1100, 0, 10));
+
+		//a tenth of the data area to the left
+		assertEquals(-10d, event.getOffsetX());
+		assertEquals(0d, event.getOffsetY());
+		assertEquals(0d, event.getOffsetWidth());
+		assertEquals(0d, event.getOffsetHeight());
+	}
+
+	@Test
+	public void testZoom() throws Exception {
+		ChangeImagePixelBoundsEvent event = PreviewCompensation.createChangeImagePixelBoundsEvent(
+				viewportBounds, dataAreaBounds, new Bounds(0, 1000, 0, 10), new Bounds(250, 750, 0, 10));
+
+		//twice as wide, centered on the data area
+		assertEquals(-100d, event.getOffsetX());
+		assertEquals(200d, event.getOffsetWidth());
+		assertEquals(0d, event.getOffsetHeight());
+	}
+
+	@Test
+	public void testNoChange() throws Exception {
+		assertNull(PreviewCompensation.createChangeImagePixelBoundsEvent(
+				viewportBounds, dataAreaBounds, new Bounds(0, 1000, 0, 10), new Bounds(0, 1000, 0, 10)));
+	}
+}
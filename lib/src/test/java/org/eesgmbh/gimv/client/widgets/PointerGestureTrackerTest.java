@@ -0,0 +1,240 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.client.widgets;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+
+
+public class PointerGestureTrackerTest {
+
+	private TestPointerGestureTracker tracker;
+	private List<String> gestures;
+
+	@Before
+	public void setUp() {
+		gestures = new ArrayList<String>();
+		tracker = new TestPointerGestureTracker(new PointerGestureTracker.Callback() {
+			public void onDragStart(int x, int y, int clientX, int clientY, boolean shiftKey) {
+				gestures.add("start " + x + "," + y + " " + clientX + "," + clientY);
+			}
+
+			public void onDrag(int x, int y, int clientX, int clientY) {
+				gestures.add("drag " + x + "," + y + " " + clientX + "," + clientY);
+			}
+
+			public void onDragFinish(int x, int y) {
+				gestures.add("finish " + x + "," + y);
+			}
+
+			public void onPinch(double centerX, double centerY, double scale) {
+				gestures.add("pinch " + centerX + "," + centerY + " " + scale);
+			}
+		});
+	}
+
+	@Test
+	public void testDrag() throws Exception {
+		tracker.onPointerDown(1, 10, 20, 110, 120, false);
+		assertTrue(tracker.isDragging());
+
+		tracker.onPointerMove(1, 11, 22, 111, 122);
+		tracker.frame();
+
+		tracker.onPointerUp(1, 13, 24, 113, 124);
+		assertFalse(tracker.isDragging());
+
+		assertEquals(gestures("start 10,20 110,120", "drag 11,22 111,122", "drag 13,24 113,124", "finish 13,24"), gestures);
+	}
+
+	@Test
+	public void testMovesAreDispatchedOncePerFrame() throws Exception {
+		tracker.onPointerDown(1, 10, 20, 110, 120, false);
+
+		tracker.onPointerMove(1, 11, 20, 111, 120);
+		tracker.onPointerMove(1, 12, 20, 112, 120);
+		tracker.onPointerMove(1, 13, 20, 113, 120);
+
+		//only one frame is requested and nothing dispatched before it
+		assertEquals(1, tracker.requestedFrames);
+		assertEquals(gestures("start 10,20 110,120"), gestures);
+
+		//the last position wins
+		tracker.frame();
+		assertEquals(gestures("start 10,20 110,120", "drag 13,20 113,120"), gestures);
+
+		//a frame without moves dispatches nothing, the next move requests a new frame
+		tracker.frame();
+		assertEquals(2, gestures.size());
+
+		tracker.onPointerMove(1, 14, 20, 114, 120);
+		assertEquals(2, tracker.requestedFrames);
+	}
+
+	@Test
+	public void testSubpixelMovesAreNotDispatched() throws Exception {
+		tracker.onPointerDown(1, 10, 20, 110, 120, false);
+
+		tracker.onPointerMove(1, 10.5, 20.5, 110.5, 120.5);
+		tracker.frame();
+
+		assertEquals(gestures("start 10,20 110,120"), gestures);
+	}
+
+	@Test
+	public void testUpDispatchesPendingMove() throws Exception {
+		tracker.onPointerDown(1, 10, 20, 110, 120, false);
+
+		tracker.onPointerMove(1, 15, 20, 115, 120);
+		tracker.onPointerUp(1, 15, 20, 115, 120);
+
+		assertEquals(gestures("start 10,20 110,120", "drag 15,20 115,120", "finish 15,20"), gestures);
+
+		//the pending frame dispatches nothing
+		tracker.frame();
+		assertEquals(3, gestures.size());
+	}
+
+	@Test
+	public void testSecondPointerSwitchesFromDragToPinch() throws Exception {
+		tracker.onPointerDown(1, 10, 10, 110, 110, false);
+		tracker.onPointerMove(1, 20, 10, 120, 110);
+		tracker.frame();
+
+		//the drag is finished at the last position of the first pointer
+		tracker.onPointerDown(2, 60, 10, 160, 110, false);
+		assertFalse(tracker.isDragging());
+		assertEquals(gestures("start 10,10 110,110", "drag 20,10 120,110", "finish 20,10"), gestures);
+		gestures.clear();
+
+		//the distance grows from 40 to 80
+		tracker.onPointerMove(1, 0, 10, 100, 110);
+		tracker.onPointerMove(2, 80, 10, 180, 110);
+		tracker.frame();
+		assertEquals(gestures("pinch 40.0,10.0 2.0"), gestures);
+		gestures.clear();
+
+		//the scale is relative to the distance of the last frame
+		tracker.onPointerMove(2, 40, 10, 140, 110);
+		tracker.frame();
+		assertEquals(gestures("pinch 20.0,10.0 0.5"), gestures);
+		gestures.clear();
+
+		//lifting one pointer does not resume the drag
+		tracker.onPointerUp(2, 40, 10, 140, 110);
+		tracker.onPointerMove(1, 10, 10, 110, 110);
+		tracker.frame();
+		tracker.onPointerUp(1, 10, 10, 110, 110);
+
+		assertTrue(gestures.isEmpty());
+	}
+
+	@Test
+	public void testPinchWithReplacedPointer() throws Exception {
+		tracker.onPointerDown(1, 10, 10, 110, 110, false);
+		tracker.onPointerDown(2, 50, 10, 150, 110, false);
+
+		//the first pointer is lifted, a third one pinches with the second
+		tracker.onPointerUp(1, 10, 10, 110, 110);
+		tracker.onPointerDown(3, 30, 10, 130, 110, false);
+		gestures.clear();
+
+		//the distance grows from 20 to 40
+		tracker.onPointerMove(3, 10, 10, 110, 110);
+		tracker.frame();
+		assertEquals(gestures("pinch 30.0,10.0 2.0"), gestures);
+
+		//the moves of the lifted pointer are ignored
+		gestures.clear();
+		tracker.onPointerMove(1, 0, 10, 100, 110);
+		tracker.frame();
+		assertTrue(gestures.isEmpty());
+	}
+
+	@Test
+	public void testUnchangedPinchDistanceIsNotDispatched() throws Exception {
+		tracker.onPointerDown(1, 10, 10, 110, 110, false);
+		tracker.onPointerDown(2, 50, 10, 150, 110, false);
+		gestures.clear();
+
+		//both pointers move in parallel
+		tracker.onPointerMove(1, 20, 10, 120, 110);
+		tracker.onPointerMove(2, 60, 10, 160, 110);
+		tracker.frame();
+
+		assertTrue(gestures.isEmpty());
+	}
+
+	@Test
+	public void testUnknownPointersAreIgnored() throws Exception {
+		tracker.onPointerMove(1, 10, 10, 110, 110);
+		tracker.onPointerUp(1, 10, 10, 110, 110);
+
+		assertEquals(0, tracker.requestedFrames);
+		assertTrue(gestures.isEmpty());
+	}
+
+	@Test
+	public void testReset() throws Exception {
+		tracker.onPointerDown(1, 10, 20, 110, 120, false);
+		tracker.onPointerMove(1, 15, 20, 115, 120);
+
+		tracker.reset();
+		tracker.frame();
+
+		assertFalse(tracker.isDragging());
+		assertEquals(gestures("start 10,20 110,120"), gestures);
+	}
+
+	private List<String> gestures(String... gestures) {
+		List<String> list = new ArrayList<String>();
+		for (String gesture : gestures) {
+			list.add(gesture);
+		}
+		return list;
+	}
+
+	private class TestPointerGestureTracker extends PointerGestureTracker {
+		private AnimationCallback animationCallback;
+		private int requestedFrames;
+
+		private TestPointerGestureTracker(Callback callback) {
+			super(null, callback);
+		}
+
+		@Override
+		void requestAnimationFrame(AnimationCallback animationCallback) {
+			this.animationCallback = animationCallback;
+			requestedFrames++;
+		}
+
+		private void frame() {
+			if (animationCallback != null) {
+				AnimationCallback callback = animationCallback;
+				animationCallback = null;
+				callback.execute(0);
+			}
+		}
+	}
+}
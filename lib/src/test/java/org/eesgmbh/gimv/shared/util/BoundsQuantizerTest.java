@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.shared.util;
+
+import static junit.framework.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BoundsQuantizerTest {
+
+	private BoundsQuantizer quantizer;
+
+	@Before
+	public void setUp() {
+		quantizer = new BoundsQuantizer(100, 2);
+		quantizer.setGridDivisions(10);
+	}
+
+	@Test
+	public void testSnapToNearestRungAndGrid() throws Exception {
+		assertEquals(new Bounds(0, 100, 7, 8), quantizer.quantize(new Bounds(3, 93, 7, 8)));
+		assertEquals(new Bounds(20, 220, 7, 8), quantizer.quantize(new Bounds(30, 200, 7, 8)));
+
+		//equal bounds for slightly different input
+		assertEquals(quantizer.quantize(new Bounds(3, 93, 7, 8)), quantizer.quantize(new Bounds(4, 95, 7, 8)));
+	}
+
+	@Test
+	public void testInvertedBounds() throws Exception {
+		assertEquals(new Bounds(100, 0, 7, 8), quantizer.quantize(new Bounds(93, 3, 7, 8)));
+	}
+
+	@Test
+	public void testUndefinedHorizontalBoundsAreUnchanged() throws Exception {
+		Bounds bounds = new Bounds((Double) null, (Double) null, 7d, 8d);
+
+		assertSame(bounds, quantizer.quantize(bounds));
+	}
+
+	@Test
+	public void testSmallShiftIsNotUndone() throws Exception {
+		Bounds previous = new Bounds(0, 100, 7, 8);
+
+		assertEquals(new Bounds(10, 110, 7, 8), quantizer.quantize(previous, new Bounds(3, 103, 7, 8)));
+		assertEquals(new Bounds(-10, 90, 7, 8), quantizer.quantize(previous, new Bounds(-3, 97, 7, 8)));
+		assertEquals(previous, quantizer.quantize(previous, previous));
+	}
+
+	@Test
+	public void testSmallZoomIsNotUndone() throws Exception {
+		Bounds previous = new Bounds(0, 100, 7, 8);
+
+		//zoom in, the nearest rung would be the previous width
+		assertEquals(new Bounds(25, 75, 7, 8), quantizer.quantize(previous, new Bounds(10, 90, 7, 8)));
+
+		//zoom out
+		assertEquals(new Bounds(-40, 160, 7, 8), quantizer.quantize(previous, new Bounds(-5, 105, 7, 8)));
+	}
+}
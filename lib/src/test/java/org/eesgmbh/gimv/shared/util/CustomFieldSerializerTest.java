@@ -0,0 +1,123 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.shared.util;
+
+import static junit.framework.Assert.*;
+
+import org.junit.Test;
+
+public class CustomFieldSerializerTest {
+
+	@Test
+	public void testBounds() throws Exception {
+		MockSerializationStream stream = new MockSerializationStream();
+
+		Bounds bounds = new Bounds(1.5, 2.5, null, -4.0);
+		bounds.getHorizontalCenter();
+
+		Bounds_CustomFieldSerializer.serialize(stream, bounds);
+
+		//the mask and the three defined values, no centers
+		assertEquals(4, stream.values.size());
+
+		Bounds read = Bounds_CustomFieldSerializer.instantiate(stream);
+
+		assertEquals(1.5, read.getLeft());
+		assertEquals(2.5, read.getRight());
+		assertNull(read.getTop());
+		assertEquals(-4.0, read.getBottom());
+		assertTrue(stream.values.isEmpty());
+	}
+
+	@Test
+	public void testImageEntityBatch() throws Exception {
+		ImageEntityBatch batch = new ImageEntityBatch(10);
+
+		for (int i = 0; i < 5; i++) {
+			int index = batch.add(i + 0.25, i + 2, -10, 20.125, i % 2 == 0 ? "even" : "odd");
+			batch.putValues(index, 1e12 + i, Math.PI * i);
+		}
+		batch.putHoverHtmlFragment(3, "three");
+
+		MockSerializationStream stream = new MockSerializationStream();
+		ImageEntityBatch_CustomFieldSerializer.serialize(stream, batch);
+		ImageEntityBatch read = ImageEntityBatch_CustomFieldSerializer.instantiate(stream);
+
+		assertEquals(5, read.size());
+		assertTrue(read.hasValues());
+
+		for (int i = 0; i < 5; i++) {
+			assertEquals(i + 0.25, read.getLeft(i));
+			assertEquals(i + 2.0, read.getRight(i));
+			assertEquals(-10.0, read.getTop(i));
+			assertEquals(20.125, read.getBottom(i));
+			assertEquals(i % 2 == 0 ? "even" : "odd", read.getGroupId(i));
+			assertEquals(1e12 + i, read.getXValue(i));
+			assertEquals(Math.PI * i, read.getYValue(i));
+		}
+
+		assertEquals("three", read.getHoverHtmlFragment(3));
+		assertNull(read.getHoverHtmlFragment(2));
+
+		//still growing after being read
+		read.add(0, 1, 0, 1, "new");
+		assertEquals("new", read.getGroupId(5));
+	}
+
+	@Test
+	public void testEmptyImageEntityBatch() throws Exception {
+		MockSerializationStream stream = new MockSerializationStream();
+		ImageEntityBatch_CustomFieldSerializer.serialize(stream, new ImageEntityBatch(0));
+		ImageEntityBatch read = ImageEntityBatch_CustomFieldSerializer.instantiate(stream);
+
+		assertEquals(0, read.size());
+		assertFalse(read.hasValues());
+	}
+
+	@Test
+	public void testBase64() throws Exception {
+		//all padding variants
+		for (int size = 0; size < 4; size++) {
+			double[] column = new double[size];
+			for (int i = 0; i < size; i++) {
+				column[i] = -i * 1.1;
+			}
+
+			double[] decoded = new Float64Columns(ImageEntityBatch_CustomFieldSerializer.encode(new double[][] {column}, size), size).getColumn(0);
+
+			assertEquals(size, decoded.length);
+			for (int i = 0; i < size; i++) {
+				assertEquals(column[i], decoded[i]);
+			}
+		}
+
+		//1.0 is 0x3ff0000000000000, little endian
+		assertEquals("AAAAAAAA8D8=", ImageEntityBatch_CustomFieldSerializer.encode(new double[][] {{1.0}}, 1));
+	}
+
+	@Test
+	public void testColumns() throws Exception {
+		//only the first two values of each column are encoded
+		Float64Columns columns = new Float64Columns(ImageEntityBatch_CustomFieldSerializer.encode(new double[][] {{1.5, 2.5, 9}, {3, 4, 9}}, 2), 2);
+
+		assertEquals(1.5, columns.getColumn(0)[0], 0);
+		assertEquals(2.5, columns.getColumn(0)[1], 0);
+		assertEquals(2, columns.getColumn(1).length);
+		assertEquals(3, columns.getIntColumn(1)[0]);
+		assertEquals(4, columns.getIntColumn(1)[1]);
+	}
+}
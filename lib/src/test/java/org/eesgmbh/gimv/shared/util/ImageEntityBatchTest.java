@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.eesgmbh.gimv.shared.util;
+
+import static junit.framework.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ImageEntityBatchTest {
+
+	@Test
+	public void testAddAndGrow() throws Exception {
+		ImageEntityBatch batch = new ImageEntityBatch(1);
+
+		for (int i = 0; i < 100; i++) {
+			int index = batch.add(i, i + 2, 10, 20, i % 2 == 0 ? "even" : "odd");
+			assertEquals(i, index);
+
+			if (i % 10 == 0) {
+				batch.putHoverHtmlFragment(index, "html " + i);
+			}
+		}
+		batch.trimToSize();
+
+		assertEquals(100, batch.size());
+		assertEquals(50d, batch.getLeft(50));
+		assertEquals(52d, batch.getRight(50));
+		assertEquals(51d, batch.getHorizontalCenter(50));
+		assertEquals(15d, batch.getVerticalCenter(50));
+		assertEquals("odd", batch.getGroupId(51));
+		assertEquals("html 90", batch.getHoverHtmlFragment(90));
+		assertNull(batch.getHoverHtmlFragment(91));
+		assertNull(batch.getHtmlFragment(90, ImageEntity.CLICK_HTML_FRAGMENT_KEY));
+		assertEquals(101d, batch.getMaxRight());
+		assertEquals(20d, batch.getMaxBottom());
+	}
+
+	@Test
+	public void testValues() throws Exception {
+		ImageEntityBatch batch = new ImageEntityBatch(0);
+		batch.add(0, 1, 0, 1, "1");
+		assertFalse(batch.hasValues());
+		assertEquals(0d, batch.getXValue(0));
+
+		batch.putValues(0, 1000, 2.5);
+		for (int i = 1; i < 50; i++) {
+			batch.putValues(batch.add(i, i + 1, 0, 1, "1"), 1000 + i, i);
+		}
+		batch.trimToSize();
+
+		assertTrue(batch.hasValues());
+		assertEquals(1000d, batch.getXValue(0));
+		assertEquals(2.5, batch.getYValue(0));
+		assertEquals(1049d, batch.getXValue(49));
+		assertEquals(49d, batch.getYValue(49));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testIndexBeyondSize() throws Exception {
+		ImageEntityBatch batch = new ImageEntityBatch(10);
+		batch.add(0, 1, 0, 1, "1");
+
+		batch.getLeft(1);
+	}
+
+	@Test
+	public void testConversion() throws Exception {
+		List<ImageEntity> imageEntities = new ArrayList<ImageEntity>();
+
+		ImageEntity first = new ImageEntity(new Bounds(1, 2, 3, 4), "1");
+		first.putHoverHtmlFragment("hover");
+		first.putClickHtmlFragment("click");
+		imageEntities.add(first);
+
+		imageEntities.add(new ImageEntity(new Bounds(5, 6, 7, 8), "2"));
+
+		ImageEntityBatch batch = ImageEntityBatch.fromImageEntities(imageEntities);
+		assertEquals(2, batch.size());
+		assertEquals("hover", batch.getHoverHtmlFragment(0));
+		assertEquals("click", batch.getHtmlFragment(0, ImageEntity.CLICK_HTML_FRAGMENT_KEY));
+		assertNull(batch.getHoverHtmlFragment(1));
+		assertEquals("2", batch.getGroupId(1));
+
+		List<ImageEntity> converted = batch.toImageEntities();
+		assertEquals(2, converted.size());
+		assertEquals(new Bounds(1, 2, 3, 4), converted.get(0).getBounds());
+		assertEquals("hover", converted.get(0).getHoverHtmlFragment());
+		assertEquals("click", converted.get(0).getClickHtmlFragment());
+		assertEquals("2", converted.get(1).getGroupId());
+		assertTrue(converted.get(1).getHtmlFragments().isEmpty());
+	}
+}
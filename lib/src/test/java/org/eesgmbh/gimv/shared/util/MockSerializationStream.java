@@ -0,0 +1,52 @@
+/*
+ * Copyright 2022 EES GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.eesgmbh.gimv.shared.util;
+
+import java.util.LinkedList;
+
+import com.google.gwt.user.client.rpc.SerializationStreamReader;
+import com.google.gwt.user.client.rpc.SerializationStreamWriter;
+
+/**
+ * Keeps the written values in a queue, to be read in the same order.
+ */
+class MockSerializationStream implements SerializationStreamWriter, SerializationStreamReader {
+
+	final LinkedList<Object> values = new LinkedList<Object>();
+
+	public void writeBoolean(boolean v) { values.add(v); }
+	public void writeByte(byte v) { values.add(v); }
+	public void writeChar(char v) { values.add(v); }
+	public void writeDouble(double v) { values.add(v); }
+	public void writeFloat(float v) { values.add(v); }
+	public void writeInt(int v) { values.add(v); }
+	public void writeLong(long v) { values.add(v); }
+	public void writeObject(Object v) { values.add(v); }
+	public void writeShort(short v) { values.add(v); }
+	public void writeString(String v) { values.add(v); }
+
+	public boolean readBoolean() { return (Boolean) values.removeFirst(); }
+	public byte readByte() { return (Byte) values.removeFirst(); }
+	public char readChar() { return (Character) values.removeFirst(); }
+	public double readDouble() { return (Double) values.removeFirst(); }
+	public float readFloat() { return (Float) values.removeFirst(); }
+	public int readInt() { return (Integer) values.removeFirst(); }
+	public long readLong() { return (Long) values.removeFirst(); }
+	public Object readObject() { return values.removeFirst(); }
+	public short readShort() { return (Short) values.removeFirst(); }
+	public String readString() { return (String) values.removeFirst(); }
+}
@@ -0,0 +1,69 @@
+package org.eesgmbh.gimv.samples.jfreechart.client;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.eesgmbh.gimv.client.imagedata.BatchImageDataSource;
+import org.eesgmbh.gimv.client.imagedata.ChartGroupCoordinator;
+import org.eesgmbh.gimv.client.imagedata.ImageData;
+import org.eesgmbh.gimv.client.imagedata.ImageDataSource;
+import org.eesgmbh.gimv.samples.jfreechart.client.img.JFreechartSampleDataServiceAsync;
+import org.eesgmbh.gimv.samples.jfreechart.shared.ImageDataRequest;
+import org.eesgmbh.gimv.samples.jfreechart.shared.ImageDataResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The main and the overview chart are rendered with one request to the sample service, whenever
+ * both are requested at the same time, e.g. initially or after a window resize. Prefetch requests are batched as well.
+ */
+public class JFreechartSampleChartGroup implements BatchImageDataSource {
+
+	private final JFreechartSampleDataServiceAsync jfreechartSampleService;
+
+	private final ChartGroupCoordinator coordinator = new ChartGroupCoordinator(this);
+
+	//the request templates and response conversions by chart id
+	private final Map<String, JFreechartSampleImageDataSource> chartSources = new HashMap<String, JFreechartSampleImageDataSource>();
+
+	public JFreechartSampleChartGroup(JFreechartSampleDataServiceAsync jfreechartSampleService) {
+		this.jfreechartSampleService = jfreechartSampleService;
+	}
+
+	/**
+	 * @return the transport adapter at the end of the chart's image data pipeline
+	 */
+	public ImageDataSource addChart(String chartId, JFreechartSampleImageDataSource chartSource) {
+		chartSources.put(chartId, chartSource);
+
+		return coordinator.addChart(chartId);
+	}
+
+	public void getImageData(final List<Request> requests, final AsyncCallback<List<ImageData>> callback) {
+		ArrayList<ImageDataRequest> imageDataRequests = new ArrayList<ImageDataRequest>();
+		for (Request request : requests) {
+			imageDataRequests.add(chartSources.get(request.getChartId()).createRequest(request.getKey()));
+		}
+
+		jfreechartSampleService.getImageDataBatch(imageDataRequests, new AsyncCallback<ArrayList<ImageDataResponse>>() {
+			public void onFailure(Throwable th) {
+				th.printStackTrace();
+
+				//shown by the controllers (LoadImageDataFailedEvent)
+				callback.onFailure(th);
+			}
+
+			public void onSuccess(ArrayList<ImageDataResponse> imageDataResponses) {
+				List<ImageData> imageData = new ArrayList<ImageData>();
+				for (int i = 0; i < requests.size(); i++) {
+					ImageDataResponse imageDataResponse = imageDataResponses.get(i);
+
+					imageData.add(imageDataResponse != null ? chartSources.get(requests.get(i).getChartId()).toImageData(imageDataResponse) : null);
+				}
+
+				callback.onSuccess(imageData);
+			}
+		});
+	}
+}
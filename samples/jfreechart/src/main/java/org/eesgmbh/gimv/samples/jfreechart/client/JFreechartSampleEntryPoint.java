@@ -1,35 +1,54 @@
 package org.eesgmbh.gimv.samples.jfreechart.client;
 
+import org.eesgmbh.gimv.client.controls.AsyncKeystrokeControl;
 import org.eesgmbh.gimv.client.controls.DragImageControl;
+import org.eesgmbh.gimv.client.controls.ImageLoadTimingControl;
 import org.eesgmbh.gimv.client.controls.KeystrokeControl;
 import org.eesgmbh.gimv.client.controls.MouseWheelControl;
 import org.eesgmbh.gimv.client.controls.ViewportDimensionsListenerControl;
+import org.eesgmbh.gimv.client.event.GimvEventBus;
+import org.eesgmbh.gimv.client.event.ImageLoadedEvent;
+import org.eesgmbh.gimv.client.event.ImageLoadedEventHandler;
 import org.eesgmbh.gimv.client.event.StateChangeEvent;
+import org.eesgmbh.gimv.client.presenter.AsyncCalendarPresenter;
+import org.eesgmbh.gimv.client.presenter.AsyncOverviewPresenter;
+import org.eesgmbh.gimv.client.presenter.AsyncTooltipPresenter;
 import org.eesgmbh.gimv.client.presenter.BoundsShiftPresenter;
 import org.eesgmbh.gimv.client.presenter.CalendarPresenter;
 import org.eesgmbh.gimv.client.presenter.ImageMoveOrZoomToggleButtonPresenter;
 import org.eesgmbh.gimv.client.presenter.ImagePresenter;
 import org.eesgmbh.gimv.client.presenter.MousePointerPresenter;
 import org.eesgmbh.gimv.client.presenter.OverviewPresenter;
+import org.eesgmbh.gimv.client.presenter.PreviewCompositorPresenter;
 import org.eesgmbh.gimv.client.presenter.TooltipPresenter;
+import org.eesgmbh.gimv.client.presenter.TooltipTemplate;
 import org.eesgmbh.gimv.client.presenter.ZoomBoxPresenter;
+import org.eesgmbh.gimv.client.util.EventDispatchProfiler;
 import org.eesgmbh.gimv.client.view.BoundsShiftViewImpl;
-import org.eesgmbh.gimv.client.view.CalendarViewImpl;
 import org.eesgmbh.gimv.client.view.GenericWidgetView;
 import org.eesgmbh.gimv.client.view.GenericWidgetViewImpl;
 import org.eesgmbh.gimv.client.view.ImageMoveOrZoomToggleButtonViewImpl;
 import org.eesgmbh.gimv.client.view.ImageViewImpl;
+import org.eesgmbh.gimv.client.view.PreviewCompositorViewImpl;
+import org.eesgmbh.gimv.client.widgets.EventDispatchProfilerWidget;
 import org.eesgmbh.gimv.samples.jfreechart.client.img.JFreechartSampleDataService;
 import org.eesgmbh.gimv.samples.jfreechart.client.img.JFreechartSampleDataServiceAsync;
 import org.eesgmbh.gimv.shared.util.Bound;
+import org.eesgmbh.gimv.shared.util.BoundsQuantizer;
 import org.eesgmbh.gimv.shared.util.Direction;
 
 import com.google.gwt.core.client.EntryPoint;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.event.dom.client.KeyCodes;
 import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.i18n.client.DateTimeFormat;
+import com.google.gwt.user.client.Window;
+import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.gwt.user.client.ui.RootPanel;
 
+import java.util.Date;
+
 /**
  * Entry point classes define <code>onModuleLoad()</code>.
  */
@@ -37,37 +56,65 @@ public class JFreechartSampleEntryPoint implements EntryPoint {
 	public void onModuleLoad() {
 		JFreechartSampleDataServiceAsync gimvService = GWT.create(JFreechartSampleDataService.class);
 
-		HandlerManager primaryHandlerManager = new HandlerManager(null);
-		HandlerManager horizontalOverviewHandlerManager = new HandlerManager(null);
+		GimvEventBus primaryHandlerManager = new GimvEventBus();
+		HandlerManager horizontalOverviewHandlerManager = new GimvEventBus();
 
 		JFreechartSampleLayout layout = new JFreechartSampleLayout();
+
+		//snapping the domain bounds to a zoom ladder of one day times 1.2^n (matching the mouse wheel zoom factor) and a grid,
+		//so that identical images are requested and the server side caches are effective
+		BoundsQuantizer boundsQuantizer = new BoundsQuantizer(1000*60*60*24, 1.2);
 //		Example1Controller appController = new Example1Controller(primaryHandlerManager, horizontalOverviewHandlerManager, layout.getMainViewport(), layout.getHorizontalOverviewViewport(), gimvService);
 		MainJFreechartSampleController mainController = new MainJFreechartSampleController(
 				primaryHandlerManager, horizontalOverviewHandlerManager, gimvService);
 
+		mainController.setBoundsQuantizer(boundsQuantizer);
+
 		OverviewJFreechartSampleController overviewController = new OverviewJFreechartSampleController(horizontalOverviewHandlerManager, gimvService);
 
 		//attach all widgets, must be done before configuring GimvComponents
 		RootPanel.get("rootPanel").add(layout.getRootWidget());
 
-		configureGimvComponentsInMainImageConsole(primaryHandlerManager, layout);
+		configureGimvComponentsInMainImageConsole(primaryHandlerManager, layout, boundsQuantizer);
 		primaryHandlerManager.fireEvent(StateChangeEvent.createMove());
 
 		configureGimvComponentsInHorizontalOverview(horizontalOverviewHandlerManager, primaryHandlerManager, layout);
 		horizontalOverviewHandlerManager.fireEvent(StateChangeEvent.createMove());
 
-		mainController.init(layout.getMainViewport());
-		overviewController.init(layout.getHorizontalOverviewViewport());
+		//fill exposed areas while dragging or zooming out with recently loaded images, including the overview image
+		PreviewCompositorPresenter previewCompositorPresenter = new PreviewCompositorPresenter(primaryHandlerManager, new PreviewCompositorViewImpl(layout.getMainPreviewPanel()));
+		previewCompositorPresenter.addImageSource(horizontalOverviewHandlerManager);
+
+		//event dispatch statistics of the main chart, when the page is opened with ?profile
+		if (Window.Location.getParameter("profile") != null) {
+			EventDispatchProfiler profiler = new EventDispatchProfiler();
+			primaryHandlerManager.setTracer(profiler);
+			RootPanel.get().add(new EventDispatchProfilerWidget(profiler));
+		}
+
+		//the views embedded into the host page, rendered for the viewport dimensions remembered at the previous visit
+		JFreechartSampleInitialViews initialViews = new JFreechartSampleInitialViews(gimvService);
+		JFreechartSampleInitialViews.rememberViewports(
+				layout.getMainViewport().getOffsetWidth(), layout.getMainViewport().getOffsetHeight(),
+				layout.getHorizontalOverviewViewport().getOffsetWidth(), layout.getHorizontalOverviewViewport().getOffsetHeight());
+
+		//both charts are rendered with a single request, if requested at the same time
+		JFreechartSampleChartGroup chartGroup = new JFreechartSampleChartGroup(gimvService);
+
+		mainController.init(layout.getMainViewport(), initialViews, chartGroup);
+		overviewController.init(layout.getHorizontalOverviewViewport(), initialViews, chartGroup);
 	}
 
-	private void configureGimvComponentsInMainImageConsole(HandlerManager handlerManager, JFreechartSampleLayout layout) {
+	private void configureGimvComponentsInMainImageConsole(HandlerManager handlerManager, final JFreechartSampleLayout layout, final BoundsQuantizer boundsQuantizer) {
 		BoundsShiftPresenter.View shiftLeftView = new BoundsShiftViewImpl(layout.getShiftLeft());
 		BoundsShiftPresenter shiftLeftPresenter = new BoundsShiftPresenter(handlerManager, shiftLeftView);
 		shiftLeftPresenter.configureAbsoluteShift(-1 * 1000*60*60*24, 0);
 
-		CalendarPresenter.View startCalendarView = new CalendarViewImpl(layout.getStartDatePicker());
-		CalendarPresenter startCalendarPresenter = new CalendarPresenter(handlerManager, startCalendarView);
-		startCalendarPresenter.configureBound(Bound.LEFT);
+		//calendars, keystrokes and tooltips are loaded in split points after the first chart has been shown
+		final AsyncCalendarPresenter startCalendar = new AsyncCalendarPresenter(handlerManager, layout.getStartDatePickerPanel());
+		final AsyncCalendarPresenter endCalendar = new AsyncCalendarPresenter(handlerManager, layout.getEndDatePickerPanel());
+		final AsyncKeystrokeControl keystrokes = new AsyncKeystrokeControl(handlerManager);
+		final AsyncTooltipPresenter tooltips = new AsyncTooltipPresenter(handlerManager);
 
 		ImageMoveOrZoomToggleButtonPresenter.View moveOrZoomToggleView = new ImageMoveOrZoomToggleButtonViewImpl(layout.getMoveButton(), layout.getZoomButton());
 		new ImageMoveOrZoomToggleButtonPresenter(handlerManager, moveOrZoomToggleView);
@@ -76,13 +123,70 @@ public class JFreechartSampleEntryPoint implements EntryPoint {
 		new ImagePresenter(handlerManager, imageView);
 
 		layout.getMainViewport().setHandlerManager(handlerManager);
+		layout.getMainViewport().setUsePointerEvents(true);
 
 		GenericWidgetView zoomBoxView = new GenericWidgetViewImpl(layout.getZoomBox());
-		new ZoomBoxPresenter(handlerManager, zoomBoxView);
+		ZoomBoxPresenter zoomBoxPresenter = new ZoomBoxPresenter(handlerManager, zoomBoxView);
+		zoomBoxPresenter.setBoundsQuantizer(boundsQuantizer);
+
+		DragImageControl dragImageControl = new DragImageControl(handlerManager);
+		dragImageControl.setBoundsQuantizer(boundsQuantizer);
+		dragImageControl.setKineticPanning(true);
+
+		new ViewportDimensionsListenerControl(layout.getMainViewport(), handlerManager);
 
-		new DragImageControl(handlerManager);
+		MouseWheelControl mouseWheelControl = new MouseWheelControl(handlerManager);
+		mouseWheelControl.setBoundsQuantizer(boundsQuantizer);
+
+		MousePointerPresenter mousePointerPresenter = new MousePointerPresenter(handlerManager, new GenericWidgetViewImpl(layout.getVerticalMousePointerLine()));
+		mousePointerPresenter.configure(true, false);
+
+		BoundsShiftPresenter.View shiftRightView = new BoundsShiftViewImpl(layout.getShiftRight());
+		BoundsShiftPresenter shiftRightPresenter = new BoundsShiftPresenter(handlerManager, shiftRightView);
+		shiftRightPresenter.configureAbsoluteShift(+1 * 1000*60*60*24, 0);
+
+		//input to pixels latency, visible in the performance tab of the browser's developer tools
+		new ImageLoadTimingControl(handlerManager);
+
+		new FirstImageLoadedHandler(handlerManager) {
+			@Override
+			void onFirstImageLoaded() {
+				startCalendar.get(new ComponentCallback<CalendarPresenter>() {
+					public void onSuccess(CalendarPresenter startCalendarPresenter) {
+						startCalendarPresenter.configureBound(Bound.LEFT);
+					}
+				});
+
+				endCalendar.get(new ComponentCallback<CalendarPresenter>() {
+					public void onSuccess(CalendarPresenter endCalendarPresenter) {
+						endCalendarPresenter.configureBound(Bound.RIGHT);
+					}
+				});
+
+				keystrokes.get(new ComponentCallback<KeystrokeControl>() {
+					public void onSuccess(KeystrokeControl keystrokeControl) {
+						configureKeystrokeControl(keystrokeControl, layout, boundsQuantizer);
+					}
+				});
+
+				tooltips.get(new ComponentCallback<TooltipPresenter>() {
+					public void onSuccess(TooltipPresenter tooltipPresenter) {
+						tooltipPresenter.configureHoverMatch(true, false, true);
+						tooltipPresenter.setHoverHtmlFormatter("1", new TooltipTemplate("<span style=\"background-color:yellow; \">{y} on {x}</span>") {
+							@Override
+							protected String formatX(double x) {
+								return DateTimeFormat.getFormat("dd.MM.yyyy HH:mm").format(new Date((long) x));
+							}
+						});
+					}
+				});
+			}
+		};
+	}
 
-		KeystrokeControl keystrokeControl = new KeystrokeControl(handlerManager);
+	private void configureKeystrokeControl(KeystrokeControl keystrokeControl, JFreechartSampleLayout layout, BoundsQuantizer boundsQuantizer) {
+		keystrokeControl.setBoundsQuantizer(boundsQuantizer);
+		keystrokeControl.setHoldToPan(true);
 
 		keystrokeControl.addTargetElement(layout.getMainViewport().getElement());
 		keystrokeControl.addTargetElement(layout.getHorizontalOverviewViewport().getElement());
@@ -101,46 +205,68 @@ public class JFreechartSampleEntryPoint implements EntryPoint {
 		keystrokeControl.registerKey(KeyCodes.KEY_UP, true, false, false, false, Direction.SOUTH, 30);
 		keystrokeControl.registerKey(KeyCodes.KEY_RIGHT, true, false, false, false, Direction.WEST, 30);
 		keystrokeControl.registerKey(KeyCodes.KEY_DOWN, true, false, false, false, Direction.NORTH, 30);
-
-		new ViewportDimensionsListenerControl(layout.getMainViewport(), handlerManager);
-
-		new MouseWheelControl(handlerManager);
-
-		TooltipPresenter tooltipPresenter = new TooltipPresenter(handlerManager);
-		tooltipPresenter.configureHoverMatch(true, false, true);
-
-		MousePointerPresenter mousePointerPresenter = new MousePointerPresenter(handlerManager, new GenericWidgetViewImpl(layout.getVerticalMousePointerLine()));
-		mousePointerPresenter.configure(true, false);
-
-		CalendarPresenter.View endCalendarView = new CalendarViewImpl(layout.getEndDatePicker());
-		CalendarPresenter endCalendarPresenter = new CalendarPresenter(handlerManager, endCalendarView);
-		endCalendarPresenter.configureBound(Bound.RIGHT);
-
-		BoundsShiftPresenter.View shiftRightView = new BoundsShiftViewImpl(layout.getShiftRight());
-		BoundsShiftPresenter shiftRightPresenter = new BoundsShiftPresenter(handlerManager, shiftRightView);
-		shiftRightPresenter.configureAbsoluteShift(+1 * 1000*60*60*24, 0);
 	}
 
-	private void configureGimvComponentsInHorizontalOverview(HandlerManager handlerManager, HandlerManager mainHandlerManager, JFreechartSampleLayout layout) {
+	private void configureGimvComponentsInHorizontalOverview(HandlerManager handlerManager, HandlerManager mainHandlerManager, final JFreechartSampleLayout layout) {
 		// Preview image of the overview
 		ImagePresenter.View imageView = new ImageViewImpl(layout.getHorizontalOverviewImage());
 		new ImagePresenter(handlerManager, imageView);
 
 		new ViewportDimensionsListenerControl(layout.getHorizontalOverviewViewport(), handlerManager);
 
-		OverviewPresenter overviewPresenter = new OverviewPresenter(new GenericWidgetViewImpl(layout.getHorizontalSlider()), handlerManager, mainHandlerManager);
+		// the slider is loaded in a split point after the first main chart has been shown
+		final AsyncOverviewPresenter overview = new AsyncOverviewPresenter(new GenericWidgetViewImpl(layout.getHorizontalSlider()), handlerManager, mainHandlerManager);
 
-		// Define handles for controlling the overview
-		overviewPresenter.addHandle(new GenericWidgetViewImpl(layout.getLeftHandleWidget()), Bound.LEFT);
-		overviewPresenter.addHandle(new GenericWidgetViewImpl(layout.getMainHandleWidget()), Bound.LEFT, Bound.RIGHT);
-		overviewPresenter.addHandle(new GenericWidgetViewImpl(layout.getRightHandleWidget()), Bound.RIGHT);
+		layout.getHorizontalOverviewViewport().setHandlerManager(handlerManager);
 
-		// what is the minimum width for the slider
-		overviewPresenter.setMinClippingWidth(layout.getMinHorizontalSliderWidth());
+		new FirstImageLoadedHandler(mainHandlerManager) {
+			@Override
+			void onFirstImageLoaded() {
+				overview.get(new ComponentCallback<OverviewPresenter>() {
+					public void onSuccess(OverviewPresenter overviewPresenter) {
+						// Define handles for controlling the overview
+						overviewPresenter.addHandle(new GenericWidgetViewImpl(layout.getLeftHandleWidget()), Bound.LEFT);
+						overviewPresenter.addHandle(new GenericWidgetViewImpl(layout.getMainHandleWidget()), Bound.LEFT, Bound.RIGHT);
+						overviewPresenter.addHandle(new GenericWidgetViewImpl(layout.getRightHandleWidget()), Bound.RIGHT);
+
+						// preview the main chart while dragging
+						overviewPresenter.setLivePreview(true);
+
+						// what is the minimum width for the slider
+						overviewPresenter.setMinClippingWidth(layout.getMinHorizontalSliderWidth());
+
+						// it's a horizontal slider, dont' let it move vertically
+						overviewPresenter.setVerticallyLocked(true);
+					}
+				});
+			}
+		};
+	}
 
-		// it's a horizontal slider, dont' let it move vertically
-		overviewPresenter.setVerticallyLocked(true);
+	/**
+	 * Invokes {@link #onFirstImageLoaded()} once, when the first image has been loaded.
+	 */
+	private static abstract class FirstImageLoadedHandler implements ImageLoadedEventHandler {
+		private final HandlerRegistration registration;
 
-		layout.getHorizontalOverviewViewport().setHandlerManager(handlerManager);
+		FirstImageLoadedHandler(HandlerManager handlerManager) {
+			registration = handlerManager.addHandler(ImageLoadedEvent.TYPE, this);
+		}
+
+		public void onImageLoaded(ImageLoadedEvent event) {
+			registration.removeHandler();
+			onFirstImageLoaded();
+		}
+
+		abstract void onFirstImageLoaded();
+	}
+
+	/**
+	 * The sample does without the optional component, if its code could not be loaded.
+	 */
+	private static abstract class ComponentCallback<T> implements AsyncCallback<T> {
+		public void onFailure(Throwable caught) {
+			GWT.log("Could not load an optional component: " + caught);
+		}
 	}
 }
@@ -0,0 +1,72 @@
+package org.eesgmbh.gimv.samples.jfreechart.client;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.eesgmbh.gimv.client.imagedata.ImageData;
+import org.eesgmbh.gimv.client.imagedata.ImageDataKey;
+import org.eesgmbh.gimv.client.imagedata.ImageDataSource;
+import org.eesgmbh.gimv.samples.jfreechart.client.img.JFreechartSampleDataServiceAsync;
+import org.eesgmbh.gimv.samples.jfreechart.shared.ImageDataRequest;
+import org.eesgmbh.gimv.samples.jfreechart.shared.ImageDataResponse;
+
+/**
+ * The transport adapter at the end of the image data pipeline. Renders the image
+ * with the sample service, using a template for everything except bounds and dimensions.
+ */
+public class JFreechartSampleImageDataSource implements ImageDataSource {
+
+	private final JFreechartSampleDataServiceAsync jfreechartSampleService;
+
+	private final ImageDataRequest templateRequest;
+	private final boolean publishPlotArea;
+
+	public JFreechartSampleImageDataSource(JFreechartSampleDataServiceAsync jfreechartSampleService, ImageDataRequest templateRequest, boolean publishPlotArea) {
+		this.jfreechartSampleService = jfreechartSampleService;
+		this.templateRequest = templateRequest;
+		this.publishPlotArea = publishPlotArea;
+	}
+
+	public void getImageData(ImageDataKey key, final AsyncCallback<ImageData> callback) {
+		//async image request
+		jfreechartSampleService.getImageData(createRequest(key), new AsyncCallback<ImageDataResponse>() {
+			public void onFailure(Throwable th) {
+				th.printStackTrace();
+
+				//shown by the controllers (LoadImageDataFailedEvent)
+				callback.onFailure(th);
+			}
+
+			public void onSuccess(ImageDataResponse imageDataResponse) {
+				callback.onSuccess(toImageData(imageDataResponse));
+			}
+		});
+	}
+
+	/**
+	 * Also used for the batches of the chart group
+	 */
+	public ImageDataRequest createRequest(ImageDataKey key) {
+		ImageDataRequest imageDataRequest = new ImageDataRequest(
+				key.getDomainBounds(), key.getWidth(), key.getHeight(),
+				templateRequest.getTitle(), templateRequest.getxAxisLabel(), templateRequest.getyAxisLabel(),
+				templateRequest.generateLegend(), templateRequest.generateTooltips(), templateRequest.showRangeAxis(), templateRequest.noPlotInsets());
+		imageDataRequest.setStation(templateRequest.getStation());
+		imageDataRequest.setMaxEmbeddedImageBytes(templateRequest.getMaxEmbeddedImageBytes());
+
+		return imageDataRequest;
+	}
+
+	/**
+	 * Also used for the initial views embedded into the host page
+	 */
+	public ImageData toImageData(ImageDataResponse imageDataResponse) {
+		ImageData imageData = new ImageData(imageDataResponse.getImageUrl(), imageDataResponse.getDomainBounds());
+		imageData.setMaxDomainBounds(imageDataResponse.getMaxDomainBounds());
+		imageData.setImageEntitiesHandle(imageDataResponse.getImageEntitiesHandle());
+
+		if (publishPlotArea) {
+			imageData.setDataAreaBounds(imageDataResponse.getPlotArea());
+		}
+
+		return imageData;
+	}
+}
@@ -0,0 +1,60 @@
+package org.eesgmbh.gimv.samples.jfreechart.client;
+
+import com.google.gwt.user.client.Cookies;
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.client.rpc.SerializationStreamFactory;
+import org.eesgmbh.gimv.samples.jfreechart.client.img.JFreechartSampleDataServiceAsync;
+import org.eesgmbh.gimv.samples.jfreechart.shared.CommonSettings;
+import org.eesgmbh.gimv.samples.jfreechart.shared.ImageDataResponse;
+
+import java.util.Date;
+
+/**
+ * The initial views rendered by the JFreechartSampleHostPageServlet and embedded into the host page,
+ * so the controllers do not need an RPC round trip for the first images.
+ */
+public class JFreechartSampleInitialViews {
+
+	private final SerializationStreamFactory serializationStreamFactory;
+
+	public JFreechartSampleInitialViews(JFreechartSampleDataServiceAsync jfreechartSampleService) {
+		//the service proxy deserializes the embedded responses just like regular RPC responses
+		this.serializationStreamFactory = (SerializationStreamFactory) jfreechartSampleService;
+	}
+
+	/**
+	 * Returns the embedded response of a view, if it was rendered with the current viewport dimensions.
+	 *
+	 * @param name {@link CommonSettings#INITIAL_MAIN_VIEW} or {@link CommonSettings#INITIAL_OVERVIEW_VIEW}
+	 * @return the response or null
+	 */
+	public ImageDataResponse get(String name, int width, int height) {
+		String payload = getPayload(name, width, height);
+
+		if (payload == null) {
+			return null;
+		}
+
+		try {
+			//encoded like a successful RPC response
+			return (ImageDataResponse) serializationStreamFactory.createStreamReader(payload.startsWith("//OK") ? payload.substring(4) : payload).readObject();
+
+		} catch (SerializationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Remembers the viewport dimensions, the host page servlet renders the initial views of the next visit accordingly.
+	 */
+	public static void rememberViewports(int mainWidth, int mainHeight, int overviewWidth, int overviewHeight) {
+		Cookies.setCookie(CommonSettings.VIEWPORTS_COOKIE, mainWidth + "_" + mainHeight + "_" + overviewWidth + "_" + overviewHeight,
+				new Date(System.currentTimeMillis() + 1000L*60*60*24*365));
+	}
+
+	private static native String getPayload(String name, int width, int height) /*-{
+		var view = $wnd.gimvInitialViews && $wnd.gimvInitialViews[name];
+
+		return view && view.width == width && view.height == height ? view.response : null;
+	}-*/;
+}
@@ -3,6 +3,7 @@ package org.eesgmbh.gimv.samples.jfreechart.client;
 import org.eesgmbh.gimv.client.widgets.Viewport;
 
 import com.google.gwt.user.client.DOM;
+import com.google.gwt.user.client.ui.AbsolutePanel;
 import com.google.gwt.user.client.ui.HTML;
 import com.google.gwt.user.client.ui.HasHorizontalAlignment;
 import com.google.gwt.user.client.ui.HasVerticalAlignment;
@@ -12,20 +13,20 @@ import com.google.gwt.user.client.ui.SimplePanel;
 import com.google.gwt.user.client.ui.ToggleButton;
 import com.google.gwt.user.client.ui.VerticalPanel;
 import com.google.gwt.user.client.ui.Widget;
-import com.google.gwt.user.datepicker.client.DatePicker;
 
 public class JFreechartSampleLayout {
 
 	private VerticalPanel rootWidget;
 
 	private Image shiftLeft;
-	private DatePicker startDatePicker;
+	private SimplePanel startDatePickerPanel;
 	private ToggleButton moveButton;
 	private ToggleButton zoomButton;
+	private AbsolutePanel mainPreviewPanel;
 	private Image mainChartImage;
 	private Viewport mainViewport;
 	private HTML zoomBox;
-	private DatePicker endDatePicker;
+	private SimplePanel endDatePickerPanel;
 	private Image shiftRight;
 
 	private HTML verticalMousePointerLine;
@@ -54,13 +55,12 @@ public class JFreechartSampleLayout {
 		DOM.setStyleAttribute(shiftLeft.getElement(), "cursor", "pointer");
 		primaryImagePanel.add(shiftLeft);
 
-		startDatePicker = new DatePicker();
-		//wrap in simple panel with fixed size to workaround IE layout bug/feature
-		SimplePanel spStartDatePicker = new SimplePanel();
-		spStartDatePicker.add(startDatePicker);
-		spStartDatePicker.setWidth("163px");
-		primaryImagePanel.add(spStartDatePicker);
-		primaryImagePanel.setCellHorizontalAlignment(spStartDatePicker, HasHorizontalAlignment.ALIGN_RIGHT);
+		//the date picker is added when the calendar code has been loaded
+		//simple panel with fixed size to workaround IE layout bug/feature
+		startDatePickerPanel = new SimplePanel();
+		startDatePickerPanel.setWidth("163px");
+		primaryImagePanel.add(startDatePickerPanel);
+		primaryImagePanel.setCellHorizontalAlignment(startDatePickerPanel, HasHorizontalAlignment.ALIGN_RIGHT);
 
 		VerticalPanel vp = new VerticalPanel();
 		vp.setWidth("100%");
@@ -80,9 +80,14 @@ public class JFreechartSampleLayout {
 
 		vp.add(buttonPanel);
 
+		//cached images are painted into this panel underneath the chart image
+		mainPreviewPanel = new AbsolutePanel();
+		mainPreviewPanel.setSize("100%", "100%");
+
 		mainChartImage = new Image();
 
 		mainViewport = new Viewport("100%", "100%");
+		mainViewport.add(mainPreviewPanel);
 		mainViewport.add(mainChartImage);
 		mainViewport.setEnableZoomWhenShiftkeyPressed(true);
 
@@ -113,12 +118,11 @@ public class JFreechartSampleLayout {
 		primaryImagePanel.setCellWidth(vp, "100%");
 		primaryImagePanel.setCellHeight(vp, "100%");
 
-		endDatePicker = new DatePicker();
-		//wrap in simple panel with fixed size to workaround IE layout bug/feature
-		SimplePanel spEndDatePicker = new SimplePanel();
-		spEndDatePicker.add(endDatePicker);
-		spEndDatePicker.setWidth("163px");
-		primaryImagePanel.add(spEndDatePicker);
+		//the date picker is added when the calendar code has been loaded
+		//simple panel with fixed size to workaround IE layout bug/feature
+		endDatePickerPanel = new SimplePanel();
+		endDatePickerPanel.setWidth("163px");
+		primaryImagePanel.add(endDatePickerPanel);
 
 		shiftRight = new Image("img/arrow-blue-rounded-right.png");
 		DOM.setStyleAttribute(shiftRight.getElement(), "cursor", "pointer");
@@ -175,8 +179,8 @@ public class JFreechartSampleLayout {
 		return this.shiftLeft;
 	}
 
-	public DatePicker getStartDatePicker() {
-		return this.startDatePicker;
+	public SimplePanel getStartDatePickerPanel() {
+		return this.startDatePickerPanel;
 	}
 
 	public ToggleButton getMoveButton() {
@@ -187,6 +191,10 @@ public class JFreechartSampleLayout {
 		return this.zoomButton;
 	}
 
+	public AbsolutePanel getMainPreviewPanel() {
+		return mainPreviewPanel;
+	}
+
 	public Image getMainChartImage() {
 		return this.mainChartImage;
 	}
@@ -199,8 +207,8 @@ public class JFreechartSampleLayout {
 		return this.zoomBox;
 	}
 
-	public DatePicker getEndDatePicker() {
-		return this.endDatePicker;
+	public SimplePanel getEndDatePickerPanel() {
+		return this.endDatePickerPanel;
 	}
 
 	public Image getShiftRight() {
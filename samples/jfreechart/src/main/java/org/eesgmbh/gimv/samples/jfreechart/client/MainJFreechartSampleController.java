@@ -6,12 +6,23 @@ import com.google.gwt.user.client.Window;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import org.eesgmbh.gimv.client.event.*;
 import org.eesgmbh.gimv.client.history.DefaultSetDomainBoundsEventHistoryTokenTransformer;
+import org.eesgmbh.gimv.client.imagedata.CachingImageDataSource;
+import org.eesgmbh.gimv.client.imagedata.DedupingImageDataSource;
+import org.eesgmbh.gimv.client.imagedata.ImageDataCache;
+import org.eesgmbh.gimv.client.imagedata.ImageDataKey;
+import org.eesgmbh.gimv.client.imagedata.ImageDataSource;
+import org.eesgmbh.gimv.client.imagedata.ImageDataSourceControl;
+import org.eesgmbh.gimv.client.imagedata.ImageEntityFetchControl;
+import org.eesgmbh.gimv.client.imagedata.ImageEntitySource;
+import org.eesgmbh.gimv.client.imagedata.PrefetchControl;
+import org.eesgmbh.gimv.client.imagedata.PrefetchingImageDataSource;
 import org.eesgmbh.gimv.client.widgets.Viewport;
 import org.eesgmbh.gimv.samples.jfreechart.client.img.JFreechartSampleDataServiceAsync;
 import org.eesgmbh.gimv.samples.jfreechart.shared.CommonSettings;
-import org.eesgmbh.gimv.samples.jfreechart.shared.ImageDataRequest;
 import org.eesgmbh.gimv.samples.jfreechart.shared.ImageDataResponse;
 import org.eesgmbh.gimv.shared.util.Bounds;
+import org.eesgmbh.gimv.shared.util.BoundsQuantizer;
+import org.eesgmbh.gimv.shared.util.ImageEntityBatch;
 
 public class MainJFreechartSampleController extends AbstractJFreechartController {
 
@@ -19,22 +30,61 @@ public class MainJFreechartSampleController extends AbstractJFreechartController
 
 	private final HandlerManager overviewHandlerManager;
 
+	//views seen before, e.g. when navigating through the browser history, are not rendered again
+	private final ImageDataCache imageDataCache;
+
+	private BoundsQuantizer boundsQuantizer;
+
+	//the next domain bounds belong to a new image, see ImageDataSourceControl#fireImageDataEvents
+	private boolean imageUrlPending;
+
 	public MainJFreechartSampleController(HandlerManager handlerManager, HandlerManager overviewHandlerManager, JFreechartSampleDataServiceAsync jfreechartSampleService) {
 		super(handlerManager, jfreechartSampleService);
 		this.overviewHandlerManager = overviewHandlerManager;
 
 		this.historyManager = new JFreechartSampleBrowserHistoryManager(handlerManager);
 
-		this.handlerManager.addHandler(LoadImageDataEvent.TYPE, new LoadImageDataEventHandlerImpl());
+		this.imageDataCache = new ImageDataCache();
+
+		this.handlerManager.addHandler(SetImageUrlEvent.TYPE, new SetImageUrlEventHandlerImpl());
 		this.handlerManager.addHandler(SetDomainBoundsEvent.TYPE, new SetBoundsEventHandlerImpl());
+		this.handlerManager.addHandler(LoadImageDataFailedEvent.TYPE, new LoadImageDataFailedEventHandlerImpl());
 	}
 
 	@SuppressWarnings("deprecation")
-	public void init(Viewport viewport) {
+	public void init(Viewport viewport, JFreechartSampleInitialViews initialViews, JFreechartSampleChartGroup chartGroup) {
 		//define the default request data
-		currentImageDataRequest = new ImageDataRequest(
-				viewport.getOffsetWidth(), viewport.getOffsetHeight(),
-				"PEGELONLINE Station MAXAU", "Date", "Value", true, true, true, false);
+		currentImageDataRequest = CommonSettings.createMainImageDataRequest(viewport.getOffsetWidth(), viewport.getOffsetHeight());
+
+		JFreechartSampleImageDataSource sampleImageDataSource = new JFreechartSampleImageDataSource(jfreechartSampleService, currentImageDataRequest, true);
+		PrefetchingImageDataSource prefetchingImageDataSource = new PrefetchingImageDataSource(chartGroup.addChart("main", sampleImageDataSource), imageDataCache);
+
+		//memory cache -> in-flight dedupe -> prefetch -> chart group, only the latest request is shown
+		ImageDataSource imageDataSource = new CachingImageDataSource(imageDataCache, new DedupingImageDataSource(prefetchingImageDataSource));
+		new ImageDataSourceControl(handlerManager, imageDataSource);
+
+		//the initial view embedded into the host page is served from the cache, without a round trip
+		ImageDataResponse initialResponse = initialViews.get(CommonSettings.INITIAL_MAIN_VIEW, viewport.getOffsetWidth(), viewport.getOffsetHeight());
+		if (initialResponse != null) {
+			imageDataCache.put(new ImageDataKey(initialResponse.getDomainBounds(), viewport.getOffsetWidth(), viewport.getOffsetHeight()),
+					sampleImageDataSource.toImageData(initialResponse));
+		}
+
+		//the most likely next views: the shift buttons, a wheel notch and the arrow keys, as configured in the entry point
+		PrefetchControl prefetchControl = new PrefetchControl(handlerManager, prefetchingImageDataSource);
+		prefetchControl.addAbsoluteShift(-1 * 1000*60*60*24, 0);
+		prefetchControl.addAbsoluteShift(+1 * 1000*60*60*24, 0);
+		prefetchControl.addZoom(0.2);
+		prefetchControl.addPixelShift(10, 0);
+		prefetchControl.addPixelShift(-10, 0);
+		prefetchControl.setBoundsQuantizer(boundsQuantizer);
+
+		//the tooltips are fetched when the chart is hovered or after a second
+		new ImageEntityFetchControl(handlerManager, new ImageEntitySource() {
+			public void getImageEntities(String handle, AsyncCallback<ImageEntityBatch> callback) {
+				jfreechartSampleService.getImageEntities(handle, callback);
+			}
+		});
 
 		//telling everyone about the size of the viewport
 		handlerManager.fireEvent(new SetViewportPixelBoundsEvent(new Bounds(0, viewport.getOffsetWidth(), 0, viewport.getOffsetHeight())));
@@ -47,49 +97,51 @@ public class MainJFreechartSampleController extends AbstractJFreechartController
 
 		} else {
 			//Initialize bounds to a default
-			onSetDomainBounds(new SetDomainBoundsEvent(CommonSettings.INITIAL_BOUNDS));
+			handlerManager.fireEvent(new SetDomainBoundsEvent(initialResponse != null ? initialResponse.getDomainBounds() : CommonSettings.INITIAL_BOUNDS));
 
 			//and render the image on the server side
-			onLoadImageData();
+			handlerManager.fireEvent(new LoadImageDataEvent());
 		}
 	}
 
-	private void onLoadImageData() {
-		//async image request
-		jfreechartSampleService.getImageData(currentImageDataRequest, new AsyncCallback<ImageDataResponse>() {
-			public void onFailure(Throwable th) {
-				th.printStackTrace();
-
-				Window.alert(th.getMessage());
-			}
-
-			public void onSuccess(ImageDataResponse imageDataResponse) {
-				handlerManager.fireEvent(new SetImageUrlEvent(imageDataResponse.getImageUrl()));
-
-				handlerManager.fireEvent(new SetDataAreaPixelBoundsEvent(imageDataResponse.getPlotArea()));
+	/**
+	 * The quantizer of the navigation controls, must be set before init
+	 */
+	public void setBoundsQuantizer(BoundsQuantizer boundsQuantizer) {
+		this.boundsQuantizer = boundsQuantizer;
+	}
 
-				handlerManager.fireEvent(new SetMaxDomainBoundsEvent(imageDataResponse.getMaxDomainBounds()));
+	/**
+	 * The domain bounds of a new image, published by the {@link ImageDataSourceControl}
+	 */
+	private void onImageData(SetDomainBoundsEvent setDomainBoundsEvent) {
+		History.newItem("bounds=" + DefaultSetDomainBoundsEventHistoryTokenTransformer.toHistoryTokenValue(setDomainBoundsEvent), false);
 
-				SetDomainBoundsEvent setDomainBoundsEvent = new SetDomainBoundsEvent(imageDataResponse.getDomainBounds());
+		//tell the overview controller about its overview bounds
+		overviewHandlerManager.fireEvent(new SetOverviewDomainBoundsEvent(setDomainBoundsEvent.getBounds()));
+	}
 
-				handlerManager.fireEvent(setDomainBoundsEvent);
-				handlerManager.fireEvent(new SetImageEntitiesEvent(imageDataResponse.getImageEntities()));
+	private void onSetDomainBounds(SetDomainBoundsEvent event) {
+		if (currentImageDataRequest != null) {
+			currentImageDataRequest.setDomainBounds(event.getBounds());
+		}
 
-				History.newItem("bounds=" + DefaultSetDomainBoundsEventHistoryTokenTransformer.toHistoryTokenValue(setDomainBoundsEvent), false);
+		if (imageUrlPending) {
+			imageUrlPending = false;
 
-				//tell the overview controller about its overview bounds
-				overviewHandlerManager.fireEvent(new SetOverviewDomainBoundsEvent(setDomainBoundsEvent.getBounds()));
-			}
-		});
+			onImageData(event);
+		}
 	}
 
-	private void onSetDomainBounds(SetDomainBoundsEvent event) {
-		currentImageDataRequest.setDomainBounds(event.getBounds());
+	private class SetImageUrlEventHandlerImpl implements SetImageUrlEventHandler {
+		public void onSetImageUrl(SetImageUrlEvent event) {
+			imageUrlPending = true;
+		}
 	}
 
-	private class LoadImageDataEventHandlerImpl implements LoadImageDataEventHandler {
-		public void onLoadImageData(LoadImageDataEvent event) {
-			MainJFreechartSampleController.this.onLoadImageData();
+	private class LoadImageDataFailedEventHandlerImpl implements LoadImageDataFailedEventHandler {
+		public void onLoadImageDataFailed(LoadImageDataFailedEvent event) {
+			Window.alert(event.getCaught().getMessage());
 		}
 	}
 
@@ -1,14 +1,19 @@
 package org.eesgmbh.gimv.samples.jfreechart.client;
 
+import com.google.gwt.core.client.GWT;
 import com.google.gwt.event.shared.HandlerManager;
-import com.google.gwt.user.client.Window;
-import com.google.gwt.user.client.rpc.AsyncCallback;
-import org.eesgmbh.gimv.client.controls.ViewportDimensionsListenerControl;
-import org.eesgmbh.gimv.client.event.*;
+import org.eesgmbh.gimv.client.event.LoadImageDataEvent;
+import org.eesgmbh.gimv.client.event.LoadImageDataFailedEvent;
+import org.eesgmbh.gimv.client.event.LoadImageDataFailedEventHandler;
+import org.eesgmbh.gimv.client.event.SetDomainBoundsEvent;
+import org.eesgmbh.gimv.client.event.SetViewportPixelBoundsEvent;
+import org.eesgmbh.gimv.client.imagedata.CachingImageDataSource;
+import org.eesgmbh.gimv.client.imagedata.ImageDataCache;
+import org.eesgmbh.gimv.client.imagedata.ImageDataKey;
+import org.eesgmbh.gimv.client.imagedata.ImageDataSourceControl;
 import org.eesgmbh.gimv.client.widgets.Viewport;
 import org.eesgmbh.gimv.samples.jfreechart.client.img.JFreechartSampleDataServiceAsync;
 import org.eesgmbh.gimv.samples.jfreechart.shared.CommonSettings;
-import org.eesgmbh.gimv.samples.jfreechart.shared.ImageDataRequest;
 import org.eesgmbh.gimv.samples.jfreechart.shared.ImageDataResponse;
 import org.eesgmbh.gimv.shared.util.Bounds;
 
@@ -17,50 +22,45 @@ public class OverviewJFreechartSampleController extends AbstractJFreechartContro
 	public OverviewJFreechartSampleController(HandlerManager handlerManager, JFreechartSampleDataServiceAsync jfreechartSampleService) {
 		super(handlerManager, jfreechartSampleService);
 
-		this.handlerManager.addHandler(LoadImageDataEvent.TYPE, new LoadImageDataEventHandlerImpl());
+		this.handlerManager.addHandler(LoadImageDataFailedEvent.TYPE, new LoadImageDataFailedEventHandlerImpl());
 	}
 
 	@SuppressWarnings("deprecation")
-	public void init(Viewport viewport) {
+	public void init(Viewport viewport, JFreechartSampleInitialViews initialViews, JFreechartSampleChartGroup chartGroup) {
 		//initialize to some defaults
-		currentImageDataRequest = new ImageDataRequest(
-				CommonSettings.INITIAL_OVERVIEW_BOUNDS,
-				viewport.getOffsetWidth(), viewport.getOffsetHeight(),
-				null, null, null, false, false, false, true);
+		currentImageDataRequest = CommonSettings.createOverviewImageDataRequest(viewport.getOffsetWidth(), viewport.getOffsetHeight());
+
+		JFreechartSampleImageDataSource sampleImageDataSource = new JFreechartSampleImageDataSource(jfreechartSampleService, currentImageDataRequest, false);
+		ImageDataCache imageDataCache = new ImageDataCache();
+		Bounds initialBounds = CommonSettings.INITIAL_OVERVIEW_BOUNDS;
+
+		//the initial view embedded into the host page is served from the cache, without a round trip
+		ImageDataResponse initialResponse = initialViews.get(CommonSettings.INITIAL_OVERVIEW_VIEW, viewport.getOffsetWidth(), viewport.getOffsetHeight());
+		if (initialResponse != null) {
+			initialBounds = initialResponse.getDomainBounds();
+			imageDataCache.put(new ImageDataKey(initialBounds, viewport.getOffsetWidth(), viewport.getOffsetHeight()), sampleImageDataSource.toImageData(initialResponse));
+		}
+
+		//will be invoked by the load event fired below and possibly by ViewportDimensionsListenerControl
+		//TODO: the plot area must be fired and used in OverviewPresenter
+		new ImageDataSourceControl(handlerManager, new CachingImageDataSource(imageDataCache, chartGroup.addChart("overview", sampleImageDataSource)));
 
 		//telling everyone about the size of the viewport
 		handlerManager.fireEvent(new SetViewportPixelBoundsEvent(new Bounds(0, viewport.getOffsetWidth(), 0, viewport.getOffsetHeight())));
 
+		//the bounds to be rendered
+		handlerManager.fireEvent(new SetDomainBoundsEvent(initialBounds));
+
 		//and render the image on the server side
 		handlerManager.fireEvent(new LoadImageDataEvent());
 	}
 
 	/**
-	 * Will be invoked once by init and possibly by {@link ViewportDimensionsListenerControl}
+	 * The overview is usually rendered in a batch together with the main chart, which alerts the user
 	 */
-	private class LoadImageDataEventHandlerImpl implements LoadImageDataEventHandler {
-		public void onLoadImageData(LoadImageDataEvent event) {
-			//request the image for the overview async
-			jfreechartSampleService.getImageData(currentImageDataRequest, new AsyncCallback<ImageDataResponse>() {
-				public void onFailure(Throwable th) {
-					th.printStackTrace();
-
-					Window.alert(th.getMessage());
-				}
-
-				public void onSuccess(ImageDataResponse imageDataResponse) {
-					handlerManager.fireEvent(new SetImageUrlEvent(imageDataResponse.getImageUrl()));
-
-					//TODO: this must be fired and used in OverviewPresenter
-//					handlerManager.fireEvent(new SetDataAreaPixelBoundsEvent(imageDataResponse.getPlotArea()));
-
-					handlerManager.fireEvent(new SetMaxDomainBoundsEvent(imageDataResponse.getMaxDomainBounds()));
-
-					SetDomainBoundsEvent setDomainBoundsEvent = new SetDomainBoundsEvent(imageDataResponse.getDomainBounds());
-
-					handlerManager.fireEvent(setDomainBoundsEvent);
-				}
-			});
+	private class LoadImageDataFailedEventHandlerImpl implements LoadImageDataFailedEventHandler {
+		public void onLoadImageDataFailed(LoadImageDataFailedEvent event) {
+			GWT.log("Could not load the overview: " + event.getCaught());
 		}
 	}
 }
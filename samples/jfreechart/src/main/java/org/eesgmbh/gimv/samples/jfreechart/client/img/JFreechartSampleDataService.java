@@ -2,11 +2,22 @@ package org.eesgmbh.gimv.samples.jfreechart.client.img;
 
 import org.eesgmbh.gimv.samples.jfreechart.shared.ImageDataRequest;
 import org.eesgmbh.gimv.samples.jfreechart.shared.ImageDataResponse;
+import org.eesgmbh.gimv.shared.util.ImageEntityBatch;
 
 import com.google.gwt.user.client.rpc.RemoteService;
 import com.google.gwt.user.client.rpc.RemoteServiceRelativePath;
 
+import java.util.ArrayList;
+
 @RemoteServiceRelativePath("imagedata")
 public interface JFreechartSampleDataService extends RemoteService {
 	ImageDataResponse getImageData(ImageDataRequest imageDataRequest);
+
+	/**
+	 * Renders several charts in one round trip, the responses are in the order of the requests
+	 * (null if a chart could not be rendered)
+	 */
+	ArrayList<ImageDataResponse> getImageDataBatch(ArrayList<ImageDataRequest> imageDataRequests);
+
+	ImageEntityBatch getImageEntities(String imageEntitiesHandle);
 }
@@ -2,9 +2,16 @@ package org.eesgmbh.gimv.samples.jfreechart.client.img;
 
 import org.eesgmbh.gimv.samples.jfreechart.shared.ImageDataRequest;
 import org.eesgmbh.gimv.samples.jfreechart.shared.ImageDataResponse;
+import org.eesgmbh.gimv.shared.util.ImageEntityBatch;
 
 import com.google.gwt.user.client.rpc.AsyncCallback;
 
+import java.util.ArrayList;
+
 public interface JFreechartSampleDataServiceAsync {
   void getImageData(ImageDataRequest imageDataRequest, AsyncCallback<ImageDataResponse> callback);
+
+  void getImageDataBatch(ArrayList<ImageDataRequest> imageDataRequests, AsyncCallback<ArrayList<ImageDataResponse>> callback);
+
+  void getImageEntities(String imageEntitiesHandle, AsyncCallback<ImageEntityBatch> callback);
 }
@@ -0,0 +1,149 @@
+package org.eesgmbh.gimv.samples.jfreechart.server;
+
+import com.google.gwt.user.server.rpc.RPC;
+import org.eesgmbh.gimv.samples.jfreechart.client.img.JFreechartSampleDataService;
+import org.eesgmbh.gimv.samples.jfreechart.shared.CommonSettings;
+import org.eesgmbh.gimv.samples.jfreechart.shared.ImageDataRequest;
+import org.eesgmbh.gimv.samples.jfreechart.shared.ImageDataResponse;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Serves the host page with the initial main and overview views already rendered, so the first paint
+ * needs no RPC round trip. The serialized responses are embedded as <code>gimvInitialViews</code>, the
+ * images are announced with preload links, so the browser requests them while loading the GWT module.
+ *
+ * The dimensions of the viewports are only known from a previous visit (see {@link CommonSettings#VIEWPORTS_COOKIE}),
+ * without the cookie the page is served as it is.
+ */
+@SuppressWarnings("serial")
+public class JFreechartSampleHostPageServlet extends HttpServlet {
+
+	private static final String HOST_PAGE = "/JFreechartSample.html";
+
+	@Override
+	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		String hostPage = readHostPage();
+
+		int[] viewports = readViewportsCookie(request);
+		JFreechartSampleServiceImpl service = JFreechartSampleServiceImpl.get(getServletContext());
+
+		if (viewports != null && service != null) {
+			StringBuilder head = new StringBuilder();
+			StringBuilder script = new StringBuilder("<script type=\"text/javascript\">var gimvInitialViews = {");
+
+			ImageDataRequest mainRequest = CommonSettings.createMainImageDataRequest(viewports[0], viewports[1]);
+			mainRequest.setDomainBounds(CommonSettings.INITIAL_BOUNDS);
+			ImageDataRequest overviewRequest = CommonSettings.createOverviewImageDataRequest(viewports[2], viewports[3]);
+
+			//rendered in parallel, with the data loaded once
+			List<ImageDataResponse> responses = service.getImageDataBatch(new ArrayList<ImageDataRequest>(Arrays.asList(mainRequest, overviewRequest)));
+
+			appendInitialView(CommonSettings.INITIAL_MAIN_VIEW, mainRequest, responses.get(0), head, script);
+
+			script.append(", ");
+
+			appendInitialView(CommonSettings.INITIAL_OVERVIEW_VIEW, overviewRequest, responses.get(1), head, script);
+
+			script.append("};</script>\n");
+
+			//before the module script, so the state is available when the module starts
+			hostPage = hostPage.replace("<script type=\"text/javascript\" language=\"javascript\" src=", head + "    " + script + "    <script type=\"text/javascript\" language=\"javascript\" src=");
+		}
+
+		response.setContentType("text/html; charset=UTF-8");
+		response.setHeader("Cache-Control", "no-cache");
+		response.getOutputStream().write(hostPage.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void appendInitialView(String name, ImageDataRequest imageDataRequest, ImageDataResponse imageDataResponse, StringBuilder head, StringBuilder script) throws ServletException {
+		script.append(name).append(": ");
+
+		if (imageDataResponse == null) {
+			script.append("null");
+			return;
+		}
+
+		try {
+			//the same encoding as a regular RPC response, so the client can deserialize it with the service proxy
+			Method method = JFreechartSampleDataService.class.getMethod("getImageData", ImageDataRequest.class);
+			String payload = RPC.encodeResponseForSuccess(method, imageDataResponse);
+
+			script.append("{width: ").append(imageDataRequest.getWidth())
+				.append(", height: ").append(imageDataRequest.getHeight())
+				.append(", response: \"").append(escapeJavaScript(payload)).append("\"}");
+
+		} catch (Exception e) {
+			throw new ServletException(e);
+		}
+
+		//an embedded image is already part of the page
+		if (!imageDataResponse.getImageUrl().startsWith("data:")) {
+			head.append("<link rel=\"preload\" as=\"image\" href=\"").append(imageDataResponse.getImageUrl().replace("&", "&amp;").replace("\"", "&quot;")).append("\">\n");
+		}
+	}
+
+	private int[] readViewportsCookie(HttpServletRequest request) {
+		if (request.getCookies() != null) {
+			for (Cookie cookie : request.getCookies()) {
+				if (CommonSettings.VIEWPORTS_COOKIE.equals(cookie.getName())) {
+					String[] values = cookie.getValue().split("_");
+
+					try {
+						int[] viewports = new int[4];
+						for (int i = 0; i < viewports.length; i++) {
+							viewports[i] = Integer.parseInt(values[i]);
+
+							if (viewports[i] <= 0 || viewports[i] > 10000) {
+								return null;
+							}
+						}
+
+						return viewports;
+
+					} catch (RuntimeException e) {
+						return null;
+					}
+				}
+			}
+		}
+
+		return null;
+	}
+
+	private String readHostPage() throws IOException {
+		try (InputStream in = getServletContext().getResourceAsStream(HOST_PAGE)) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+	private static String escapeJavaScript(String value) {
+		StringBuilder escaped = new StringBuilder(value.length() + 16);
+
+		for (char c : value.toCharArray()) {
+			switch (c) {
+				case '\\': escaped.append("\\\\"); break;
+				case '"': escaped.append("\\\""); break;
+				case '\n': escaped.append("\\n"); break;
+				case '\r': escaped.append("\\r"); break;
+				case '<': escaped.append("\\u003c"); break; //no closing script tag
+				case '\u2028': escaped.append("\\u2028"); break;
+				case '\u2029': escaped.append("\\u2029"); break;
+				default: escaped.append(c);
+			}
+		}
+
+		return escaped.toString();
+	}
+}
@@ -0,0 +1,221 @@
+package org.eesgmbh.gimv.samples.jfreechart.server;
+
+import org.eesgmbh.gimv.samples.jfreechart.shared.ImageDataRequest;
+import org.eesgmbh.gimv.shared.util.Bounds;
+import org.eesgmbh.gimv.shared.util.Validate;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Serves chart images from stateless URLs. The URL contains all render parameters and the version of the
+ * data (see {@link #createUrl}), so any instance can render any URL on request and the same chart always has the same URL.
+ * The URL is also the image entities handle, so any instance can produce the tooltips of a chart as well.
+ *
+ * The images are sent with a strong ETag derived from the parameters and, as long as the data version is current,
+ * cacheable forever by browsers and proxies. Conditional requests are answered with 304 without rendering.
+ */
+@SuppressWarnings("serial")
+public class JFreechartSampleImageServlet extends HttpServlet {
+
+	static final String PATH = "gimvsamples_jfreechart/jfreechart/chart";
+
+	private static final String CACHE_FOREVER = "public, max-age=31536000, immutable";
+
+	@Override
+	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		JFreechartSampleServiceImpl service = JFreechartSampleServiceImpl.get(getServletContext());
+		if (service == null) {
+			response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+			return;
+		}
+
+		ImageDataRequest imageDataRequest;
+		long requestedDataVersion;
+		try {
+			imageDataRequest = parseUrl(request.getQueryString());
+			requestedDataVersion = Long.parseLong(parameter(request.getQueryString(), "v"));
+		} catch (RuntimeException e) {
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+			return;
+		}
+
+		long dataVersion;
+		try {
+			dataVersion = service.getDataVersion(imageDataRequest.getStation());
+		} catch (Exception e) {
+			throw new ServletException(e);
+		}
+
+		//the ETag identifies what is actually rendered, an outdated URL gets the current data
+		String url = createUrl(imageDataRequest, dataVersion);
+		String eTag = "\"" + digest(url) + "\"";
+
+		response.setHeader("ETag", eTag);
+		response.setHeader("Cache-Control", requestedDataVersion == dataVersion ? CACHE_FOREVER : "no-cache");
+
+		if (matches(request.getHeader("If-None-Match"), eTag)) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+
+		byte[] png;
+		try {
+			png = service.getChartImage(url, imageDataRequest);
+		} catch (Exception e) {
+			throw new ServletException(e);
+		}
+
+		response.setContentType("image/png");
+		response.setContentLength(png.length);
+		response.getOutputStream().write(png);
+	}
+
+	/**
+	 * Creates the URL of a chart image. The parameters are normalized and always in the same order,
+	 * so equal requests result in equal URLs. The station is encoded explicitly, charts of different
+	 * stations never share a URL, even if their titles are equal.
+	 *
+	 * @param imageDataRequest the render parameters, the embedding threshold is not part of the URL
+	 * @param dataVersion the version of the data to be rendered
+	 * @return the URL relative to the host page
+	 * @throws IllegalArgumentException if the bounds or one of its values are not set
+	 */
+	static String createUrl(ImageDataRequest imageDataRequest, long dataVersion) {
+		Bounds bounds = Validate.notNull(imageDataRequest.getBounds(), "bounds must not be null");
+		Validate.notNull(bounds.getLeft(), "left bound must not be null");
+		Validate.notNull(bounds.getRight(), "right bound must not be null");
+		Validate.notNull(bounds.getTop(), "top bound must not be null");
+		Validate.notNull(bounds.getBottom(), "bottom bound must not be null");
+
+		int flags = (imageDataRequest.generateLegend() ? 1 : 0)
+				| (imageDataRequest.generateTooltips() ? 2 : 0)
+				| (imageDataRequest.showRangeAxis() ? 4 : 0)
+				| (imageDataRequest.noPlotInsets() ? 8 : 0);
+
+		StringBuilder url = new StringBuilder(PATH).append('?');
+		url.append("s=").append(encode(Validate.notNull(imageDataRequest.getStation(), "station must not be null")));
+		url.append("&w=").append(imageDataRequest.getWidth());
+		url.append("&h=").append(imageDataRequest.getHeight());
+		url.append("&l=").append(normalize(bounds.getLeft()));
+		url.append("&r=").append(normalize(bounds.getRight()));
+		url.append("&t=").append(normalize(bounds.getTop()));
+		url.append("&b=").append(normalize(bounds.getBottom()));
+		url.append("&f=").append(flags);
+		appendText(url, "title", imageDataRequest.getTitle());
+		appendText(url, "x", imageDataRequest.getxAxisLabel());
+		appendText(url, "y", imageDataRequest.getyAxisLabel());
+		url.append("&v=").append(dataVersion);
+
+		return url.toString();
+	}
+
+	/**
+	 * @param queryString the query string of a URL created by {@link #createUrl}
+	 * @return the render parameters
+	 * @throws RuntimeException if a parameter is missing or malformed
+	 */
+	static ImageDataRequest parseUrl(String queryString) {
+		int flags = Integer.parseInt(parameter(queryString, "f"));
+
+		ImageDataRequest imageDataRequest = new ImageDataRequest(
+				new Bounds(
+						Double.parseDouble(parameter(queryString, "l")),
+						Double.parseDouble(parameter(queryString, "r")),
+						Double.parseDouble(parameter(queryString, "t")),
+						Double.parseDouble(parameter(queryString, "b"))),
+				Integer.parseInt(parameter(queryString, "w")),
+				Integer.parseInt(parameter(queryString, "h")),
+				optionalParameter(queryString, "title"),
+				optionalParameter(queryString, "x"),
+				optionalParameter(queryString, "y"),
+				(flags & 1) != 0,
+				(flags & 2) != 0,
+				(flags & 4) != 0,
+				(flags & 8) != 0);
+		imageDataRequest.setStation(parameter(queryString, "s"));
+
+		return imageDataRequest;
+	}
+
+	//the bounds are usually whole milliseconds and centimeters, written without exponent and trailing zeros
+	private static String normalize(Double value) {
+		return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+	}
+
+	private static void appendText(StringBuilder url, String name, String value) {
+		if (value != null) {
+			url.append('&').append(name).append('=').append(encode(value));
+		}
+	}
+
+	private static String encode(String value) {
+		try {
+			return URLEncoder.encode(value, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String parameter(String queryString, String name) {
+		String value = optionalParameter(queryString, name);
+		if (value == null) {
+			throw new IllegalArgumentException("Missing parameter " + name);
+		}
+
+		return value;
+	}
+
+	private static String optionalParameter(String queryString, String name) {
+		if (queryString != null) {
+			for (String parameter : queryString.split("&")) {
+				if (parameter.startsWith(name + "=")) {
+					try {
+						return URLDecoder.decode(parameter.substring(name.length() + 1), "UTF-8");
+					} catch (UnsupportedEncodingException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+			}
+		}
+
+		return null;
+	}
+
+	private static boolean matches(String ifNoneMatch, String eTag) {
+		if (ifNoneMatch != null) {
+			for (String candidate : ifNoneMatch.split(",")) {
+				if (candidate.trim().equals(eTag) || candidate.trim().equals("*")) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private static String digest(String url) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+
+			StringBuilder hex = new StringBuilder();
+			for (int i = 0; i < 16; i++) {
+				hex.append(String.format("%02x", hash[i]));
+			}
+
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
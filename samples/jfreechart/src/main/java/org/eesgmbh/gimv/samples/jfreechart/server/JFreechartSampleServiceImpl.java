@@ -9,9 +9,10 @@ import org.eesgmbh.gimv.samples.jfreechart.shared.CommonSettings;
 import org.eesgmbh.gimv.samples.jfreechart.shared.ImageDataRequest;
 import org.eesgmbh.gimv.samples.jfreechart.shared.ImageDataResponse;
 import org.eesgmbh.gimv.shared.util.Bounds;
-import org.eesgmbh.gimv.shared.util.ImageEntity;
+import org.eesgmbh.gimv.shared.util.ImageEntityBatch;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartRenderingInfo;
+import org.jfree.chart.ChartUtilities;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.entity.EntityCollection;
 import org.jfree.chart.entity.StandardEntityCollection;
@@ -26,87 +27,312 @@ import org.jfree.data.time.TimeSeriesCollection;
 import org.jfree.data.xy.XYDataset;
 import org.jfree.ui.RectangleInsets;
 
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
 import java.awt.*;
 import java.awt.geom.Rectangle2D;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse.BodyHandlers;
-import java.text.ParseException;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @SuppressWarnings("serial")
 public class JFreechartSampleServiceImpl extends RemoteServiceServlet implements JFreechartSampleDataService {
 
+	private static final long MEASUREMENTS_MAX_AGE_MILLIS = 60 * 1000;
+
 	private final HttpClient pegelonlineHttpClient = HttpClient.newHttpClient();
 	private final ObjectMapper pegelonlineMeasurementsObjectMapper = new ObjectMapper().registerModules(new JavaTimeModule());
 
-	@SuppressWarnings("deprecation")
+	//the entities of the recently rendered charts by image entities handle, converted right away, so no chart or dataset is kept
+	private final Map<String, ImageEntityBatch> recentImageEntities = Collections.synchronizedMap(new LinkedHashMap<String, ImageEntityBatch>() {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, ImageEntityBatch> eldest) {
+			return size() > 200;
+		}
+	});
+
+	//the recently rendered images by URL, so the image request following an RPC needs no second rendering
+	private final Map<String, byte[]> recentImages = Collections.synchronizedMap(new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+			return size() > 100;
+		}
+	});
+
+	//the measurements of each station are shared by all renderings for a while, their version is part of the image URLs
+	private final Map<String, PegelonlineMeasurements> measurementsByStation = new HashMap<String, PegelonlineMeasurements>();
+
+	//images are served from URLs containing all render parameters, see JFreechartSampleImageServlet, instead of one time temp files
+	private boolean deterministicImageUrls;
+
+	//renders the charts of a batch in parallel
+	private final ExecutorService renderExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+	@Override
+	public void init() throws ServletException {
+		super.init();
+
+		deterministicImageUrls = !"false".equals(getInitParameter("deterministicImageUrls"));
+
+		//shared with the host page servlet, so the image entities handles of the initial views are valid
+		getServletContext().setAttribute(JFreechartSampleServiceImpl.class.getName(), this);
+	}
+
+	@Override
+	public void destroy() {
+		renderExecutor.shutdown();
+
+		super.destroy();
+	}
+
+	/**
+	 * @return the instance serving the RPC requests, null if not yet initialized
+	 */
+	static JFreechartSampleServiceImpl get(ServletContext servletContext) {
+		return (JFreechartSampleServiceImpl) servletContext.getAttribute(JFreechartSampleServiceImpl.class.getName());
+	}
+
+	/**
+	 * @param station the PEGELONLINE station
+	 * @return the version of the current measurements, the timestamp of the latest measurement
+	 */
+	long getDataVersion(String station) throws IOException, InterruptedException {
+		return loadPegelonlineMeasurements(station).version;
+	}
+
+	/**
+	 * Returns the image recently rendered for the URL or renders it with the current measurements.
+	 *
+	 * @param imageUrl the URL created by {@link JFreechartSampleImageServlet#createUrl}
+	 * @param imageDataRequest the render parameters contained in the URL
+	 * @return the png
+	 */
+	byte[] getChartImage(String imageUrl, ImageDataRequest imageDataRequest) throws IOException, InterruptedException {
+		byte[] png = recentImages.get(imageUrl);
+
+		if (png == null) {
+			png = renderPng(imageDataRequest, loadPegelonlineMeasurements(imageDataRequest.getStation()).values, new ChartRenderingInfo(new StandardEntityCollection())).toByteArray();
+			recentImages.put(imageUrl, png);
+		}
+
+		return png;
+	}
+
 	public ImageDataResponse getImageData(ImageDataRequest imageDataRequest) {
 		try {
-			JFreeChart chart = ChartFactory.createTimeSeriesChart(
-					imageDataRequest.getTitle(), // title
-					imageDataRequest.getxAxisLabel(), // x-axis label
-					imageDataRequest.getyAxisLabel(), // y-axis label
-					null, //no dataset yet
-					imageDataRequest.generateLegend(), // create legend?
-					imageDataRequest.generateTooltips(), // generate tooltips?
-					false // generate URLs?
-			);
-
-			XYDataset dataset1 = createPegelonlineSampleDataset(imageDataRequest, new DatasetGroup("1"));
-
-			XYPlot plot = (XYPlot) chart.getPlot();
-			plot.setDataset(0, dataset1);
-
-			plot.getDomainAxis().setRange(new Range(imageDataRequest.getBounds().getLeft(), imageDataRequest.getBounds().getRight()));
-			plot.getRangeAxis().setRange(new Range(imageDataRequest.getBounds().getBottom(), imageDataRequest.getBounds().getTop()));
-			plot.getRangeAxis().setVisible(imageDataRequest.showRangeAxis());
-			plot.getRenderer().setPaint(new Color(68, 89, 139, 255));
-			plot.getRenderer().setStroke(new BasicStroke(1.5f));
-			if (imageDataRequest.noPlotInsets()) {
-				plot.setInsets(new RectangleInsets(0, 0, 0, 0));
-			}
+			return render(imageDataRequest, loadPegelonlineMeasurements(imageDataRequest.getStation()));
 
-			ChartRenderingInfo renderingInfo = new ChartRenderingInfo(new StandardEntityCollection());
+		} catch (Exception e) {
+			e.printStackTrace();
 
-			String filename = ServletUtilities.saveChartAsPNG(chart, imageDataRequest.getWidth(), imageDataRequest.getHeight(), renderingInfo, null);
+			return null;
+		}
+	}
 
-			Rectangle2D plotDataArea = renderingInfo.getPlotInfo().getDataArea();
+	public ArrayList<ImageDataResponse> getImageDataBatch(ArrayList<ImageDataRequest> imageDataRequests) {
+		ArrayList<ImageDataResponse> imageDataResponses = new ArrayList<ImageDataResponse>();
 
-			ImageDataResponse imageDataResponse = new ImageDataResponse(
-					"gimvsamples_jfreechart/jfreechart/image?filename=" + filename,
-					imageDataRequest.getBounds(),
-					CommonSettings.MAX_BOUNDS,
-					new Bounds(plotDataArea.getMinX(), plotDataArea.getMaxX(), plotDataArea.getMinY(), plotDataArea.getMaxY()),
-					createImageEntities(renderingInfo.getEntityCollection()));
+		try {
+			List<Future<ImageDataResponse>> renderings = new ArrayList<Future<ImageDataResponse>>();
+			for (final ImageDataRequest imageDataRequest : imageDataRequests) {
+				//the data is loaded once for all charts of the batch showing the same station
+				final PegelonlineMeasurements measurements = loadPegelonlineMeasurements(imageDataRequest.getStation());
 
-			return imageDataResponse;
+				renderings.add(renderExecutor.submit(() -> render(imageDataRequest, measurements)));
+			}
+
+			for (Future<ImageDataResponse> rendering : renderings) {
+				try {
+					imageDataResponses.add(rendering.get());
+				} catch (ExecutionException e) {
+					e.getCause().printStackTrace();
+
+					imageDataResponses.add(null);
+				}
+			}
 
 		} catch (Exception e) {
 			e.printStackTrace();
 
-			return null;
+			//the remaining charts could not be rendered
+			while (imageDataResponses.size() < imageDataRequests.size()) {
+				imageDataResponses.add(null);
+			}
 		}
 
+		return imageDataResponses;
+	}
+
+	private ImageDataResponse render(ImageDataRequest imageDataRequest, PegelonlineMeasurements measurements) throws IOException {
+		ChartRenderingInfo renderingInfo = new ChartRenderingInfo(new StandardEntityCollection());
+
+		ByteArrayOutputStream png = renderPng(imageDataRequest, measurements.values, renderingInfo);
+
+		String imageUrl;
+		String imageKey;
+
+		if (png.size() <= imageDataRequest.getMaxEmbeddedImageBytes()) {
+			//small images are embedded, saving the request for the image
+			imageUrl = "data:image/png;base64," + Base64.getEncoder().encodeToString(png.toByteArray());
+			imageKey = UUID.randomUUID().toString();
+		} else if (deterministicImageUrls) {
+			//the same chart always gets the same URL, so it can be cached by the browser and proxies
+			imageUrl = JFreechartSampleImageServlet.createUrl(imageDataRequest, measurements.version);
+			imageKey = imageUrl;
+			recentImages.put(imageUrl, png.toByteArray());
+		} else {
+			imageKey = saveAsTempFile(png);
+			imageUrl = "gimvsamples_jfreechart/jfreechart/image?filename=" + imageKey;
+		}
+
+		Rectangle2D plotDataArea = renderingInfo.getPlotInfo().getDataArea();
+
+		return new ImageDataResponse(
+				imageUrl,
+				imageDataRequest.getBounds(),
+				CommonSettings.MAX_BOUNDS,
+				new Bounds(plotDataArea.getMinX(), plotDataArea.getMaxX(), plotDataArea.getMinY(), plotDataArea.getMaxY()),
+				imageDataRequest.generateTooltips() ? rememberEntities(imageKey, renderingInfo.getEntityCollection()) : null);
 	}
 
-	private XYDataset createPegelonlineSampleDataset(ImageDataRequest imageDataRequest, DatasetGroup datasetGroup) throws IOException, InterruptedException, ParseException {
+	@SuppressWarnings("deprecation")
+	private ByteArrayOutputStream renderPng(ImageDataRequest imageDataRequest, List<PegelonlineMeasurement> measurements, ChartRenderingInfo renderingInfo) throws IOException {
+		JFreeChart chart = ChartFactory.createTimeSeriesChart(
+				imageDataRequest.getTitle(), // title
+				imageDataRequest.getxAxisLabel(), // x-axis label
+				imageDataRequest.getyAxisLabel(), // y-axis label
+				null, //no dataset yet
+				imageDataRequest.generateLegend(), // create legend?
+				imageDataRequest.generateTooltips(), // generate tooltips?
+				false // generate URLs?
+		);
+
+		XYDataset dataset1 = createPegelonlineSampleDataset(imageDataRequest, measurements, new DatasetGroup("1"));
+
+		XYPlot plot = (XYPlot) chart.getPlot();
+		plot.setDataset(0, dataset1);
+
+		plot.getDomainAxis().setRange(new Range(imageDataRequest.getBounds().getLeft(), imageDataRequest.getBounds().getRight()));
+		plot.getRangeAxis().setRange(new Range(imageDataRequest.getBounds().getBottom(), imageDataRequest.getBounds().getTop()));
+		plot.getRangeAxis().setVisible(imageDataRequest.showRangeAxis());
+		plot.getRenderer().setPaint(new Color(68, 89, 139, 255));
+		plot.getRenderer().setStroke(new BasicStroke(1.5f));
+		if (imageDataRequest.noPlotInsets()) {
+			plot.setInsets(new RectangleInsets(0, 0, 0, 0));
+		}
+
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		ChartUtilities.writeChartAsPNG(png, chart, imageDataRequest.getWidth(), imageDataRequest.getHeight(), renderingInfo);
+
+		return png;
+	}
+
+	public ImageEntityBatch getImageEntities(String imageEntitiesHandle) {
+		ImageEntityBatch imageEntities = recentImageEntities.get(imageEntitiesHandle);
+
+		if (imageEntities == null && imageEntitiesHandle != null && imageEntitiesHandle.startsWith(JFreechartSampleImageServlet.PATH + "?")) {
+			//rendered by another instance or evicted, the handle is the image URL containing all render parameters
+			try {
+				imageEntities = renderImageEntities(imageEntitiesHandle);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+
+		//expired, no tooltips for this image
+		return imageEntities != null ? imageEntities : new ImageEntityBatch(0);
+	}
+
+	/**
+	 * Renders the chart of an image URL again, just for its image entities. Like the image itself
+	 * (see {@link JFreechartSampleImageServlet}), it is rendered with the current measurements.
+	 */
+	private ImageEntityBatch renderImageEntities(String imageUrl) throws IOException, InterruptedException {
+		ImageDataRequest imageDataRequest = JFreechartSampleImageServlet.parseUrl(imageUrl.substring(JFreechartSampleImageServlet.PATH.length() + 1));
+
+		if (!imageDataRequest.generateTooltips()) {
+			return new ImageEntityBatch(0);
+		}
+
+		ChartRenderingInfo renderingInfo = new ChartRenderingInfo(new StandardEntityCollection());
+		renderPng(imageDataRequest, loadPegelonlineMeasurements(imageDataRequest.getStation()).values, renderingInfo);
+
+		ImageEntityBatch imageEntities = createImageEntities(renderingInfo.getEntityCollection());
+		recentImageEntities.put(imageUrl, imageEntities);
+
+		return imageEntities;
+	}
+
+	private String rememberEntities(String imageKey, EntityCollection entities) {
+		recentImageEntities.put(imageKey, createImageEntities(entities));
+
+		return imageKey;
+	}
+
+	/**
+	 * Does what {@link ServletUtilities#saveChartAsPNG} does without a session, with the already rendered image
+	 *
+	 * @return the filename to be served by the DisplayChart servlet
+	 */
+	private String saveAsTempFile(ByteArrayOutputStream png) throws IOException {
+		File tempDir = new File(System.getProperty("java.io.tmpdir"));
+		File tempFile = File.createTempFile(ServletUtilities.getTempOneTimeFilePrefix(), ".png", tempDir);
+
+		try (OutputStream out = new FileOutputStream(tempFile)) {
+			png.writeTo(out);
+		}
+
+		return tempFile.getName();
+	}
+
+	private synchronized PegelonlineMeasurements loadPegelonlineMeasurements(String station) throws IOException, InterruptedException {
+		PegelonlineMeasurements measurements = measurementsByStation.get(station);
+
+		if (measurements == null || System.currentTimeMillis() - measurements.loaded > MEASUREMENTS_MAX_AGE_MILLIS) {
+			measurements = new PegelonlineMeasurements(downloadPegelonlineMeasurements(station));
+			measurementsByStation.put(station, measurements);
+		}
+
+		return measurements;
+	}
+
+	private List<PegelonlineMeasurement> downloadPegelonlineMeasurements(String station) throws IOException, InterruptedException {
 		HttpRequest request = HttpRequest.newBuilder()
-				.uri(URI.create("https://pegelonline.wsv.de/webservices/rest-api/v2/stations/MAXAU/W/measurements.json?start=P" + CommonSettings.MAX_RANGE_IN_DAYS + "D"))
+				.uri(URI.create("https://pegelonline.wsv.de/webservices/rest-api/v2/stations/" + URLEncoder.encode(station, StandardCharsets.UTF_8).replace("+", "%20")
+						+ "/W/measurements.json?start=P" + CommonSettings.MAX_RANGE_IN_DAYS + "D"))
 				.GET()
 				.build();
 
 		String response = pegelonlineHttpClient.send(request, BodyHandlers.ofString()).body();
 
-		List<PegelonlineMeasurement> measurements = pegelonlineMeasurementsObjectMapper.readValue(response, new TypeReference<>() {});
+		return pegelonlineMeasurementsObjectMapper.readValue(response, new TypeReference<>() {});
+	}
 
-		TimeSeries timeSeries = new TimeSeries("MAXAU", Minute.class);
+	private XYDataset createPegelonlineSampleDataset(ImageDataRequest imageDataRequest, List<PegelonlineMeasurement> measurements, DatasetGroup datasetGroup) {
+		TimeSeries timeSeries = new TimeSeries(imageDataRequest.getStation(), Minute.class);
 		for (PegelonlineMeasurement measurement : measurements) {
 			if (imageDataRequest.getBounds().containsHorizontally(measurement.timestamp.toEpochSecond()*1000) && imageDataRequest.getBounds().containsVertically(measurement.value)) {
 				timeSeries.add(new Minute(Date.from(measurement.timestamp.toInstant())), measurement.value);
@@ -120,8 +346,8 @@ public class JFreechartSampleServiceImpl extends RemoteServiceServlet implements
 		return dataset;
 	}
 
-	private ArrayList<ImageEntity> createImageEntities(EntityCollection entities) {
-		ArrayList<ImageEntity> imageEntities = new ArrayList<ImageEntity>();
+	private ImageEntityBatch createImageEntities(EntityCollection entities) {
+		ImageEntityBatch imageEntities = new ImageEntityBatch(entities.getEntityCount());
 
 		for (Iterator iter = entities.iterator(); iter.hasNext();) {
 			Object o = iter.next();
@@ -129,26 +355,44 @@ public class JFreechartSampleServiceImpl extends RemoteServiceServlet implements
 			if (o instanceof XYItemEntity) {
 				XYItemEntity e = (XYItemEntity) o;
 
-				ImageEntity imageEntity = new ImageEntity(
-						new Bounds(
-								e.getArea().getBounds2D().getMinX(),
-								e.getArea().getBounds2D().getMaxX(),
-								e.getArea().getBounds2D().getMinY(),
-								e.getArea().getBounds2D().getMaxY()),
+				int index = imageEntities.add(
+						e.getArea().getBounds2D().getMinX(),
+						e.getArea().getBounds2D().getMaxX(),
+						e.getArea().getBounds2D().getMinY(),
+						e.getArea().getBounds2D().getMaxY(),
 						e.getDataset().getGroup().getID());
 
 				double time = e.getDataset().getXValue(e.getSeriesIndex(), e.getItem());
 				double value = e.getDataset().getYValue(e.getSeriesIndex(), e.getItem());
 
-				imageEntity.putHoverHtmlFragment("<span style=\"background-color:yellow; \">" + value + " on " + new Date((long)time) + "</span>");
-
-				imageEntities.add(imageEntity);
+				//the tooltip html is produced on the client, see JFreechartSampleEntryPoint
+				imageEntities.putValues(index, time, value);
 			}
 		}
 
+		//the entity collection contains other entities too
+		imageEntities.trimToSize();
+
 		return imageEntities;
 	}
 
+	private static class PegelonlineMeasurements {
+		private final List<PegelonlineMeasurement> values;
+		private final long version;
+		private final long loaded = System.currentTimeMillis();
+
+		private PegelonlineMeasurements(List<PegelonlineMeasurement> values) {
+			this.values = values;
+
+			//the same on every instance, as long as they have downloaded the same measurements
+			long latest = 0;
+			for (PegelonlineMeasurement measurement : values) {
+				latest = Math.max(latest, measurement.timestamp.toInstant().toEpochMilli());
+			}
+			this.version = latest;
+		}
+	}
+
 	public static class PegelonlineMeasurement {
 		private OffsetDateTime timestamp;
 		private Double value;
@@ -5,6 +5,11 @@ import org.eesgmbh.gimv.shared.util.Bounds;
 public class CommonSettings {
     public static final int MAX_RANGE_IN_DAYS = 10;
 
+    /**
+     * The PEGELONLINE station, whose water level is shown by default
+     */
+    public static final String STATION = "MAXAU";
+
     public static final Bounds MAX_BOUNDS = new Bounds(
             System.currentTimeMillis() - MAX_RANGE_IN_DAYS * 24 * 60 * 60 * 1000,
             System.currentTimeMillis(),
@@ -18,4 +23,34 @@ public class CommonSettings {
     public static final Bounds INITIAL_OVERVIEW_BOUNDS = MAX_BOUNDS
             .setTop(800L)
             .setBottom(300L);
+
+    /**
+     * The dimensions of the main and overview viewport of the last visit, e.g. "800_400_800_80",
+     * so the host page servlet can render the initial views in the right size
+     */
+    public static final String VIEWPORTS_COOKIE = "gimvViewports";
+
+    /*
+     * names of the initial views embedded into the host page
+     */
+
+    public static final String INITIAL_MAIN_VIEW = "main";
+    public static final String INITIAL_OVERVIEW_VIEW = "overview";
+
+    /**
+     * The overview images are small, saving the additional request for the image outweighs
+     * the base64 overhead
+     */
+    public static final int MAX_EMBEDDED_OVERVIEW_IMAGE_BYTES = 16 * 1024;
+
+    public static ImageDataRequest createMainImageDataRequest(int width, int height) {
+        return new ImageDataRequest(width, height, "PEGELONLINE Station " + STATION, "Date", "Value", true, true, true, false);
+    }
+
+    public static ImageDataRequest createOverviewImageDataRequest(int width, int height) {
+        ImageDataRequest imageDataRequest = new ImageDataRequest(INITIAL_OVERVIEW_BOUNDS, width, height, null, null, null, false, false, false, true);
+        imageDataRequest.setMaxEmbeddedImageBytes(MAX_EMBEDDED_OVERVIEW_IMAGE_BYTES);
+
+        return imageDataRequest;
+    }
 }
@@ -12,6 +12,11 @@ public class ImageDataRequest implements IsSerializable {
 	 */
 	private Bounds bounds;
 
+	/**
+	 * the PEGELONLINE station of the water level series
+	 */
+	private String station = CommonSettings.STATION;
+
 	private int width, height;
 
 	private String title;
@@ -21,6 +26,7 @@ public class ImageDataRequest implements IsSerializable {
 	private boolean generateTooltips;
 	private boolean showRangeAxis;
 	private boolean noPlotInsets;
+	private int maxEmbeddedImageBytes;
 
 	@SuppressWarnings("unused")
 	private ImageDataRequest() {
@@ -62,6 +68,13 @@ public class ImageDataRequest implements IsSerializable {
 		this.bounds = bounds;
 	}
 
+	public String getStation() {
+		return this.station;
+	}
+	public void setStation(String station) {
+		this.station = station;
+	}
+
 	public int getWidth() {
 		return this.width;
 	}
@@ -103,4 +116,16 @@ public class ImageDataRequest implements IsSerializable {
 	public boolean noPlotInsets() {
 		return this.noPlotInsets;
 	}
+
+	public int getMaxEmbeddedImageBytes() {
+		return this.maxEmbeddedImageBytes;
+	}
+
+	/**
+	 * Images up to this size are embedded into the response as a data URI, saving
+	 * the request for the image. 0 (the default) never embeds the image.
+	 */
+	public void setMaxEmbeddedImageBytes(int maxEmbeddedImageBytes) {
+		this.maxEmbeddedImageBytes = maxEmbeddedImageBytes;
+	}
 }
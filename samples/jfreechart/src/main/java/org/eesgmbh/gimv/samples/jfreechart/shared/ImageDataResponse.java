@@ -1,9 +1,6 @@
 package org.eesgmbh.gimv.samples.jfreechart.shared;
 
-import java.util.ArrayList;
-
 import org.eesgmbh.gimv.shared.util.Bounds;
-import org.eesgmbh.gimv.shared.util.ImageEntity;
 
 import com.google.gwt.user.client.rpc.IsSerializable;
 
@@ -26,18 +23,21 @@ public class ImageDataResponse implements IsSerializable {
 	 */
 	private Bounds maxDomainBounds;
 
-	private ArrayList<ImageEntity> imageEntities; //less js-code produced when using concrete classes
+	/**
+	 * The image entities are fetched on demand with this handle, null if there are none
+	 */
+	private String imageEntitiesHandle;
 
 	@SuppressWarnings("unused")
 	private ImageDataResponse() {
 	}
 
-	public ImageDataResponse(String imageUrl, Bounds domainBounds, Bounds maxBounds, Bounds plotArea, ArrayList<ImageEntity> imageEntities) {
+	public ImageDataResponse(String imageUrl, Bounds domainBounds, Bounds maxBounds, Bounds plotArea, String imageEntitiesHandle) {
 		this.imageUrl = imageUrl;
 		this.domainBounds = domainBounds;
 		this.maxDomainBounds = maxBounds;
 		this.plotArea = plotArea;
-		this.imageEntities = imageEntities;
+		this.imageEntitiesHandle = imageEntitiesHandle;
 	}
 
 	public String getImageUrl() {
@@ -56,7 +56,7 @@ public class ImageDataResponse implements IsSerializable {
 		return this.plotArea;
 	}
 
-	public ArrayList<ImageEntity> getImageEntities() {
-		return this.imageEntities;
+	public String getImageEntitiesHandle() {
+		return this.imageEntitiesHandle;
 	}
 }
\ No newline at end of file